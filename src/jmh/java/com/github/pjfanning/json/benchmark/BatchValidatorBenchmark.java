@@ -0,0 +1,62 @@
+package com.github.pjfanning.json.benchmark;
+
+import com.github.pjfanning.json.BatchResult;
+import com.github.pjfanning.json.BatchValidator;
+import com.github.pjfanning.json.StreamReadConstraints;
+import com.github.pjfanning.json.Utf8ScanningLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares checking a batch of documents one after the other with {@link BatchValidator} on the common
+ * <code>ForkJoinPool</code>. The speed-up should follow the number of cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchValidatorBenchmark {
+
+    @Param({"small-numbers.json", "wide-object.json"})
+    public String corpus;
+
+    @Param({"256"})
+    public int documents;
+
+    private final StreamReadConstraints constraints = StreamReadConstraints.defaults();
+    private final BatchValidator batchValidator = BatchValidator.create();
+    private List<byte[]> inputs;
+
+    @Setup
+    public void setup() {
+        inputs = Collections.nCopies(documents, Corpus.load(corpus));
+    }
+
+    @Benchmark
+    public void sequential() throws IOException {
+        for (byte[] input : inputs) {
+            Utf8ScanningLimiter.check(constraints, input);
+        }
+    }
+
+    @Benchmark
+    public BatchResult batch() throws InterruptedException {
+        return batchValidator.validate(inputs, input -> Utf8ScanningLimiter.check(constraints, input));
+    }
+}
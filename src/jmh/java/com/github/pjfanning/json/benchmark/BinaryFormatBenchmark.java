@@ -0,0 +1,84 @@
+package com.github.pjfanning.json.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.pjfanning.json.SizeLimiter;
+import com.github.pjfanning.json.StreamReadConstraints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same documents as JSON, Smile and CBOR: <code>validateBytes</code> validates a <code>byte[]</code>
+ * (which CBOR scans from its length prefixes), <code>validateStream</code> parses a stream with Jackson
+ * in every format.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinaryFormatBenchmark {
+
+    @Param({"small-numbers.json", "wide-object.json", "huge-strings.json"})
+    public String corpus;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    private SizeLimiter limiter;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        final JsonFactory factory;
+        switch (format) {
+            case "smile":
+                factory = new SmileFactory();
+                break;
+            case "cbor":
+                factory = new CBORFactory();
+                break;
+            default:
+                factory = new JsonFactory();
+        }
+        limiter = SizeLimiter.create(StreamReadConstraints.defaults(), factory);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonParser parser = new JsonFactory().createParser(Corpus.load(corpus));
+             JsonGenerator generator = factory.createGenerator(out)) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        bytes = out.toByteArray();
+    }
+
+    @Benchmark
+    public void validateBytes() throws IOException {
+        limiter.check(bytes);
+    }
+
+    @Benchmark
+    public void validateStream() throws IOException {
+        limiter.check(new ByteArrayInputStream(bytes));
+    }
+}
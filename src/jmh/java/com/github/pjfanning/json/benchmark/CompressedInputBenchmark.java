@@ -0,0 +1,66 @@
+package com.github.pjfanning.json.benchmark;
+
+import com.github.pjfanning.json.Compression;
+import com.github.pjfanning.json.SizeLimiter;
+import com.github.pjfanning.json.StreamReadConstraints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip input: <code>checkGzip</code> decompresses with a pooled inflater straight into the parser's
+ * buffer, <code>gzipInputStream</code> is the usual <code>GZIPInputStream</code> (a new inflater per
+ * body) in front of {@link SizeLimiter#check(java.io.InputStream)}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressedInputBenchmark {
+
+    @Param({"small-numbers.json", "wide-object.json"})
+    public String corpus;
+
+    private final SizeLimiter limiter = SizeLimiter.create(StreamReadConstraints.defaults());
+    private byte[] gzipped;
+
+    @Setup
+    public void setup() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(Corpus.load(corpus));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        gzipped = bytes.toByteArray();
+    }
+
+    @Benchmark
+    public void checkGzip() throws IOException {
+        limiter.check(new ByteArrayInputStream(gzipped), Compression.GZIP);
+    }
+
+    @Benchmark
+    public void gzipInputStream() throws IOException {
+        limiter.check(new GZIPInputStream(new ByteArrayInputStream(gzipped)));
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.pjfanning.json.benchmark;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+final class Corpus {
+
+    private Corpus() {}
+
+    static byte[] load(final String name) {
+        try (InputStream in = Corpus.class.getResourceAsStream("/corpus/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Unknown corpus: " + name);
+            }
+            return IOUtils.toByteArray(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
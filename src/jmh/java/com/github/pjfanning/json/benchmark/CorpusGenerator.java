@@ -0,0 +1,114 @@
+package com.github.pjfanning.json.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Generates the benchmark corpora that are checked in under <code>src/test/resources/corpus</code>.
+ * <p>
+ * The output is deterministic, so re-running the generator only produces a diff when the
+ * generator itself changes.
+ * </p>
+ * Usage: <code>CorpusGenerator [outputDir]</code>
+ */
+public class CorpusGenerator {
+
+    static final String[] CORPORA = {
+            "deep-nesting.json",
+            "small-numbers.json",
+            "huge-strings.json",
+            "wide-object.json"
+    };
+
+    public static void main(String[] args) throws IOException {
+        final Path dir = Paths.get(args.length > 0 ? args[0] : "src/test/resources/corpus");
+        Files.createDirectories(dir);
+        write(dir.resolve("deep-nesting.json"), deepNesting(500));
+        write(dir.resolve("small-numbers.json"), smallNumbers(20_000));
+        write(dir.resolve("huge-strings.json"), hugeStrings(3, 64 * 1024));
+        write(dir.resolve("wide-object.json"), wideObject(5_000));
+    }
+
+    static String deepNesting(final int depth) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            sb.append("{\"level\":").append(i)
+                    .append(",\"name\":\"node-").append(i)
+                    .append("\",\"tags\":[\"a\",\"b\"],\"child\":");
+        }
+        sb.append("null");
+        for (int i = 0; i < depth; i++) {
+            sb.append('}');
+        }
+        return sb.toString();
+    }
+
+    static String smallNumbers(final int count) {
+        final Random random = new Random(42);
+        final StringBuilder sb = new StringBuilder("{\"values\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            if (random.nextBoolean()) {
+                sb.append(random.nextInt(100_000) - 50_000);
+            } else {
+                sb.append(random.nextInt(10_000) / 100.0);
+            }
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    static String hugeStrings(final int count, final int length) {
+        final Random random = new Random(42);
+        final StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("\"text").append(i).append("\":\"");
+            for (int j = 0; j < length; j++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            sb.append('"');
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    static String wideObject(final int fields) {
+        final Random random = new Random(42);
+        final StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < fields; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("\"field-").append(i).append("\":");
+            switch (i % 4) {
+                case 0:
+                    sb.append(random.nextInt());
+                    break;
+                case 1:
+                    sb.append("\"value-").append(random.nextInt(1_000_000)).append('"');
+                    break;
+                case 2:
+                    sb.append(random.nextBoolean());
+                    break;
+                default:
+                    sb.append(random.nextDouble());
+                    break;
+            }
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static void write(final Path path, final String json) throws IOException {
+        Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+    }
+}
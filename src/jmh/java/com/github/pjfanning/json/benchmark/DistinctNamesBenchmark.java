@@ -0,0 +1,69 @@
+package com.github.pjfanning.json.benchmark;
+
+import com.github.pjfanning.json.SizeLimiter;
+import com.github.pjfanning.json.StreamReadConstraints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of counting distinct field names: the <code>unlimited</code> benchmarks validate with the default
+ * constraints, the <code>distinctNames</code> ones with a limit on distinct names, which hashes every name.
+ * The bytes are validated by the byte scanner, the string by the Jackson based checks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DistinctNamesBenchmark {
+
+    @Param({"small-numbers.json", "wide-object.json"})
+    public String corpus;
+
+    private final SizeLimiter unlimitedLimiter = SizeLimiter.create(StreamReadConstraints.defaults());
+    private final SizeLimiter distinctNamesLimiter = SizeLimiter.create(StreamReadConstraints.builder()
+            .maxDistinctNames(1_000_000)
+            .build());
+    private byte[] bytes;
+    private String string;
+
+    @Setup
+    public void setup() {
+        bytes = Corpus.load(corpus);
+        string = new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void unlimitedBytes() throws IOException {
+        unlimitedLimiter.check(bytes);
+    }
+
+    @Benchmark
+    public void distinctNamesBytes() throws IOException {
+        distinctNamesLimiter.check(bytes);
+    }
+
+    @Benchmark
+    public void unlimitedString() throws IOException {
+        unlimitedLimiter.check(string);
+    }
+
+    @Benchmark
+    public void distinctNamesString() throws IOException {
+        distinctNamesLimiter.check(string);
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.pjfanning.json.benchmark;
+
+import com.github.pjfanning.json.SizeLimiter;
+import com.github.pjfanning.json.StreamReadConstraints;
+import com.github.pjfanning.json.Utf8ScanningLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares validating a file through {@link SizeLimiter#check(Path)} (size pre-check and memory mapping)
+ * with opening an <code>InputStream</code> on it. The file is an array that repeats a corpus until it
+ * reaches <code>sizeMb</code>; run with e.g. <code>-p sizeMb=1500</code> for large files
+ * (the maximum total length is an <code>int</code>, so files must stay below 2GB).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileBenchmark {
+
+    @Param({"small-numbers.json", "huge-strings.json"})
+    public String corpus;
+
+    @Param({"64"})
+    public int sizeMb;
+
+    private final StreamReadConstraints constraints = StreamReadConstraints.builder()
+            .maxTotalLength(Integer.MAX_VALUE)
+            .build();
+    private final SizeLimiter limiter = SizeLimiter.create(constraints);
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        final byte[] bytes = Corpus.load(corpus);
+        final long target = sizeMb * 1024L * 1024L;
+        file = Files.createTempFile("json-size-limiter", ".json");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            out.write('[');
+            out.write(bytes);
+            for (long written = bytes.length + 1; written < target; written += bytes.length + 1) {
+                out.write(',');
+                out.write(bytes);
+            }
+            out.write(']');
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void jacksonInputStream() throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            limiter.check(in);
+        }
+    }
+
+    @Benchmark
+    public void path() throws IOException {
+        limiter.check(file);
+    }
+
+    @Benchmark
+    public void scannerInputStream() throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            Utf8ScanningLimiter.check(constraints, in);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.pjfanning.json.benchmark;
+
+import com.github.pjfanning.json.ParallelArrayValidator;
+import com.github.pjfanning.json.StreamReadConstraints;
+import com.github.pjfanning.json.Utf8ScanningLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares checking one large top-level array sequentially with {@link ParallelArrayValidator} on the
+ * common <code>ForkJoinPool</code>. The speed-up is bounded by the serial pre-scan that cuts the array,
+ * so it stays below the number of cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelArrayValidatorBenchmark {
+
+    @Param({"small-numbers.json", "huge-strings.json"})
+    public String corpus;
+
+    @Param({"64"})
+    public int sizeMb;
+
+    private final StreamReadConstraints constraints = StreamReadConstraints.builder()
+            .maxTotalLength(Integer.MAX_VALUE)
+            .build();
+    private final ParallelArrayValidator validator = ParallelArrayValidator.create(constraints);
+    private byte[] input;
+
+    @Setup
+    public void setup() {
+        final byte[] bytes = Corpus.load(corpus);
+        final int target = sizeMb * 1024 * 1024;
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(target + bytes.length + 2);
+        out.write('[');
+        out.writeBytes(bytes);
+        while (out.size() < target) {
+            out.write(',');
+            out.writeBytes(bytes);
+        }
+        out.write(']');
+        input = out.toByteArray();
+    }
+
+    @Benchmark
+    public void sequential() throws IOException {
+        Utf8ScanningLimiter.check(constraints, input);
+    }
+
+    @Benchmark
+    public void parallel() throws IOException {
+        validator.check(input);
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.pjfanning.json.benchmark;
+
+import com.github.pjfanning.json.SizeLimiter;
+import com.github.pjfanning.json.StreamReadConstraints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of path limits: <code>globalLimits</code> validates with the default constraints,
+ * <code>pathLimits</code> with a few wildcard and named paths, which the validator walks for every token.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathConstraintsBenchmark {
+
+    @Param({"deep-nesting.json", "small-numbers.json", "huge-strings.json", "wide-object.json"})
+    public String corpus;
+
+    private final SizeLimiter globalLimiter = SizeLimiter.create(StreamReadConstraints.defaults());
+    private final SizeLimiter pathLimiter = SizeLimiter.create(StreamReadConstraints.builder()
+            .maxStringLength("/attachments/*/data", 5 * 1024 * 1024)
+            .maxStringLength("/*/name", 1000)
+            .maxArrayElements("/*", 100_000)
+            .maxNumberLength("/*/*/*", 100)
+            .build());
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        bytes = Corpus.load(corpus);
+    }
+
+    @Benchmark
+    public void globalLimits() throws IOException {
+        globalLimiter.check(bytes);
+    }
+
+    @Benchmark
+    public void pathLimits() throws IOException {
+        pathLimiter.check(bytes);
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.pjfanning.json.benchmark;
+
+import com.github.pjfanning.json.SizeLimiter;
+import com.github.pjfanning.json.StreamReadConstraints;
+import com.github.pjfanning.json.ValidationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of small payloads when most of them are rejected, as under abusive traffic:
+ * <code>check</code> builds an exception (message and stack trace) per rejection,
+ * <code>validate</code> returns a {@link ValidationResult}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RejectionBenchmark {
+
+    /** Percentage of the payloads that violate a constraint. */
+    @Param({"0", "50", "100"})
+    public int rejectedPercent;
+
+    private final SizeLimiter limiter = SizeLimiter.create(StreamReadConstraints.builder()
+            .maxStringLength(64).maxNumberLength(16).build());
+    private byte[][] payloads;
+    private int next;
+
+    @Setup
+    public void setup() {
+        payloads = new byte[100][];
+        for (int i = 0; i < payloads.length; i++) {
+            final String value = i < rejectedPercent ? "x".repeat(65) : "x".repeat(32);
+            payloads[i] = ("{\"id\":" + i + ",\"user\":{\"name\":\"" + value + "\",\"tags\":[\"a\",\"b\"]}}")
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public boolean check() {
+        try {
+            limiter.check(nextPayload());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return limiter.validate(nextPayload()).isValid();
+    }
+
+    private byte[] nextPayload() {
+        final byte[] payload = payloads[next];
+        next = next == payloads.length - 1 ? 0 : next + 1;
+        return payload;
+    }
+}
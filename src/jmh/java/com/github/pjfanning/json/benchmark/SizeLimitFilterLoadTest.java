@@ -0,0 +1,193 @@
+package com.github.pjfanning.json.benchmark;
+
+import com.github.pjfanning.json.SizeLimiter;
+import com.github.pjfanning.json.StreamReadConstraints;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Floods a local <code>HttpServer</code> that uses a {@link com.github.pjfanning.json.SizeLimitFilter} with
+ * oversize requests, and reports the latency of the responses and the memory the server uses per request.
+ * <p>
+ * Each client opens a connection per request and measures the time until the status line arrives. The
+ * scenarios are: <code>valid</code> (small bodies, for comparison), <code>content-length</code> (a declared
+ * length far above the limit, of which only the first 16KB are sent) and <code>chunked</code> (a chunked
+ * body 16KB longer than the limit). Memory is reported as the bytes allocated by the server's threads per
+ * request, and as the peak heap growth during the flood per concurrent connection.
+ * </p>
+ * Usage: <code>SizeLimitFilterLoadTest [clients] [requestsPerClient]</code>
+ */
+public class SizeLimitFilterLoadTest {
+
+    private static final int MAX_TOTAL_LENGTH = 1024 * 1024;
+    private static final int SENT = 16 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        final int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        final int requests = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        final Set<Long> serverThreads = ConcurrentHashMap.newKeySet();
+        final ExecutorService serverExecutor = Executors.newFixedThreadPool(4, runnable -> {
+            final Thread thread = new Thread(runnable, "server");
+            serverThreads.add(thread.getId());
+            return thread;
+        });
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        final HttpContext context = server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, -1L);
+            exchange.close();
+        });
+        context.getFilters().add(SizeLimiter.create(StreamReadConstraints.builder()
+                .maxTotalLength(MAX_TOTAL_LENGTH).build()).createHttpFilter());
+        server.setExecutor(serverExecutor);
+        server.start();
+        final int port = server.getAddress().getPort();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("HTTP-Dispatcher")) {
+                serverThreads.add(thread.getId());
+            }
+        }
+
+        final byte[] valid = "{\"name\":\"value\",\"list\":[1,2,3]}".getBytes(StandardCharsets.UTF_8);
+        final byte[] oversize = new byte[SENT];
+        Arrays.fill(oversize, (byte) ' ');
+        oversize[0] = '[';
+        final byte[] chunk = new byte[MAX_TOTAL_LENGTH + SENT];
+        Arrays.fill(chunk, (byte) ' ');
+        chunk[0] = '[';
+
+        try {
+            // warm up
+            run(port, clients, Math.max(1, requests / 4), "valid", valid, serverThreads, false);
+            run(port, clients, Math.max(1, requests / 4), "content-length", oversize, serverThreads, false);
+            System.out.printf("%-15s %10s %10s %10s %10s %14s %16s%n", "scenario", "req/s", "p50 us", "p99 us",
+                    "max us", "alloc B/req", "heap B/conn");
+            run(port, clients, requests, "valid", valid, serverThreads, true);
+            run(port, clients, requests, "content-length", oversize, serverThreads, true);
+            run(port, clients, Math.max(1, requests / 10), "chunked", chunk, serverThreads, true);
+        } finally {
+            server.stop(0);
+            serverExecutor.shutdownNow();
+        }
+    }
+
+    private static void run(final int port, final int clients, final int requests, final String scenario,
+                            final byte[] body, final Set<Long> serverThreads, final boolean report)
+            throws Exception {
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        final long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        final AtomicLong peakHeap = new AtomicLong(heapBefore);
+        final long allocatedBefore = allocated(threads, serverThreads);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(clients);
+        final List<Future<long[]>> futures = new ArrayList<>();
+        final long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            futures.add(executor.submit(() -> {
+                final long[] latencies = new long[requests];
+                for (int i = 0; i < requests; i++) {
+                    latencies[i] = request(port, scenario, body);
+                    peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                }
+                return latencies;
+            }));
+        }
+        final long[] all = new long[clients * requests];
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(futures.get(c).get(), 0, all, c * requests, requests);
+        }
+        final long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        final long allocated = allocated(threads, serverThreads) - allocatedBefore;
+
+        if (report) {
+            Arrays.sort(all);
+            System.out.printf("%-15s %10.0f %10d %10d %10d %14d %16d%n", scenario,
+                    all.length / (elapsed / 1e9),
+                    all[(int) (all.length * 0.50)] / 1000,
+                    all[Math.min(all.length - 1, (int) Math.ceil(all.length * 0.99))] / 1000,
+                    all[all.length - 1] / 1000,
+                    allocated / all.length,
+                    Math.max(0L, peakHeap.get() - heapBefore) / clients);
+        }
+    }
+
+    /**
+     * Sends one request on a new connection.
+     * @return nanoseconds until the status line was received
+     */
+    private static long request(final int port, final String scenario, final byte[] body) throws IOException {
+        final long start = System.nanoTime();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            final OutputStream out = socket.getOutputStream();
+            final String header;
+            switch (scenario) {
+                case "content-length":
+                    header = "Content-Length: " + (100L * MAX_TOTAL_LENGTH);
+                    break;
+                case "chunked":
+                    header = "Transfer-Encoding: chunked";
+                    break;
+                default:
+                    header = "Content-Length: " + body.length;
+            }
+            out.write(("POST / HTTP/1.1\r\nHost: localhost\r\n" + header + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            if (scenario.equals("chunked")) {
+                out.write((Integer.toHexString(body.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            }
+            out.write(body);
+            out.flush();
+            final InputStream in = socket.getInputStream();
+            final byte[] status = new byte[12];
+            int read = 0;
+            int n;
+            while (read < status.length && (n = in.read(status, read, status.length - read)) != -1) {
+                read += n;
+            }
+            final long latency = System.nanoTime() - start;
+            final String code = new String(status, 9, Math.max(0, read - 9), StandardCharsets.US_ASCII);
+            final String expected = scenario.equals("valid") ? "200" : "413";
+            if (!code.equals(expected)) {
+                throw new IllegalStateException(scenario + ": unexpected status " + code);
+            }
+            return latency;
+        }
+    }
+
+    private static long allocated(final com.sun.management.ThreadMXBean threads, final Set<Long> ids) {
+        long sum = 0L;
+        for (long id : ids) {
+            final long bytes = threads.getThreadAllocatedBytes(id);
+            if (bytes > 0L) {
+                sum += bytes;
+            }
+        }
+        return sum;
+    }
+}
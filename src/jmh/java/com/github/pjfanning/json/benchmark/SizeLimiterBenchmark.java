@@ -0,0 +1,109 @@
+package com.github.pjfanning.json.benchmark;
+
+import com.github.pjfanning.json.LimiterMetrics;
+import com.github.pjfanning.json.SizeLimiter;
+import com.github.pjfanning.json.SizeProfile;
+import com.github.pjfanning.json.StreamReadConstraints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the {@link SizeLimiter} entry points. Run with <code>./gradlew jmh</code>;
+ * the build enables the <code>gc</code> profiler so allocation rates are reported too.
+ * <code>instanceCheckStringWithMetrics</code> shows the cost of a {@link LimiterMetrics} listener, and
+ * <code>instanceCheckStringWithProfile</code> the cost of recording a {@link SizeProfile}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SizeLimiterBenchmark {
+
+    @Param({"deep-nesting.json", "small-numbers.json", "huge-strings.json", "wide-object.json"})
+    public String corpus;
+
+    private final StreamReadConstraints constraints = StreamReadConstraints.defaults();
+    private final SizeLimiter limiter = SizeLimiter.create(constraints);
+    private final SizeLimiter meteredLimiter = SizeLimiter.create(constraints, new LimiterMetrics());
+    private final SizeLimiter profilingLimiter = SizeLimiter.createProfiling(constraints, new SizeProfile());
+    private byte[] bytes;
+    private ByteBuffer directBuffer;
+    private String text;
+    private StringBuilder textBuilder;
+
+    @Setup
+    public void setup() {
+        bytes = Corpus.load(corpus);
+        directBuffer = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        text = new String(bytes, StandardCharsets.UTF_8);
+        textBuilder = new StringBuilder(text);
+    }
+
+    @Benchmark
+    public void checkString() throws IOException {
+        SizeLimiter.check(constraints, text);
+    }
+
+    @Benchmark
+    public void checkReader() throws IOException {
+        SizeLimiter.check(constraints, new StringReader(text));
+    }
+
+    @Benchmark
+    public void checkInputStream() throws IOException {
+        SizeLimiter.check(constraints, new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public void instanceCheckString() throws IOException {
+        limiter.check(text);
+    }
+
+    @Benchmark
+    public void instanceCheckStringWithMetrics() throws IOException {
+        meteredLimiter.check(text);
+    }
+
+    @Benchmark
+    public void instanceCheckStringWithProfile() throws IOException {
+        profilingLimiter.check(text);
+    }
+
+    @Benchmark
+    public void instanceCheckInputStream() throws IOException {
+        limiter.check(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public void instanceCheckBytes() throws IOException {
+        limiter.check(bytes);
+    }
+
+    @Benchmark
+    public void instanceCheckDirectBuffer() throws IOException {
+        limiter.check(directBuffer);
+    }
+
+    @Benchmark
+    public void instanceCheckStringBuilder() throws IOException {
+        limiter.check(textBuilder);
+    }
+}
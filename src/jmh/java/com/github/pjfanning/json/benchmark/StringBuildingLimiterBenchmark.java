@@ -0,0 +1,56 @@
+package com.github.pjfanning.json.benchmark;
+
+import com.github.pjfanning.json.StreamReadConstraints;
+import com.github.pjfanning.json.StringBuildingLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the {@link StringBuildingLimiter} entry points.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StringBuildingLimiterBenchmark {
+
+    @Param({"deep-nesting.json", "small-numbers.json", "huge-strings.json", "wide-object.json"})
+    public String corpus;
+
+    private final StreamReadConstraints constraints = StreamReadConstraints.defaults();
+    private byte[] bytes;
+    private String text;
+
+    @Setup
+    public void setup() {
+        bytes = Corpus.load(corpus);
+        text = new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String checkReader() throws IOException {
+        return StringBuildingLimiter.check(constraints, new StringReader(text));
+    }
+
+    @Benchmark
+    public String checkInputStream() throws IOException {
+        return StringBuildingLimiter.check(constraints, new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+    }
+}
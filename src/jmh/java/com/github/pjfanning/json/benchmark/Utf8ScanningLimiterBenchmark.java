@@ -0,0 +1,59 @@
+package com.github.pjfanning.json.benchmark;
+
+import com.github.pjfanning.json.SizeLimiter;
+import com.github.pjfanning.json.StreamReadConstraints;
+import com.github.pjfanning.json.Utf8ScanningLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the byte scanning engine with the Jackson based {@link SizeLimiter} on UTF-8 input.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Utf8ScanningLimiterBenchmark {
+
+    @Param({"deep-nesting.json", "small-numbers.json", "huge-strings.json", "wide-object.json"})
+    public String corpus;
+
+    private final StreamReadConstraints constraints = StreamReadConstraints.defaults();
+    private final SizeLimiter limiter = SizeLimiter.create(constraints);
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        bytes = Corpus.load(corpus);
+    }
+
+    @Benchmark
+    public void jacksonInputStream() throws IOException {
+        limiter.check(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public void scannerInputStream() throws IOException {
+        Utf8ScanningLimiter.check(constraints, new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public void scannerBytes() throws IOException {
+        Utf8ScanningLimiter.check(constraints, bytes);
+    }
+}
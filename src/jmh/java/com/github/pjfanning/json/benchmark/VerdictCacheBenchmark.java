@@ -0,0 +1,78 @@
+package com.github.pjfanning.json.benchmark;
+
+import com.github.pjfanning.json.LimiterListener;
+import com.github.pjfanning.json.SizeLimiter;
+import com.github.pjfanning.json.StreamReadConstraints;
+import com.github.pjfanning.json.VerdictCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a {@link VerdictCache} by payload size: <code>uncached</code> parses every payload,
+ * <code>cacheHit</code> checks the same payload again and again, <code>cacheMiss</code> cycles through
+ * more payloads than the cache holds, so it pays for hashing and storing on top of parsing.
+ * <code>cacheHit</code> is ahead of <code>uncached</code> from the smallest size, so the break-even point
+ * is the hit rate at which the hits make up for the cost that <code>cacheMiss</code> adds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VerdictCacheBenchmark {
+
+    @Param({"64", "256", "1024", "16384", "262144"})
+    public int size;
+
+    private final StreamReadConstraints constraints = StreamReadConstraints.defaults();
+    private final SizeLimiter limiter = SizeLimiter.create(constraints);
+    private final SizeLimiter cachedLimiter = SizeLimiter.create(constraints, LimiterListener.NONE,
+            VerdictCache.builder().minLength(0).build());
+    private final SizeLimiter missingLimiter = SizeLimiter.create(constraints, LimiterListener.NONE,
+            VerdictCache.builder().maxEntries(1).minLength(0).build());
+    private byte[][] payloads;
+    private int next;
+
+    @Setup
+    public void setup() {
+        payloads = new byte[64][];
+        for (int i = 0; i < payloads.length; i++) {
+            final StringBuilder sb = new StringBuilder("{\"id\":").append(i).append(",\"items\":[");
+            while (sb.length() < size - 40) {
+                sb.append("{\"name\":\"item\",\"qty\":").append(sb.length()).append("},");
+            }
+            sb.append("null]}");
+            payloads[i] = sb.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public boolean uncached() {
+        return limiter.validate(payloads[0]).isValid();
+    }
+
+    @Benchmark
+    public boolean cacheHit() {
+        return cachedLimiter.validate(payloads[0]).isValid();
+    }
+
+    @Benchmark
+    public boolean cacheMiss() {
+        final byte[] payload = payloads[next];
+        next = (next + 1) & (payloads.length - 1);
+        return missingLimiter.validate(payload).isValid();
+    }
+}
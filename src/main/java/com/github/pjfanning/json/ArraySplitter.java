@@ -0,0 +1,286 @@
+package com.github.pjfanning.json;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Structural pre-scan that cuts a top-level array into ranges of whole elements, so that the ranges can be
+ * validated concurrently with {@link Utf8Scanner#scanElements(long)}.
+ * <p>
+ * Only quotes and backslashes (in strings) and brackets and commas (outside strings) are looked at, 8 bytes
+ * at a time; nothing is validated. For valid input, each range starts after the opening bracket or a
+ * comma at depth 1 and ends before the next such comma or the closing bracket. For invalid input the
+ * ranges can be wrong, but only after the first error, so the first range that fails to scan reports
+ * the same error as scanning the whole input. {@link #isComplete()} tells whether the closing bracket
+ * was found: if not, the ranges do not cover the input.
+ * </p>
+ * Heap buffers are scanned in place, other (memory-mapped) buffers are copied a window at a time.
+ */
+final class ArraySplitter implements Iterator<ArraySplitter.Range> {
+
+    /**
+     * Positions are relative to the start of the input.
+     */
+    static final class Range {
+        final long start;
+        final long end;
+
+        Range(final long start, final long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long QUOTES = 0x2222222222222222L;
+    private static final long BACKSLASHES = 0x5C5C5C5C5C5C5C5CL;
+    private static final long COMMAS = 0x2C2C2C2C2C2C2C2CL;
+    private static final long SPACES = 0x2020202020202020L;
+    /** '[' and '{' with the 0x20 bit set. */
+    private static final long OPENS = 0x7B7B7B7B7B7B7B7BL;
+    /** ']' and '}' with the 0x20 bit set. */
+    private static final long CLOSES = 0x7D7D7D7D7D7D7D7DL;
+
+    private static final int WINDOW_SIZE = 64 * 1024;
+
+    private final ByteBuffer input;
+    private final long length;
+    private final long chunkSize;
+
+    private byte[] array;
+    /** Index in {@link #array} of input position 0 (negative for windows after the first). */
+    private long delta;
+    private int index;
+    private int windowEnd;
+
+    private final boolean isArray;
+    private boolean inString;
+    private boolean escaped;
+    private int depth;
+    private long rangeStart;
+    private boolean split;
+    private boolean done;
+    private boolean complete;
+    private Range next;
+
+    /**
+     * @param input UTF-8 input, from its position to its limit (neither is changed)
+     * @param chunkSize minimum length of a range (except the last)
+     */
+    ArraySplitter(final ByteBuffer input, final long chunkSize) {
+        this.input = input;
+        this.length = input.remaining();
+        this.chunkSize = chunkSize;
+        if (input.hasArray()) {
+            array = input.array();
+            delta = input.arrayOffset() + input.position();
+            index = (int) delta;
+            windowEnd = (int) (delta + length);
+        } else {
+            array = new byte[WINDOW_SIZE];
+            delta = 0;
+            index = 0;
+            windowEnd = 0;
+        }
+        isArray = start();
+        done = !isArray;
+    }
+
+    /**
+     * @return <code>true</code> if the input (after a BOM and white space) starts with an array
+     */
+    boolean isArray() {
+        return isArray;
+    }
+
+    /**
+     * @return <code>true</code> once the closing bracket of the array has been found
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Range next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final Range range = next;
+        next = null;
+        return range;
+    }
+
+    private boolean start() {
+        if (length >= 4 && byteAt(0) == (byte) 0xEF && byteAt(1) == (byte) 0xBB && byteAt(2) == (byte) 0xBF) {
+            index += 3;
+        }
+        for (;;) {
+            if (index >= windowEnd && !nextWindow()) {
+                return false;
+            }
+            final int c = array[index++];
+            if (c == '[') {
+                depth = 1;
+                rangeStart = index - delta;
+                return true;
+            }
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return false;
+            }
+        }
+    }
+
+    private Range advance() {
+        for (;;) {
+            if (index >= windowEnd && !nextWindow()) {
+                // end of input inside the array
+                done = true;
+                return null;
+            }
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                    index++;
+                    continue;
+                }
+                int i = index;
+                final int last = windowEnd - 8;
+                while (i <= last) {
+                    final long word = (long) LONGS.get(array, i);
+                    final long flagged = matches(word, QUOTES) | matches(word, BACKSLASHES);
+                    if (flagged != 0) {
+                        i += Long.numberOfTrailingZeros(flagged) >>> 3;
+                        break;
+                    }
+                    i += 8;
+                }
+                index = i;
+                if (i >= windowEnd) {
+                    continue;
+                }
+                final int c = array[index++];
+                if (c == '"') {
+                    inString = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                }
+            } else {
+                final long splitIndex = rangeStart + chunkSize + delta;
+                final boolean searching = depth == 1 && index >= splitIndex;
+                int i = index;
+                int last = windowEnd - 8;
+                if (depth == 1 && !searching && splitIndex < last) {
+                    // stop skipping where commas start to matter (every byte is handled exactly below)
+                    last = (int) splitIndex;
+                }
+                while (i <= last) {
+                    final long word = (long) LONGS.get(array, i);
+                    final long folded = word | SPACES;
+                    long flagged = matches(word, QUOTES) | matches(folded, OPENS) | matches(folded, CLOSES);
+                    if (searching) {
+                        flagged |= matches(word, COMMAS);
+                    }
+                    if (flagged != 0) {
+                        i += Long.numberOfTrailingZeros(flagged) >>> 3;
+                        break;
+                    }
+                    i += 8;
+                }
+                index = i;
+                if (i >= windowEnd) {
+                    continue;
+                }
+                final int c = array[index++];
+                switch (c) {
+                    case '"':
+                        inString = true;
+                        break;
+                    case '[':
+                    case '{':
+                        depth++;
+                        break;
+                    case ']':
+                    case '}':
+                        if (--depth == 0) {
+                            done = true;
+                            complete = true;
+                            final long end = index - 1 - delta;
+                            if (!split && c == ']' && isWhitespace(rangeStart, end)) {
+                                // empty array
+                                return null;
+                            }
+                            return new Range(rangeStart, end);
+                        }
+                        break;
+                    case ',':
+                        if (searching) {
+                            final Range range = new Range(rangeStart, index - 1 - delta);
+                            rangeStart = index - delta;
+                            split = true;
+                            return range;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Flags the bytes of the word that equal the pattern byte; only the lowest flag is exact.
+     */
+    private static long matches(final long word, final long pattern) {
+        final long x = word ^ pattern;
+        return (x - ONES) & ~x & HIGH_BITS;
+    }
+
+    /**
+     * Moves the window to the next bytes of a buffer that is not scanned in place.
+     * @return <code>false</code> at the end of the input
+     */
+    private boolean nextWindow() {
+        if (input.hasArray()) {
+            return false;
+        }
+        final long position = index - delta;
+        if (position >= length) {
+            return false;
+        }
+        final int count = (int) Math.min(WINDOW_SIZE, length - position);
+        input.duplicate().position(input.position() + (int) position).get(array, 0, count);
+        delta = -position;
+        index = 0;
+        windowEnd = count;
+        return true;
+    }
+
+    private byte byteAt(final long position) {
+        return input.get(input.position() + (int) position);
+    }
+
+    private boolean isWhitespace(final long from, final long to) {
+        for (long p = from; p < to; p++) {
+            final int c = byteAt(p);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
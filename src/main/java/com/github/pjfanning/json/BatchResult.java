@@ -0,0 +1,144 @@
+package com.github.pjfanning.json;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a {@link BatchValidator} run: the documents that failed (in input order) and statistics
+ * for the whole batch. Documents are identified by their position in the input (starting at 0); any
+ * document that is not listed as a failure passed.
+ */
+public class BatchResult {
+
+    /**
+     * A document that failed validation.
+     */
+    public static final class Failure implements Comparable<Failure> {
+        private final long index;
+        private final Exception exception;
+
+        Failure(final long index, final Exception exception) {
+            this.index = index;
+            this.exception = exception;
+        }
+
+        /**
+         * @return position of the document in the input
+         */
+        public long getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the exception thrown by the check (e.g. an {@link IllegalStateException},
+         * {@link NumberFormatException} or {@link java.io.IOException})
+         */
+        public Exception getException() {
+            return exception;
+        }
+
+        @Override
+        public int compareTo(final Failure other) {
+            return Long.compare(index, other.index);
+        }
+
+        @Override
+        public String toString() {
+            return "Failure{index=" + index + ", exception=" + exception + "}";
+        }
+    }
+
+    private final long documentCount;
+    private final List<Failure> failures;
+    private final long elapsedNanos;
+    private final long checkNanos;
+
+    BatchResult(final long documentCount, final List<Failure> failures, final long elapsedNanos,
+                final long checkNanos) {
+        this.documentCount = documentCount;
+        this.failures = Collections.unmodifiableList(failures);
+        this.elapsedNanos = elapsedNanos;
+        this.checkNanos = checkNanos;
+    }
+
+    /**
+     * @return number of documents checked
+     */
+    public long getDocumentCount() {
+        return documentCount;
+    }
+
+    /**
+     * @return number of documents that passed
+     */
+    public long getValidCount() {
+        return documentCount - failures.size();
+    }
+
+    /**
+     * @return number of documents that failed
+     */
+    public long getInvalidCount() {
+        return failures.size();
+    }
+
+    /**
+     * @return <code>true</code> if every document passed
+     */
+    public boolean isAllValid() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * @param index position of a document in the input
+     * @return <code>true</code> if the document passed
+     * @throws IndexOutOfBoundsException if there is no document at that position
+     */
+    public boolean isValid(final long index) {
+        if (index < 0 || index >= documentCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + documentCount);
+        }
+        int low = 0;
+        int high = failures.size() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final long midIndex = failures.get(mid).getIndex();
+            if (midIndex < index) {
+                low = mid + 1;
+            } else if (midIndex > index) {
+                high = mid - 1;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the failed documents, in input order
+     */
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return wall-clock time of the batch, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return time spent in the checks, summed over all documents, in nanoseconds
+     * (divided by {@link #getElapsedNanos()}, this is the average number of documents checked in parallel)
+     */
+    public long getCheckNanos() {
+        return checkNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{documents=" + documentCount + ", invalid=" + failures.size()
+                + ", elapsedNanos=" + elapsedNanos + ", checkNanos=" + checkNanos + "}";
+    }
+}
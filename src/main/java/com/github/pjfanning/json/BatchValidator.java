@@ -0,0 +1,253 @@
+package com.github.pjfanning.json;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Validates many independent documents concurrently.
+ * <p>
+ * Each document is checked by a task on the executor, with a {@link Check} such as
+ * <code>limiter::check</code> (for a {@link SizeLimiter} instance) or a lambda that calls
+ * {@link Utf8ScanningLimiter}. Inputs are pulled from the iterator only when a task slot is free, so at most
+ * <code>maxInFlight</code> documents are held at any time and memory stays flat however many documents
+ * the iterator produces.
+ * </p>
+ * <p>
+ * The checks themselves share no state apart from the {@link SizeLimiter}'s <code>JsonFactory</code>
+ * (whose symbol tables are designed for concurrent use), so throughput grows with the number of cores.
+ * Instances are thread-safe and can run several batches at once.
+ * </p>
+ * <p>
+ * The calling thread waits for free task slots through {@link ForkJoinPool#managedBlock}, so a batch can be
+ * run from a task of a <code>ForkJoinPool</code> (e.g. from a parallel stream, or a
+ * <code>CompletableFuture</code> that runs on the common pool): while the caller waits, the pool can start
+ * another thread to run the checks, instead of being starved of the worker the caller holds.
+ * </p>
+ */
+public class BatchValidator {
+
+    /**
+     * Validates one document.
+     * @param <T> input type
+     */
+    @FunctionalInterface
+    public interface Check<T> {
+        /**
+         * @param input document to check
+         * @throws IllegalStateException if constraints fail
+         * @throws NumberFormatException if number constraints fail
+         * @throws IOException if I/O or JSON parse issues occur
+         */
+        void check(T input) throws IOException;
+    }
+
+    private final Executor executor;
+    private final int maxInFlight;
+
+    /**
+     * Creates a validator that runs on the common <code>ForkJoinPool</code>, with up to 4 documents
+     * per thread in flight.
+     * @return a new validator
+     */
+    public static BatchValidator create() {
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        return new BatchValidator(pool, 4 * pool.getParallelism());
+    }
+
+    /**
+     * @param executor to run the checks on
+     * @param maxInFlight maximum number of documents that are being checked (or waiting to be) at once
+     * @return a new validator
+     * @throws NullPointerException if executor is <code>null</code>
+     * @throws IllegalArgumentException if maxInFlight is not positive
+     */
+    public static BatchValidator create(final Executor executor, final int maxInFlight) {
+        return new BatchValidator(executor, maxInFlight);
+    }
+
+    /**
+     * Creates a validator that starts a virtual thread per document when the JVM supports them (Java 21+),
+     * and runs on the common <code>ForkJoinPool</code> otherwise. Virtual threads pay off when the check
+     * blocks on I/O (e.g. reading files or network streams); for in-memory input, {@link #create()} is as fast.
+     * @param maxInFlight maximum number of documents that are being checked at once
+     * @return a new validator
+     * @throws IllegalArgumentException if maxInFlight is not positive
+     */
+    public static BatchValidator createWithVirtualThreads(final int maxInFlight) {
+        final ThreadFactory factory = virtualThreadFactory();
+        final Executor executor = factory == null ? ForkJoinPool.commonPool()
+                : command -> factory.newThread(command).start();
+        return new BatchValidator(executor, maxInFlight);
+    }
+
+    BatchValidator(final Executor executor, final int maxInFlight) {
+        if (executor == null) {
+            throw new NullPointerException("null executor");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Validates all the documents.
+     * @param inputs documents to check
+     * @param check validates one document
+     * @param <T> input type
+     * @return the failures and statistics of the batch
+     * @throws NullPointerException if inputs or check is <code>null</code>
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the checks
+     * @throws RejectedExecutionException if the executor does not accept a task
+     */
+    public <T> BatchResult validate(final Iterable<? extends T> inputs, final Check<? super T> check)
+            throws InterruptedException {
+        if (inputs == null) {
+            throw new NullPointerException("null inputs");
+        }
+        return validate(inputs.iterator(), check);
+    }
+
+    /**
+     * Validates all the documents. The iterator is only used by the calling thread.
+     * @param inputs documents to check
+     * @param check validates one document
+     * @param <T> input type
+     * @return the failures and statistics of the batch
+     * @throws NullPointerException if inputs or check is <code>null</code>
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the checks
+     * @throws RejectedExecutionException if the executor does not accept a task
+     */
+    public <T> BatchResult validate(final Iterator<? extends T> inputs, final Check<? super T> check)
+            throws InterruptedException {
+        if (inputs == null) {
+            throw new NullPointerException("null inputs");
+        }
+        if (check == null) {
+            throw new NullPointerException("null check");
+        }
+        final long start = System.nanoTime();
+        final Semaphore permits = new Semaphore(maxInFlight);
+        final List<BatchResult.Failure> failures = new ArrayList<>();
+        final AtomicLong checkNanos = new AtomicLong();
+        final AtomicReference<Error> error = new AtomicReference<>();
+        long count = 0L;
+        try {
+            while (inputs.hasNext()) {
+                if (!permits.tryAcquire()) {
+                    ForkJoinPool.managedBlock(new PermitBlocker(permits, 1));
+                }
+                final T input;
+                try {
+                    input = inputs.next();
+                    final long index = count;
+                    executor.execute(() -> {
+                        final long taskStart = System.nanoTime();
+                        try {
+                            check.check(input);
+                        } catch (Exception e) {
+                            synchronized (failures) {
+                                failures.add(new BatchResult.Failure(index, e));
+                            }
+                        } catch (Error e) {
+                            error.compareAndSet(null, e);
+                        } finally {
+                            checkNanos.addAndGet(System.nanoTime() - taskStart);
+                            permits.release();
+                        }
+                    });
+                } catch (RuntimeException | Error e) {
+                    permits.release();
+                    throw e;
+                }
+                count++;
+            }
+        } finally {
+            // wait for the tasks that were started, even if the iterator or executor failed
+            acquireUninterruptibly(permits, maxInFlight);
+        }
+        if (error.get() != null) {
+            throw error.get();
+        }
+        synchronized (failures) {
+            failures.sort(null);
+            return new BatchResult(count, failures, System.nanoTime() - start, checkNanos.get());
+        }
+    }
+
+    /**
+     * @return the maximum number of documents that are checked at once
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    private static void acquireUninterruptibly(final Semaphore permits, final int count) {
+        final PermitBlocker blocker = new PermitBlocker(permits, count);
+        boolean interrupted = false;
+        for (;;) {
+            try {
+                ForkJoinPool.managedBlock(blocker);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Acquires permits of a semaphore, letting the <code>ForkJoinPool</code> of the calling thread (if any)
+     * make up for the worker that waits.
+     */
+    private static final class PermitBlocker implements ForkJoinPool.ManagedBlocker {
+        private final Semaphore permits;
+        private final int count;
+        private boolean acquired;
+
+        PermitBlocker(final Semaphore permits, final int count) {
+            this.permits = permits;
+            this.count = count;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (!acquired) {
+                permits.acquire(count);
+                acquired = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            if (!acquired) {
+                acquired = permits.tryAcquire(count);
+            }
+            return acquired;
+        }
+    }
+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
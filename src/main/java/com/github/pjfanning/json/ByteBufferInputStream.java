@@ -0,0 +1,39 @@
+package com.github.pjfanning.json;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a (memory-mapped) buffer with bulk copies, without changing the buffer that was passed in.
+ */
+final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(final ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        final int count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+}
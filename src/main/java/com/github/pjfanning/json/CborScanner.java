@@ -0,0 +1,360 @@
+package com.github.pjfanning.json;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Validates CBOR (RFC 8949) input by walking the headers of its data items instead of decoding them with
+ * Jackson's CBOR parser. The length of a text string is taken from its length prefix, and its bytes are
+ * only checked for valid UTF-8 (8 bytes at a time while they are ASCII) and counted in UTF-16 units, the
+ * unit Jackson reports; byte strings are skipped and numbers are not converted to text.
+ * <p>
+ * The scanner only confirms that input is valid. It supports what Jackson's CBOR generator writes:
+ * integers that fit in a <code>long</code>, floats, literals, definite and indefinite length strings,
+ * arrays and maps, and text keys. Anything else (tags, other simple values, integer keys), a violation
+ * or an error makes {@link #scan()} return <code>false</code>, and the input should then be parsed by
+ * Jackson, which reports the violation or error, or accepts the input.
+ * </p>
+ * <p>
+ * When the number of distinct keys is limited, keys are hashed as the chars they decode to (see {@link NameSet}).
+ * </p>
+ * Instances are single use and not thread-safe.
+ */
+final class CborScanner {
+
+    /** The format name of Jackson's <code>CBORFactory</code>. */
+    static final String FORMAT_NAME = "CBOR";
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private static final int BREAK = 0xFF;
+    private static final int INDEFINITE_LENGTH = 31;
+    /** Remaining items of a container that ends with a break. */
+    private static final long INDEFINITE = -1L;
+    /** Result of {@link #argument(int)} and {@link #textLength(int)} for input that is not supported. */
+    private static final long UNSUPPORTED = -1L;
+
+    private static final byte IN_ARRAY = 0;
+    private static final byte KEY_NEXT = 1;
+    private static final byte VALUE_NEXT = 2;
+
+    private final StreamReadConstraints constraints;
+    private final byte[] array;
+    private int pos;
+    private final int end;
+
+    private byte[] states = new byte[16];
+    /** Number of items left in each enclosing container (keys and values of a map), or {@link #INDEFINITE}. */
+    private long[] remaining = new long[16];
+    /** Number of elements of each enclosing array, or entries of each enclosing map. */
+    private int[] counts = new int[16];
+    private int depth;
+    private long tokenCount;
+    /** The distinct keys, or <code>null</code> if they are not limited. */
+    private final NameSet names;
+    /** Offset of the bytes of the last text string that was checked by {@link #textLength(int)}. */
+    private int textStart;
+
+    CborScanner(final StreamReadConstraints constraints, final byte[] input, final int offset, final int length) {
+        this.constraints = constraints;
+        this.array = input;
+        this.pos = offset;
+        this.end = offset + length;
+        this.names = constraints.getMaxDistinctNames() != StreamReadConstraints.DEFAULT_MAX_DISTINCT_NAMES
+                ? new NameSet() : null;
+    }
+
+    /**
+     * Scans the first data item of the input (like Jackson, anything after it is ignored).
+     * @return <code>true</code> if the input is valid, <code>false</code> if it has to be parsed by Jackson
+     */
+    boolean scan() {
+        if (pos == end) {
+            // like an empty document: no tokens
+            return true;
+        }
+        for (;;) {
+            if (depth > 0 && remaining[depth - 1] == 0L) {
+                if (!endContainer()) {
+                    return false;
+                }
+            } else {
+                if (pos == end) {
+                    return false;
+                }
+                final int initial = array[pos++] & 0xFF;
+                final boolean valid;
+                if (initial == BREAK) {
+                    valid = depth > 0 && remaining[depth - 1] == INDEFINITE && states[depth - 1] != VALUE_NEXT
+                            && endContainer();
+                } else if (depth > 0 && states[depth - 1] == KEY_NEXT) {
+                    valid = name(initial);
+                } else {
+                    valid = value(initial);
+                }
+                if (!valid) {
+                    return false;
+                }
+            }
+            if (depth == 0) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return number of tokens scanned, as Jackson would return them
+     */
+    long getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * @return <code>true</code> if the scanned value ends the input
+     */
+    boolean isAtEnd() {
+        return pos == end;
+    }
+
+    private boolean name(final int initial) {
+        if (++tokenCount > constraints.getMaxTokenCount()
+                || ++counts[depth - 1] > constraints.getMaxObjectEntries()
+                || initial >>> 5 != 3 || (initial & 0x1F) == INDEFINITE_LENGTH) {
+            return false;
+        }
+        final long length = textLength(initial & 0x1F);
+        if (length == UNSUPPORTED || length > constraints.getMaxNameLength()) {
+            return false;
+        }
+        if (names != null && names.add(names.hashUtf8(array, textStart, pos)) > constraints.getMaxDistinctNames()) {
+            return false;
+        }
+        if (remaining[depth - 1] != INDEFINITE) {
+            remaining[depth - 1]--;
+        }
+        states[depth - 1] = VALUE_NEXT;
+        return true;
+    }
+
+    private boolean value(final int initial) {
+        if (++tokenCount > constraints.getMaxTokenCount()) {
+            return false;
+        }
+        if (depth > 0 && states[depth - 1] == IN_ARRAY && ++counts[depth - 1] > constraints.getMaxArrayElements()) {
+            return false;
+        }
+        final int info = initial & 0x1F;
+        switch (initial >>> 5) {
+            case 0:
+            case 1: {
+                final long argument = argument(info);
+                if (argument == UNSUPPORTED) {
+                    return false;
+                }
+                final long value = initial >>> 5 == 0 ? argument : -1L - argument;
+                if (TokenValidator.length(value) > constraints.getMaxNumberLength()) {
+                    return false;
+                }
+                break;
+            }
+            case 2:
+                if (!skipBytes(info)) {
+                    return false;
+                }
+                break;
+            case 3: {
+                final long length = info == INDEFINITE_LENGTH ? chunkedTextLength() : textLength(info);
+                if (length == UNSUPPORTED || length > constraints.getMaxStringLength()) {
+                    return false;
+                }
+                break;
+            }
+            case 4:
+            case 5:
+                return startContainer(initial >>> 5 == 5, info);
+            case 7:
+                if (!simpleValue(info)) {
+                    return false;
+                }
+                break;
+            default:
+                // tags are left to Jackson
+                return false;
+        }
+        endValue();
+        return true;
+    }
+
+    private boolean simpleValue(final int info) {
+        if (info >= 20 && info <= 23) {
+            // false, true, null and undefined
+            return true;
+        }
+        final int bytes = info == 25 ? 2 : info == 26 ? 4 : info == 27 ? 8 : 0;
+        if (bytes == 0 || end - pos < bytes
+                || constraints.getMaxNumberLength() < TokenValidator.MAX_FLOATING_POINT_LENGTH) {
+            return false;
+        }
+        pos += bytes;
+        return true;
+    }
+
+    private boolean startContainer(final boolean map, final int info) {
+        if (depth + 1 > constraints.getMaxNestingDepth()) {
+            return false;
+        }
+        long items = INDEFINITE;
+        if (info != INDEFINITE_LENGTH) {
+            items = argument(info);
+            if (items == UNSUPPORTED || (map && items > Long.MAX_VALUE / 2)) {
+                return false;
+            }
+            if (map) {
+                items *= 2;
+            }
+        }
+        if (depth == states.length) {
+            final int capacity = depth * 2;
+            states = Arrays.copyOf(states, capacity);
+            remaining = Arrays.copyOf(remaining, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        states[depth] = map ? KEY_NEXT : IN_ARRAY;
+        remaining[depth] = items;
+        counts[depth] = 0;
+        depth++;
+        return true;
+    }
+
+    private boolean endContainer() {
+        if (++tokenCount > constraints.getMaxTokenCount()) {
+            return false;
+        }
+        depth--;
+        if (depth > 0) {
+            endValue();
+        }
+        return true;
+    }
+
+    /**
+     * Counts a complete value as an item of the enclosing container.
+     */
+    private void endValue() {
+        if (depth == 0) {
+            return;
+        }
+        if (remaining[depth - 1] != INDEFINITE) {
+            remaining[depth - 1]--;
+        }
+        if (states[depth - 1] == VALUE_NEXT) {
+            states[depth - 1] = KEY_NEXT;
+        }
+    }
+
+    /**
+     * Reads the argument of a data item header.
+     * @return the argument, or {@link #UNSUPPORTED} if it is truncated, indefinite or does not fit in a <code>long</code>
+     */
+    private long argument(final int info) {
+        if (info < 24) {
+            return info;
+        }
+        final int bytes = info == 24 ? 1 : info == 25 ? 2 : info == 26 ? 4 : info == 27 ? 8 : 0;
+        if (bytes == 0 || end - pos < bytes) {
+            return UNSUPPORTED;
+        }
+        long argument = 0L;
+        for (int i = 0; i < bytes; i++) {
+            argument = (argument << 8) | (array[pos++] & 0xFF);
+        }
+        // arguments of 2^63 or more are big integers for Jackson
+        return argument < 0L ? UNSUPPORTED : argument;
+    }
+
+    private boolean skipBytes(final int info) {
+        if (info != INDEFINITE_LENGTH) {
+            final long length = argument(info);
+            if (length == UNSUPPORTED || length > end - pos) {
+                return false;
+            }
+            pos += (int) length;
+            return true;
+        }
+        while (pos < end) {
+            final int initial = array[pos++] & 0xFF;
+            if (initial == BREAK) {
+                return true;
+            }
+            if (initial >>> 5 != 2 || !skipBytes(initial & 0x1F)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private long chunkedTextLength() {
+        long length = 0L;
+        while (pos < end) {
+            final int initial = array[pos++] & 0xFF;
+            if (initial == BREAK) {
+                return length;
+            }
+            if (initial >>> 5 != 3 || (initial & 0x1F) == INDEFINITE_LENGTH) {
+                return UNSUPPORTED;
+            }
+            final long chunk = textLength(initial & 0x1F);
+            if (chunk == UNSUPPORTED) {
+                return UNSUPPORTED;
+            }
+            length += chunk;
+        }
+        return UNSUPPORTED;
+    }
+
+    /**
+     * Skips a definite length text string.
+     * @return its length in UTF-16 units, or {@link #UNSUPPORTED} if it is truncated or not valid UTF-8
+     */
+    private long textLength(final int info) {
+        final long bytes = argument(info);
+        if (bytes == UNSUPPORTED || bytes > end - pos) {
+            return UNSUPPORTED;
+        }
+        final int stop = pos + (int) bytes;
+        textStart = pos;
+        long length = 0L;
+        int i = pos;
+        while (i < stop) {
+            if (stop - i >= 8 && ((long) LONGS.get(array, i) & HIGH_BITS) == 0L) {
+                i += 8;
+                length += 8;
+                continue;
+            }
+            final int c = array[i] & 0xFF;
+            if (c < 0x80) {
+                i++;
+                length++;
+                continue;
+            }
+            // the lead bytes that Jackson's decoder accepts
+            final int continuation = (c & 0xE0) == 0xC0 ? 1 : (c & 0xF0) == 0xE0 ? 2 : (c & 0xF8) == 0xF0 ? 3 : 0;
+            if (continuation == 0 || stop - i <= continuation) {
+                return UNSUPPORTED;
+            }
+            for (int j = 1; j <= continuation; j++) {
+                if ((array[i + j] & 0xC0) != 0x80) {
+                    return UNSUPPORTED;
+                }
+            }
+            i += continuation + 1;
+            // a 4-byte sequence is a surrogate pair
+            length += continuation == 3 ? 2 : 1;
+        }
+        pos = stop;
+        return length;
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.pjfanning.json;
+
+/**
+ * Times one check and reports it to a {@link LimiterListener} and as a {@link ValidationEvent}.
+ * When the listener is {@link LimiterListener#NONE} and the event is not enabled, nothing is measured.
+ */
+final class CheckRecorder {
+
+    private final LimiterListener listener;
+    private final String inputType;
+    private final ValidationEvent event;
+    private final long startNanos;
+
+    CheckRecorder(final LimiterListener listener, final String inputType) {
+        this.listener = listener;
+        this.inputType = inputType;
+        this.event = new ValidationEvent();
+        event.begin();
+        this.startNanos = listener == LimiterListener.NONE ? 0L : System.nanoTime();
+    }
+
+    /**
+     * @param length number of chars or bytes read
+     * @param tokenCount number of tokens seen, or <code>-1</code>
+     * @param failure the exception that the check throws, or <code>null</code>
+     */
+    void end(final long length, final long tokenCount, final Exception failure) {
+        if (listener != LimiterListener.NONE || event.shouldCommit()) {
+            end(length, tokenCount, failure == null ? ValidationResult.valid()
+                    : ValidationResult.failure(failure, -1L, null));
+        }
+    }
+
+    /**
+     * @param length number of chars or bytes read
+     * @param tokenCount number of tokens seen, or <code>-1</code>
+     * @param result outcome of the check
+     */
+    void end(final long length, final long tokenCount, final ValidationResult result) {
+        if (listener != LimiterListener.NONE) {
+            listener.onCheck(inputType, length, tokenCount, System.nanoTime() - startNanos, result);
+        }
+        if (event.shouldCommit()) {
+            final Constraint constraint = result.getConstraint();
+            event.inputType = inputType;
+            event.length = length;
+            event.tokenCount = tokenCount;
+            event.outcome = result.isValid() ? "valid" : constraint == null ? "failed" : "rejected";
+            event.constraint = constraint == null ? null : constraint.name();
+            event.pointer = result.getPointer();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.pjfanning.json;
+
+import java.util.Locale;
+
+/**
+ * Compression formats of the input that {@link SizeLimiter#check(java.io.InputStream, Compression)}
+ * decompresses while it validates.
+ */
+public enum Compression {
+    /** gzip (RFC 1952), including streams of several concatenated members. */
+    GZIP("gzip"),
+    /**
+     * The HTTP "deflate" coding: zlib (RFC 1950), or raw deflate (RFC 1951) as some clients send it.
+     */
+    DEFLATE("deflate");
+
+    private final String contentEncoding;
+
+    Compression(final String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * @return the name of the format in HTTP <code>Content-Encoding</code> headers
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * @param contentEncoding value of an HTTP <code>Content-Encoding</code> header (may be <code>null</code>)
+     * @return the matching format, or <code>null</code> if the coding is not supported (or is
+     * <code>identity</code>)
+     */
+    public static Compression forContentEncoding(final String contentEncoding) {
+        if (contentEncoding == null) {
+            return null;
+        }
+        switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip":
+            case "x-gzip":
+                return GZIP;
+            case "deflate":
+                return DEFLATE;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.pjfanning.json;
+
+import java.io.IOException;
+
+/**
+ * Thrown while decompressing input when it inflates by more than
+ * {@link StreamReadConstraints#getMaxCompressionRatio()} allows.
+ */
+public class CompressionRatioException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final long observed;
+    private final long allowed;
+
+    CompressionRatioException(final long observed, final long allowed) {
+        super(Constraint.COMPRESSION_RATIO.message(observed, allowed));
+        this.observed = observed;
+        this.allowed = allowed;
+    }
+
+    /**
+     * @return the ratio of the decompressed to the compressed length so far
+     */
+    public long getObserved() {
+        return observed;
+    }
+
+    /**
+     * @return the maximum ratio that the constraints allow
+     */
+    public long getAllowed() {
+        return allowed;
+    }
+}
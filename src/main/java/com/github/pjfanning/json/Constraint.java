@@ -0,0 +1,87 @@
+package com.github.pjfanning.json;
+
+import com.github.pjfanning.json.util.SizeLimitExceededException;
+import com.github.pjfanning.json.util.SlowReadException;
+
+/**
+ * The limits of {@link StreamReadConstraints}, used to tell which one rejected an input.
+ */
+public enum Constraint {
+    /** See {@link StreamReadConstraints#getMaxTotalLength()}. */
+    TOTAL_LENGTH("Total length (%d) exceeds the maximum length (%d)"),
+    /** See {@link StreamReadConstraints#getMaxNumberLength()}. */
+    NUMBER_LENGTH("Number length (%d) exceeds the maximum length (%d)"),
+    /** See {@link StreamReadConstraints#getMaxStringLength()}. */
+    STRING_LENGTH("String length (%d) exceeds the maximum length (%d)"),
+    /** See {@link StreamReadConstraints#getMaxNestingDepth()}. */
+    NESTING_DEPTH("Nesting depth (%d) exceeds the maximum depth (%d)"),
+    /** See {@link StreamReadConstraints#getMaxTokenCount()}. */
+    TOKEN_COUNT("Token count (%d) exceeds the maximum count (%d)"),
+    /** See {@link StreamReadConstraints#getMaxObjectEntries()}. */
+    OBJECT_ENTRIES("Object entry count (%d) exceeds the maximum count (%d)"),
+    /** See {@link StreamReadConstraints#getMaxArrayElements()}. */
+    ARRAY_ELEMENTS("Array element count (%d) exceeds the maximum count (%d)"),
+    /** See {@link StreamReadConstraints#getMaxNameLength()}. */
+    NAME_LENGTH("Name length (%d) exceeds the maximum length (%d)"),
+    /** See {@link StreamReadConstraints#getMaxDistinctNames()}. */
+    DISTINCT_NAMES("Distinct name count (%d) exceeds the maximum count (%d)"),
+    /** See {@link StreamReadConstraints#getMaxCompressionRatio()}. */
+    COMPRESSION_RATIO("Compression ratio (%d) exceeds the maximum ratio (%d)"),
+    /** See {@link StreamReadConstraints#getMaxReadTimeMillis()}. */
+    READ_TIME("Read time (%d ms) exceeds the maximum time (%d ms)"),
+    /** See {@link StreamReadConstraints#getMinReadRate()}. */
+    READ_RATE("Read rate (%d per second) is below the minimum rate (%d per second)");
+
+    private final String format;
+
+    Constraint(final String format) {
+        this.format = format;
+    }
+
+    /**
+     * Finds the constraint that a check failed on, from the type of the exception it threw (see
+     * {@link ConstraintViolationException}).
+     * @param failure thrown by a check (may be <code>null</code>)
+     * @return the violated constraint, or <code>null</code> if the failure is not a constraint
+     * violation (e.g. the input is not valid JSON)
+     */
+    public static Constraint of(final Throwable failure) {
+        if (failure instanceof ConstraintViolationException) {
+            return ((ConstraintViolationException) failure).getConstraint();
+        }
+        if (failure instanceof NumberLengthException) {
+            return NUMBER_LENGTH;
+        }
+        if (failure instanceof SizeLimitExceededException) {
+            return TOTAL_LENGTH;
+        }
+        if (failure instanceof CompressionRatioException) {
+            return COMPRESSION_RATIO;
+        }
+        if (failure instanceof SlowReadException) {
+            return ((SlowReadException) failure).isRateTooLow() ? READ_RATE : READ_TIME;
+        }
+        return null;
+    }
+
+    /**
+     * @param observed length, count or depth that was found
+     * @param allowed maximum that the constraints allow
+     * @return the message of the exception that reports a violation
+     */
+    String message(final long observed, final long allowed) {
+        return String.format(format, observed, allowed);
+    }
+
+    /**
+     * Creates the exception that reports a violation: a {@link NumberLengthException} for the number
+     * length and a {@link ConstraintViolationException} otherwise.
+     * @param observed length, count or depth that was found
+     * @param allowed maximum that the constraints allow
+     * @return a new exception
+     */
+    RuntimeException exception(final long observed, final long allowed) {
+        return this == NUMBER_LENGTH ? new NumberLengthException(observed, allowed)
+                : new ConstraintViolationException(this, observed, allowed);
+    }
+}
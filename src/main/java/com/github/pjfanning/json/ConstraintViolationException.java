@@ -0,0 +1,43 @@
+package com.github.pjfanning.json;
+
+/**
+ * Thrown by the checks when a limit of {@link StreamReadConstraints} is exceeded. The number length is
+ * reported with a {@link NumberLengthException} instead, and the total length of a stream with a
+ * {@link com.github.pjfanning.json.util.SizeLimitExceededException}; use {@link Constraint#of(Throwable)}
+ * to find the limit from any of them.
+ */
+public class ConstraintViolationException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    private final Constraint constraint;
+    private final long observed;
+    private final long allowed;
+
+    ConstraintViolationException(final Constraint constraint, final long observed, final long allowed) {
+        super(constraint.message(observed, allowed));
+        this.constraint = constraint;
+        this.observed = observed;
+        this.allowed = allowed;
+    }
+
+    /**
+     * @return the limit that was exceeded
+     */
+    public Constraint getConstraint() {
+        return constraint;
+    }
+
+    /**
+     * @return the length, count or depth that was found
+     */
+    public long getObserved() {
+        return observed;
+    }
+
+    /**
+     * @return the maximum that the constraints allow
+     */
+    public long getAllowed() {
+        return allowed;
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.pjfanning.json;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Seeded 64-bit hash of bytes (or chars), used as the key of {@link VerdictCache}.
+ * <p>
+ * The input is mixed 8 bytes at a time with the round and avalanche steps of xxHash64 (a single lane, so
+ * the values differ from xxHash64's). Bytes can be added in chunks of any size: the hash only depends on
+ * the bytes and the seed. It is not a cryptographic hash.
+ * </p>
+ */
+final class ContentHash {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+
+    private long hash;
+    /** Bytes that do not fill a word yet, little-endian. */
+    private long pending;
+    private int pendingBytes;
+    private long length;
+
+    ContentHash(final long seed) {
+        this.hash = seed;
+    }
+
+    static long hash(final long seed, final byte[] input, final int offset, final int length) {
+        final ContentHash contentHash = new ContentHash(seed);
+        contentHash.update(input, offset, length);
+        return contentHash.finish();
+    }
+
+    /**
+     * Hashes the UTF-16 code units of the chars (not their UTF-8 encoding).
+     */
+    static long hash(final long seed, final CharSequence input) {
+        final ContentHash contentHash = new ContentHash(seed);
+        final int length = input.length();
+        long h = seed;
+        int i = 0;
+        for (final int last = length - 4; i <= last; i += 4) {
+            h = round(h, input.charAt(i) | (long) input.charAt(i + 1) << 16
+                    | (long) input.charAt(i + 2) << 32 | (long) input.charAt(i + 3) << 48);
+        }
+        contentHash.hash = h;
+        for (; i < length; i++) {
+            contentHash.pending |= (long) input.charAt(i) << (contentHash.pendingBytes << 3);
+            contentHash.pendingBytes += 2;
+        }
+        contentHash.length = 2L * length;
+        return contentHash.finish();
+    }
+
+    void update(final byte[] input, final int offset, final int length) {
+        this.length += length;
+        final int end = offset + length;
+        int i = offset;
+        while (pendingBytes != 0 && i < end) {
+            pending |= (input[i++] & 0xFFL) << (pendingBytes << 3);
+            if (++pendingBytes == 8) {
+                hash = round(hash, pending);
+                pending = 0L;
+                pendingBytes = 0;
+            }
+        }
+        long h = hash;
+        for (final int last = end - 8; i <= last; i += 8) {
+            h = round(h, (long) LONGS.get(input, i));
+        }
+        hash = h;
+        for (; i < end; i++) {
+            pending |= (input[i] & 0xFFL) << (pendingBytes << 3);
+            pendingBytes++;
+        }
+    }
+
+    long finish() {
+        long h = hash + length * P3;
+        if (pendingBytes != 0) {
+            h = round(h, pending);
+        }
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long round(final long h, final long word) {
+        return Long.rotateLeft(h ^ Long.rotateLeft(word * P2, 31) * P1, 27) * P1 + P3;
+    }
+}
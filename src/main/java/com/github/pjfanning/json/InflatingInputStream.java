@@ -0,0 +1,369 @@
+package com.github.pjfanning.json;
+
+import com.github.pjfanning.json.util.SizeLimitExceededException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses gzip or deflate input straight into the buffers of its reader (the JSON parser), and stops
+ * as soon as the decompressed length exceeds the maximum total length, or the compression ratio exceeds
+ * the maximum ratio: no decompressed copy of the input is made, and a "zip bomb" is only inflated as far
+ * as one read past the limits.
+ * <p>
+ * The {@link Inflater}s and compressed-input buffers are pooled: {@link #close()} returns them.
+ * Checksums (CRC-32 for gzip, Adler-32 for zlib) and gzip sizes are verified.
+ * </p>
+ */
+final class InflatingInputStream extends InputStream {
+
+    /** The compression ratio is only checked after this many decompressed bytes. */
+    static final int RATIO_GRACE = 64 * 1024;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int GZIP_MAGIC = 0x8B1F;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int RESERVED = 0xE0;
+
+    private static final ArrayBlockingQueue<Resources> POOL =
+            new ArrayBlockingQueue<>(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+
+    private static final class Resources {
+        final Inflater inflater = new Inflater(true);
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        final CRC32 crc32 = new CRC32();
+        final Adler32 adler32 = new Adler32();
+    }
+
+    private enum State { HEADER, BODY, TRAILER, DONE }
+
+    private final InputStream in;
+    private final Compression compression;
+    private final long maxLength;
+    private final int maxRatio;
+
+    private Resources resources;
+    private final Inflater inflater;
+    private final byte[] buffer;
+    /** Next compressed byte in {@link #buffer} that has not been handed to the inflater. */
+    private int pos;
+    private int limit;
+    /** <code>null</code> for raw deflate. */
+    private Checksum checksum;
+    private State state = State.HEADER;
+    private boolean firstMember = true;
+
+    private long compressedRead;
+    private long inflated;
+    private long memberStart;
+
+    /**
+     * @param in compressed input
+     * @param maxLength maximum number of decompressed bytes
+     * @param maxRatio maximum ratio of decompressed to compressed bytes
+     */
+    InflatingInputStream(final InputStream in, final Compression compression, final long maxLength,
+                         final int maxRatio) {
+        this.in = in;
+        this.compression = compression;
+        this.maxLength = maxLength;
+        this.maxRatio = maxRatio;
+        final Resources pooled = POOL.poll();
+        this.resources = pooled == null ? new Resources() : pooled;
+        this.inflater = resources.inflater;
+        this.buffer = resources.buffer;
+    }
+
+    /**
+     * @return number of decompressed bytes read
+     */
+    long getInflated() {
+        return inflated;
+    }
+
+    /**
+     * @return number of compressed bytes read from the input
+     */
+    long getCompressedRead() {
+        return compressedRead;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] one = new byte[1];
+        return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (resources == null) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        for (;;) {
+            switch (state) {
+                case HEADER:
+                    if (!readHeader()) {
+                        state = State.DONE;
+                        return -1;
+                    }
+                    inflater.setInput(buffer, pos, limit - pos);
+                    pos = limit;
+                    state = State.BODY;
+                    break;
+                case BODY:
+                    // one byte more than the limit allows is enough to tell that it is exceeded
+                    final long allowed = maxLength - inflated;
+                    final int n = inflate(b, off, len <= allowed ? len : (int) allowed + 1);
+                    if (n > 0) {
+                        return n;
+                    }
+                    break;
+                case TRAILER:
+                    readTrailer();
+                    break;
+                default:
+                    return -1;
+            }
+        }
+    }
+
+    private int inflate(final byte[] b, final int off, final int len) throws IOException {
+        final int n;
+        try {
+            n = inflater.inflate(b, off, len);
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage() == null ? "Invalid deflate data" : e.getMessage());
+        }
+        if (n > 0) {
+            if (checksum != null) {
+                checksum.update(b, off, n);
+            }
+            inflated += n;
+            checkLimits();
+        } else if (inflater.finished()) {
+            // give back the bytes after the deflate data
+            pos = limit - inflater.getRemaining();
+            state = State.TRAILER;
+        } else if (inflater.needsDictionary()) {
+            throw new ZipException("Preset dictionaries are not supported");
+        } else if (inflater.needsInput()) {
+            if (!fill()) {
+                throw new EOFException("Unexpected end of compressed input");
+            }
+            inflater.setInput(buffer, 0, limit);
+            pos = limit;
+        }
+        return n;
+    }
+
+    private void checkLimits() throws IOException {
+        if (inflated > maxLength) {
+            // same message as SizeLimitInputStream
+            throw new SizeLimitExceededException("Read more than size limit (" + maxLength + ") bytes",
+                    inflated, maxLength);
+        }
+        if (inflated > RATIO_GRACE) {
+            final long consumed = compressedRead - (limit - pos) - inflater.getRemaining();
+            final long compressed = Math.max(1L, consumed);
+            if (inflated > maxRatio * compressed) {
+                throw new CompressionRatioException(inflated / compressed, maxRatio);
+            }
+        }
+    }
+
+    /**
+     * @return <code>false</code> if there is no further member
+     */
+    private boolean readHeader() throws IOException {
+        inflater.reset();
+        memberStart = inflated;
+        if (compression == Compression.GZIP) {
+            if (!firstMember && (!ensure(2) || readUShort() != GZIP_MAGIC)) {
+                // like GZIPInputStream, anything after the last member is ignored
+                return false;
+            }
+            if (firstMember && readUShort() != GZIP_MAGIC) {
+                throw new ZipException("Not in GZIP format");
+            }
+            firstMember = false;
+            if (readUByte() != 8) {
+                throw new ZipException("Unsupported compression method");
+            }
+            final int flags = readUByte();
+            if ((flags & RESERVED) != 0) {
+                throw new ZipException("Reserved GZIP flags are set");
+            }
+            skip(6);
+            if ((flags & FEXTRA) != 0) {
+                skip(readUShort());
+            }
+            if ((flags & FNAME) != 0) {
+                skipZeroTerminated();
+            }
+            if ((flags & FCOMMENT) != 0) {
+                skipZeroTerminated();
+            }
+            if ((flags & FHCRC) != 0) {
+                skip(2);
+            }
+            checksum = resources.crc32;
+            checksum.reset();
+            return true;
+        }
+        if (!firstMember) {
+            return false;
+        }
+        firstMember = false;
+        if (ensure(2)) {
+            final int cmf = buffer[pos] & 0xFF;
+            final int flg = buffer[pos + 1] & 0xFF;
+            if ((cmf & 0x0F) == 8 && (cmf >>> 4) <= 7 && ((cmf << 8) | flg) % 31 == 0) {
+                if ((flg & 0x20) != 0) {
+                    throw new ZipException("Preset dictionaries are not supported");
+                }
+                pos += 2;
+                checksum = resources.adler32;
+                checksum.reset();
+                return true;
+            }
+        }
+        // raw deflate, without header, trailer or checksum
+        checksum = null;
+        return true;
+    }
+
+    private void readTrailer() throws IOException {
+        if (compression == Compression.GZIP) {
+            final long crc = readUInt();
+            final long size = readUInt();
+            if (crc != checksum.getValue()) {
+                throw new ZipException("Corrupt GZIP trailer");
+            }
+            if (size != ((inflated - memberStart) & 0xFFFFFFFFL)) {
+                throw new ZipException("Corrupt GZIP trailer");
+            }
+            state = State.HEADER;
+        } else {
+            if (checksum != null) {
+                final long adler = (long) readUShortBigEndian() << 16 | readUShortBigEndian();
+                if (adler != checksum.getValue()) {
+                    throw new ZipException("Corrupt zlib trailer");
+                }
+            }
+            state = State.DONE;
+        }
+    }
+
+    /**
+     * Reads more compressed input into the buffer (whose bytes must all have been used).
+     * @return <code>false</code> at the end of the input
+     */
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = in.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n == -1) {
+            return false;
+        }
+        compressedRead += n;
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    /**
+     * Reads compressed input until the buffer holds at least <code>count</code> unused bytes.
+     * @return <code>false</code> if the input ends before
+     */
+    private boolean ensure(final int count) throws IOException {
+        if (limit - pos >= count) {
+            return true;
+        }
+        System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+        limit -= pos;
+        pos = 0;
+        while (limit < count) {
+            final int n = in.read(buffer, limit, buffer.length - limit);
+            if (n == -1) {
+                return false;
+            }
+            compressedRead += n;
+            limit += n;
+        }
+        return true;
+    }
+
+    private int readUByte() throws IOException {
+        if (!ensure(1)) {
+            throw new EOFException("Unexpected end of compressed input");
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    private int readUShort() throws IOException {
+        return readUByte() | readUByte() << 8;
+    }
+
+    private int readUShortBigEndian() throws IOException {
+        return readUByte() << 8 | readUByte();
+    }
+
+    private long readUInt() throws IOException {
+        return (long) readUShort() | (long) readUShort() << 16;
+    }
+
+    private void skip(final int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            readUByte();
+        }
+    }
+
+    private void skipZeroTerminated() throws IOException {
+        while (readUByte() != 0) {
+            // skip
+        }
+    }
+
+    /**
+     * Returns the inflater and buffer to the pool, without closing the compressed input: the stream
+     * cannot be read any more.
+     */
+    void release() {
+        final Resources released = resources;
+        if (released == null) {
+            return;
+        }
+        resources = null;
+        released.inflater.reset();
+        if (!POOL.offer(released)) {
+            released.inflater.end();
+        }
+    }
+
+    /**
+     * Returns the inflater and buffer to the pool, and closes the compressed input.
+     */
+    @Override
+    public void close() throws IOException {
+        release();
+        in.close();
+    }
+}
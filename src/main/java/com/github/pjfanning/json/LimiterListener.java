@@ -0,0 +1,29 @@
+package com.github.pjfanning.json;
+
+/**
+ * Receives a callback when a check completes, e.g. to collect metrics (see {@link LimiterMetrics}).
+ * <p>
+ * Listeners are called on the thread that ran the check, once per check, and must be thread-safe when
+ * the limiter is shared. They should return quickly: the callback is part of the check.
+ * </p>
+ */
+@FunctionalInterface
+public interface LimiterListener {
+
+    /**
+     * A listener that ignores all checks: limiters that use it do not measure anything.
+     */
+    LimiterListener NONE = (inputType, length, tokenCount, elapsedNanos, result) -> {};
+
+    /**
+     * Called when a check completes.
+     * @param inputType the kind of input that was checked (e.g. <code>"InputStream"</code>)
+     * @param length number of chars or bytes that were read (for files, the size that was checked)
+     * @param tokenCount number of JSON tokens that were seen, or <code>-1</code> if the check does not
+     *                   count tokens
+     * @param elapsedNanos time taken by the check
+     * @param result outcome of the check: for the throwing <code>check</code> methods, the result holds
+     *               the exception that is thrown unless a constraint is violated
+     */
+    void onCheck(String inputType, long length, long tokenCount, long elapsedNanos, ValidationResult result);
+}
@@ -0,0 +1,129 @@
+package com.github.pjfanning.json;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link LimiterListener} that keeps running totals in {@link LongAdder}s, so that it can be shared by
+ * limiters that are used by many threads without contention.
+ * <p>
+ * The counters are read without locking: a snapshot taken while checks complete may not be consistent
+ * across counters.
+ * </p>
+ */
+public final class LimiterMetrics implements LimiterListener {
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder parseFailures = new LongAdder();
+    private final LongAdder[] rejections = new LongAdder[Constraint.values().length];
+    private final LongAdder length = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    public LimiterMetrics() {
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void onCheck(final String inputType, final long length, final long tokenCount,
+                        final long elapsedNanos, final ValidationResult result) {
+        checks.increment();
+        this.length.add(length);
+        if (tokenCount > 0) {
+            tokens.add(tokenCount);
+        }
+        nanos.add(elapsedNanos);
+        if (!result.isValid()) {
+            final Constraint constraint = result.getConstraint();
+            if (constraint == null) {
+                parseFailures.increment();
+            } else {
+                rejections[constraint.ordinal()].increment();
+            }
+        }
+    }
+
+    /**
+     * @return number of completed checks
+     */
+    public long getCheckCount() {
+        return checks.sum();
+    }
+
+    /**
+     * @return number of checks that failed on a constraint
+     */
+    public long getRejectionCount() {
+        long sum = 0L;
+        for (LongAdder rejection : rejections) {
+            sum += rejection.sum();
+        }
+        return sum;
+    }
+
+    /**
+     * @param constraint a constraint
+     * @return number of checks that failed on the constraint
+     * @throws NullPointerException if constraint is <code>null</code>
+     */
+    public long getRejectionCount(final Constraint constraint) {
+        return rejections[constraint.ordinal()].sum();
+    }
+
+    /**
+     * @return number of checks that failed for another reason than a constraint (e.g. invalid JSON
+     * or an I/O error)
+     */
+    public long getParseFailureCount() {
+        return parseFailures.sum();
+    }
+
+    /**
+     * @return total number of chars and bytes read by the checks
+     */
+    public long getLength() {
+        return length.sum();
+    }
+
+    /**
+     * @return total number of JSON tokens seen by the checks that count them
+     */
+    public long getTokenCount() {
+        return tokens.sum();
+    }
+
+    /**
+     * @return total time taken by the checks
+     */
+    public long getElapsedNanos() {
+        return nanos.sum();
+    }
+
+    /**
+     * Resets all counters to zero.
+     */
+    public void reset() {
+        checks.reset();
+        parseFailures.reset();
+        for (LongAdder rejection : rejections) {
+            rejection.reset();
+        }
+        length.reset();
+        tokens.reset();
+        nanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("LimiterMetrics{checks=").append(getCheckCount());
+        for (Constraint constraint : Constraint.values()) {
+            sb.append(", ").append(constraint).append('=').append(getRejectionCount(constraint));
+        }
+        return sb.append(", parseFailures=").append(getParseFailureCount())
+                .append(", length=").append(getLength())
+                .append(", tokens=").append(getTokenCount())
+                .append(", elapsedNanos=").append(getElapsedNanos())
+                .append('}').toString();
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.pjfanning.json;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Counts the distinct field names of a document, for {@link StreamReadConstraints#getMaxDistinctNames()}.
+ * <p>
+ * Only a 32-bit hash of each name is kept, in an open-addressed table of <code>int</code>s with linear
+ * probing, so adding a name allocates nothing until the table grows (at three quarters full), and the table
+ * takes 4 to 8 bytes per name (e.g. 32KB for 5,000 names). Names are hashed as
+ * the UTF-16 units that Jackson decodes them to, so {@link TokenValidator}, {@link Utf8Scanner} (from the
+ * escaped UTF-8 bytes) and {@link CborScanner} count the same names. The hash starts from a random seed
+ * for each set, so that names that collide in the table cannot be crafted in advance; two distinct names
+ * whose 32-bit hashes are equal count as one (about one in 10,000 names of a set of a million), which does
+ * not matter for a limit.
+ * </p>
+ * Instances are single use and not thread-safe.
+ */
+final class NameSet {
+
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final long seed = ThreadLocalRandom.current().nextLong();
+    /** Hashes of the names (never 0), and 0 for empty slots. */
+    private int[] table = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @return the hash of an empty name, to pass on to {@link #mix(long, int)}
+     */
+    long seed() {
+        return seed;
+    }
+
+    /**
+     * Adds a UTF-16 unit of a name to its hash.
+     * @param hash hash of the name so far (starting from {@link #seed()})
+     * @param unit the next UTF-16 unit of the name
+     * @return the hash of the name so far, including the unit
+     */
+    static long mix(final long hash, final int unit) {
+        return (hash ^ unit) * MULTIPLIER;
+    }
+
+    /**
+     * @return the hash of a name
+     */
+    long hash(final String name) {
+        long hash = seed;
+        for (int i = 0; i < name.length(); i++) {
+            hash = mix(hash, name.charAt(i));
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes a name that is encoded as valid UTF-8, as the UTF-16 units it decodes to.
+     * @return the hash of the name
+     */
+    long hashUtf8(final byte[] bytes, final int from, final int to) {
+        long hash = seed;
+        int i = from;
+        while (i < to) {
+            final int c = bytes[i++] & 0xFF;
+            if (c < 0x80) {
+                hash = mix(hash, c);
+            } else if ((c & 0xE0) == 0xC0) {
+                hash = mix(hash, ((c & 0x1F) << 6) | (bytes[i++] & 0x3F));
+            } else if ((c & 0xF0) == 0xE0) {
+                hash = mix(hash, ((c & 0x0F) << 12) | ((bytes[i++] & 0x3F) << 6) | (bytes[i++] & 0x3F));
+            } else {
+                final int codePoint = ((c & 0x07) << 18) | ((bytes[i++] & 0x3F) << 12)
+                        | ((bytes[i++] & 0x3F) << 6) | (bytes[i++] & 0x3F);
+                hash = mixSupplementary(hash, codePoint);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Adds a code point that is encoded as a surrogate pair to the hash of a name.
+     */
+    static long mixSupplementary(final long hash, final int codePoint) {
+        final int value = codePoint - 0x10000;
+        return mix(mix(hash, 0xD800 | ((value >> 10) & 0x3FF)), 0xDC00 | (value & 0x3FF));
+    }
+
+    /**
+     * Adds a name, unless the set already holds it.
+     * @param hash hash of the name (see {@link #hash(String)})
+     * @return the number of distinct names
+     */
+    int add(final long hash) {
+        // spread the hash over the table index, and keep 0 for empty slots
+        long mixed = hash ^ (hash >>> 33);
+        mixed *= 0xFF51AFD7ED558CCDL;
+        int key = (int) (mixed ^ (mixed >>> 33));
+        if (key == 0) {
+            key = 1;
+        }
+        final int mask = table.length - 1;
+        int slot = key & mask;
+        for (;;) {
+            final int existing = table[slot];
+            if (existing == key) {
+                return size;
+            }
+            if (existing == 0) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = key;
+        if (++size > table.length - (table.length >>> 2)) {
+            grow();
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of distinct names
+     */
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        final int[] old = table;
+        table = new int[old.length * 2];
+        final int mask = table.length - 1;
+        for (final int key : old) {
+            if (key != 0) {
+                int slot = key & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = key;
+            }
+        }
+    }
+}
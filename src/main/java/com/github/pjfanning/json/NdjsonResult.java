@@ -0,0 +1,96 @@
+package com.github.pjfanning.json;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an {@link NdjsonValidator} run: the records that failed (in input order) and the size of
+ * the input.
+ */
+public class NdjsonResult {
+
+    /**
+     * A record that failed validation.
+     */
+    public static final class Failure {
+        private final long line;
+        private final long byteOffset;
+        private final Exception exception;
+
+        Failure(final long line, final long byteOffset, final Exception exception) {
+            this.line = line;
+            this.byteOffset = byteOffset;
+            this.exception = exception;
+        }
+
+        /**
+         * @return line number of the record (starting at 1)
+         */
+        public long getLine() {
+            return line;
+        }
+
+        /**
+         * @return offset of the first byte of the record in the input
+         */
+        public long getByteOffset() {
+            return byteOffset;
+        }
+
+        /**
+         * @return the exception thrown by the check (e.g. an {@link IllegalStateException},
+         * {@link NumberFormatException} or {@link java.io.IOException})
+         */
+        public Exception getException() {
+            return exception;
+        }
+
+        @Override
+        public String toString() {
+            return "Failure{line=" + line + ", byteOffset=" + byteOffset + ", exception=" + exception + "}";
+        }
+    }
+
+    private final long lineCount;
+    private final long byteCount;
+    private final List<Failure> failures;
+
+    NdjsonResult(final long lineCount, final long byteCount, final List<Failure> failures) {
+        this.lineCount = lineCount;
+        this.byteCount = byteCount;
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * @return number of lines (a final newline does not start another line)
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return number of bytes in the input
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * @return <code>true</code> if every record passed
+     */
+    public boolean isAllValid() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * @return the failed records, in input order
+     */
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    @Override
+    public String toString() {
+        return "NdjsonResult{lines=" + lineCount + ", bytes=" + byteCount + ", failures=" + failures + "}";
+    }
+}
@@ -0,0 +1,422 @@
+package com.github.pjfanning.json;
+
+import com.github.pjfanning.json.util.SizeLimitInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Validates newline-delimited JSON (NDJSON / JSON Lines): every line is a record that is checked on its
+ * own against the record {@link StreamReadConstraints} (so the maximum total length applies per record),
+ * and an optional limit applies to the input as a whole.
+ * <p>
+ * The input is cut into blocks of about 64KB at line boundaries, without looking at the bytes in between,
+ * and the blocks are validated concurrently by a {@link BatchValidator}. Each block splits its own lines
+ * and validates them with the byte scanner used by {@link Utf8ScanningLimiter}. A record that fails
+ * does not stop the validation of the others; the failures are reported in input order with their line
+ * number and byte offset.
+ * </p>
+ * <p>
+ * A record must be a single JSON value: anything but white space after the end of its first value fails
+ * the line, so that a second value on the line cannot get past the checks. Blank lines pass. Instances are
+ * immutable and thread-safe.
+ * </p>
+ */
+public class NdjsonValidator {
+
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    public static final class Builder {
+        private final StreamReadConstraints recordConstraints;
+        private long maxTotalLength = Long.MAX_VALUE;
+        private BatchValidator batchValidator;
+
+        Builder(final StreamReadConstraints recordConstraints) {
+            if (recordConstraints == null) {
+                throw new NullPointerException("null constraints");
+            }
+            this.recordConstraints = recordConstraints;
+        }
+
+        /**
+         * Sets the maximum length of the whole input (in bytes). There is no limit by default.
+         * @param maxTotalLength the maximum length of the whole input (in bytes)
+         * @return this builder
+         * @throws IllegalArgumentException if the maxTotalLength is set to a negative value
+         */
+        public Builder maxTotalLength(final long maxTotalLength) {
+            if (maxTotalLength < 0) {
+                throw new IllegalArgumentException("Cannot set maxTotalLength to a negative value");
+            }
+            this.maxTotalLength = maxTotalLength;
+            return this;
+        }
+
+        /**
+         * Sets the validator that runs the blocks. The default is {@link BatchValidator#create()};
+         * use <code>BatchValidator.create(Runnable::run, 1)</code> to validate on the calling thread.
+         * @param batchValidator to run the blocks
+         * @return this builder
+         */
+        public Builder batchValidator(final BatchValidator batchValidator) {
+            this.batchValidator = batchValidator;
+            return this;
+        }
+
+        public NdjsonValidator build() {
+            return new NdjsonValidator(recordConstraints, maxTotalLength,
+                    batchValidator == null ? BatchValidator.create() : batchValidator);
+        }
+    }
+
+    private final StreamReadConstraints recordConstraints;
+    private final long maxTotalLength;
+    private final BatchValidator batchValidator;
+
+    /**
+     * @param recordConstraints to apply to each record
+     * @return a new builder
+     * @throws NullPointerException if recordConstraints is <code>null</code>
+     */
+    public static Builder builder(final StreamReadConstraints recordConstraints) {
+        return new Builder(recordConstraints);
+    }
+
+    /**
+     * @param recordConstraints to apply to each record
+     * @return a validator without a limit on the whole input
+     * @throws NullPointerException if recordConstraints is <code>null</code>
+     */
+    public static NdjsonValidator create(final StreamReadConstraints recordConstraints) {
+        return builder(recordConstraints).build();
+    }
+
+    NdjsonValidator(final StreamReadConstraints recordConstraints, final long maxTotalLength,
+                    final BatchValidator batchValidator) {
+        this.recordConstraints = recordConstraints;
+        this.maxTotalLength = maxTotalLength;
+        this.batchValidator = batchValidator;
+    }
+
+    /**
+     * Validates the UTF-8 input bytes.
+     * @param input bytes
+     * @return the failed records and the number of lines
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if the input is longer than the maximum total length
+     * @throws IOException if the validation is interrupted
+     */
+    public NdjsonResult validate(final byte[] input) throws IOException {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        if (input.length > maxTotalLength) {
+            throw Constraint.TOTAL_LENGTH.exception(input.length, maxTotalLength);
+        }
+        return run(new ArrayBlocks(input));
+    }
+
+    /**
+     * Validates the UTF-8 <code>InputStream</code>. Only a few blocks are buffered at a time, plus the
+     * current line when it is longer than a block (up to the record's maximum total length: longer lines
+     * fail without being buffered). The record constraints' maximum read time and minimum read rate apply
+     * to the whole stream.
+     * @param input stream (that will only be closed if an exception is thrown)
+     * @return the failed records and the number of lines
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IOException if I/O issues occur (or total size is too big)
+     */
+    public NdjsonResult validate(final InputStream input) throws IOException {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        final InputStream wrappedStream = new SizeLimitInputStream(input, maxTotalLength,
+                recordConstraints.newReadBudget("bytes"));
+        try {
+            return run(new StreamBlocks(wrappedStream));
+        } catch (Exception e) {
+            wrappedStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the constraints applied to each record
+     */
+    public StreamReadConstraints getRecordConstraints() {
+        return recordConstraints;
+    }
+
+    /**
+     * @return the maximum length of the whole input, in bytes
+     */
+    public long getMaxTotalLength() {
+        return maxTotalLength;
+    }
+
+    private NdjsonResult run(final Iterator<Block> blocks) throws IOException {
+        final List<Block> done = new ArrayList<>();
+        final Iterator<Block> recording = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return blocks.hasNext();
+            }
+
+            @Override
+            public Block next() {
+                final Block block = blocks.next();
+                done.add(block);
+                return block;
+            }
+        };
+        try {
+            batchValidator.validate(recording, this::validateBlock);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException interrupted = new InterruptedIOException("NDJSON validation interrupted");
+            interrupted.initCause(e);
+            throw interrupted;
+        }
+        final List<NdjsonResult.Failure> failures = new ArrayList<>();
+        long lines = 0L;
+        long bytes = 0L;
+        for (Block block : done) {
+            for (NdjsonResult.Failure failure : block.failures) {
+                failures.add(new NdjsonResult.Failure(lines + failure.getLine(), failure.getByteOffset(),
+                        failure.getException()));
+            }
+            lines += block.lines;
+            bytes = block.byteOffset + block.inputLength;
+        }
+        return new NdjsonResult(lines, bytes, failures);
+    }
+
+    /**
+     * Validates the lines of a block; the failures get line numbers relative to the block.
+     */
+    private void validateBlock(final Block block) {
+        if (block.oversized != null) {
+            block.lines = 1;
+            block.failures.add(new NdjsonResult.Failure(1L, block.byteOffset, block.oversized));
+            return;
+        }
+        final byte[] array = block.array;
+        final int end = block.offset + block.length;
+        int start = block.offset;
+        while (start < end) {
+            int lineEnd = start;
+            while (lineEnd < end && array[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            block.lines++;
+            try {
+                recordConstraints.validateTotalLength(lineEnd - start);
+                final Utf8Scanner scanner = new Utf8Scanner(recordConstraints, array, start, lineEnd - start);
+                if (scanner.isScannable()) {
+                    scanner.scan();
+                    scanner.scanEnd();
+                } else {
+                    SizeLimiter.checkSingleValue(recordConstraints, scanner.remainingInput());
+                }
+            } catch (IOException | RuntimeException e) {
+                block.failures.add(new NdjsonResult.Failure(block.lines,
+                        block.byteOffset + start - block.offset, e));
+            }
+            start = lineEnd + 1;
+        }
+        block.array = null;
+    }
+
+    /**
+     * Whole lines of the input (the last one may be unterminated).
+     */
+    private static final class Block {
+        byte[] array;
+        final int offset;
+        final int length;
+        /** Offset of the block in the input. */
+        final long byteOffset;
+        /** Number of input bytes the block stands for (more than length for an oversized line). */
+        final long inputLength;
+        /** Set when the block stands for a single line that was too long to buffer. */
+        final Exception oversized;
+        int lines;
+        final List<NdjsonResult.Failure> failures = new ArrayList<>(0);
+
+        Block(final byte[] array, final int offset, final int length, final long byteOffset) {
+            this.array = array;
+            this.offset = offset;
+            this.length = length;
+            this.byteOffset = byteOffset;
+            this.inputLength = length;
+            this.oversized = null;
+        }
+
+        Block(final long byteOffset, final long inputLength, final Exception oversized) {
+            this.offset = 0;
+            this.length = 0;
+            this.byteOffset = byteOffset;
+            this.inputLength = inputLength;
+            this.oversized = oversized;
+        }
+    }
+
+    /**
+     * Cuts a byte array into blocks: jumps {@link #BLOCK_SIZE} bytes ahead and extends the block to the
+     * end of that line.
+     */
+    private static final class ArrayBlocks implements Iterator<Block> {
+        private final byte[] input;
+        private int pos;
+
+        ArrayBlocks(final byte[] input) {
+            this.input = input;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pos < input.length;
+        }
+
+        @Override
+        public Block next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final int start = pos;
+            int end = (int) Math.min(input.length, (long) start + BLOCK_SIZE);
+            while (end < input.length && input[end - 1] != '\n') {
+                end++;
+            }
+            pos = end;
+            return new Block(input, start, end - start, start);
+        }
+    }
+
+    /**
+     * Reads blocks of whole lines from a stream. Each block gets its own array, since blocks are
+     * validated while the next ones are read.
+     */
+    private final class StreamBlocks implements Iterator<Block> {
+        private final InputStream in;
+        /** Bytes read after the end of the previous block. */
+        private byte[] carry = new byte[0];
+        private long byteOffset;
+        private boolean eof;
+
+        StreamBlocks(final InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !eof || carry.length > 0;
+        }
+
+        @Override
+        public Block next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return readBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Block readBlock() throws IOException {
+            byte[] buffer = Arrays.copyOf(carry, Math.max(BLOCK_SIZE, carry.length));
+            int filled = carry.length;
+            int searched = 0;
+            for (;;) {
+                while (filled < buffer.length && !eof) {
+                    final int count = in.read(buffer, filled, buffer.length - filled);
+                    if (count < 0) {
+                        eof = true;
+                    } else if (count == 0) {
+                        throw new IOException("InputStream.read() returned 0 characters when trying to read "
+                                + (buffer.length - filled) + " bytes");
+                    } else {
+                        filled += count;
+                    }
+                }
+                final int lastNewline = lastNewline(buffer, searched, filled);
+                if (lastNewline >= 0 || eof) {
+                    final int end = lastNewline >= 0 ? lastNewline + 1 : filled;
+                    carry = Arrays.copyOfRange(buffer, end, filled);
+                    final Block block = new Block(buffer, 0, end, byteOffset);
+                    byteOffset += end;
+                    return block;
+                }
+                // the buffer holds the start of a single line
+                final long maxRecordLength = recordConstraints.getMaxTotalLength();
+                if (filled > maxRecordLength) {
+                    return skipOversizedLine(filled);
+                }
+                searched = filled;
+                buffer = Arrays.copyOf(buffer, (int) Math.min(Math.min(buffer.length * 2L, maxRecordLength + 1L),
+                        Integer.MAX_VALUE - 8));
+            }
+        }
+
+        /**
+         * The buffer holds the start of a line that is already longer than a record may be: fail the line
+         * and discard the rest of it without buffering.
+         */
+        private Block skipOversizedLine(final int buffered) throws IOException {
+            long length = buffered;
+            long lineLength = buffered;
+            final byte[] buffer = new byte[BLOCK_SIZE];
+            for (;;) {
+                final int count = in.read(buffer, 0, buffer.length);
+                if (count < 0) {
+                    eof = true;
+                    carry = new byte[0];
+                    lineLength = length;
+                    break;
+                }
+                final int newline = firstNewline(buffer, count);
+                if (newline >= 0) {
+                    lineLength = length + newline;
+                    length += newline + 1;
+                    carry = Arrays.copyOfRange(buffer, newline + 1, count);
+                    break;
+                }
+                length += count;
+            }
+            final Exception exception = Constraint.TOTAL_LENGTH.exception(lineLength,
+                    recordConstraints.getMaxTotalLength());
+            final Block block = new Block(byteOffset, length, exception);
+            byteOffset += length;
+            return block;
+        }
+    }
+
+    private static int lastNewline(final byte[] buffer, final int from, final int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int firstNewline(final byte[] buffer, final int to) {
+        for (int i = 0; i < to; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.github.pjfanning.json.util.SizeLimitExceededException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Validates JSON that arrives in chunks, without blocking and without buffering the body.
+ * <p>
+ * Each chunk passed to {@link #feed(ByteBuffer)} is handed to Jackson's non-blocking parser as is
+ * (no copy) and all complete tokens are validated before <code>feed</code> returns, so a violation is
+ * reported as soon as the chunk that contains it arrives. Call {@link #endOfInput()} once the last chunk
+ * has been fed. All {@link StreamReadConstraints} apply across chunks, including the total length
+ * (in bytes).
+ * </p>
+ * <p>
+ * Create instances with {@link SizeLimiter#createNonBlockingValidator()}. Instances validate one
+ * input, are not thread-safe and should be discarded after any exception.
+ * </p>
+ */
+public class NonBlockingValidator implements Closeable {
+
+    private final StreamReadConstraints constraints;
+    private final JsonParser jsonParser;
+    private final ByteBufferFeeder feeder;
+    private final TokenValidator validator;
+    private long fed = 0L;
+    private boolean complete;
+
+    NonBlockingValidator(final StreamReadConstraints constraints, final JsonFactory jsonFactory) throws IOException {
+        this.constraints = constraints;
+        this.jsonParser = jsonFactory.createNonBlockingByteBufferParser();
+        this.feeder = (ByteBufferFeeder) jsonParser.getNonBlockingInputFeeder();
+        this.validator = new TokenValidator(constraints, jsonFactory.canHandleBinaryNatively());
+    }
+
+    /**
+     * Validates the next chunk of input. The bytes between the chunk's position and limit are used
+     * (the position is not changed); the chunk must not be modified until this method returns.
+     * @param chunk next chunk of input
+     * @throws NullPointerException if chunk is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if JSON parse issues occur (or total size is too big)
+     */
+    public void feed(final ByteBuffer chunk) throws IOException {
+        if (chunk == null) {
+            throw new NullPointerException("null chunk");
+        }
+        fed += chunk.remaining();
+        checkLimit();
+        if (complete || !chunk.hasRemaining()) {
+            // like the blocking checks, anything after the root-level value is not parsed
+            return;
+        }
+        feeder.feedInput(chunk);
+        validateAvailableTokens();
+    }
+
+    /**
+     * Signals that all input has been fed and validates what is left.
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if JSON parse issues occur (e.g. the input is truncated)
+     */
+    public void endOfInput() throws IOException {
+        feeder.endOfInput();
+        if (!complete) {
+            validateAvailableTokens();
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the root-level value (or the whole input) has been validated
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Return number of bytes fed.
+     * @return bytes fed
+     */
+    public long getBytesFed() {
+        return fed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        jsonParser.close();
+    }
+
+    private void validateAvailableTokens() throws IOException {
+        JsonToken jsonToken;
+        while ((jsonToken = jsonParser.nextToken()) != JsonToken.NOT_AVAILABLE) {
+            if (jsonToken == null || validator.validate(jsonToken, jsonParser)) {
+                complete = true;
+                return;
+            }
+        }
+    }
+
+    private void checkLimit() throws IOException {
+        final long limit = constraints.getMaxTotalLength();
+        if (limit > 0 && fed > limit) {
+            throw new SizeLimitExceededException("Read more than size limit (" + limit
+                    + ") bytes", fed, limit);
+        }
+    }
+}
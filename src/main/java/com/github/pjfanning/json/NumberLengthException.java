@@ -0,0 +1,33 @@
+package com.github.pjfanning.json;
+
+/**
+ * Thrown by the checks when a number is longer than {@link StreamReadConstraints#getMaxNumberLength()}
+ * allows. It is a {@link NumberFormatException}, like the exception Jackson throws for a number it cannot
+ * parse.
+ */
+public class NumberLengthException extends NumberFormatException {
+    private static final long serialVersionUID = 1L;
+
+    private final long observed;
+    private final long allowed;
+
+    NumberLengthException(final long observed, final long allowed) {
+        super(Constraint.NUMBER_LENGTH.message(observed, allowed));
+        this.observed = observed;
+        this.allowed = allowed;
+    }
+
+    /**
+     * @return the length of the number
+     */
+    public long getObserved() {
+        return observed;
+    }
+
+    /**
+     * @return the maximum length that the constraints allow
+     */
+    public long getAllowed() {
+        return allowed;
+    }
+}
@@ -0,0 +1,229 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.BufferRecyclers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Validates a large UTF-8 document whose root value is an array by validating its elements concurrently.
+ * <p>
+ * A quick structural pre-scan (see {@link ArraySplitter}) cuts the array into ranges of about 1MB that
+ * hold whole elements, and a {@link BatchValidator} checks the ranges with the byte scanner used by
+ * {@link Utf8ScanningLimiter}, while the pre-scan carries on. The checks are the same as for the whole
+ * document, and so is the verdict: when several ranges fail, the exception of the first one is thrown,
+ * and that is the exception a sequential check would throw.
+ * </p>
+ * <p>
+ * Documents that are smaller than 2MB, whose root value is not an array or that are not UTF-8 are
+ * checked sequentially, as are arrays whose closing bracket cannot be found. So are all documents when
+ * the constraints limit the token count, the number of array elements or the number of distinct field names:
+ * these count across ranges.
+ * Instances are thread-safe.
+ * </p>
+ */
+public class ParallelArrayValidator {
+
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    private final StreamReadConstraints constraints;
+    private final BatchValidator batchValidator;
+    private final int chunkSize;
+
+    /**
+     * @param constraints to apply
+     * @return a validator that runs on {@link BatchValidator#create()}
+     * @throws NullPointerException if constraints is <code>null</code>
+     */
+    public static ParallelArrayValidator create(final StreamReadConstraints constraints) {
+        return new ParallelArrayValidator(constraints, BatchValidator.create(), CHUNK_SIZE);
+    }
+
+    /**
+     * @param constraints to apply
+     * @param batchValidator runs the ranges
+     * @return a new validator
+     * @throws NullPointerException if constraints or batchValidator is <code>null</code>
+     */
+    public static ParallelArrayValidator create(final StreamReadConstraints constraints,
+                                                final BatchValidator batchValidator) {
+        return new ParallelArrayValidator(constraints, batchValidator, CHUNK_SIZE);
+    }
+
+    ParallelArrayValidator(final StreamReadConstraints constraints, final BatchValidator batchValidator,
+                           final int chunkSize) {
+        if (constraints == null) {
+            throw new NullPointerException("null constraints");
+        }
+        if (batchValidator == null) {
+            throw new NullPointerException("null batchValidator");
+        }
+        this.constraints = constraints;
+        this.batchValidator = batchValidator;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return the constraints applied by this validator
+     */
+    public StreamReadConstraints getConstraints() {
+        return constraints;
+    }
+
+    /**
+     * Validates the UTF-8 input bytes. The total length is measured in bytes.
+     * @param input bytes
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws NumberFormatException if number constraints fail
+     * @throws IOException if JSON parse issues occur (or the validation is interrupted)
+     */
+    public void check(final byte[] input) throws IOException {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        check(input, 0, input.length);
+    }
+
+    /**
+     * Validates a range of UTF-8 input bytes. The total length is measured in bytes.
+     * @param input bytes
+     * @param offset of the first byte to validate
+     * @param length number of bytes to validate
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IndexOutOfBoundsException if the range is not within the input array
+     * @throws IllegalStateException if constraints fail
+     * @throws NumberFormatException if number constraints fail
+     * @throws IOException if JSON parse issues occur (or the validation is interrupted)
+     */
+    public void check(final byte[] input, final int offset, final int length) throws IOException {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        if (length < 2 * chunkSize || !isSplittable()) {
+            Utf8ScanningLimiter.check(constraints, input, offset, length);
+            return;
+        }
+        if (offset < 0 || length > input.length - offset) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+                    + ") out of bounds for length " + input.length);
+        }
+        constraints.validateTotalLength(length);
+        final Utf8Scanner scanner = new Utf8Scanner(constraints, input, offset, length);
+        if (!scanner.isScannable()) {
+            SizeLimiter.check(constraints, scanner.remainingInput());
+            return;
+        }
+        run(ByteBuffer.wrap(input, offset, length), range -> new Utf8Scanner(constraints, input,
+                offset + (int) range.start, length - (int) range.start, range.start).scanElements(range.end),
+                scanner);
+    }
+
+    /**
+     * Validates the file. The file size is checked against the maximum total length (in bytes)
+     * before anything is read.
+     * @param input file
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws NumberFormatException if number constraints fail
+     * @throws IOException if I/O or JSON parse issues occur (or the validation is interrupted)
+     */
+    public void check(final Path input) throws IOException {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            check(channel);
+        }
+    }
+
+    /**
+     * Validates the content of the channel from its current position to the end of the file, which is
+     * memory-mapped. The size is checked against the maximum total length (in bytes) before anything is read.
+     * @param input channel (that is not closed and whose position is not changed)
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws NumberFormatException if number constraints fail
+     * @throws IOException if I/O or JSON parse issues occur (or the validation is interrupted)
+     */
+    public void check(final FileChannel input) throws IOException {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        final long position = input.position();
+        final long length = Math.max(0L, input.size() - position);
+        if (length < 2L * chunkSize || !isSplittable()) {
+            SizeLimiter.check(constraints, input);
+            return;
+        }
+        constraints.validateTotalLength(length);
+        final ByteBuffer mapped = input.map(FileChannel.MapMode.READ_ONLY, position, length);
+        final BufferRecycler recycler = BufferRecyclers.getBufferRecycler();
+        final byte[] chunk = recycler.allocByteBuffer(BufferRecycler.BYTE_READ_IO_BUFFER);
+        try {
+            final Utf8Scanner scanner = new Utf8Scanner(constraints, new ByteBufferInputStream(mapped), chunk);
+            if (!scanner.isScannable()) {
+                SizeLimiter.check(constraints, scanner.remainingInput());
+                return;
+            }
+            run(mapped, range -> scanRange(mapped, range), scanner);
+        } finally {
+            recycler.releaseByteBuffer(BufferRecycler.BYTE_READ_IO_BUFFER, chunk);
+        }
+    }
+
+    private boolean isSplittable() {
+        return constraints.getMaxTokenCount() == StreamReadConstraints.DEFAULT_MAX_TOKEN_COUNT
+                && constraints.getMaxArrayElements() == StreamReadConstraints.DEFAULT_MAX_ARRAY_ELEMENTS
+                && constraints.getMaxDistinctNames() == StreamReadConstraints.DEFAULT_MAX_DISTINCT_NAMES;
+    }
+
+    /**
+     * @param sequential scanner over the whole input, used when the input cannot be split
+     */
+    private void run(final ByteBuffer input, final BatchValidator.Check<ArraySplitter.Range> check,
+                     final Utf8Scanner sequential) throws IOException {
+        final ArraySplitter splitter = new ArraySplitter(input, chunkSize);
+        if (!splitter.isArray()) {
+            sequential.scan();
+            return;
+        }
+        final BatchResult result;
+        try {
+            result = batchValidator.validate(splitter, check);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException interrupted = new InterruptedIOException("Validation interrupted");
+            interrupted.initCause(e);
+            throw interrupted;
+        }
+        if (!result.isAllValid()) {
+            final Exception first = result.getFailures().get(0).getException();
+            if (first instanceof IOException) {
+                throw (IOException) first;
+            }
+            throw (RuntimeException) first;
+        }
+        if (!splitter.isComplete()) {
+            // truncated or unbalanced: let the scanner find the error
+            sequential.scan();
+        }
+    }
+
+    private void scanRange(final ByteBuffer mapped, final ArraySplitter.Range range) throws IOException {
+        final ByteBuffer slice = mapped.duplicate();
+        slice.position((int) range.start);
+        final BufferRecycler recycler = BufferRecyclers.getBufferRecycler();
+        final byte[] chunk = recycler.allocByteBuffer(BufferRecycler.BYTE_READ_IO_BUFFER);
+        try {
+            new Utf8Scanner(constraints, new ByteBufferInputStream(slice), chunk, range.start).scanElements(range.end);
+        } finally {
+            recycler.releaseByteBuffer(BufferRecycler.BYTE_READ_IO_BUFFER, chunk);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.JsonPointer;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Limits of {@link StreamReadConstraints} that only apply at some paths, e.g. a higher maximum string length
+ * for <code>/attachments/&#42;/data</code>.
+ * <p>
+ * Paths are JSON pointers whose segments can be a <code>*</code> wildcard, which matches any field name and
+ * any array index. When several paths match, the one that names a field (or index) where the others have a
+ * wildcard, first from the left, wins; a limit that this path does not set comes from the next one, and in
+ * the end from the global limit.
+ * </p>
+ * <p>
+ * The paths are compiled into a deterministic trie: each node is the set of paths that match the values
+ * below it, with the limits that apply there already resolved, so the validator moves from node to node with
+ * one lookup per field name or array element and never backtracks.
+ * </p>
+ */
+final class PathConstraints implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int STRING_LENGTH = 0;
+    static final int NUMBER_LENGTH = 1;
+    static final int ARRAY_ELEMENTS = 2;
+    static final int OBJECT_ENTRIES = 3;
+    private static final int KINDS = 4;
+
+    static final String WILDCARD = "*";
+
+    /** The limits of each path, by kind (-1 where the path does not set one), in the order they were set. */
+    private final Map<String, int[]> limits;
+    private transient Node root;
+
+    /**
+     * A set of paths that match the current value, with the limits that apply to it.
+     */
+    static final class Node {
+        /** Limits for the value, by kind, -1 where the global limit applies. */
+        final int[] limits;
+        private final Map<String, Node> names;
+        /** Sorted array indexes that some path names, and their nodes. */
+        private final int[] indexes;
+        private final Node[] indexNodes;
+        private final Node wildcard;
+
+        private Node(final int[] limits, final Map<String, Node> names, final int[] indexes,
+                     final Node[] indexNodes, final Node wildcard) {
+            this.limits = limits;
+            this.names = names;
+            this.indexes = indexes;
+            this.indexNodes = indexNodes;
+            this.wildcard = wildcard;
+        }
+
+        /**
+         * @return the node of a field of the object at this node, or <code>null</code> if no path goes there
+         */
+        Node field(final String name) {
+            final Node node = names.get(name);
+            return node != null ? node : wildcard;
+        }
+
+        /**
+         * @return the node of an element of the array at this node, or <code>null</code> if no path goes there
+         */
+        Node element(final int index) {
+            final int i = indexes.length == 0 ? -1 : Arrays.binarySearch(indexes, index);
+            return i >= 0 ? indexNodes[i] : wildcard;
+        }
+
+        /**
+         * @return the limit of the given kind, or <code>global</code> if no path sets one here
+         */
+        int limit(final int kind, final int global) {
+            final int limit = limits[kind];
+            return limit < 0 ? global : limit;
+        }
+    }
+
+    /**
+     * A path split into segments, <code>null</code> for a wildcard.
+     */
+    private static final class Pattern {
+        final String[] segments;
+        final int[] limits;
+
+        Pattern(final String[] segments, final int[] limits) {
+            this.segments = segments;
+            this.limits = limits;
+        }
+
+        /**
+         * Orders paths that match the same value: the first segment where one is a name and the other a
+         * wildcard decides.
+         */
+        int compareSpecificity(final Pattern other) {
+            for (int i = 0; i < segments.length; i++) {
+                if ((segments[i] == null) != (other.segments[i] == null)) {
+                    return segments[i] != null ? -1 : 1;
+                }
+            }
+            return 0;
+        }
+    }
+
+    static final PathConstraints NONE = new PathConstraints(Collections.emptyMap());
+
+    private PathConstraints(final Map<String, int[]> limits) {
+        this.limits = limits;
+        this.root = compile(limits);
+    }
+
+    /**
+     * @return constraints with the limit of one kind set for a path
+     * @throws IllegalArgumentException if the path is not a valid JSON pointer
+     */
+    PathConstraints with(final String path, final int kind, final int limit) {
+        JsonPointer.compile(path);
+        final Map<String, int[]> copy = new LinkedHashMap<>();
+        for (final Map.Entry<String, int[]> entry : limits.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().clone());
+        }
+        copy.computeIfAbsent(path, p -> newLimits())[kind] = limit;
+        return new PathConstraints(Collections.unmodifiableMap(copy));
+    }
+
+    /**
+     * @return the root of the trie, or <code>null</code> if no limits are set for any path
+     */
+    Node root() {
+        return root;
+    }
+
+    boolean isEmpty() {
+        return limits.isEmpty();
+    }
+
+    /**
+     * @return the limit of a kind that applies to the value at the (wildcard free) pointer
+     */
+    int limit(final JsonPointer pointer, final int kind, final int global) {
+        Node node = root;
+        JsonPointer current = pointer;
+        while (node != null && !current.matches()) {
+            // a segment that is an index has the same node as a name
+            node = node.field(current.getMatchingProperty());
+            current = current.tail();
+        }
+        return node == null ? global : node.limit(kind, global);
+    }
+
+    private static int[] newLimits() {
+        final int[] limits = new int[KINDS];
+        Arrays.fill(limits, -1);
+        return limits;
+    }
+
+    private static Node compile(final Map<String, int[]> limits) {
+        if (limits.isEmpty()) {
+            return null;
+        }
+        final List<Pattern> patterns = new ArrayList<>(limits.size());
+        for (final Map.Entry<String, int[]> entry : limits.entrySet()) {
+            final List<String> segments = new ArrayList<>();
+            for (JsonPointer p = JsonPointer.compile(entry.getKey()); !p.matches(); p = p.tail()) {
+                final String segment = p.getMatchingProperty();
+                segments.add(WILDCARD.equals(segment) ? null : segment);
+            }
+            patterns.add(new Pattern(segments.toArray(new String[0]), entry.getValue()));
+        }
+        return compile(patterns, 0);
+    }
+
+    /**
+     * @param patterns the paths that match the values of this node (all of at least <code>depth</code> segments)
+     * @return the node, or <code>null</code> if no limits are set for it or below it
+     */
+    private static Node compile(final List<Pattern> patterns, final int depth) {
+        if (patterns.isEmpty()) {
+            return null;
+        }
+        final int[] nodeLimits = newLimits();
+        final List<Pattern> ending = new ArrayList<>();
+        final List<Pattern> wildcards = new ArrayList<>();
+        final TreeSet<String> names = new TreeSet<>();
+        for (final Pattern pattern : patterns) {
+            if (pattern.segments.length == depth) {
+                ending.add(pattern);
+            } else if (pattern.segments[depth] == null) {
+                wildcards.add(pattern);
+            } else {
+                names.add(pattern.segments[depth]);
+            }
+        }
+        ending.sort(Pattern::compareSpecificity);
+        for (int kind = 0; kind < KINDS; kind++) {
+            for (final Pattern pattern : ending) {
+                if (pattern.limits[kind] >= 0) {
+                    nodeLimits[kind] = pattern.limits[kind];
+                    break;
+                }
+            }
+        }
+        final Map<String, Node> nameNodes = new HashMap<>();
+        final TreeMap<Integer, Node> indexNodes = new TreeMap<>();
+        for (final String name : names) {
+            final List<Pattern> matching = new ArrayList<>();
+            for (final Pattern pattern : patterns) {
+                if (pattern.segments.length > depth
+                        && (pattern.segments[depth] == null || pattern.segments[depth].equals(name))) {
+                    matching.add(pattern);
+                }
+            }
+            final Node node = compile(matching, depth + 1);
+            nameNodes.put(name, node);
+            final int index = index(name);
+            if (index >= 0) {
+                indexNodes.put(index, node);
+            }
+        }
+        final Node wildcard = compile(wildcards, depth + 1);
+        final int[] indexes = new int[indexNodes.size()];
+        int i = 0;
+        for (final int index : indexNodes.keySet()) {
+            indexes[i++] = index;
+        }
+        return new Node(nodeLimits, nameNodes, indexes, indexNodes.values().toArray(new Node[0]), wildcard);
+    }
+
+    /**
+     * @return the array index that a segment names (like {@link JsonPointer}), or -1
+     */
+    private static int index(final String segment) {
+        if (segment.isEmpty() || segment.length() > 9 || (segment.length() > 1 && segment.charAt(0) == '0')) {
+            return -1;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            if (segment.charAt(i) < '0' || segment.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        return Integer.parseInt(segment);
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        root = compile(limits);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PathConstraints)) {
+            return false;
+        }
+        final Map<String, int[]> other = ((PathConstraints) o).limits;
+        if (limits.size() != other.size()) {
+            return false;
+        }
+        for (final Map.Entry<String, int[]> entry : limits.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), other.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (final Map.Entry<String, int[]> entry : limits.entrySet()) {
+            result += entry.getKey().hashCode() ^ Arrays.hashCode(entry.getValue());
+        }
+        return result;
+    }
+}
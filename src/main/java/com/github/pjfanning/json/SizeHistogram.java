@@ -0,0 +1,132 @@
+package com.github.pjfanning.json;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative sizes with log-linear buckets: values below 16 have a bucket each, and
+ * every power of two above that is split into 8 buckets, so a bucket is at most 12.5% wider than its
+ * lowest value. All sizes up to <code>Long.MAX_VALUE</code> fit in 488 counters.
+ * <p>
+ * Histograms are thread-safe and can be merged with {@link #add(SizeHistogram)}, e.g. to combine the
+ * histograms of several instances of a service. Counts are read without locking: a snapshot taken while
+ * values are recorded may not be consistent.
+ * </p>
+ */
+public final class SizeHistogram implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Values below this have a bucket of their own. */
+    private static final int LINEAR = 2 * SUB_BUCKETS;
+    private static final int LINEAR_BITS = 4;
+    private static final int BUCKETS = LINEAR + (63 - LINEAR_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value.
+     * @param value a size (negative values are recorded as 0)
+     */
+    public void record(final long value) {
+        final long size = Math.max(0L, value);
+        counts.incrementAndGet(bucket(size));
+        max.accumulateAndGet(size, Math::max);
+    }
+
+    /**
+     * Adds the counts of another histogram to this one.
+     * @param other histogram to merge into this one
+     * @throws NullPointerException if other is <code>null</code>
+     */
+    public void add(final SizeHistogram other) {
+        if (other == null) {
+            throw new NullPointerException("null other");
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            final long count = other.counts.get(i);
+            if (count != 0L) {
+                counts.addAndGet(i, count);
+            }
+        }
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    /**
+     * @return number of recorded values
+     */
+    public long getCount() {
+        long count = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return largest recorded value, or 0 if none were recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Finds the value that the given share of the recorded values do not exceed. The result is the highest
+     * value of the bucket that holds the percentile (but not more than {@link #getMax()}), so it may be up
+     * to 12.5% above the exact percentile, never below it.
+     * @param percentile between 0 (exclusive) and 100 (inclusive), e.g. <code>99.9</code>
+     * @return the value at the percentile, or 0 if no values were recorded
+     * @throws IllegalArgumentException if percentile is not in range
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (!(percentile > 0.0 && percentile <= 100.0)) {
+            throw new IllegalArgumentException("Percentile must be in (0, 100]: " + percentile);
+        }
+        final long[] snapshot = new long[BUCKETS];
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(total * (percentile / 100.0)));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int bucket(final long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValue(final int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        final int exponent = (bucket - LINEAR) / SUB_BUCKETS + LINEAR_BITS;
+        final long subBucket = (bucket - LINEAR) % SUB_BUCKETS;
+        final long lowest = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lowest + ((1L << (exponent - SUB_BUCKET_BITS)) - 1L);
+    }
+
+    @Override
+    public String toString() {
+        return "SizeHistogram{count=" + getCount() + ", max=" + getMax() + "}";
+    }
+}
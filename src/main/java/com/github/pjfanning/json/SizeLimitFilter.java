@@ -0,0 +1,119 @@
+package com.github.pjfanning.json;
+
+import com.github.pjfanning.json.util.CapturingInputStream;
+import com.github.pjfanning.json.util.SizeLimitInputStream;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import org.apache.commons.io.input.CloseShieldInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+/**
+ * A {@link Filter} for the JDK's <code>com.sun.net.httpserver</code> that validates request bodies with a
+ * {@link SizeLimiter} before the handler sees them.
+ * <p>
+ * A body whose <code>Content-Length</code> exceeds the maximum total length is rejected with
+ * <code>413 Payload Too Large</code> before any of it is read. Other bodies (including chunked ones) are
+ * validated while they stream in, through a {@link SizeLimitInputStream}, so a violation is rejected with
+ * <code>413</code> as soon as it is read, and a body that is not valid JSON with <code>400 Bad Request</code>.
+ * A body must hold a single JSON value: anything but white space after it (such as a second value, which
+ * the handler's parser might go on to read) is rejected with <code>400</code>.
+ * Bodies with a <code>Content-Encoding</code> of <code>gzip</code> or <code>deflate</code> are decompressed
+ * while they are validated (see {@link SizeLimiter#check(InputStream, Compression)}); other encodings are
+ * rejected with <code>415 Unsupported Media Type</code>. Requests without a body are passed on as they are.
+ * Rejected requests get an empty response, and their connection is closed.
+ * </p>
+ * <p>
+ * The bytes read while a body is validated are kept in one buffer, which the handler then reads through
+ * {@link HttpExchange#getRequestBody()}, followed by anything left of the body (e.g. bytes after the end of
+ * compressed data), so the body is read from the connection once and not copied again. The buffer starts small and
+ * grows as the body is read, so a large <code>Content-Length</code> alone does not allocate memory; the
+ * handler's stream is still limited to the maximum total length.
+ * </p>
+ * Create instances with {@link SizeLimiter#createHttpFilter()}. Instances are thread-safe.
+ */
+public class SizeLimitFilter extends Filter {
+
+    static final int BAD_REQUEST = 400;
+    static final int PAYLOAD_TOO_LARGE = 413;
+    static final int UNSUPPORTED_MEDIA_TYPE = 415;
+
+    /** The buffer of a body with a <code>Content-Length</code> is allocated up to this size, and grows after. */
+    private static final int MAX_INITIAL_CAPACITY = 64 * 1024;
+    private static final int DEFAULT_INITIAL_CAPACITY = 8192;
+
+    private final SizeLimiter limiter;
+
+    SizeLimitFilter(final SizeLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public void doFilter(final HttpExchange exchange, final Chain chain) throws IOException {
+        final Headers headers = exchange.getRequestHeaders();
+        final boolean chunked = headers.containsKey("Transfer-Encoding");
+        final String contentLength = headers.getFirst("Content-Length");
+        long length = -1L;
+        if (contentLength != null && !chunked) {
+            try {
+                length = Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException e) {
+                length = -2L;
+            }
+            if (length < 0L) {
+                reject(exchange, BAD_REQUEST);
+                return;
+            }
+        }
+        if (length == 0L || (length < 0L && !chunked)) {
+            chain.doFilter(exchange);
+            return;
+        }
+        if (length > limiter.getConstraints().getMaxTotalLength()) {
+            reject(exchange, PAYLOAD_TOO_LARGE);
+            return;
+        }
+        final String encoding = headers.getFirst("Content-Encoding");
+        final Compression compression = Compression.forContentEncoding(encoding);
+        if (compression == null && encoding != null && !"identity".equalsIgnoreCase(encoding.trim())) {
+            reject(exchange, UNSUPPORTED_MEDIA_TYPE);
+            return;
+        }
+
+        final InputStream body = exchange.getRequestBody();
+        // a rejected body must not be closed, which would read (drain) more of it
+        final CapturingInputStream capturing = new CapturingInputStream(CloseShieldInputStream.wrap(body),
+                length < 0L ? DEFAULT_INITIAL_CAPACITY : (int) Math.min(length, MAX_INITIAL_CAPACITY));
+        // the whole body is read, so that nothing but white space can follow the validated value
+        final ValidationResult result = compression == null
+                ? limiter.validateSingleValue(capturing) : limiter.validateSingleValue(capturing, compression);
+        if (!result.isValid()) {
+            reject(exchange, result.getConstraint() == null ? BAD_REQUEST : PAYLOAD_TOO_LARGE);
+            return;
+        }
+        exchange.setStreams(new SizeLimitInputStream(
+                new SequenceInputStream(capturing.getCapturedInputStream(), body),
+                limiter.getConstraints().getMaxTotalLength()), null);
+        chain.doFilter(exchange);
+    }
+
+    @Override
+    public String description() {
+        return "Rejects request bodies that violate the constraints of a SizeLimiter";
+    }
+
+    /**
+     * Sends an empty response: the rest of the body is not read, so the server closes the connection.
+     */
+    private static void reject(final HttpExchange exchange, final int status) throws IOException {
+        try {
+            exchange.getResponseHeaders().set("Connection", "close");
+            exchange.sendResponseHeaders(status, -1L);
+        } finally {
+            exchange.close();
+        }
+    }
+}
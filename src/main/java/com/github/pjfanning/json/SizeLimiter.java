@@ -1,17 +1,234 @@
 package com.github.pjfanning.json;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
 import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.BufferRecyclers;
+import com.github.pjfanning.json.util.ReadBudget;
 import com.github.pjfanning.json.util.SizeLimitInputStream;
 import com.github.pjfanning.json.util.SizeLimitReader;
+import com.github.pjfanning.json.util.SlowReadException;
+import org.apache.commons.io.input.CharSequenceReader;
 
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
+/**
+ * Checks JSON inputs (or inputs of another format that Jackson supports) against a
+ * {@link StreamReadConstraints} instance.
+ * <p>
+ * Instances are created with {@link #create(StreamReadConstraints)} and are thread-safe: a single
+ * instance can be shared and used to check many inputs concurrently. Each instance owns one
+ * {@link JsonFactory}, so Jackson's symbol tables and (per-thread) buffers are reused across checks
+ * instead of being rebuilt for every input.
+ * </p>
+ * <p>
+ * The static <code>check</code> methods are kept for convenience and use a factory that is
+ * shared by all static calls.
+ * </p>
+ * <p>
+ * The total length is measured in the unit of the input: chars for text (<code>String</code>,
+ * <code>CharSequence</code>, <code>Reader</code>) and bytes for binary input (<code>byte[]</code>,
+ * <code>ByteBuffer</code>, <code>InputStream</code>, files). When the length is known up front, it is
+ * checked before anything is parsed.
+ * </p>
+ * <p>
+ * Each check of an instance is reported to its {@link LimiterListener} (see
+ * {@link #create(StreamReadConstraints, LimiterListener)}), and every check is recorded as a JDK Flight
+ * Recorder event (<code>com.github.pjfanning.json.Validation</code>) while a recording is running.
+ * </p>
+ * <p>
+ * Limiters created with a {@link VerdictCache} do not parse inputs whose verdict they have seen before.
+ * </p>
+ * <p>
+ * Profiling limiters (see {@link #createProfiling(StreamReadConstraints, SizeProfile)}) record the sizes
+ * of the inputs they check in a {@link SizeProfile}, to derive tighter constraints from real traffic.
+ * </p>
+ * <p>
+ * Limiters created with the factory of another format (see {@link #create(StreamReadConstraints, JsonFactory)}),
+ * such as Smile's <code>SmileFactory</code> or CBOR's <code>CBORFactory</code>, apply the same constraints
+ * to the tokens of that format. Binary formats can only be read from binary input: text input
+ * (<code>String</code>, <code>CharSequence</code>, <code>Reader</code>) makes their factories throw an
+ * <code>UnsupportedOperationException</code>. CBOR <code>byte[]</code> inputs are validated from the
+ * length prefixes of their strings, without decoding them (see {@link #check(byte[], int, int)}).
+ * </p>
+ */
 public class SizeLimiter {
 
+    private static final JsonFactory SHARED_FACTORY = new JsonFactory();
+
+    /**
+     * Files smaller than this are read into a heap buffer: below it, setting up a mapping costs more than
+     * the copy it saves.
+     */
+    static final int MAPPING_THRESHOLD = 256 * 1024;
+
+    private final StreamReadConstraints constraints;
+    private final JsonFactory jsonFactory;
+    private final LimiterListener listener;
+    private final VerdictCache verdictCache;
+    /** The profile to record the sizes of inputs in, or <code>null</code>. */
+    private final SizeProfile profile;
+    private final String formatName;
+    /**
+     * Whether inputs are validated by the byte scanner of {@link Utf8ScanningLimiter}: JSON, unless a profile
+     * is recorded (which needs the largest values that only {@link TokenValidator} keeps).
+     */
+    private final boolean json;
+    /** Whether inputs are validated by {@link CborScanner}: CBOR, unless a profile is recorded. */
+    private final boolean cbor;
+    /** Whether the format is binary, see {@link TokenValidator#TokenValidator(StreamReadConstraints, boolean)}. */
+    private final boolean binary;
+
+    /**
+     * Creates a reusable, thread-safe limiter.
+     * @param constraints to apply
+     * @return a new limiter that owns its own {@link JsonFactory}
+     * @throws NullPointerException if constraints is <code>null</code>
+     */
+    public static SizeLimiter create(final StreamReadConstraints constraints) {
+        return new SizeLimiter(constraints, new JsonFactory(), LimiterListener.NONE);
+    }
+
+    /**
+     * Creates a reusable, thread-safe limiter that reports each check to a listener.
+     * @param constraints to apply
+     * @param listener to report checks to (e.g. a {@link LimiterMetrics})
+     * @return a new limiter that owns its own {@link JsonFactory}
+     * @throws NullPointerException if constraints or listener is <code>null</code>
+     */
+    public static SizeLimiter create(final StreamReadConstraints constraints, final LimiterListener listener) {
+        return new SizeLimiter(constraints, new JsonFactory(), listener);
+    }
+
+    /**
+     * Creates a reusable, thread-safe limiter that caches verdicts, so that inputs which are checked again
+     * (byte-identical <code>String</code>s, <code>CharSequence</code>s, <code>byte[]</code>s and
+     * <code>InputStream</code>s) are not parsed again. Other inputs are always parsed.
+     * @param constraints to apply
+     * @param listener to report checks to (e.g. a {@link LimiterMetrics}, or {@link LimiterListener#NONE})
+     * @param verdictCache to look up and store verdicts in (it can be shared with other limiters)
+     * @return a new limiter that owns its own {@link JsonFactory}
+     * @throws NullPointerException if constraints, listener or verdictCache is <code>null</code>
+     */
+    public static SizeLimiter create(final StreamReadConstraints constraints, final LimiterListener listener,
+                                     final VerdictCache verdictCache) {
+        if (verdictCache == null) {
+            throw new NullPointerException("null verdictCache");
+        }
+        return new SizeLimiter(constraints, new JsonFactory(), listener, verdictCache);
+    }
+
+    /**
+     * Creates a reusable, thread-safe limiter for the format of a Jackson factory, e.g. Smile's
+     * <code>SmileFactory</code> or CBOR's <code>CBORFactory</code>.
+     * @param constraints to apply
+     * @param jsonFactory to create parsers with (which must not be reconfigured while the limiter is in use)
+     * @return a new limiter that uses the factory
+     * @throws NullPointerException if constraints or jsonFactory is <code>null</code>
+     */
+    public static SizeLimiter create(final StreamReadConstraints constraints, final JsonFactory jsonFactory) {
+        return create(constraints, jsonFactory, LimiterListener.NONE);
+    }
+
+    /**
+     * Creates a reusable, thread-safe limiter for the format of a Jackson factory, that reports each check
+     * to a listener.
+     * @param constraints to apply
+     * @param jsonFactory to create parsers with (which must not be reconfigured while the limiter is in use)
+     * @param listener to report checks to (e.g. a {@link LimiterMetrics})
+     * @return a new limiter that uses the factory
+     * @throws NullPointerException if constraints, jsonFactory or listener is <code>null</code>
+     */
+    public static SizeLimiter create(final StreamReadConstraints constraints, final JsonFactory jsonFactory,
+                                     final LimiterListener listener) {
+        if (jsonFactory == null) {
+            throw new NullPointerException("null jsonFactory");
+        }
+        return new SizeLimiter(constraints, jsonFactory, listener);
+    }
+
+    /**
+     * Creates a reusable, thread-safe limiter for the format of a Jackson factory, that caches verdicts
+     * (see {@link #create(StreamReadConstraints, LimiterListener, VerdictCache)}).
+     * @param constraints to apply
+     * @param jsonFactory to create parsers with (which must not be reconfigured while the limiter is in use)
+     * @param listener to report checks to (e.g. a {@link LimiterMetrics}, or {@link LimiterListener#NONE})
+     * @param verdictCache to look up and store verdicts in (it can be shared with other limiters)
+     * @return a new limiter that uses the factory
+     * @throws NullPointerException if constraints, jsonFactory, listener or verdictCache is <code>null</code>
+     */
+    public static SizeLimiter create(final StreamReadConstraints constraints, final JsonFactory jsonFactory,
+                                     final LimiterListener listener, final VerdictCache verdictCache) {
+        if (jsonFactory == null) {
+            throw new NullPointerException("null jsonFactory");
+        }
+        if (verdictCache == null) {
+            throw new NullPointerException("null verdictCache");
+        }
+        return new SizeLimiter(constraints, jsonFactory, listener, verdictCache);
+    }
+
+    /**
+     * Creates a reusable, thread-safe limiter that records the sizes of the inputs it checks in a profile,
+     * from which tighter constraints can be derived (see {@link SizeProfile#suggest(double, double)}).
+     * <p>
+     * The limiter applies the constraints like any other, so to observe traffic without rejecting more of it
+     * than before, use the constraints that are in place (e.g. the defaults). Profiling costs a compare per
+     * token; JSON <code>ByteBuffer</code>s, files and CBOR <code>byte[]</code>s are parsed by Jackson instead
+     * of being scanned, and files and direct buffers that exceed the maximum total length are rejected without
+     * being recorded.
+     * </p>
+     * @param constraints to apply
+     * @param profile to record the sizes in (it can be shared with other limiters)
+     * @return a new limiter that owns its own {@link JsonFactory}
+     * @throws NullPointerException if constraints or profile is <code>null</code>
+     */
+    public static SizeLimiter createProfiling(final StreamReadConstraints constraints, final SizeProfile profile) {
+        if (profile == null) {
+            throw new NullPointerException("null profile");
+        }
+        return new SizeLimiter(constraints, new JsonFactory(), LimiterListener.NONE, null, profile);
+    }
+
+    /**
+     * Creates a reusable, thread-safe limiter for the format of a Jackson factory, that records the sizes of
+     * the inputs it checks in a profile (see {@link #createProfiling(StreamReadConstraints, SizeProfile)}).
+     * For binary formats, the length of every number is measured, which formats floating point numbers.
+     * @param constraints to apply
+     * @param jsonFactory to create parsers with (which must not be reconfigured while the limiter is in use)
+     * @param profile to record the sizes in (it can be shared with other limiters)
+     * @return a new limiter that uses the factory
+     * @throws NullPointerException if constraints, jsonFactory or profile is <code>null</code>
+     */
+    public static SizeLimiter createProfiling(final StreamReadConstraints constraints, final JsonFactory jsonFactory,
+                                              final SizeProfile profile) {
+        if (jsonFactory == null) {
+            throw new NullPointerException("null jsonFactory");
+        }
+        if (profile == null) {
+            throw new NullPointerException("null profile");
+        }
+        return new SizeLimiter(constraints, jsonFactory, LimiterListener.NONE, null, profile);
+    }
+
     /**
      * Validates the total length of the input string.
      * @param constraints to apply
@@ -21,79 +238,893 @@ public class SizeLimiter {
      * @throws IOException if I/O or JSON parse issues occur (or total size is too big)
      */
     public static void check(final StreamReadConstraints constraints, final String input) throws IOException {
+        new SizeLimiter(constraints, SHARED_FACTORY, LimiterListener.NONE).check(input);
+    }
+
+    /**
+     * Validates the input chars, without copying them to a <code>String</code>.
+     * @param constraints to apply
+     * @param input chars (e.g. a <code>StringBuilder</code> or <code>CharBuffer</code>)
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if JSON parse issues occur
+     * @see #check(CharSequence)
+     */
+    public static void check(final StreamReadConstraints constraints, final CharSequence input) throws IOException {
+        new SizeLimiter(constraints, SHARED_FACTORY, LimiterListener.NONE).check(input);
+    }
+
+    /**
+     * Validates the input bytes.
+     * @param constraints to apply
+     * @param input bytes
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if JSON parse issues occur
+     */
+    public static void check(final StreamReadConstraints constraints, final byte[] input) throws IOException {
+        new SizeLimiter(constraints, SHARED_FACTORY, LimiterListener.NONE).check(input);
+    }
+
+    /**
+     * Validates a range of the input bytes.
+     * @param constraints to apply
+     * @param input bytes
+     * @param offset of the first byte to validate
+     * @param length number of bytes to validate
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IndexOutOfBoundsException if the range is not within the input array
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if JSON parse issues occur
+     */
+    public static void check(final StreamReadConstraints constraints, final byte[] input,
+                             final int offset, final int length) throws IOException {
+        new SizeLimiter(constraints, SHARED_FACTORY, LimiterListener.NONE).check(input, offset, length);
+    }
+
+    /**
+     * Validates the remaining bytes of the buffer.
+     * @param constraints to apply
+     * @param input buffer (whose position is not changed)
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if JSON parse issues occur
+     * @see #check(ByteBuffer)
+     */
+    public static void check(final StreamReadConstraints constraints, final ByteBuffer input) throws IOException {
+        new SizeLimiter(constraints, SHARED_FACTORY, LimiterListener.NONE).check(input);
+    }
+
+    /**
+     * Validates the total length of the input reader.
+     * @param constraints to apply
+     * @param input reader (that will only be closed if an exception is thrown)
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if I/O or JSON parse issues occur (or total size is too big)
+     */
+    public static void check(final StreamReadConstraints constraints, final Reader input) throws IOException {
+        new SizeLimiter(constraints, SHARED_FACTORY, LimiterListener.NONE).check(input);
+    }
+
+    /**
+     * Validates the total length of the <code>InputStream</code>.
+     * @param constraints to apply
+     * @param input stream (that will only be closed if an exception is thrown)
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if I/O or JSON parse issues occur (or total size is too big)
+     */
+    public static void check(final StreamReadConstraints constraints, final InputStream input) throws IOException {
+        new SizeLimiter(constraints, SHARED_FACTORY, LimiterListener.NONE).check(input);
+    }
+
+    /**
+     * Validates the <code>InputStream</code>, which must hold a single JSON value, see
+     * {@link #validateSingleValue(InputStream)}.
+     * @param constraints to apply
+     * @param input stream (that will only be closed if an exception is thrown)
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if I/O or JSON parse issues occur, or anything but white space follows the value
+     */
+    static void checkSingleValue(final StreamReadConstraints constraints, final InputStream input)
+            throws IOException {
+        new SizeLimiter(constraints, SHARED_FACTORY, LimiterListener.NONE).validateSingleValue(input).throwIfInvalid();
+    }
+
+    /**
+     * Decompresses and validates the <code>InputStream</code>, see {@link #check(InputStream, Compression)}.
+     * @param constraints to apply
+     * @param input compressed stream (that will only be closed if an exception is thrown)
+     * @param compression format of the stream
+     * @throws NullPointerException if input or compression is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if I/O, decompression or JSON parse issues occur (or the decompressed size or
+     * the compression ratio is too big)
+     */
+    public static void check(final StreamReadConstraints constraints, final InputStream input,
+                             final Compression compression) throws IOException {
+        new SizeLimiter(constraints, SHARED_FACTORY, LimiterListener.NONE).check(input, compression);
+    }
+
+    /**
+     * Validates the file. The file size is checked against the maximum total length (in bytes)
+     * before anything is read.
+     * @param constraints to apply
+     * @param input file
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if I/O or JSON parse issues occur
+     * @see #check(Path)
+     */
+    public static void check(final StreamReadConstraints constraints, final Path input) throws IOException {
+        new SizeLimiter(constraints, SHARED_FACTORY, LimiterListener.NONE).check(input);
+    }
+
+    /**
+     * Validates the content of the channel from its current position to the end of the file.
+     * The size is checked against the maximum total length (in bytes) before anything is read.
+     * @param constraints to apply
+     * @param input channel (that is not closed and whose position is not changed)
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if I/O or JSON parse issues occur
+     * @see #check(FileChannel)
+     */
+    public static void check(final StreamReadConstraints constraints, final FileChannel input) throws IOException {
+        new SizeLimiter(constraints, SHARED_FACTORY, LimiterListener.NONE).check(input);
+    }
+
+    SizeLimiter(final StreamReadConstraints constraints, final JsonFactory jsonFactory,
+                final LimiterListener listener) {
+        this(constraints, jsonFactory, listener, null);
+    }
+
+    SizeLimiter(final StreamReadConstraints constraints, final JsonFactory jsonFactory,
+                final LimiterListener listener, final VerdictCache verdictCache) {
+        this(constraints, jsonFactory, listener, verdictCache, null);
+    }
+
+    SizeLimiter(final StreamReadConstraints constraints, final JsonFactory jsonFactory,
+                final LimiterListener listener, final VerdictCache verdictCache, final SizeProfile profile) {
+        if (constraints == null) {
+            throw new NullPointerException("null constraints");
+        }
+        if (listener == null) {
+            throw new NullPointerException("null listener");
+        }
+        this.constraints = constraints;
+        this.jsonFactory = jsonFactory;
+        this.listener = listener;
+        this.verdictCache = verdictCache;
+        this.profile = profile;
+        this.formatName = jsonFactory.getFormatName();
+        this.json = profile == null && JsonFactory.FORMAT_NAME_JSON.equals(formatName);
+        this.cbor = profile == null && CborScanner.FORMAT_NAME.equals(formatName);
+        this.binary = jsonFactory.canHandleBinaryNatively();
+    }
+
+    /**
+     * @return the constraints applied by this limiter
+     */
+    public StreamReadConstraints getConstraints() {
+        return constraints;
+    }
+
+    /**
+     * Validates the total length of the input string.
+     * @param input string
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if I/O or JSON parse issues occur (or total size is too big)
+     */
+    public void check(final String input) throws IOException {
+        validate(input).throwIfInvalid();
+    }
+
+    /**
+     * Validates the input string without throwing: violations and parse errors are returned.
+     * The total length is checked (in chars) before anything is parsed.
+     * @param input string
+     * @return the result
+     * @throws NullPointerException if input is <code>null</code>
+     */
+    public ValidationResult validate(final String input) {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        final CheckRecorder recorder = new CheckRecorder(listener, "String");
+        final TokenValidator validator = newValidator();
+        final ValidationResult result = input.length() > constraints.getMaxTotalLength()
+                ? totalLengthViolation(input.length())
+                : validateCached(() -> verdictCache.hash(input), input.length(),
+                        () -> validate(() -> jsonFactory.createParser(input), validator));
+        end(recorder, input.length(), validator, result);
+        return result;
+    }
+
+    /**
+     * Validates the input chars, without copying them to a <code>String</code>. The total length is
+     * checked (in chars) before anything is parsed. <code>String</code>s and <code>CharBuffer</code>s
+     * that are backed by an array are passed to the parser as they are; other sequences are read a
+     * buffer at a time.
+     * @param input chars (e.g. a <code>StringBuilder</code> or <code>CharBuffer</code>, whose position
+     *              is not changed)
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if JSON parse issues occur
+     */
+    public void check(final CharSequence input) throws IOException {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        validate(input).throwIfInvalid();
+    }
+
+    /**
+     * Validates the input chars without throwing: violations and parse errors are returned.
+     * The total length is checked (in chars) before anything is parsed.
+     * @param input chars (the position of a {@link CharBuffer} is not changed)
+     * @return the result
+     * @throws NullPointerException if input is <code>null</code>
+     */
+    public ValidationResult validate(final CharSequence input) {
         if (input == null) {
             throw new NullPointerException("null input");
         }
-        constraints.validateTotalLength(input.length());
-        final JsonFactory jfactory = new JsonFactory();
-        try (JsonParser jsonParser = jfactory.createParser(input)) {
-            validate(constraints, jsonParser);
+        if (input instanceof String) {
+            return validate((String) input);
+        }
+        final CheckRecorder recorder = new CheckRecorder(listener, "CharSequence");
+        final TokenValidator validator = newValidator();
+        final ValidationResult result;
+        if (input.length() > constraints.getMaxTotalLength()) {
+            result = totalLengthViolation(input.length());
+        } else if (input instanceof CharBuffer && ((CharBuffer) input).hasArray()) {
+            final CharBuffer buffer = (CharBuffer) input;
+            result = validateCached(() -> verdictCache.hash(input), input.length(),
+                    () -> validate(() -> jsonFactory.createParser(buffer.array(),
+                            buffer.arrayOffset() + buffer.position(), buffer.remaining()), validator));
+        } else {
+            result = validateCached(() -> verdictCache.hash(input), input.length(),
+                    () -> validate(() -> jsonFactory.createParser(new CharSequenceReader(input)), validator));
+        }
+        end(recorder, input.length(), validator, result);
+        return result;
+    }
+
+    /**
+     * Validates the input bytes. The total length is checked (in bytes) before anything is parsed.
+     * @param input bytes
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if JSON parse issues occur
+     */
+    public void check(final byte[] input) throws IOException {
+        if (input == null) {
+            throw new NullPointerException("null input");
         }
+        check(input, 0, input.length);
+    }
+
+    /**
+     * Validates a range of the input bytes, which is passed to the parser without copying. The total
+     * length is checked (in bytes) before anything is parsed.
+     * <p>
+     * CBOR input is first scanned by walking the headers of its data items: string lengths are taken from
+     * their length prefixes, and strings are only checked for valid UTF-8, not decoded. Input that the
+     * scanner cannot confirm as valid (a violation, an error, or CBOR features that Jackson's generator
+     * does not write, such as tags) is parsed by Jackson, so the verdict is always Jackson's.
+     * </p>
+     * @param input bytes
+     * @param offset of the first byte to validate
+     * @param length number of bytes to validate
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IndexOutOfBoundsException if the range is not within the input array
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if JSON parse issues occur
+     */
+    public void check(final byte[] input, final int offset, final int length) throws IOException {
+        validate(input, offset, length).throwIfInvalid();
+    }
+
+    /**
+     * Validates the input bytes without throwing: violations and parse errors are returned.
+     * The total length is checked (in bytes) before anything is parsed.
+     * @param input bytes
+     * @return the result
+     * @throws NullPointerException if input is <code>null</code>
+     */
+    public ValidationResult validate(final byte[] input) {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        return validate(input, 0, input.length);
+    }
+
+    /**
+     * Validates a range of the input bytes without throwing: violations and parse errors are returned.
+     * The total length is checked (in bytes) before anything is parsed. Offsets in the result are
+     * relative to the start of the range.
+     * @param input bytes
+     * @param offset of the first byte to validate
+     * @param length number of bytes to validate
+     * @return the result
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IndexOutOfBoundsException if the range is not within the input array
+     */
+    public ValidationResult validate(final byte[] input, final int offset, final int length) {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        if (offset < 0 || length < 0 || length > input.length - offset) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+                    + ") out of bounds for length " + input.length);
+        }
+        final CheckRecorder recorder = new CheckRecorder(listener, "byte[]");
+        final TokenValidator validator = newValidator();
+        final ValidationResult result = length > constraints.getMaxTotalLength()
+                ? totalLengthViolation(length)
+                : validateCached(() -> verdictCache.hash(input, offset, length), length,
+                        () -> validateBytes(input, offset, length, validator));
+        end(recorder, length, validator, result);
+        return result;
+    }
+
+    /**
+     * Validates the remaining bytes of the buffer. The total length is checked (in bytes) before
+     * anything is parsed.
+     * <p>
+     * Buffers that are backed by an array are passed to the parser like a <code>byte[]</code> range.
+     * Direct buffers are not copied to the heap: JSON is validated with the byte scanner used by
+     * {@link Utf8ScanningLimiter} (which reaches the same verdict), through a small recycled buffer, like
+     * memory-mapped files (see {@link #check(FileChannel)}); other formats are parsed from the buffer.
+     * </p>
+     * @param input buffer (whose position is not changed)
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if JSON parse issues occur
+     */
+    public void check(final ByteBuffer input) throws IOException {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        if (input.hasArray()) {
+            check(input.array(), input.arrayOffset() + input.position(), input.remaining());
+            return;
+        }
+        final CheckRecorder recorder = new CheckRecorder(listener, "ByteBuffer");
+        final int length = input.remaining();
+        try {
+            constraints.validateTotalLength(length);
+            scan(new ByteBufferInputStream(input), length);
+        } catch (IOException | RuntimeException e) {
+            recorder.end(length, -1L, e);
+            throw e;
+        }
+        recorder.end(length, -1L, ValidationResult.valid());
     }
 
     /**
      * Validates the total length of the input reader.
-     * @param constraints to apply
      * @param input reader (that will only be closed if an exception is thrown)
      * @throws NullPointerException if input is <code>null</code>
      * @throws IllegalStateException if constraints fail
      * @throws IOException if I/O or JSON parse issues occur (or total size is too big)
      */
-    public static void check(final StreamReadConstraints constraints, final Reader input) throws IOException {
+    public void check(final Reader input) throws IOException {
+        validate(input).throwIfInvalid();
+    }
+
+    /**
+     * Validates the input reader without throwing: violations, parse errors and I/O errors are returned.
+     * @param input reader (that will only be closed if the input is invalid)
+     * @return the result
+     * @throws NullPointerException if input is <code>null</code>
+     */
+    public ValidationResult validate(final Reader input) {
         if (input == null) {
             throw new NullPointerException("null input");
         }
-        final SizeLimitReader wrappedReader = new SizeLimitReader(input, constraints.getMaxTotalLength());
-        final JsonFactory jfactory = new JsonFactory();
-        try (JsonParser jsonParser = jfactory.createParser(wrappedReader)) {
-            validate(constraints, jsonParser);
-        } catch (Exception e) {
-            wrappedReader.close();
-            throw e;
+        final CheckRecorder recorder = new CheckRecorder(listener, "Reader");
+        final TokenValidator validator = newValidator();
+        final SizeLimitReader wrappedReader = new SizeLimitReader(input, constraints.getMaxTotalLength(),
+                constraints.newReadBudget("chars"));
+        final ValidationResult result = readLimited(
+                validate(() -> jsonFactory.createParser(wrappedReader), validator), wrappedReader.getRead());
+        if (!result.isValid()) {
+            closeQuietly(wrappedReader);
         }
+        end(recorder, wrappedReader.getRead(), validator, result);
+        return result;
     }
 
     /**
      * Validates the total length of the <code>InputStream</code>.
-     * @param constraints to apply
      * @param input stream (that will only be closed if an exception is thrown)
      * @throws NullPointerException if input is <code>null</code>
      * @throws IllegalStateException if constraints fail
      * @throws IOException if I/O or JSON parse issues occur (or total size is too big)
      */
-    public static void check(final StreamReadConstraints constraints, final InputStream input) throws IOException{
+    public void check(final InputStream input) throws IOException {
+        validate(input).throwIfInvalid();
+    }
+
+    /**
+     * Validates the <code>InputStream</code> without throwing: violations, parse errors and I/O errors
+     * are returned.
+     * @param input stream (that will only be closed if the input is invalid)
+     * @return the result
+     * @throws NullPointerException if input is <code>null</code>
+     */
+    public ValidationResult validate(final InputStream input) {
+        return validateStream(input, false);
+    }
+
+    /**
+     * Validates the <code>InputStream</code> like {@link #validate(InputStream)}, and then reads on to its
+     * end to check that only white space follows the root value, so that no further values get past
+     * the checks (e.g. the rest of an NDJSON line, or of a request body).
+     * @param input stream (that will only be closed if the input is invalid)
+     * @return the result, with a parse error if anything but white space follows the root value
+     * @throws NullPointerException if input is <code>null</code>
+     */
+    ValidationResult validateSingleValue(final InputStream input) {
+        return validateStream(input, true);
+    }
+
+    private ValidationResult validateStream(final InputStream input, final boolean singleValue) {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        final CheckRecorder recorder = new CheckRecorder(listener, "InputStream");
+        final TokenValidator validator = newValidator();
+        final SizeLimitInputStream wrappedStream = new SizeLimitInputStream(input, constraints.getMaxTotalLength(),
+                constraints.newReadBudget("bytes"));
+        final ValidationResult result = readLimited(verdictCache == null
+                ? validate(() -> jsonFactory.createParser(wrappedStream), validator, singleValue)
+                : validateBuffered(wrappedStream, validator, singleValue), wrappedStream.getRead());
+        if (!result.isValid()) {
+            closeQuietly(wrappedStream);
+        }
+        end(recorder, wrappedStream.getRead(), validator, result);
+        return result;
+    }
+
+    /**
+     * Decompresses and validates the <code>InputStream</code>. The total length is measured on the
+     * decompressed bytes, and the ratio of decompressed to compressed bytes is checked against
+     * {@link StreamReadConstraints#getMaxCompressionRatio()}: both are checked while the input is
+     * decompressed, straight into the parser's buffer, so the check stops as soon as one of them is
+     * exceeded, and no decompressed copy of the input is made. They are reported as a
+     * {@link com.github.pjfanning.json.util.SizeLimitExceededException} and a
+     * {@link CompressionRatioException} (see {@link Constraint#of(Throwable)}). Like for other streams, the input
+     * is only read as far as the end of the root value (so the checksum at the end of the compressed data
+     * may not be verified).
+     * @param input compressed stream (that will only be closed if an exception is thrown)
+     * @param compression format of the stream
+     * @throws NullPointerException if input or compression is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if I/O, decompression or JSON parse issues occur (or the decompressed size or
+     * the compression ratio is too big)
+     */
+    public void check(final InputStream input, final Compression compression) throws IOException {
+        validate(input, compression).throwIfInvalid();
+    }
+
+    /**
+     * Decompresses and validates the <code>InputStream</code> without throwing: violations, parse errors
+     * and I/O (or decompression) errors are returned. See {@link #check(InputStream, Compression)}.
+     * @param input compressed stream (that will only be closed if the input is invalid)
+     * @param compression format of the stream
+     * @return the result
+     * @throws NullPointerException if input or compression is <code>null</code>
+     */
+    public ValidationResult validate(final InputStream input, final Compression compression) {
+        return validateCompressed(input, compression, false);
+    }
+
+    /**
+     * Decompresses and validates the <code>InputStream</code> like {@link #validate(InputStream, Compression)},
+     * and then reads on to its end to check that only white space follows the root value (see
+     * {@link #validateSingleValue(InputStream)}).
+     * @param input compressed stream (that will only be closed if the input is invalid)
+     * @param compression format of the stream
+     * @return the result, with a parse error if anything but white space follows the root value
+     * @throws NullPointerException if input or compression is <code>null</code>
+     */
+    ValidationResult validateSingleValue(final InputStream input, final Compression compression) {
+        return validateCompressed(input, compression, true);
+    }
+
+    private ValidationResult validateCompressed(final InputStream input, final Compression compression,
+                                                final boolean singleValue) {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        if (compression == null) {
+            throw new NullPointerException("null compression");
+        }
+        final CheckRecorder recorder = new CheckRecorder(listener, "InputStream/" + compression.getContentEncoding());
+        final TokenValidator validator = newValidator();
+        // the read time and rate are measured on the compressed bytes, as they arrive
+        final ReadBudget budget = constraints.newReadBudget("bytes");
+        final InflatingInputStream inflatingStream = new InflatingInputStream(
+                budget == null ? input : new SizeLimitInputStream(input, 0L, budget), compression,
+                constraints.getMaxTotalLength(), constraints.getMaxCompressionRatio());
+        final ValidationResult result;
+        try {
+            result = readLimited(validate(() -> jsonFactory.createParser(inflatingStream), validator, singleValue),
+                    inflatingStream.getInflated());
+            if (!result.isValid()) {
+                closeQuietly(inflatingStream);
+            }
+        } finally {
+            inflatingStream.release();
+        }
+        if (profile != null && inflatingStream.getCompressedRead() > 0L) {
+            // rounded up, so that a limit derived from it accepts the input
+            final long compressed = inflatingStream.getCompressedRead();
+            profile.getHistogram(Constraint.COMPRESSION_RATIO)
+                    .record((inflatingStream.getInflated() + compressed - 1L) / compressed);
+        }
+        end(recorder, inflatingStream.getInflated(), validator, result);
+        return result;
+    }
+
+    /**
+     * Validates the file. The file size is checked against the maximum total length (in bytes)
+     * before anything is read.
+     * @param input file
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if I/O or JSON parse issues occur
+     * @see #check(FileChannel)
+     */
+    public void check(final Path input) throws IOException {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            check(channel, "Path");
+        }
+    }
+
+    /**
+     * Validates the content of the channel from its current position to the end of the file.
+     * <p>
+     * The size is checked against the maximum total length (in bytes) before anything is read, so
+     * oversized files are rejected without any I/O. The content is validated with the byte scanner used by
+     * {@link Utf8ScanningLimiter} (which reaches the same verdict as the Jackson based checks); files that
+     * are at least 256KB are memory-mapped and scanned without <code>read</code> calls. UTF-16 and UTF-32
+     * content, and other formats than JSON, are passed on to Jackson.
+     * </p>
+     * @param input channel (that is not closed and whose position is not changed)
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if I/O or JSON parse issues occur
+     */
+    public void check(final FileChannel input) throws IOException {
         if (input == null) {
             throw new NullPointerException("null input");
         }
-        final JsonFactory jfactory = new JsonFactory();
-        final InputStream wrappedStream = new SizeLimitInputStream(input, constraints.getMaxTotalLength());
-        try (JsonParser jsonParser = jfactory.createParser(wrappedStream)) {
-            validate(constraints, jsonParser);
-        } catch (Exception e) {
-            wrappedStream.close();
+        check(input, "FileChannel");
+    }
+
+    private void check(final FileChannel input, final String inputType) throws IOException {
+        final CheckRecorder recorder = new CheckRecorder(listener, inputType);
+        final long position = input.position();
+        final long length = Math.max(0L, input.size() - position);
+        try {
+            scan(input, position, length);
+        } catch (IOException | RuntimeException e) {
+            recorder.end(length, -1L, e);
             throw e;
         }
+        recorder.end(length, -1L, ValidationResult.valid());
     }
 
-    private static void validate(final StreamReadConstraints constraints, final JsonParser jsonParser)
-            throws IOException, IllegalStateException {
-        int depth = 0;
-        JsonToken jsonToken;
-        for (;;) {
-            jsonToken = jsonParser.nextToken();
-            if (jsonToken == JsonToken.START_OBJECT) {
-                depth++;
-            } else if (jsonToken == JsonToken.END_OBJECT) {
-                depth--;
-                if (depth == 0) {
+    private void scan(final FileChannel input, final long position, final long length) throws IOException {
+        constraints.validateTotalLength(length);
+        if (length < MAPPING_THRESHOLD) {
+            final ByteBuffer buffer = ByteBuffer.allocate((int) length);
+            while (buffer.hasRemaining() && input.read(buffer, position + buffer.position()) >= 0) {
+                // read until the buffer is full (or the file was truncated)
+            }
+            if (json) {
+                scan(new Utf8Scanner(constraints, buffer.array(), 0, buffer.position()));
+            } else {
+                final TokenValidator validator = newValidator();
+                final ValidationResult result = validateBytes(buffer.array(), 0, buffer.position(), validator);
+                profile(buffer.position(), validator);
+                result.throwIfInvalid();
+            }
+        } else {
+            scan(new ByteBufferInputStream(input.map(FileChannel.MapMode.READ_ONLY, position, length)), length);
+        }
+    }
+
+    /**
+     * Scans the stream a recycled chunk at a time (or parses it, if it is not scanned).
+     * @param length of the stream
+     */
+    private void scan(final InputStream input, final long length) throws IOException {
+        if (!json) {
+            final TokenValidator validator = newValidator();
+            final ValidationResult result = validate(() -> jsonFactory.createParser(input), validator);
+            profile(length, validator);
+            result.throwIfInvalid();
+            return;
+        }
+        final BufferRecycler recycler = BufferRecyclers.getBufferRecycler();
+        final byte[] chunk = recycler.allocByteBuffer(BufferRecycler.BYTE_READ_IO_BUFFER);
+        try {
+            scan(new Utf8Scanner(constraints, input, chunk));
+        } finally {
+            recycler.releaseByteBuffer(BufferRecycler.BYTE_READ_IO_BUFFER, chunk);
+        }
+    }
+
+    /**
+     * Creates a validator for input that arrives in chunks, e.g. in NIO or Netty pipelines.
+     * @return a new validator that uses this limiter's constraints and factory
+     * @throws IOException if the non-blocking parser cannot be created
+     * @throws UnsupportedOperationException if the factory's format cannot be parsed from
+     * <code>ByteBuffer</code>s without blocking
+     */
+    public NonBlockingValidator createNonBlockingValidator() throws IOException {
+        return new NonBlockingValidator(constraints, jsonFactory);
+    }
+
+    /**
+     * Creates a {@link java.util.concurrent.Flow.Processor} that validates a body while it streams through.
+     * @return a new processor that uses this limiter's constraints and factory
+     * @throws IOException if the non-blocking parser cannot be created
+     */
+    public ValidatingProcessor createValidatingProcessor() throws IOException {
+        return new ValidatingProcessor(createNonBlockingValidator());
+    }
+
+    /**
+     * Creates a filter for the JDK's <code>com.sun.net.httpserver</code> that rejects request bodies which
+     * violate this limiter's constraints before the handler reads them.
+     * @return a new filter that uses this limiter
+     */
+    public SizeLimitFilter createHttpFilter() {
+        return new SizeLimitFilter(this);
+    }
+
+    private void scan(final Utf8Scanner scanner) throws IOException {
+        if (scanner.isScannable()) {
+            scanner.scan();
+        } else {
+            final SizeLimitInputStream remaining = new SizeLimitInputStream(scanner.remainingInput(),
+                    constraints.getMaxTotalLength());
+            final ValidationResult result = validate(() -> jsonFactory.createParser(remaining),
+                    newValidator());
+            if (!result.isValid()) {
+                remaining.close();
+                result.throwIfInvalid();
+            }
+        }
+    }
+
+    private TokenValidator newValidator() {
+        return new TokenValidator(constraints, binary, profile != null);
+    }
+
+    private void profile(final long length, final TokenValidator validator) {
+        if (profile != null) {
+            profile.record(length, validator);
+        }
+    }
+
+    private void end(final CheckRecorder recorder, final long length, final TokenValidator validator,
+                     final ValidationResult result) {
+        profile(length, validator);
+        recorder.end(length, validator.getTokenCount(), result);
+    }
+
+    private interface ParserSource {
+        JsonParser create() throws IOException;
+    }
+
+    /**
+     * Parses the input and validates its tokens, returning violations and parse (or I/O) errors.
+     */
+    private static ValidationResult validate(final ParserSource source, final TokenValidator validator) {
+        return validate(source, validator, false);
+    }
+
+    /**
+     * @param singleValue whether to read on past the root value, and fail if another token follows it
+     */
+    private static ValidationResult validate(final ParserSource source, final TokenValidator validator,
+                                             final boolean singleValue) {
+        JsonParser jsonParser = null;
+        try {
+            jsonParser = source.create();
+            JsonToken jsonToken;
+            while ((jsonToken = jsonParser.nextToken()) != null) {
+                final int result = validator.test(jsonToken, jsonParser);
+                if (result == TokenValidator.COMPLETE) {
+                    if (singleValue && (jsonToken = jsonParser.nextToken()) != null) {
+                        return ValidationResult.failure(new JsonParseException(jsonParser, "Trailing token (of type "
+                                + jsonToken + ") found after the root value"),
+                                offset(jsonParser.getTokenLocation()), "");
+                    }
                     break;
+                } else if (result == TokenValidator.VIOLATION) {
+                    return ValidationResult.violation(validator.getViolated(), validator.getObserved(),
+                            validator.getAllowed(), offset(jsonParser.getTokenLocation()),
+                            pointer(jsonParser, jsonToken));
+                }
+            }
+            return ValidationResult.valid();
+        } catch (IOException e) {
+            final JsonLocation location = e instanceof JsonProcessingException
+                    ? ((JsonProcessingException) e).getLocation() : null;
+            return ValidationResult.failure(e, offset(location),
+                    jsonParser == null ? null : pointer(jsonParser, null));
+        } catch (RuntimeException e) {
+            if (jsonParser == null) {
+                throw e;
+            }
+            // parsers of binary formats can fail this way on malformed input
+            return ValidationResult.failure(new JsonParseException(jsonParser, "Malformed input: " + e, e),
+                    offset(jsonParser.getCurrentLocation()), pointer(jsonParser, null));
+        } finally {
+            if (jsonParser != null) {
+                closeQuietly(jsonParser);
+            }
+        }
+    }
+
+    /**
+     * Validates a byte range. CBOR is scanned first, and only parsed if the scanner cannot confirm that it
+     * is valid (so violations and errors are reported by the parser). The scanner does not decode map keys,
+     * so it is not used for constraints with path limits.
+     */
+    private ValidationResult validateBytes(final byte[] input, final int offset, final int length,
+                                           final TokenValidator validator) {
+        return validateBytes(input, offset, length, validator, false);
+    }
+
+    /**
+     * @param singleValue whether only white space may follow the root value (CBOR input that does not end
+     *                    with its root value is parsed, so that the parser reports what follows it)
+     */
+    private ValidationResult validateBytes(final byte[] input, final int offset, final int length,
+                                           final TokenValidator validator, final boolean singleValue) {
+        if (cbor && !constraints.hasPathConstraints()) {
+            final CborScanner scanner = new CborScanner(constraints, input, offset, length);
+            if (scanner.scan() && (!singleValue || scanner.isAtEnd())) {
+                validator.countTokens(scanner.getTokenCount());
+                return ValidationResult.valid();
+            }
+        }
+        return validate(() -> jsonFactory.createParser(input, offset, length), validator, singleValue);
+    }
+
+    /**
+     * Looks up the verdict of an input in the cache, if it is cached, or validates it.
+     * @param hash computes the hash of the input (only called if the input is cached)
+     */
+    private ValidationResult validateCached(final LongSupplier hash, final long length,
+                                            final Supplier<ValidationResult> validation) {
+        return validateCached(hash, length, validation, formatName);
+    }
+
+    /**
+     * @param format key of the kind of validation in the cache
+     */
+    private ValidationResult validateCached(final LongSupplier hash, final long length,
+                                            final Supplier<ValidationResult> validation, final String format) {
+        if (verdictCache == null || !verdictCache.isCached(length)) {
+            return validation.get();
+        }
+        final long inputHash = hash.getAsLong();
+        ValidationResult result = verdictCache.get(inputHash, length, constraints, format);
+        if (result == null) {
+            result = validation.get();
+            verdictCache.put(inputHash, length, constraints, format, result);
+        }
+        return result;
+    }
+
+    /**
+     * Reads the stream into memory, hashing the bytes as they are read, so that its verdict can be cached.
+     * A stream that is longer than the cache's maximum buffered length is validated without the cache,
+     * from the bytes that were read and the rest of the stream.
+     */
+    private ValidationResult validateBuffered(final InputStream input, final TokenValidator validator,
+                                              final boolean singleValue) {
+        final int capacity = (int) Math.min(verdictCache.getMaxBufferedLength() + 1L, Integer.MAX_VALUE - 8);
+        final ContentHash hash = verdictCache.newHash();
+        byte[] buffer = new byte[Math.min(8192, capacity)];
+        int count = 0;
+        try {
+            int read;
+            while ((read = input.read(buffer, count, buffer.length - count)) != -1) {
+                hash.update(buffer, count, read);
+                count += read;
+                if (count == buffer.length) {
+                    if (count == capacity) {
+                        final InputStream rest = new SequenceInputStream(
+                                new ByteArrayInputStream(buffer, 0, count), input);
+                        return validate(() -> jsonFactory.createParser(rest), validator, singleValue);
+                    }
+                    buffer = Arrays.copyOf(buffer, (int) Math.min(capacity, 2L * count));
                 }
-            } else if (jsonToken == JsonToken.VALUE_NUMBER_INT) {
-                constraints.validateIntegerLength(jsonParser.getValueAsString().length());
-            } else if (jsonToken == JsonToken.VALUE_NUMBER_FLOAT) {
-                constraints.validateFPLength(jsonParser.getValueAsString().length());
-            } else if (jsonToken == JsonToken.VALUE_STRING) {
-                constraints.validateStringLength(jsonParser.getValueAsString().length());
+            }
+        } catch (IOException e) {
+            return ValidationResult.failure(e, -1L, null);
+        }
+        final byte[] bytes = buffer;
+        final int length = count;
+        // a single value is a different verdict than the first value of the same bytes
+        return validateCached(hash::finish, length, () -> validateBytes(bytes, 0, length, validator, singleValue),
+                singleValue ? formatName + " (single value)" : formatName);
+    }
+
+    private ValidationResult totalLengthViolation(final long length) {
+        return ValidationResult.violation(Constraint.TOTAL_LENGTH, length, constraints.getMaxTotalLength(),
+                constraints.getMaxTotalLength(), "");
+    }
+
+    /**
+     * Adds the lengths to the failure of a size limited stream or reader that was read past its limit, or
+     * too slowly.
+     */
+    private ValidationResult readLimited(final ValidationResult result, final long read) {
+        if (result.getFailure() instanceof SlowReadException) {
+            final SlowReadException slow = (SlowReadException) result.getFailure();
+            return ValidationResult.failure(slow, slow.getObserved(), slow.getAllowed(), read, result.getPointer());
+        }
+        if (result.getConstraint() != Constraint.TOTAL_LENGTH) {
+            return result;
+        }
+        return ValidationResult.failure(result.getFailure(), read, constraints.getMaxTotalLength(),
+                constraints.getMaxTotalLength(), result.getPointer());
+    }
+
+    private static long offset(final JsonLocation location) {
+        if (location == null) {
+            return -1L;
+        }
+        return location.getByteOffset() >= 0 ? location.getByteOffset() : location.getCharOffset();
+    }
+
+    /**
+     * @param jsonToken the token that failed: the pointer of a structure start is the one of its parent
+     */
+    private static String pointer(final JsonParser jsonParser, final JsonToken jsonToken) {
+        JsonStreamContext context = jsonParser.getParsingContext();
+        if (jsonToken != null && jsonToken.isStructStart() && context.getParent() != null) {
+            context = context.getParent();
+        }
+        return context.pathAsPointer().toString();
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // the result already reports what went wrong
+        }
+    }
+
+    static void validate(final StreamReadConstraints constraints, final JsonParser jsonParser)
+            throws IOException, IllegalStateException {
+        validate(new TokenValidator(constraints), jsonParser);
+    }
+
+    static void validate(final TokenValidator validator, final JsonParser jsonParser)
+            throws IOException, IllegalStateException {
+        JsonToken jsonToken;
+        while ((jsonToken = jsonParser.nextToken()) != null) {
+            if (validator.validate(jsonToken, jsonParser)) {
+                break;
             }
         }
     }
@@ -0,0 +1,109 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.github.pjfanning.json.util.SizeLimitInputStream;
+import com.github.pjfanning.json.util.SizeLimitReader;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * {@link JsonFactory} whose parsers enforce {@link StreamReadConstraints} while they are read.
+ * <p>
+ * Parsers are wrapped in a {@link SizeLimitingJsonParser}. Stream and reader input is read through a
+ * {@link SizeLimitInputStream} or {@link SizeLimitReader}; the total length of <code>byte[]</code>,
+ * <code>char[]</code> and <code>String</code> input is checked before parsing starts. Use it to create an
+ * <code>ObjectMapper</code> so that data binding validates the input in the same pass that reads it.
+ * </p>
+ * <p>
+ * The total length is not enforced for {@link DataInput} sources or non-blocking parsers (use
+ * {@link NonBlockingValidator} for chunked input).
+ * </p>
+ */
+public class SizeLimitingJsonFactory extends JsonFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    private final StreamReadConstraints constraints;
+
+    /**
+     * @param constraints to apply to all parsers created by this factory
+     */
+    public SizeLimitingJsonFactory(final StreamReadConstraints constraints) {
+        if (constraints == null) {
+            throw new NullPointerException("null constraints");
+        }
+        this.constraints = constraints;
+    }
+
+    protected SizeLimitingJsonFactory(final SizeLimitingJsonFactory src, final ObjectCodec codec) {
+        super(src, codec);
+        this.constraints = src.constraints;
+    }
+
+    /**
+     * @return the constraints applied by this factory's parsers
+     */
+    public StreamReadConstraints getConstraints() {
+        return constraints;
+    }
+
+    @Override
+    public JsonFactory copy() {
+        _checkInvalidCopy(SizeLimitingJsonFactory.class);
+        return new SizeLimitingJsonFactory(this, null);
+    }
+
+    @Override
+    protected Object readResolve() {
+        return new SizeLimitingJsonFactory(this, _objectCodec);
+    }
+
+    @Override
+    public JsonParser createNonBlockingByteArrayParser() throws IOException {
+        return new SizeLimitingJsonParser(super.createNonBlockingByteArrayParser(), constraints);
+    }
+
+    @Override
+    public JsonParser createNonBlockingByteBufferParser() throws IOException {
+        return new SizeLimitingJsonParser(super.createNonBlockingByteBufferParser(), constraints);
+    }
+
+    @Override
+    protected JsonParser _createParser(final InputStream in, final IOContext ctxt) throws IOException {
+        final InputStream wrappedStream = new SizeLimitInputStream(in, constraints.getMaxTotalLength(),
+                constraints.newReadBudget("bytes"));
+        return new SizeLimitingJsonParser(super._createParser(wrappedStream, ctxt), constraints);
+    }
+
+    @Override
+    protected JsonParser _createParser(final Reader r, final IOContext ctxt) throws IOException {
+        final Reader wrappedReader = new SizeLimitReader(r, constraints.getMaxTotalLength(),
+                constraints.newReadBudget("chars"));
+        return new SizeLimitingJsonParser(super._createParser(wrappedReader, ctxt), constraints);
+    }
+
+    @Override
+    protected JsonParser _createParser(final char[] data, final int offset, final int len, final IOContext ctxt,
+                                       final boolean recyclable) throws IOException {
+        constraints.validateTotalLength(len);
+        return new SizeLimitingJsonParser(super._createParser(data, offset, len, ctxt, recyclable), constraints);
+    }
+
+    @Override
+    protected JsonParser _createParser(final byte[] data, final int offset, final int len, final IOContext ctxt)
+            throws IOException {
+        constraints.validateTotalLength(len);
+        return new SizeLimitingJsonParser(super._createParser(data, offset, len, ctxt), constraints);
+    }
+
+    @Override
+    protected JsonParser _createParser(final DataInput input, final IOContext ctxt) throws IOException {
+        return new SizeLimitingJsonParser(super._createParser(input, ctxt), constraints);
+    }
+}
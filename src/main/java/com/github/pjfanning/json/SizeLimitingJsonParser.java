@@ -0,0 +1,75 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+import java.io.IOException;
+
+/**
+ * {@link JsonParser} that applies {@link StreamReadConstraints} to the tokens as they are read, so that
+ * data binding code can parse and validate the input in a single pass (instead of calling
+ * {@link SizeLimiter} first and then parsing the same input again).
+ * <p>
+ * Every token is validated as it is returned from {@link #nextToken()}, including tokens that are read
+ * by {@link #nextValue()}, {@link #skipChildren()} and the <code>nextXxx</code> convenience methods.
+ * The token count limit applies to all tokens read by the parser, across root-level values.
+ * The total length is not checked here: parsers created by {@link SizeLimitingJsonFactory} read through
+ * a {@link com.github.pjfanning.json.util.SizeLimitInputStream} or
+ * {@link com.github.pjfanning.json.util.SizeLimitReader}.
+ * </p>
+ */
+public class SizeLimitingJsonParser extends JsonParserDelegate {
+
+    private final TokenValidator validator;
+
+    /**
+     * @param parser parser to read tokens from
+     * @param constraints to apply to the tokens
+     */
+    public SizeLimitingJsonParser(final JsonParser parser, final StreamReadConstraints constraints) {
+        super(parser);
+        if (constraints == null) {
+            throw new NullPointerException("null constraints");
+        }
+        this.validator = new TokenValidator(constraints);
+    }
+
+    @Override
+    public JsonToken nextToken() throws IOException {
+        final JsonToken jsonToken = delegate.nextToken();
+        if (jsonToken != null) {
+            validator.validate(jsonToken, delegate);
+        }
+        return jsonToken;
+    }
+
+    @Override
+    public JsonToken nextValue() throws IOException {
+        final JsonToken jsonToken = nextToken();
+        return jsonToken == JsonToken.FIELD_NAME ? nextToken() : jsonToken;
+    }
+
+    /**
+     * Skips the children of the current structure, validating them on the way.
+     */
+    @Override
+    public JsonParser skipChildren() throws IOException {
+        final JsonToken current = delegate.currentToken();
+        if (current != JsonToken.START_OBJECT && current != JsonToken.START_ARRAY) {
+            return this;
+        }
+        int open = 1;
+        for (;;) {
+            final JsonToken jsonToken = nextToken();
+            if (jsonToken == null) {
+                return this;
+            }
+            if (jsonToken.isStructStart()) {
+                open++;
+            } else if (jsonToken.isStructEnd() && --open == 0) {
+                return this;
+            }
+        }
+    }
+}
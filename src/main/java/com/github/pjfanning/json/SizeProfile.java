@@ -0,0 +1,149 @@
+package com.github.pjfanning.json;
+
+import java.io.Serializable;
+
+/**
+ * Sizes of the inputs checked by a profiling limiter (see
+ * {@link SizeLimiter#createProfiling(StreamReadConstraints, SizeProfile)}), as one {@link SizeHistogram}
+ * per {@link Constraint}, from which tighter constraints can be derived with {@link #suggest(double, double)}.
+ * <p>
+ * Each check records one value per constraint: the largest one seen in the input (e.g. the length of its
+ * longest string, or the number of entries of its largest object). A percentile of a histogram is then the
+ * share of inputs that a limit accepts. The total length is the number of chars or bytes read (for compressed
+ * input, after decompression); the compression ratio is only recorded for compressed input (rounded up),
+ * and the read time and rate are not recorded. An input that violates a constraint (or fails to parse) is recorded as far
+ * as it was read, with the value that violated the constraint.
+ * </p>
+ * Profiles are thread-safe and can be shared by limiters, and merged with {@link #add(SizeProfile)}.
+ */
+public final class SizeProfile implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SizeHistogram[] histograms = new SizeHistogram[Constraint.values().length];
+
+    public SizeProfile() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new SizeHistogram();
+        }
+    }
+
+    /**
+     * @param constraint a constraint
+     * @return the histogram of the largest value of the constraint in each input
+     * @throws NullPointerException if constraint is <code>null</code>
+     */
+    public SizeHistogram getHistogram(final Constraint constraint) {
+        return histograms[constraint.ordinal()];
+    }
+
+    /**
+     * @return number of recorded inputs
+     */
+    public long getCount() {
+        return getHistogram(Constraint.TOTAL_LENGTH).getCount();
+    }
+
+    /**
+     * Adds the histograms of another profile to this one.
+     * @param other profile to merge into this one
+     * @throws NullPointerException if other is <code>null</code>
+     */
+    public void add(final SizeProfile other) {
+        if (other == null) {
+            throw new NullPointerException("null other");
+        }
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i].add(other.histograms[i]);
+        }
+    }
+
+    /**
+     * Suggests constraints that accept the given share of the recorded inputs, with some headroom: each
+     * limit is the value at the percentile of its histogram, multiplied by the headroom (and rounded up).
+     * Limits whose histogram is empty (e.g. the compression ratio, if no compressed input was checked), or
+     * whose value at the percentile is 0 (e.g. the nesting depth, if only scalar values were checked), keep
+     * their default, since a limit of 0 would reject any input that has the feature. Path limits are not
+     * suggested.
+     * <p>
+     * Each limit is derived on its own, so together they can reject more inputs than any single one.
+     * </p>
+     * @param percentile share of the inputs that each limit should accept, between 0 (exclusive) and
+     *                   100 (inclusive), e.g. <code>99.9</code>
+     * @param headroom factor to multiply the values at the percentile with, at least 1, e.g. <code>2.0</code>
+     * @return a builder with the suggested limits, which can be adjusted before it is built
+     * @throws IllegalArgumentException if percentile or headroom is not in range
+     */
+    public StreamReadConstraints.Builder suggest(final double percentile, final double headroom) {
+        if (!(headroom >= 1.0) || Double.isInfinite(headroom)) {
+            throw new IllegalArgumentException("Headroom must be at least 1: " + headroom);
+        }
+        final StreamReadConstraints.Builder builder = StreamReadConstraints.builder();
+        for (Constraint constraint : Constraint.values()) {
+            final SizeHistogram histogram = getHistogram(constraint);
+            final long value = histogram.getValueAtPercentile(percentile);
+            if (histogram.getCount() == 0L || value == 0L) {
+                continue;
+            }
+            final long limit = (long) Math.min(Math.ceil(value * headroom), Long.MAX_VALUE);
+            final int intLimit = (int) Math.min(limit, Integer.MAX_VALUE);
+            switch (constraint) {
+                case TOTAL_LENGTH:
+                    builder.maxTotalLength(intLimit);
+                    break;
+                case NUMBER_LENGTH:
+                    builder.maxNumberLength(intLimit);
+                    break;
+                case STRING_LENGTH:
+                    builder.maxStringLength(intLimit);
+                    break;
+                case NESTING_DEPTH:
+                    builder.maxNestingDepth(intLimit);
+                    break;
+                case TOKEN_COUNT:
+                    builder.maxTokenCount(limit);
+                    break;
+                case OBJECT_ENTRIES:
+                    builder.maxObjectEntries(intLimit);
+                    break;
+                case ARRAY_ELEMENTS:
+                    builder.maxArrayElements(intLimit);
+                    break;
+                case NAME_LENGTH:
+                    builder.maxNameLength(intLimit);
+                    break;
+                case DISTINCT_NAMES:
+                    builder.maxDistinctNames(intLimit);
+                    break;
+                case COMPRESSION_RATIO:
+                    builder.maxCompressionRatio(Math.max(1, intLimit));
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected constraint " + constraint);
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Records one checked input.
+     * @param length number of chars or bytes read
+     * @param validator that validated the input
+     */
+    void record(final long length, final TokenValidator validator) {
+        getHistogram(Constraint.TOTAL_LENGTH).record(length);
+        getHistogram(Constraint.TOKEN_COUNT).record(validator.getTokenCount());
+        for (Constraint constraint : TokenValidator.PROFILED) {
+            getHistogram(constraint).record(validator.getLargest(constraint));
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder s = new StringBuilder("SizeProfile{count=").append(getCount());
+        for (Constraint constraint : Constraint.values()) {
+            s.append(", ").append(constraint).append("=").append(getHistogram(constraint).getMax());
+        }
+        return s.append('}').toString();
+    }
+}
@@ -1,9 +1,16 @@
 package com.github.pjfanning.json;
 
+import com.fasterxml.jackson.core.JsonPointer;
+import com.github.pjfanning.json.util.ReadBudget;
+
 /**
  * The constraints to use for streaming reads: used to guard against malicious
  * input by preventing processing of "too big" input constructs (values,
  * structures).
+ * <p>
+ * The string length, number length, array element and object entry limits can also be set for the values
+ * at some paths (see {@link Builder#maxStringLength(String, int)}), which override the global limits there.
+ * </p>
  *
  * Based on the equivalent class in jackson-core v2.15 but with extra features.
  */
@@ -27,19 +34,91 @@ public class StreamReadConstraints
      */
     public static final int DEFAULT_MAX_TOTAL_LEN = 100_000_000;
 
+    /**
+     * Default setting for maximum nesting depth (no limit): see {@link Builder#maxNestingDepth(int)} for details.
+     */
+    public static final int DEFAULT_MAX_DEPTH = Integer.MAX_VALUE;
+
+    /**
+     * Default setting for maximum token count (no limit): see {@link Builder#maxTokenCount(long)} for details.
+     */
+    public static final long DEFAULT_MAX_TOKEN_COUNT = Long.MAX_VALUE;
+
+    /**
+     * Default setting for maximum object entries (no limit): see {@link Builder#maxObjectEntries(int)} for details.
+     */
+    public static final int DEFAULT_MAX_OBJECT_ENTRIES = Integer.MAX_VALUE;
+
+    /**
+     * Default setting for maximum array elements (no limit): see {@link Builder#maxArrayElements(int)} for details.
+     */
+    public static final int DEFAULT_MAX_ARRAY_ELEMENTS = Integer.MAX_VALUE;
+
+    /**
+     * Default setting for maximum field name length (no limit): see {@link Builder#maxNameLength(int)} for details.
+     */
+    public static final int DEFAULT_MAX_NAME_LEN = Integer.MAX_VALUE;
+
+    /**
+     * Default setting for maximum distinct field names (no limit): see {@link Builder#maxDistinctNames(int)}
+     * for details.
+     */
+    public static final int DEFAULT_MAX_DISTINCT_NAMES = Integer.MAX_VALUE;
+
+    /**
+     * Default setting for maximum compression ratio: see {@link Builder#maxCompressionRatio(int)} for details.
+     */
+    public static final int DEFAULT_MAX_COMPRESSION_RATIO = 100;
+
+    /**
+     * Default setting for maximum read time (no limit): see {@link Builder#maxReadTimeMillis(long)} for details.
+     */
+    public static final long DEFAULT_MAX_READ_TIME_MILLIS = 0L;
+
+    /**
+     * Default setting for minimum read rate (no limit): see {@link Builder#minReadRate(int)} for details.
+     */
+    public static final int DEFAULT_MIN_READ_RATE = 0;
+
     protected final int _maxTotalLen;
     protected final int _maxNumLen;
     protected final int _maxStringLen;
+    protected final int _maxDepth;
+    protected final long _maxTokenCount;
+    protected final int _maxObjectEntries;
+    protected final int _maxArrayElements;
+    protected final int _maxNameLen;
+    protected final int _maxDistinctNames;
+    protected final int _maxCompressionRatio;
+    protected final long _maxReadTimeMillis;
+    protected final int _minReadRate;
+    private final PathConstraints _pathConstraints;
 
     private static final StreamReadConstraints DEFAULT =
         new StreamReadConstraints(DEFAULT_MAX_TOTAL_LEN,
                 DEFAULT_MAX_NUM_LEN,
-                DEFAULT_MAX_STRING_LEN);
+                DEFAULT_MAX_STRING_LEN,
+                DEFAULT_MAX_DEPTH,
+                DEFAULT_MAX_TOKEN_COUNT,
+                DEFAULT_MAX_OBJECT_ENTRIES,
+                DEFAULT_MAX_ARRAY_ELEMENTS,
+                DEFAULT_MAX_NAME_LEN,
+                DEFAULT_MAX_COMPRESSION_RATIO);
 
     public static final class Builder {
         private int maxTotalLen;
         private int maxNumLen;
         private int maxStringLen;
+        private int maxDepth;
+        private long maxTokenCount;
+        private int maxObjectEntries;
+        private int maxArrayElements;
+        private int maxNameLen;
+        private int maxDistinctNames;
+        private int maxCompressionRatio;
+        private long maxReadTimeMillis;
+        private int minReadRate;
+        private PathConstraints pathConstraints;
 
         /**
          * Sets the maximum total length (in chars or bytes, depending on input context).
@@ -93,25 +172,291 @@ public class StreamReadConstraints
             return this;
         }
 
-        Builder() {
-            this(DEFAULT_MAX_TOTAL_LEN, DEFAULT_MAX_NUM_LEN, DEFAULT_MAX_STRING_LEN);
+        /**
+         * Sets the maximum nesting depth: the number of objects and arrays that a value can be nested in
+         * (the root object or array is at depth 1).
+         * The default is {@link Integer#MAX_VALUE} (no limit).
+         *
+         * @param maxDepth the maximum nesting depth
+         *
+         * @return this builder
+         * @throws IllegalArgumentException if the maxDepth is set to a negative value
+         */
+        public Builder maxNestingDepth(final int maxDepth) {
+            if (maxDepth < 0) {
+                throw new IllegalArgumentException("Cannot set maxNestingDepth to a negative value");
+            }
+            this.maxDepth = maxDepth;
+            return this;
         }
 
-        Builder(final int maxTotalLen, final int maxNumLen, final int maxStringLen) {
-            this.maxTotalLen = maxTotalLen;
-            this.maxNumLen = maxNumLen;
-            this.maxStringLen = maxStringLen;
+        /**
+         * Sets the maximum number of tokens in the (root-level) value: every scalar value, field name and
+         * start or end of an object or array counts as a token.
+         * The default is {@link Long#MAX_VALUE} (no limit).
+         *
+         * @param maxTokenCount the maximum number of tokens
+         *
+         * @return this builder
+         * @throws IllegalArgumentException if the maxTokenCount is set to a negative value
+         */
+        public Builder maxTokenCount(final long maxTokenCount) {
+            if (maxTokenCount < 0) {
+                throw new IllegalArgumentException("Cannot set maxTokenCount to a negative value");
+            }
+            this.maxTokenCount = maxTokenCount;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of entries (name/value pairs) in any one object.
+         * The default is {@link Integer#MAX_VALUE} (no limit).
+         *
+         * @param maxObjectEntries the maximum number of entries per object
+         *
+         * @return this builder
+         * @throws IllegalArgumentException if the maxObjectEntries is set to a negative value
+         */
+        public Builder maxObjectEntries(final int maxObjectEntries) {
+            if (maxObjectEntries < 0) {
+                throw new IllegalArgumentException("Cannot set maxObjectEntries to a negative value");
+            }
+            this.maxObjectEntries = maxObjectEntries;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of elements in any one array.
+         * The default is {@link Integer#MAX_VALUE} (no limit).
+         *
+         * @param maxArrayElements the maximum number of elements per array
+         *
+         * @return this builder
+         * @throws IllegalArgumentException if the maxArrayElements is set to a negative value
+         */
+        public Builder maxArrayElements(final int maxArrayElements) {
+            if (maxArrayElements < 0) {
+                throw new IllegalArgumentException("Cannot set maxArrayElements to a negative value");
+            }
+            this.maxArrayElements = maxArrayElements;
+            return this;
+        }
+
+        /**
+         * Sets the maximum field name length (in chars).
+         * The default is {@link Integer#MAX_VALUE} (no limit).
+         *
+         * @param maxNameLen the maximum field name length (in chars)
+         *
+         * @return this builder
+         * @throws IllegalArgumentException if the maxNameLen is set to a negative value
+         */
+        public Builder maxNameLength(final int maxNameLen) {
+            if (maxNameLen < 0) {
+                throw new IllegalArgumentException("Cannot set maxNameLength to a negative value");
+            }
+            this.maxNameLen = maxNameLen;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of distinct field names in a document, so that a document with a great many
+         * different (e.g. crafted) names is rejected before it fills the symbol tables of a parser or data
+         * binder. The names are only counted (in a compact hash set) when this is set.
+         * The number of names in each object is limited by {@link #maxObjectEntries(int)}.
+         * The default is no limit.
+         *
+         * @param maxDistinctNames the maximum number of distinct field names
+         *
+         * @return this builder
+         * @throws IllegalArgumentException if the maxDistinctNames is set to a negative value
+         */
+        public Builder maxDistinctNames(final int maxDistinctNames) {
+            if (maxDistinctNames < 0) {
+                throw new IllegalArgumentException("Cannot set maxDistinctNames to a negative value");
+            }
+            this.maxDistinctNames = maxDistinctNames;
+            return this;
+        }
+
+        /**
+         * Sets the maximum ratio of decompressed to compressed bytes, for compressed input (see
+         * {@link SizeLimiter#check(java.io.InputStream, Compression)}). JSON usually compresses 5 to 20
+         * times; a "zip bomb" can compress about 1000 times. The ratio is only checked once 64KB have been
+         * decompressed, so that small inputs, whose headers weigh more, are not rejected.
+         * The default is 100.
+         *
+         * @param maxCompressionRatio the maximum compression ratio
+         *
+         * @return this builder
+         * @throws IllegalArgumentException if the maxCompressionRatio is set to a value less than 1
+         */
+        public Builder maxCompressionRatio(final int maxCompressionRatio) {
+            if (maxCompressionRatio < 1) {
+                throw new IllegalArgumentException("Cannot set maxCompressionRatio to a value less than 1");
+            }
+            this.maxCompressionRatio = maxCompressionRatio;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time (in milliseconds) that reading a stream or reader may take, from the moment
+         * the check starts, so that input that is sent slowly cannot hold on to a thread. It is checked by the
+         * size limiting streams as the input is read (see {@link com.github.pjfanning.json.util.ReadBudget}),
+         * and reported as a {@link com.github.pjfanning.json.util.SlowReadException}. A read that blocks is
+         * only checked when it returns, so connections that stop sending also need a read timeout.
+         * In-memory inputs (strings, byte arrays, buffers and files) are not limited.
+         * The default is 0 (no limit).
+         *
+         * @param maxReadTimeMillis the maximum read time (in milliseconds), or 0 for no limit
+         *
+         * @return this builder
+         * @throws IllegalArgumentException if the maxReadTimeMillis is set to a negative value
+         */
+        public Builder maxReadTimeMillis(final long maxReadTimeMillis) {
+            if (maxReadTimeMillis < 0) {
+                throw new IllegalArgumentException("Cannot set maxReadTimeMillis to a negative value");
+            }
+            this.maxReadTimeMillis = maxReadTimeMillis;
+            return this;
+        }
+
+        /**
+         * Sets the minimum average rate (in chars or bytes per second, depending on input context) at which a
+         * stream or reader must be read. Like {@link #maxReadTimeMillis(long)}, it is checked as the input is
+         * read, and only once a second has passed, so that small inputs are not rejected for it.
+         * The default is 0 (no limit).
+         *
+         * @param minReadRate the minimum read rate (in chars or bytes per second), or 0 for no limit
+         *
+         * @return this builder
+         * @throws IllegalArgumentException if the minReadRate is set to a negative value
+         */
+        public Builder minReadRate(final int minReadRate) {
+            if (minReadRate < 0) {
+                throw new IllegalArgumentException("Cannot set minReadRate to a negative value");
+            }
+            this.minReadRate = minReadRate;
+            return this;
+        }
+
+        /**
+         * Sets the maximum string length (in chars or bytes, depending on input context) for the strings at a path,
+         * instead of the global {@link #maxStringLength(int)}.
+         * <p>
+         * The path is a JSON pointer (e.g. <code>/attachments/&#42;/data</code>) in which a <code>*</code>
+         * segment matches any field name or array index. It only matches values at that exact path, not the
+         * values nested in them. When several paths match a value, the one that names a field (or index) where
+         * the others have a wildcard, first from the left, wins.
+         * </p>
+         * Path limits are applied by the Jackson based checks; the byte scanners (see {@link Utf8ScanningLimiter})
+         * pass input with path limits on to Jackson, since they do not decode field names.
+         *
+         * @param path JSON pointer of the strings, with <code>*</code> wildcards
+         * @param maxStringLen the maximum string length at the path
+         *
+         * @return this builder
+         * @throws NullPointerException if the path is <code>null</code>
+         * @throws IllegalArgumentException if the maxStringLen is set to a negative value, or the path is not
+         * a valid JSON pointer
+         */
+        public Builder maxStringLength(final String path, final int maxStringLen) {
+            if (maxStringLen < 0) {
+                throw new IllegalArgumentException("Cannot set maxStringLen to a negative value");
+            }
+            return path(path, PathConstraints.STRING_LENGTH, maxStringLen);
+        }
+
+        /**
+         * Sets the maximum number length (in chars or bytes, depending on input context) for the numbers at a path,
+         * instead of the global {@link #maxNumberLength(int)}. See {@link #maxStringLength(String, int)} for paths.
+         *
+         * @param path JSON pointer of the numbers, with <code>*</code> wildcards
+         * @param maxNumLen the maximum number length at the path
+         *
+         * @return this builder
+         * @throws NullPointerException if the path is <code>null</code>
+         * @throws IllegalArgumentException if the maxNumLen is set to a negative value, or the path is not
+         * a valid JSON pointer
+         */
+        public Builder maxNumberLength(final String path, final int maxNumLen) {
+            if (maxNumLen < 0) {
+                throw new IllegalArgumentException("Cannot set maxNumberLength to a negative value");
+            }
+            return path(path, PathConstraints.NUMBER_LENGTH, maxNumLen);
+        }
+
+        /**
+         * Sets the maximum number of elements of the arrays at a path, instead of the global
+         * {@link #maxArrayElements(int)}. See {@link #maxStringLength(String, int)} for paths.
+         *
+         * @param path JSON pointer of the arrays, with <code>*</code> wildcards
+         * @param maxArrayElements the maximum number of elements of an array at the path
+         *
+         * @return this builder
+         * @throws NullPointerException if the path is <code>null</code>
+         * @throws IllegalArgumentException if the maxArrayElements is set to a negative value, or the path is
+         * not a valid JSON pointer
+         */
+        public Builder maxArrayElements(final String path, final int maxArrayElements) {
+            if (maxArrayElements < 0) {
+                throw new IllegalArgumentException("Cannot set maxArrayElements to a negative value");
+            }
+            return path(path, PathConstraints.ARRAY_ELEMENTS, maxArrayElements);
+        }
+
+        /**
+         * Sets the maximum number of entries of the objects at a path, instead of the global
+         * {@link #maxObjectEntries(int)}. See {@link #maxStringLength(String, int)} for paths.
+         *
+         * @param path JSON pointer of the objects, with <code>*</code> wildcards
+         * @param maxObjectEntries the maximum number of entries of an object at the path
+         *
+         * @return this builder
+         * @throws NullPointerException if the path is <code>null</code>
+         * @throws IllegalArgumentException if the maxObjectEntries is set to a negative value, or the path is
+         * not a valid JSON pointer
+         */
+        public Builder maxObjectEntries(final String path, final int maxObjectEntries) {
+            if (maxObjectEntries < 0) {
+                throw new IllegalArgumentException("Cannot set maxObjectEntries to a negative value");
+            }
+            return path(path, PathConstraints.OBJECT_ENTRIES, maxObjectEntries);
+        }
+
+        private Builder path(final String path, final int kind, final int limit) {
+            if (path == null) {
+                throw new NullPointerException("null path");
+            }
+            pathConstraints = pathConstraints.with(path, kind, limit);
+            return this;
+        }
+
+        Builder() {
+            this(DEFAULT);
         }
 
         Builder(StreamReadConstraints src) {
             maxTotalLen = src._maxTotalLen;
             maxNumLen = src._maxNumLen;
             maxStringLen = src._maxStringLen;
+            maxDepth = src._maxDepth;
+            maxTokenCount = src._maxTokenCount;
+            maxObjectEntries = src._maxObjectEntries;
+            maxArrayElements = src._maxArrayElements;
+            maxNameLen = src._maxNameLen;
+            maxDistinctNames = src._maxDistinctNames;
+            maxCompressionRatio = src._maxCompressionRatio;
+            maxReadTimeMillis = src._maxReadTimeMillis;
+            minReadRate = src._minReadRate;
+            pathConstraints = src._pathConstraints;
         }
 
         public StreamReadConstraints build() {
             return new StreamReadConstraints(
-                    maxTotalLen, maxNumLen, maxStringLen);
+                    maxTotalLen, maxNumLen, maxStringLen,
+                    maxDepth, maxTokenCount, maxObjectEntries, maxArrayElements, maxNameLen, maxDistinctNames,
+                    maxCompressionRatio, maxReadTimeMillis, minReadRate, pathConstraints);
         }
     }
 
@@ -121,10 +466,32 @@ public class StreamReadConstraints
     /**********************************************************************
      */
 
-    StreamReadConstraints(final int maxTotalLen, final int maxNumLen, final int maxStringLen) {
+    StreamReadConstraints(final int maxTotalLen, final int maxNumLen, final int maxStringLen,
+                          final int maxDepth, final long maxTokenCount, final int maxObjectEntries,
+                          final int maxArrayElements, final int maxNameLen, final int maxCompressionRatio) {
+        this(maxTotalLen, maxNumLen, maxStringLen, maxDepth, maxTokenCount, maxObjectEntries, maxArrayElements,
+                maxNameLen, DEFAULT_MAX_DISTINCT_NAMES, maxCompressionRatio, DEFAULT_MAX_READ_TIME_MILLIS,
+                DEFAULT_MIN_READ_RATE, PathConstraints.NONE);
+    }
+
+    StreamReadConstraints(final int maxTotalLen, final int maxNumLen, final int maxStringLen,
+                          final int maxDepth, final long maxTokenCount, final int maxObjectEntries,
+                          final int maxArrayElements, final int maxNameLen, final int maxDistinctNames,
+                          final int maxCompressionRatio, final long maxReadTimeMillis, final int minReadRate,
+                          final PathConstraints pathConstraints) {
         _maxTotalLen = maxTotalLen;
         _maxNumLen = maxNumLen;
         _maxStringLen = maxStringLen;
+        _maxDepth = maxDepth;
+        _maxTokenCount = maxTokenCount;
+        _maxObjectEntries = maxObjectEntries;
+        _maxArrayElements = maxArrayElements;
+        _maxNameLen = maxNameLen;
+        _maxDistinctNames = maxDistinctNames;
+        _maxCompressionRatio = maxCompressionRatio;
+        _maxReadTimeMillis = maxReadTimeMillis;
+        _minReadRate = minReadRate;
+        _pathConstraints = pathConstraints;
     }
 
     public static Builder builder() {
@@ -179,6 +546,224 @@ public class StreamReadConstraints
         return _maxStringLen;
     }
 
+    /**
+     * Accessor for maximum nesting depth.
+     * see {@link Builder#maxNestingDepth(int)} for details.
+     *
+     * @return Maximum allowed nesting depth
+     */
+    public int getMaxNestingDepth() {
+        return _maxDepth;
+    }
+
+    /**
+     * Accessor for maximum number of tokens.
+     * see {@link Builder#maxTokenCount(long)} for details.
+     *
+     * @return Maximum allowed number of tokens
+     */
+    public long getMaxTokenCount() {
+        return _maxTokenCount;
+    }
+
+    /**
+     * Accessor for maximum number of entries per object.
+     * see {@link Builder#maxObjectEntries(int)} for details.
+     *
+     * @return Maximum allowed number of entries per object
+     */
+    public int getMaxObjectEntries() {
+        return _maxObjectEntries;
+    }
+
+    /**
+     * Accessor for maximum number of elements per array.
+     * see {@link Builder#maxArrayElements(int)} for details.
+     *
+     * @return Maximum allowed number of elements per array
+     */
+    public int getMaxArrayElements() {
+        return _maxArrayElements;
+    }
+
+    /**
+     * Accessor for maximum length of field names.
+     * see {@link Builder#maxNameLength(int)} for details.
+     *
+     * @return Maximum allowed field name length
+     */
+    public int getMaxNameLength() {
+        return _maxNameLen;
+    }
+
+    /**
+     * Accessor for maximum number of distinct field names in a document.
+     * see {@link Builder#maxDistinctNames(int)} for details.
+     *
+     * @return Maximum allowed number of distinct field names
+     */
+    public int getMaxDistinctNames() {
+        return _maxDistinctNames;
+    }
+
+    /**
+     * Accessor for maximum ratio of decompressed to compressed bytes.
+     * see {@link Builder#maxCompressionRatio(int)} for details.
+     *
+     * @return Maximum allowed compression ratio
+     */
+    public int getMaxCompressionRatio() {
+        return _maxCompressionRatio;
+    }
+
+    /**
+     * Accessor for maximum time to read a stream or reader.
+     * see {@link Builder#maxReadTimeMillis(long)} for details.
+     *
+     * @return Maximum allowed read time (in milliseconds), or 0 for no limit
+     */
+    public long getMaxReadTimeMillis() {
+        return _maxReadTimeMillis;
+    }
+
+    /**
+     * Accessor for minimum average rate at which a stream or reader is read.
+     * see {@link Builder#minReadRate(int)} for details.
+     *
+     * @return Minimum allowed read rate (in chars or bytes per second), or 0 for no limit
+     */
+    public int getMinReadRate() {
+        return _minReadRate;
+    }
+
+    /**
+     * Accessor for maximum length of the strings at a path.
+     * see {@link Builder#maxStringLength(String, int)} for details.
+     *
+     * @param pointer JSON pointer of a value (<code>*</code> is a field name here, not a wildcard)
+     * @return Maximum allowed string length at the path (the global one if no path limit applies)
+     * @throws IllegalArgumentException if the pointer is not a valid JSON pointer
+     */
+    public int getMaxStringLength(final String pointer) {
+        return _pathConstraints.limit(JsonPointer.compile(pointer), PathConstraints.STRING_LENGTH, _maxStringLen);
+    }
+
+    /**
+     * Accessor for maximum length of the numbers at a path.
+     * see {@link Builder#maxNumberLength(String, int)} for details.
+     *
+     * @param pointer JSON pointer of a value (<code>*</code> is a field name here, not a wildcard)
+     * @return Maximum allowed number length at the path (the global one if no path limit applies)
+     * @throws IllegalArgumentException if the pointer is not a valid JSON pointer
+     */
+    public int getMaxNumberLength(final String pointer) {
+        return _pathConstraints.limit(JsonPointer.compile(pointer), PathConstraints.NUMBER_LENGTH, _maxNumLen);
+    }
+
+    /**
+     * Accessor for maximum number of elements of the arrays at a path.
+     * see {@link Builder#maxArrayElements(String, int)} for details.
+     *
+     * @param pointer JSON pointer of a value (<code>*</code> is a field name here, not a wildcard)
+     * @return Maximum allowed number of elements at the path (the global one if no path limit applies)
+     * @throws IllegalArgumentException if the pointer is not a valid JSON pointer
+     */
+    public int getMaxArrayElements(final String pointer) {
+        return _pathConstraints.limit(JsonPointer.compile(pointer), PathConstraints.ARRAY_ELEMENTS,
+                _maxArrayElements);
+    }
+
+    /**
+     * Accessor for maximum number of entries of the objects at a path.
+     * see {@link Builder#maxObjectEntries(String, int)} for details.
+     *
+     * @param pointer JSON pointer of a value (<code>*</code> is a field name here, not a wildcard)
+     * @return Maximum allowed number of entries at the path (the global one if no path limit applies)
+     * @throws IllegalArgumentException if the pointer is not a valid JSON pointer
+     */
+    public int getMaxObjectEntries(final String pointer) {
+        return _pathConstraints.limit(JsonPointer.compile(pointer), PathConstraints.OBJECT_ENTRIES,
+                _maxObjectEntries);
+    }
+
+    /**
+     * @return whether any limits are set for paths
+     */
+    boolean hasPathConstraints() {
+        return !_pathConstraints.isEmpty();
+    }
+
+    /**
+     * @return the compiled path limits, or <code>null</code> if there are none
+     */
+    PathConstraints.Node pathRoot() {
+        return _pathConstraints.root();
+    }
+
+    /**
+     * Creates the budget for one stream or reader, which starts its clock.
+     * @param unit what is read (<code>bytes</code> or <code>chars</code>)
+     * @return a new budget, or <code>null</code> if the read time and rate are not limited
+     */
+    ReadBudget newReadBudget(final String unit) {
+        if (_maxReadTimeMillis == 0L && _minReadRate == 0) {
+            return null;
+        }
+        return new ReadBudget(_maxReadTimeMillis, _minReadRate, unit);
+    }
+
+    /*
+    /**********************************************************************
+    /* Standard methods
+    /**********************************************************************
+     */
+
+    /**
+     * Two constraints instances are equal when all of their limits (including path limits) are equal, so they can be part of
+     * cache keys (see {@link VerdictCache}).
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || o.getClass() != getClass()) {
+            return false;
+        }
+        final StreamReadConstraints other = (StreamReadConstraints) o;
+        return _maxTotalLen == other._maxTotalLen
+                && _maxNumLen == other._maxNumLen
+                && _maxStringLen == other._maxStringLen
+                && _maxDepth == other._maxDepth
+                && _maxTokenCount == other._maxTokenCount
+                && _maxObjectEntries == other._maxObjectEntries
+                && _maxArrayElements == other._maxArrayElements
+                && _maxNameLen == other._maxNameLen
+                && _maxDistinctNames == other._maxDistinctNames
+                && _maxCompressionRatio == other._maxCompressionRatio
+                && _maxReadTimeMillis == other._maxReadTimeMillis
+                && _minReadRate == other._minReadRate
+                && _pathConstraints.equals(other._pathConstraints);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = _maxTotalLen;
+        result = 31 * result + _maxNumLen;
+        result = 31 * result + _maxStringLen;
+        result = 31 * result + _maxDepth;
+        result = 31 * result + Long.hashCode(_maxTokenCount);
+        result = 31 * result + _maxObjectEntries;
+        result = 31 * result + _maxArrayElements;
+        result = 31 * result + _maxNameLen;
+        result = 31 * result + _maxDistinctNames;
+        result = 31 * result + _maxCompressionRatio;
+        result = 31 * result + Long.hashCode(_maxReadTimeMillis);
+        result = 31 * result + _minReadRate;
+        result = 31 * result + _pathConstraints.hashCode();
+        return result;
+    }
+
     /*
     /**********************************************************************
     /* Convenience methods for validation
@@ -199,8 +784,7 @@ public class StreamReadConstraints
     public void validateFPLength(int length) throws NumberFormatException
     {
         if (length > _maxNumLen) {
-            throw new NumberFormatException(String.format("Number length (%d) exceeds the maximum length (%d)",
-                    length, _maxNumLen));
+            throw Constraint.NUMBER_LENGTH.exception(length, _maxNumLen);
         }
     }
 
@@ -218,8 +802,7 @@ public class StreamReadConstraints
     public void validateIntegerLength(int length) throws NumberFormatException
     {
         if (length > _maxNumLen) {
-            throw new NumberFormatException(String.format("Number length (%d) exceeds the maximum length (%d)",
-                    length, _maxNumLen));
+            throw Constraint.NUMBER_LENGTH.exception(length, _maxNumLen);
         }
     }
 
@@ -237,8 +820,115 @@ public class StreamReadConstraints
     public void validateStringLength(int length) throws IllegalStateException
     {
         if (length > _maxStringLen) {
-            throw new IllegalStateException(String.format("String length (%d) exceeds the maximum length (%d)",
-                    length, _maxStringLen));
+            throw Constraint.STRING_LENGTH.exception(length, _maxStringLen);
+        }
+    }
+
+    /**
+     * Convenience method that can be used to verify that a field name
+     * of specified length does not exceed maximum specific by this
+     * constraints object: if it does, an
+     * {@link IllegalStateException}
+     * is thrown.
+     *
+     * @param length Length of name in chars
+     *
+     * @throws IllegalStateException If length exceeds maximum
+     */
+    public void validateNameLength(int length) throws IllegalStateException
+    {
+        if (length > _maxNameLen) {
+            throw Constraint.NAME_LENGTH.exception(length, _maxNameLen);
+        }
+    }
+
+    /**
+     * Convenience method that can be used to verify that the number of
+     * distinct field names does not exceed maximum specific by this
+     * constraints object: if it does, an
+     * {@link IllegalStateException}
+     * is thrown.
+     *
+     * @param count Number of distinct field names so far
+     *
+     * @throws IllegalStateException If count exceeds maximum
+     */
+    public void validateDistinctNames(int count) throws IllegalStateException
+    {
+        if (count > _maxDistinctNames) {
+            throw Constraint.DISTINCT_NAMES.exception(count, _maxDistinctNames);
+        }
+    }
+
+    /**
+     * Convenience method that can be used to verify that the nesting
+     * depth does not exceed maximum specific by this
+     * constraints object: if it does, an
+     * {@link IllegalStateException}
+     * is thrown.
+     *
+     * @param depth Nesting depth (the root object or array is at depth 1)
+     *
+     * @throws IllegalStateException If depth exceeds maximum
+     */
+    public void validateNestingDepth(int depth) throws IllegalStateException
+    {
+        if (depth > _maxDepth) {
+            throw Constraint.NESTING_DEPTH.exception(depth, _maxDepth);
+        }
+    }
+
+    /**
+     * Convenience method that can be used to verify that the number
+     * of tokens does not exceed maximum specific by this
+     * constraints object: if it does, an
+     * {@link IllegalStateException}
+     * is thrown.
+     *
+     * @param count Number of tokens
+     *
+     * @throws IllegalStateException If count exceeds maximum
+     */
+    public void validateTokenCount(long count) throws IllegalStateException
+    {
+        if (count > _maxTokenCount) {
+            throw Constraint.TOKEN_COUNT.exception(count, _maxTokenCount);
+        }
+    }
+
+    /**
+     * Convenience method that can be used to verify that the number
+     * of entries in an object does not exceed maximum specific by this
+     * constraints object: if it does, an
+     * {@link IllegalStateException}
+     * is thrown.
+     *
+     * @param count Number of entries
+     *
+     * @throws IllegalStateException If count exceeds maximum
+     */
+    public void validateObjectEntries(int count) throws IllegalStateException
+    {
+        if (count > _maxObjectEntries) {
+            throw Constraint.OBJECT_ENTRIES.exception(count, _maxObjectEntries);
+        }
+    }
+
+    /**
+     * Convenience method that can be used to verify that the number
+     * of elements in an array does not exceed maximum specific by this
+     * constraints object: if it does, an
+     * {@link IllegalStateException}
+     * is thrown.
+     *
+     * @param count Number of elements
+     *
+     * @throws IllegalStateException If count exceeds maximum
+     */
+    public void validateArrayElements(int count) throws IllegalStateException
+    {
+        if (count > _maxArrayElements) {
+            throw Constraint.ARRAY_ELEMENTS.exception(count, _maxArrayElements);
         }
     }
 
@@ -256,8 +946,25 @@ public class StreamReadConstraints
     public void validateTotalLength(int length) throws IllegalStateException
     {
         if (length > _maxTotalLen) {
-            throw new IllegalStateException(String.format("Total length (%d) exceeds the maximum length (%d)",
-                    length, _maxTotalLen));
+            throw Constraint.TOTAL_LENGTH.exception(length, _maxTotalLen);
+        }
+    }
+
+    /**
+     * Convenience method that can be used to verify that the
+     * total length (e.g. the size of a file) does not exceed maximum specific by this
+     * constraints object: if it does, an
+     * {@link IllegalStateException}
+     * is thrown.
+     *
+     * @param length Total length in input units
+     *
+     * @throws IllegalStateException If length exceeds maximum
+     */
+    public void validateTotalLength(long length) throws IllegalStateException
+    {
+        if (length > _maxTotalLen) {
+            throw Constraint.TOTAL_LENGTH.exception(length, _maxTotalLen);
         }
     }
 }
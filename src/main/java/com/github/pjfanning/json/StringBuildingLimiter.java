@@ -1,16 +1,51 @@
 package com.github.pjfanning.json;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.github.pjfanning.json.util.CapturingReader;
 import com.github.pjfanning.json.util.SizeLimitInputStream;
 import com.github.pjfanning.json.util.SizeLimitReader;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.Charsets;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.Charset;
 
+/**
+ * Validates JSON input and returns it as a <code>String</code>.
+ * <p>
+ * The input is validated while it is read, in a single pass: the chars are captured as the parser
+ * consumes them, so the check fails on the first violation instead of after the whole input has been
+ * buffered.
+ * </p>
+ * <p>
+ * Instances created with {@link #create(StreamReadConstraints, LimiterListener)} report each check to a
+ * {@link LimiterListener}; like {@link SizeLimiter}, every check is also recorded as a JDK Flight Recorder
+ * event while a recording is running.
+ * </p>
+ */
 public class StringBuildingLimiter {
 
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+    private final StreamReadConstraints constraints;
+    private final LimiterListener listener;
+
+    /**
+     * Creates a reusable, thread-safe limiter that reports each check to a listener.
+     * @param constraints to apply
+     * @param listener to report checks to (e.g. a {@link LimiterMetrics})
+     * @return a new limiter
+     * @throws NullPointerException if constraints or listener is <code>null</code>
+     */
+    public static StringBuildingLimiter create(final StreamReadConstraints constraints,
+                                               final LimiterListener listener) {
+        return new StringBuildingLimiter(constraints, listener);
+    }
+
     /**
      * Validates the total length of the input reader.
      * @param constraints to apply
@@ -21,44 +56,108 @@ public class StringBuildingLimiter {
      * @throws IOException if I/O or JSON parse issues occur (or total size is too big)
      */
     public static String check(final StreamReadConstraints constraints, final Reader input) throws IOException {
+        return new StringBuildingLimiter(constraints, LimiterListener.NONE).check(input);
+    }
+
+    /**
+     * Validates the total length of the <code>InputStream</code>.
+     * @param constraints to apply
+     * @param input stream (that will only be closed if an exception is thrown)
+     * @param charset {@link Charset} to apply (the platform default if <code>null</code>)
+     * @return the valid JSON as a <code>String</code>
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if I/O or JSON parse issues occur (or total size is too big)
+     */
+    public static String check(final StreamReadConstraints constraints,
+                               final InputStream input,
+                               final Charset charset) throws IOException{
+        return new StringBuildingLimiter(constraints, LimiterListener.NONE).check(input, charset);
+    }
+
+    StringBuildingLimiter(final StreamReadConstraints constraints, final LimiterListener listener) {
+        if (constraints == null) {
+            throw new NullPointerException("null constraints");
+        }
+        if (listener == null) {
+            throw new NullPointerException("null listener");
+        }
+        this.constraints = constraints;
+        this.listener = listener;
+    }
+
+    /**
+     * @return the constraints applied by this limiter
+     */
+    public StreamReadConstraints getConstraints() {
+        return constraints;
+    }
+
+    /**
+     * Validates the total length of the input reader.
+     * @param input reader (that will only be closed if an exception is thrown)
+     * @return the valid JSON as a <code>String</code>
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws IOException if I/O or JSON parse issues occur (or total size is too big)
+     */
+    public String check(final Reader input) throws IOException {
         if (input == null) {
             throw new NullPointerException("null input");
         }
-        final SizeLimitReader wrappedReader = new SizeLimitReader(input, constraints.getMaxTotalLength());
+        final CheckRecorder recorder = new CheckRecorder(listener, "Reader");
+        final TokenValidator validator = new TokenValidator(constraints);
+        final SizeLimitReader wrappedReader = new SizeLimitReader(input, constraints.getMaxTotalLength(),
+                constraints.newReadBudget("chars"));
+        final String captured;
         try {
-            final String text = IOUtils.toString(wrappedReader);
-            SizeLimiter.check(constraints, text);
-            return text;
+            captured = capture(validator, wrappedReader);
         } catch (Exception e) {
             wrappedReader.close();
+            recorder.end(wrappedReader.getRead(), validator.getTokenCount(), e);
             throw e;
         }
+        recorder.end(wrappedReader.getRead(), validator.getTokenCount(), ValidationResult.valid());
+        return captured;
     }
 
     /**
      * Validates the total length of the <code>InputStream</code>.
-     * @param constraints to apply
      * @param input stream (that will only be closed if an exception is thrown)
-     * @param charset {@link Charset} to apply
+     * @param charset {@link Charset} to apply (the platform default if <code>null</code>)
      * @return the valid JSON as a <code>String</code>
      * @throws NullPointerException if input is <code>null</code>
      * @throws IllegalStateException if constraints fail
      * @throws IOException if I/O or JSON parse issues occur (or total size is too big)
      */
-    public static String check(final StreamReadConstraints constraints,
-                               final InputStream input,
-                               final Charset charset) throws IOException{
+    public String check(final InputStream input, final Charset charset) throws IOException {
         if (input == null) {
             throw new NullPointerException("null input");
         }
-        final InputStream wrappedStream = new SizeLimitInputStream(input, constraints.getMaxTotalLength());
+        final CheckRecorder recorder = new CheckRecorder(listener, "InputStream");
+        final TokenValidator validator = new TokenValidator(constraints);
+        final SizeLimitInputStream wrappedStream = new SizeLimitInputStream(input, constraints.getMaxTotalLength(),
+                constraints.newReadBudget("bytes"));
+        final String captured;
         try {
-            final String text = IOUtils.toString(wrappedStream, charset);
-            SizeLimiter.check(constraints, text);
-            return text;
+            captured = capture(validator, new InputStreamReader(wrappedStream, Charsets.toCharset(charset)));
         } catch (Exception e) {
             wrappedStream.close();
+            recorder.end(wrappedStream.getRead(), validator.getTokenCount(), e);
             throw e;
         }
+        recorder.end(wrappedStream.getRead(), validator.getTokenCount(), ValidationResult.valid());
+        return captured;
+    }
+
+    private String capture(final TokenValidator validator, final Reader reader) throws IOException {
+        final CapturingReader capturingReader = new CapturingReader(reader);
+        try (JsonParser jsonParser = JSON_FACTORY.createParser(capturingReader)) {
+            SizeLimiter.validate(validator, jsonParser);
+            // the returned text includes anything after the validated JSON value
+            capturingReader.drain();
+        }
+        constraints.validateTotalLength(capturingReader.getCapturedLength());
+        return capturingReader.getCaptured();
     }
 }
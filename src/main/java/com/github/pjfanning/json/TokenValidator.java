@@ -0,0 +1,309 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Applies {@link StreamReadConstraints} to the tokens of one root-level value, one token at a time.
+ * This lets blocking and non-blocking parsing share the same checks.
+ * <p>
+ * The checks for a token run in a fixed order, which {@link Utf8Scanner} follows too: the token count,
+ * the number of entries or elements of the enclosing object or array, the nesting depth and then the
+ * length of the name, number or string, and for a name, the number of distinct names so far.
+ * </p>
+ * <p>
+ * The length of a number is the length of its text. Binary formats (such as Smile and CBOR) store numbers
+ * as values, and their parsers format a number to return its text, so for those the length is bounded from
+ * the value instead, and the number is only formatted when the bound exceeds the maximum length.
+ * </p>
+ * <p>
+ * When the constraints have limits for paths, the validator keeps the node of the compiled path trie (see
+ * {@link PathConstraints}) of each enclosing value next to its count, and takes the limits from the node
+ * of the value; without path limits, no nodes are kept.
+ * </p>
+ * <p>
+ * A profiling validator also keeps the largest value of each constraint in {@link #PROFILED} (see
+ * {@link SizeProfile}); for binary formats it then measures the exact length of every number.
+ * </p>
+ */
+final class TokenValidator {
+
+    /** The token is valid and the root-level value continues. */
+    static final int CONTINUE = 0;
+    /** The token is valid and completes the root-level value. */
+    static final int COMPLETE = 1;
+    /** The token violates a constraint, see {@link #getViolated()}. */
+    static final int VIOLATION = 2;
+
+    /** Maximum length of a <code>float</code> or <code>double</code> as text (e.g. <code>-1.2345678901234567E-308</code>). */
+    static final int MAX_FLOATING_POINT_LENGTH = 24;
+    private static final double LOG10_2 = Math.log10(2);
+
+    /** The constraints whose largest value a profiling validator keeps, see {@link #getLargest(Constraint)}. */
+    static final Constraint[] PROFILED = {Constraint.NUMBER_LENGTH, Constraint.STRING_LENGTH,
+            Constraint.NESTING_DEPTH, Constraint.OBJECT_ENTRIES, Constraint.ARRAY_ELEMENTS, Constraint.NAME_LENGTH,
+            Constraint.DISTINCT_NAMES};
+
+    private final StreamReadConstraints constraints;
+    /** Whether numbers are values rather than text, see {@link #numberLength(JsonParser, int)}. */
+    private final boolean binary;
+    private int depth;
+    private long tokenCount;
+    /** Number of elements of each enclosing array, or the complement (<code>~n</code>) of the number of entries of an object. */
+    private int[] counts = new int[16];
+    /** Root of the path trie, or <code>null</code> if the constraints have no path limits. */
+    private final PathConstraints.Node root;
+    /** Trie node of each enclosing array or object (<code>null</code> where no path goes), if there is a root. */
+    private PathConstraints.Node[] nodes;
+    /** Trie node of the value of the current field. */
+    private PathConstraints.Node fieldNode;
+    /** The distinct field names, or <code>null</code> if they are neither limited nor profiled. */
+    private final NameSet names;
+    /** Largest value of each constraint, by ordinal, or <code>null</code> if the validator does not profile. */
+    private final long[] largest;
+    private Constraint violated;
+    private long observed;
+    private long allowed;
+
+    TokenValidator(final StreamReadConstraints constraints) {
+        this(constraints, false);
+    }
+
+    /**
+     * @param binary whether the tokens come from a parser of a binary format (see
+     *               {@link com.fasterxml.jackson.core.JsonFactory#canHandleBinaryNatively()})
+     */
+    TokenValidator(final StreamReadConstraints constraints, final boolean binary) {
+        this(constraints, binary, false);
+    }
+
+    /**
+     * @param binary whether the tokens come from a parser of a binary format
+     * @param profiling whether to keep the largest values, see {@link #getLargest(Constraint)}
+     */
+    TokenValidator(final StreamReadConstraints constraints, final boolean binary, final boolean profiling) {
+        this.constraints = constraints;
+        this.binary = binary;
+        this.largest = profiling ? new long[Constraint.values().length] : null;
+        this.names = profiling || constraints.getMaxDistinctNames() != StreamReadConstraints.DEFAULT_MAX_DISTINCT_NAMES
+                ? new NameSet() : null;
+        this.root = constraints.pathRoot();
+        if (root != null) {
+            nodes = new PathConstraints.Node[counts.length];
+        }
+    }
+
+    /**
+     * Validates the current token of the parser.
+     * @param jsonToken the current token
+     * @param jsonParser the parser positioned on the token
+     * @return <code>true</code> if the token completes the root-level value
+     * @throws IllegalStateException if constraints fail
+     * @throws NumberFormatException if number constraints fail
+     * @throws IOException if JSON parse issues occur
+     */
+    boolean validate(final JsonToken jsonToken, final JsonParser jsonParser) throws IOException {
+        final int result = test(jsonToken, jsonParser);
+        if (result == VIOLATION) {
+            throw violated.exception(observed, allowed);
+        }
+        return result == COMPLETE;
+    }
+
+    /**
+     * Validates the current token of the parser without throwing on a violation.
+     * @param jsonToken the current token
+     * @param jsonParser the parser positioned on the token
+     * @return {@link #CONTINUE}, {@link #COMPLETE} or {@link #VIOLATION}
+     * @throws IOException if JSON parse issues occur
+     */
+    int test(final JsonToken jsonToken, final JsonParser jsonParser) throws IOException {
+        if (++tokenCount > constraints.getMaxTokenCount()) {
+            return violation(Constraint.TOKEN_COUNT, tokenCount, constraints.getMaxTokenCount());
+        }
+        if (jsonToken == JsonToken.END_OBJECT || jsonToken == JsonToken.END_ARRAY) {
+            depth--;
+            return depth == 0 ? COMPLETE : CONTINUE;
+        }
+        if (jsonToken == JsonToken.FIELD_NAME) {
+            final int entries = ~(--counts[depth - 1]);
+            observe(Constraint.OBJECT_ENTRIES, entries);
+            final int maxEntries = limit(root == null ? null : nodes[depth - 1], PathConstraints.OBJECT_ENTRIES,
+                    constraints.getMaxObjectEntries());
+            if (entries > maxEntries) {
+                return violation(Constraint.OBJECT_ENTRIES, entries, maxEntries);
+            }
+            if (root != null) {
+                final PathConstraints.Node object = nodes[depth - 1];
+                fieldNode = object == null ? null : object.field(jsonParser.getCurrentName());
+            }
+            final int nameLength = jsonParser.getTextLength();
+            observe(Constraint.NAME_LENGTH, nameLength);
+            if (nameLength > constraints.getMaxNameLength() || names == null) {
+                return checkLength(Constraint.NAME_LENGTH, nameLength, constraints.getMaxNameLength());
+            }
+            final int distinct = names.add(names.hash(jsonParser.getCurrentName()));
+            observe(Constraint.DISTINCT_NAMES, distinct);
+            return checkLength(Constraint.DISTINCT_NAMES, distinct, constraints.getMaxDistinctNames());
+        }
+        // the trie node of the value, if there are path limits
+        PathConstraints.Node node = depth == 0 ? root : fieldNode;
+        if (depth > 0 && counts[depth - 1] >= 0) {
+            final int elements = ++counts[depth - 1];
+            observe(Constraint.ARRAY_ELEMENTS, elements);
+            final PathConstraints.Node array = root == null ? null : nodes[depth - 1];
+            final int maxElements = limit(array, PathConstraints.ARRAY_ELEMENTS, constraints.getMaxArrayElements());
+            if (elements > maxElements) {
+                return violation(Constraint.ARRAY_ELEMENTS, elements, maxElements);
+            }
+            node = array == null ? null : array.element(elements - 1);
+        }
+        if (jsonToken == JsonToken.START_OBJECT || jsonToken == JsonToken.START_ARRAY) {
+            observe(Constraint.NESTING_DEPTH, depth + 1);
+            if (depth + 1 > constraints.getMaxNestingDepth()) {
+                return violation(Constraint.NESTING_DEPTH, depth + 1, constraints.getMaxNestingDepth());
+            }
+            if (depth == counts.length) {
+                final int[] grown = new int[counts.length * 2];
+                System.arraycopy(counts, 0, grown, 0, depth);
+                counts = grown;
+                if (root != null) {
+                    nodes = Arrays.copyOf(nodes, grown.length);
+                }
+            }
+            if (root != null) {
+                nodes[depth] = node;
+            }
+            counts[depth++] = jsonToken == JsonToken.START_OBJECT ? ~0 : 0;
+            return CONTINUE;
+        }
+        final int result;
+        if (jsonToken == JsonToken.VALUE_NUMBER_INT || jsonToken == JsonToken.VALUE_NUMBER_FLOAT) {
+            final int max = limit(node, PathConstraints.NUMBER_LENGTH, constraints.getMaxNumberLength());
+            // a profiling validator needs the exact length
+            final int length = binary ? numberLength(jsonParser, largest == null ? max : 0)
+                    : jsonParser.getTextLength();
+            observe(Constraint.NUMBER_LENGTH, length);
+            result = checkLength(Constraint.NUMBER_LENGTH, length, max);
+        } else if (jsonToken == JsonToken.VALUE_STRING) {
+            final int max = limit(node, PathConstraints.STRING_LENGTH, constraints.getMaxStringLength());
+            final int length = jsonParser.getTextLength();
+            observe(Constraint.STRING_LENGTH, length);
+            result = checkLength(Constraint.STRING_LENGTH, length, max);
+        } else {
+            result = CONTINUE;
+        }
+        return result == CONTINUE && depth == 0 ? COMPLETE : result;
+    }
+
+    private void observe(final Constraint constraint, final long value) {
+        if (largest != null && value > largest[constraint.ordinal()]) {
+            largest[constraint.ordinal()] = value;
+        }
+    }
+
+    private static int limit(final PathConstraints.Node node, final int kind, final int global) {
+        return node == null ? global : node.limit(kind, global);
+    }
+
+    /**
+     * @return the length of the current number as text, or a bound of it that is not more than <code>max</code>
+     */
+    private static int numberLength(final JsonParser jsonParser, final int max) throws IOException {
+        switch (jsonParser.getNumberType()) {
+            case INT:
+            case LONG:
+                return length(jsonParser.getLongValue());
+            case BIG_INTEGER: {
+                final BigInteger value = jsonParser.getBigIntegerValue();
+                // digits, plus one for the sign
+                final int bound = (int) (value.bitLength() * LOG10_2) + 2;
+                if (bound <= max) {
+                    return bound;
+                }
+                return value.toString().length();
+            }
+            case BIG_DECIMAL: {
+                final BigDecimal value = jsonParser.getDecimalValue();
+                // digits, plus the sign, the point and an exponent of up to 10 digits
+                final long bound = value.precision() + 14L;
+                if (bound <= max) {
+                    return (int) bound;
+                }
+                return value.toString().length();
+            }
+            default:
+                return max >= MAX_FLOATING_POINT_LENGTH ? max : jsonParser.getTextLength();
+        }
+    }
+
+    /**
+     * @return the length of <code>String.valueOf(value)</code>
+     */
+    static int length(long value) {
+        int length = value < 0 ? 2 : 1;
+        while ((value /= 10) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Counts tokens that were validated without this validator, e.g. by a scanner.
+     */
+    void countTokens(final long count) {
+        tokenCount += count;
+    }
+
+    private int checkLength(final Constraint constraint, final int length, final int max) {
+        return length > max ? violation(constraint, length, max) : CONTINUE;
+    }
+
+    private int violation(final Constraint constraint, final long observed, final long allowed) {
+        this.violated = constraint;
+        this.observed = observed;
+        this.allowed = allowed;
+        return VIOLATION;
+    }
+
+    /**
+     * @return the constraint that the last token violated
+     */
+    Constraint getViolated() {
+        return violated;
+    }
+
+    /**
+     * @return the length, count or depth that violated the constraint
+     */
+    long getObserved() {
+        return observed;
+    }
+
+    /**
+     * @return the maximum that the violated constraint allows
+     */
+    long getAllowed() {
+        return allowed;
+    }
+
+    /**
+     * @param constraint one of {@link #PROFILED}
+     * @return the largest value of the constraint seen so far (0 if the validator does not profile)
+     */
+    long getLargest(final Constraint constraint) {
+        return largest == null ? 0L : largest[constraint.ordinal()];
+    }
+
+    /**
+     * @return number of tokens validated so far
+     */
+    long getTokenCount() {
+        return tokenCount;
+    }
+}
@@ -0,0 +1,749 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.io.ContentReference;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Validates UTF-8 encoded JSON by scanning the raw bytes with a small state machine instead of
+ * tokenizing them with Jackson. Only lengths, nesting and syntax are tracked; no values are decoded.
+ * <p>
+ * The scanner follows the rules of Jackson's default byte based parser (including where it stops
+ * reading), so it reaches the same verdict as {@link SizeLimiter} for the same input. String contents
+ * are scanned 8 bytes at a time (SWAR): each word is tested for quotes, backslashes, control characters
+ * and non-ASCII bytes with a few arithmetic operations, and only flagged bytes take the slow path.
+ * </p>
+ * <p>
+ * Tokens are counted as Jackson returns them, and the checks for a token run in the same order as in
+ * {@link TokenValidator}, at the point where Jackson would return the token: a field name is returned
+ * after the number or literal that follows it has been parsed, while strings are parsed after their
+ * token has been returned.
+ * </p>
+ * <p>
+ * When the number of distinct field names is limited, names are also hashed as the chars they decode to
+ * (see {@link NameSet}).
+ * </p>
+ * Instances are single use and not thread-safe.
+ */
+final class Utf8Scanner {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long QUOTES = 0x2222222222222222L;
+    private static final long BACKSLASHES = 0x5C5C5C5C5C5C5C5CL;
+    private static final long SPACES = 0x2020202020202020L;
+
+    private static final byte IN_OBJECT = 1;
+    private static final byte IN_ARRAY = 2;
+
+    private final StreamReadConstraints constraints;
+    private final long maxTokenCount;
+    /** Whether entries and elements are limited, so that they have to be counted. */
+    private final boolean countEntries;
+    /** Source of further chunks, <code>null</code> when the whole input is in the buffer. */
+    private final InputStream in;
+    private final byte[] array;
+    private int pos;
+    private int end;
+    /** Input offset of index 0 of the buffer, used when reporting errors. */
+    private long bufferOffset;
+
+    private byte[] stack = new byte[16];
+    /** Number of elements of each enclosing array, or the complement (<code>~n</code>) of the number of entries of an object. */
+    private int[] counts = new int[16];
+    private int depth;
+    private long tokenCount;
+    /** Length of the field name that has been scanned but not yet validated, or -1. */
+    private int nameLength = -1;
+    /** The distinct field names, or <code>null</code> if they are not limited. */
+    private final NameSet names;
+    /** Hash of the field name that has been scanned but not yet validated, if names are counted. */
+    private long nameHash;
+    /** Input offset of the comma that ends a range of top-level array elements, see {@link #scanElements(long)}. */
+    private long elementsEnd = Long.MAX_VALUE;
+
+    /**
+     * Creates a scanner over a byte range that holds the whole input.
+     */
+    Utf8Scanner(final StreamReadConstraints constraints, final byte[] input, final int offset, final int length) {
+        this(constraints, input, offset, length, 0L);
+    }
+
+    /**
+     * Creates a scanner over a byte range that is part of a larger input.
+     * @param inputOffset offset of the range in the input, used when reporting errors
+     */
+    Utf8Scanner(final StreamReadConstraints constraints, final byte[] input, final int offset, final int length,
+                final long inputOffset) {
+        this.constraints = constraints;
+        this.maxTokenCount = constraints.getMaxTokenCount();
+        this.countEntries = countsEntries(constraints);
+        this.names = constraints.getMaxDistinctNames() != StreamReadConstraints.DEFAULT_MAX_DISTINCT_NAMES
+                ? new NameSet() : null;
+        this.in = null;
+        this.array = input;
+        this.pos = offset;
+        this.end = offset + length;
+        this.bufferOffset = inputOffset - offset;
+    }
+
+    /**
+     * Creates a scanner that reads the input from a stream, a chunk at a time.
+     * @param chunk buffer to read into, owned by the caller
+     */
+    Utf8Scanner(final StreamReadConstraints constraints, final InputStream in, final byte[] chunk) {
+        this(constraints, in, chunk, 0L);
+    }
+
+    /**
+     * Creates a scanner that reads part of a larger input from a stream, a chunk at a time.
+     * @param chunk buffer to read into, owned by the caller
+     * @param inputOffset offset of the stream's first byte in the input, used when reporting errors
+     */
+    Utf8Scanner(final StreamReadConstraints constraints, final InputStream in, final byte[] chunk,
+                final long inputOffset) {
+        this.constraints = constraints;
+        this.maxTokenCount = constraints.getMaxTokenCount();
+        this.countEntries = countsEntries(constraints);
+        this.names = constraints.getMaxDistinctNames() != StreamReadConstraints.DEFAULT_MAX_DISTINCT_NAMES
+                ? new NameSet() : null;
+        this.in = in;
+        this.array = chunk;
+        this.bufferOffset = inputOffset;
+    }
+
+    /**
+     * Checks the start of the input for signs of a non UTF-8 encoding: a zero byte in the first four
+     * bytes or a UTF-16/32 byte order mark. Jackson auto-detects those encodings, so such input should
+     * be validated by {@link SizeLimiter} instead.
+     *
+     * @return <code>true</code> if the input can be scanned as UTF-8
+     * @throws IOException if reading the input fails
+     */
+    boolean isUtf8() throws IOException {
+        ensureLoaded(4);
+        final int available = Math.min(end - pos, 4);
+        if (available > 0) {
+            final int first = array[pos] & 0xFF;
+            if (first == 0xFE || first == 0xFF) {
+                return false;
+            }
+        }
+        for (int i = 0; i < available; i++) {
+            if (array[pos + i] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the input can be validated by this scanner: it has to be UTF-8 (see {@link #isUtf8()}),
+     * and the constraints must not have limits for paths, since the scanner does not decode field names.
+     *
+     * @return <code>true</code> if the input can be scanned, otherwise it should be validated by {@link SizeLimiter}
+     * @throws IOException if reading the input fails
+     */
+    boolean isScannable() throws IOException {
+        return !constraints.hasPathConstraints() && isUtf8();
+    }
+
+    /**
+     * @return the input that has not been scanned yet, including any buffered bytes
+     */
+    InputStream remainingInput() {
+        final InputStream buffered = new ByteArrayInputStream(array, pos, end - pos);
+        return in == null ? buffered : new SequenceInputStream(buffered, in);
+    }
+
+    /**
+     * Scans the first root-level value of the input. Like {@link SizeLimiter}, anything after the end
+     * of that value is not read.
+     *
+     * @throws IllegalStateException if string or structure constraints fail
+     * @throws NumberFormatException if number constraints fail
+     * @throws IOException if I/O or JSON parse issues occur
+     */
+    void scan() throws IOException {
+        ensureLoaded(4);
+        if (end - pos >= 4 && (array[pos] & 0xFF) == 0xEF
+                && (array[pos + 1] & 0xFF) == 0xBB && (array[pos + 2] & 0xFF) == 0xBF) {
+            pos += 3;
+        }
+        final int c = nextNonWhitespace();
+        if (c < 0) {
+            return;
+        }
+        scanValues(c);
+    }
+
+    /**
+     * Checks that only white space follows the value scanned by {@link #scan()}, up to the end of the input.
+     *
+     * @throws IOException if I/O issues occur, or a JSON parse error if anything else follows the value
+     */
+    void scanEnd() throws IOException {
+        final int c = nextNonWhitespace();
+        if (c >= 0) {
+            throw unexpected(c, "expected only white space after the root value");
+        }
+    }
+
+    /**
+     * Scans elements of a top-level array, as cut by {@link ArraySplitter}: the input starts after the
+     * opening bracket or a separating comma, and runs on past the range, so that errors near its end are
+     * reported exactly as when scanning the whole array. Scanning starts at depth 1 and stops at the first
+     * comma at depth 1 at or after <code>end</code>, or when the array is closed.
+     * @param end input offset of the comma that ends the range (or of the closing bracket)
+     */
+    void scanElements(final long end) throws IOException {
+        push(IN_ARRAY);
+        elementsEnd = end;
+        scanValues(nextNonWhitespace());
+    }
+
+    /**
+     * @param c first byte of the (first) value
+     */
+    private void scanValues(int c) throws IOException {
+        for (;;) {
+            switch (c) {
+                case '{':
+                    valueToken();
+                    push(IN_OBJECT);
+                    c = nextNonWhitespace();
+                    if (c == '}') {
+                        endToken();
+                        break;
+                    }
+                    c = scanFieldName(c);
+                    continue;
+                case '[':
+                    valueToken();
+                    push(IN_ARRAY);
+                    c = nextNonWhitespace();
+                    if (c == ']') {
+                        endToken();
+                        break;
+                    }
+                    continue;
+                case '"':
+                    valueToken();
+                    constraints.validateStringLength(scanString());
+                    break;
+                case 't':
+                    matchLiteral("true");
+                    valueToken();
+                    break;
+                case 'f':
+                    matchLiteral("false");
+                    valueToken();
+                    break;
+                case 'n':
+                    matchLiteral("null");
+                    valueToken();
+                    break;
+                case '-':
+                case '0':
+                case '1':
+                case '2':
+                case '3':
+                case '4':
+                case '5':
+                case '6':
+                case '7':
+                case '8':
+                case '9':
+                    scanNumber(c);
+                    break;
+                default:
+                    throw unexpected(c, "expected a valid value (JSON String, Number, Array, Object or token 'null', 'true' or 'false')");
+            }
+            // a value is complete: close containers until the next value starts
+            for (;;) {
+                if (depth == 0) {
+                    return;
+                }
+                c = nextNonWhitespace();
+                if (depth == 1 && c == ',' && bufferOffset + pos - 1 >= elementsEnd) {
+                    // the comma that ends a range of elements
+                    return;
+                }
+                if (stack[depth - 1] == IN_OBJECT) {
+                    if (c == ',') {
+                        c = scanFieldName(nextNonWhitespace());
+                        break;
+                    } else if (c == '}') {
+                        endToken();
+                    } else {
+                        throw unexpected(c, "was expecting comma to separate Object entries");
+                    }
+                } else {
+                    if (c == ',') {
+                        c = nextNonWhitespace();
+                        break;
+                    } else if (c == ']') {
+                        endToken();
+                    } else {
+                        throw unexpected(c, "was expecting comma to separate Array entries");
+                    }
+                }
+            }
+        }
+    }
+
+    private void push(final byte container) {
+        constraints.validateNestingDepth(depth + 1);
+        if (depth == stack.length) {
+            final byte[] grown = new byte[stack.length * 2];
+            System.arraycopy(stack, 0, grown, 0, depth);
+            stack = grown;
+            final int[] grownCounts = new int[counts.length * 2];
+            System.arraycopy(counts, 0, grownCounts, 0, depth);
+            counts = grownCounts;
+        }
+        counts[depth] = container == IN_OBJECT ? ~0 : 0;
+        stack[depth++] = container;
+    }
+
+    private static boolean countsEntries(final StreamReadConstraints constraints) {
+        return constraints.getMaxObjectEntries() != StreamReadConstraints.DEFAULT_MAX_OBJECT_ENTRIES
+                || constraints.getMaxArrayElements() != StreamReadConstraints.DEFAULT_MAX_ARRAY_ELEMENTS;
+    }
+
+    /**
+     * Validates the token of a value that starts (after the field name before it, if any).
+     * The limits are compared here first, so that the common case is a few compares.
+     */
+    private void valueToken() {
+        if (nameLength >= 0) {
+            nameToken();
+        }
+        if (++tokenCount > maxTokenCount) {
+            constraints.validateTokenCount(tokenCount);
+        }
+        if (countEntries && depth > 0 && counts[depth - 1] >= 0) {
+            constraints.validateArrayElements(++counts[depth - 1]);
+        }
+    }
+
+    private void nameToken() {
+        if (++tokenCount > maxTokenCount) {
+            constraints.validateTokenCount(tokenCount);
+        }
+        if (countEntries) {
+            constraints.validateObjectEntries(~(--counts[depth - 1]));
+        }
+        constraints.validateNameLength(nameLength);
+        if (names != null) {
+            constraints.validateDistinctNames(names.add(nameHash));
+        }
+        nameLength = -1;
+    }
+
+    /**
+     * Validates the token of the end of the current object or array, and closes it.
+     */
+    private void endToken() {
+        if (++tokenCount > maxTokenCount) {
+            constraints.validateTokenCount(tokenCount);
+        }
+        depth--;
+    }
+
+    /**
+     * Scans a field name, the following colon and any whitespace.
+     * @param c first byte of the name
+     * @return first byte of the field value
+     */
+    private int scanFieldName(final int c) throws IOException {
+        if (c != '"') {
+            throw unexpected(c, "was expecting double-quote to start field name");
+        }
+        nameLength = names == null ? scanString() : scanName();
+        final int colon = nextNonWhitespace();
+        if (colon != ':') {
+            throw unexpected(colon, "was expecting a colon to separate field name and value");
+        }
+        return nextNonWhitespace();
+    }
+
+    /**
+     * Scans the rest of a string (after the opening quote).
+     * @return decoded length of the string in chars
+     */
+    private int scanString() throws IOException {
+        int length = 0;
+        for (;;) {
+            final int p = plainEnd();
+            length += p - pos;
+            pos = p;
+            final int c = nextByte();
+            if (c == '"') {
+                return length;
+            } else if (c == '\\') {
+                scanEscape();
+                length++;
+            } else if (c >= 0x80) {
+                scanMultiByte(c);
+                // 4 byte sequences decode to a surrogate pair
+                length += (c & 0xF8) == 0xF0 ? 2 : 1;
+            } else if (c >= 0x20) {
+                length++;
+            } else if (c < 0) {
+                throw error("Unexpected end-of-input in a String value");
+            } else {
+                throw error("Illegal unquoted character (" + describe(c)
+                        + "): has to be escaped using backslash to be included in string value");
+            }
+        }
+    }
+
+    /**
+     * Finds the end of the plain (printable ASCII, not a quote or backslash) bytes at the position, 8 at a
+     * time, without reading more input.
+     * @return index of the first byte that is not plain, or of one of the last 7 bytes of the buffer
+     */
+    private int plainEnd() {
+        int p = pos;
+        final int last = end - 8;
+        while (p <= last) {
+            final long word = (long) LONGS.get(array, p);
+            final long quotes = word ^ QUOTES;
+            final long backslashes = word ^ BACKSLASHES;
+            final long special = (((quotes - ONES) & ~quotes)
+                    | ((backslashes - ONES) & ~backslashes)
+                    | ((word - SPACES) & ~word)
+                    | word) & HIGH_BITS;
+            if (special != 0) {
+                // only the lowest flagged byte is exact, so skip the plain bytes before it
+                return p + (Long.numberOfTrailingZeros(special) >>> 3);
+            }
+            p += 8;
+        }
+        return p;
+    }
+
+    /**
+     * Scans the rest of a field name (after the opening quote) like {@link #scanString()}, and keeps the
+     * hash of the chars it decodes to in <code>nameHash</code>.
+     * @return decoded length of the name in chars
+     */
+    private int scanName() throws IOException {
+        long hash = names.seed();
+        int length = 0;
+        for (;;) {
+            final int p = plainEnd();
+            for (int i = pos; i < p; i++) {
+                hash = NameSet.mix(hash, array[i]);
+            }
+            length += p - pos;
+            pos = p;
+            final int c = nextByte();
+            if (c == '"') {
+                nameHash = hash;
+                return length;
+            } else if (c == '\\') {
+                hash = NameSet.mix(hash, scanEscape());
+                length++;
+            } else if (c >= 0x80) {
+                final int codePoint = scanMultiByte(c);
+                if ((c & 0xF8) == 0xF0) {
+                    hash = NameSet.mixSupplementary(hash, codePoint);
+                    length += 2;
+                } else {
+                    hash = NameSet.mix(hash, codePoint);
+                    length++;
+                }
+            } else if (c >= 0x20) {
+                hash = NameSet.mix(hash, c);
+                length++;
+            } else if (c < 0) {
+                throw error("Unexpected end-of-input in a String value");
+            } else {
+                throw error("Illegal unquoted character (" + describe(c)
+                        + "): has to be escaped using backslash to be included in string value");
+            }
+        }
+    }
+
+    /**
+     * Checks an escape sequence (after the backslash).
+     * @return the char it decodes to
+     */
+    private int scanEscape() throws IOException {
+        final int c = nextByte();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u': {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    final int h = nextByte();
+                    final int digit = Character.digit(h, 16);
+                    if (h >= 0x80 || digit < 0) {
+                        throw h < 0 ? error("Unexpected end-of-input in character escape sequence")
+                                : error("Unexpected character (" + describe(h)
+                                        + "): expected a hex-digit for character escape sequence");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return value;
+            }
+            default:
+                throw c < 0 ? error("Unexpected end-of-input in character escape sequence")
+                        : error("Unrecognized character escape (" + describe(c) + ")");
+        }
+    }
+
+    /**
+     * Checks the continuation bytes of a multi-byte UTF-8 sequence.
+     * @param c lead byte
+     * @return the code point of the sequence
+     */
+    private int scanMultiByte(final int c) throws IOException {
+        final int needed;
+        int codePoint;
+        if ((c & 0xE0) == 0xC0) {
+            needed = 1;
+            codePoint = c & 0x1F;
+        } else if ((c & 0xF0) == 0xE0) {
+            needed = 2;
+            codePoint = c & 0x0F;
+        } else if ((c & 0xF8) == 0xF0) {
+            needed = 3;
+            codePoint = c & 0x07;
+        } else {
+            throw error("Invalid UTF-8 start byte 0x" + Integer.toHexString(c));
+        }
+        for (int i = 0; i < needed; i++) {
+            final int d = nextByte();
+            if (d < 0) {
+                throw error("Unexpected end-of-input in a String value");
+            }
+            if ((d & 0xC0) != 0x80) {
+                throw error("Invalid UTF-8 middle byte 0x" + Integer.toHexString(d));
+            }
+            codePoint = (codePoint << 6) | (d & 0x3F);
+        }
+        return codePoint;
+    }
+
+    private void matchLiteral(final String literal) throws IOException {
+        for (int i = 1; i < literal.length(); i++) {
+            if (nextByte() != literal.charAt(i)) {
+                throw error("Unrecognized token '" + literal.substring(0, i)
+                        + "': was expecting (JSON String, Number, Array, Object or token 'null', 'true' or 'false')");
+            }
+        }
+        if (pos >= end && !loadMore()) {
+            return;
+        }
+        // like Jackson, reject a literal that runs into a name char (or any non-ASCII byte)
+        final int c = array[pos] & 0xFF;
+        if (c >= '0' && c != ']' && c != '}' && (c >= 0x80 || Character.isJavaIdentifierPart((char) c))) {
+            throw error("Unrecognized token '" + literal + (char) c
+                    + "': was expecting (JSON String, Number, Array, Object or token 'null', 'true' or 'false')");
+        }
+    }
+
+    /**
+     * Scans a number and validates its length.
+     * @param c first byte of the number (a digit or minus sign)
+     */
+    private void scanNumber(int c) throws IOException {
+        int length = 1;
+        boolean fp = false;
+        if (c == '-') {
+            c = nextByte();
+            if (c < '0' || c > '9') {
+                throw unexpected(c, "expected digit (0-9) to follow minus sign, for valid numeric value");
+            }
+            length++;
+        }
+        if (c == '0') {
+            c = peek();
+            if (c >= '0' && c <= '9') {
+                throw error("Invalid numeric value: Leading zeroes not allowed");
+            }
+        } else {
+            length += skipDigits();
+            c = peek();
+        }
+        if (c == '.') {
+            fp = true;
+            pos++;
+            final int digits = skipDigits();
+            if (digits == 0) {
+                throw unexpected(peek(), "Decimal point not followed by a digit");
+            }
+            length += 1 + digits;
+            c = peek();
+        }
+        if (c == 'e' || c == 'E') {
+            fp = true;
+            pos++;
+            length++;
+            c = peek();
+            if (c == '-' || c == '+') {
+                pos++;
+                length++;
+            }
+            final int digits = skipDigits();
+            if (digits == 0) {
+                throw unexpected(peek(), "Exponent indicator not followed by a digit");
+            }
+            length += digits;
+            c = peek();
+        }
+        if (depth == 0 && c >= 0 && c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+            throw unexpected(c, "Expected space separating root-level values");
+        }
+        valueToken();
+        if (fp) {
+            constraints.validateFPLength(length);
+        } else {
+            constraints.validateIntegerLength(length);
+        }
+    }
+
+    /**
+     * Skips a run of digits, leaving the first non-digit unread.
+     * @return number of digits skipped
+     */
+    private int skipDigits() throws IOException {
+        int count = 0;
+        for (;;) {
+            int p = pos;
+            final int e = end;
+            while (p < e) {
+                final int c = array[p];
+                if (c < '0' || c > '9') {
+                    count += p - pos;
+                    pos = p;
+                    return count;
+                }
+                p++;
+            }
+            count += p - pos;
+            pos = p;
+            if (!loadMore()) {
+                return count;
+            }
+        }
+    }
+
+    /**
+     * @return the next byte without consuming it, or -1 at the end of the input
+     */
+    private int peek() throws IOException {
+        if (pos >= end && !loadMore()) {
+            return -1;
+        }
+        return array[pos] & 0xFF;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        for (;;) {
+            if (pos >= end && !loadMore()) {
+                return -1;
+            }
+            final int c = array[pos++] & 0xFF;
+            if (c > ' ' || (c != ' ' && c != '\n' && c != '\r' && c != '\t')) {
+                return c;
+            }
+        }
+    }
+
+    private int nextByte() throws IOException {
+        if (pos >= end && !loadMore()) {
+            return -1;
+        }
+        return array[pos++] & 0xFF;
+    }
+
+    private boolean loadMore() throws IOException {
+        if (in == null) {
+            return false;
+        }
+        bufferOffset += end;
+        pos = 0;
+        end = 0;
+        final int count = in.read(array, 0, array.length);
+        if (count > 0) {
+            end = count;
+            return true;
+        }
+        if (count == 0) {
+            throw new IOException("InputStream.read() returned 0 characters when trying to read " + array.length + " bytes");
+        }
+        return false;
+    }
+
+    private void ensureLoaded(final int minimum) throws IOException {
+        if (in == null || pos != 0) {
+            return;
+        }
+        while (end < minimum) {
+            final int count = in.read(array, end, array.length - end);
+            if (count < 0) {
+                return;
+            }
+            if (count == 0) {
+                throw new IOException("InputStream.read() returned 0 characters when trying to read " + (array.length - end) + " bytes");
+            }
+            end += count;
+        }
+    }
+
+    private JsonParseException unexpected(final int c, final String message) {
+        if (c < 0) {
+            return depth == 0 ? error("Unexpected end-of-input: " + message)
+                    : error("Unexpected end-of-input: expected close marker for "
+                            + (stack[depth - 1] == IN_OBJECT ? "Object" : "Array"));
+        }
+        if (c < 0x20) {
+            return error("Illegal character (" + describe(c)
+                    + "): only regular white space (\\r, \\n, \\t) is allowed between tokens");
+        }
+        return error("Unexpected character (" + describe(c) + "): " + message);
+    }
+
+    private JsonParseException error(final String message) {
+        final long offset = bufferOffset + pos;
+        return new JsonParseException(null, message,
+                new JsonLocation(ContentReference.unknown(), offset, -1L, -1, -1));
+    }
+
+    private static String describe(final int c) {
+        if (c < 0x20) {
+            return "CTRL-CHAR, code " + c;
+        }
+        if (c >= 0x80) {
+            return "byte 0x" + Integer.toHexString(c);
+        }
+        return "'" + (char) c + "' (code " + c + ")";
+    }
+}
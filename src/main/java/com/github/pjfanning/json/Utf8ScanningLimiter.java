@@ -0,0 +1,101 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.BufferRecyclers;
+import com.github.pjfanning.json.util.SizeLimitInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fast-path alternative to {@link SizeLimiter} for UTF-8 encoded input.
+ * <p>
+ * Instead of tokenizing the input with Jackson, the raw bytes are scanned by a hand-written state
+ * machine that only tracks what the {@link StreamReadConstraints} need: string and number lengths,
+ * nesting and total size. It reaches the same verdict as {@link SizeLimiter} (same exception types
+ * for the same input) but does not decode any values.
+ * </p>
+ * <p>
+ * Input that is not UTF-8 (Jackson auto-detects UTF-16 and UTF-32) is passed on to {@link SizeLimiter}.
+ * </p>
+ */
+public class Utf8ScanningLimiter {
+
+    /**
+     * Validates the UTF-8 input bytes. The total length is measured in bytes.
+     * @param constraints to apply
+     * @param input bytes
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws NumberFormatException if number constraints fail
+     * @throws IOException if JSON parse issues occur
+     */
+    public static void check(final StreamReadConstraints constraints, final byte[] input) throws IOException {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        check(constraints, input, 0, input.length);
+    }
+
+    /**
+     * Validates a range of UTF-8 input bytes. The total length is measured in bytes.
+     * @param constraints to apply
+     * @param input bytes
+     * @param offset of the first byte to validate
+     * @param length number of bytes to validate
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IndexOutOfBoundsException if the range is not within the input array
+     * @throws IllegalStateException if constraints fail
+     * @throws NumberFormatException if number constraints fail
+     * @throws IOException if JSON parse issues occur
+     */
+    public static void check(final StreamReadConstraints constraints, final byte[] input,
+                             final int offset, final int length) throws IOException {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        if (offset < 0 || length < 0 || length > input.length - offset) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+                    + ") out of bounds for length " + input.length);
+        }
+        constraints.validateTotalLength(length);
+        final Utf8Scanner scanner = new Utf8Scanner(constraints, input, offset, length);
+        if (scanner.isScannable()) {
+            scanner.scan();
+        } else {
+            SizeLimiter.check(constraints, scanner.remainingInput());
+        }
+    }
+
+    /**
+     * Validates the UTF-8 <code>InputStream</code>. The total length is measured in bytes.
+     * @param constraints to apply
+     * @param input stream (that will only be closed if an exception is thrown)
+     * @throws NullPointerException if input is <code>null</code>
+     * @throws IllegalStateException if constraints fail
+     * @throws NumberFormatException if number constraints fail
+     * @throws IOException if I/O or JSON parse issues occur (or total size is too big)
+     */
+    public static void check(final StreamReadConstraints constraints, final InputStream input) throws IOException {
+        if (input == null) {
+            throw new NullPointerException("null input");
+        }
+        final InputStream wrappedStream = new SizeLimitInputStream(input, constraints.getMaxTotalLength(),
+                constraints.newReadBudget("bytes"));
+        final BufferRecycler recycler = BufferRecyclers.getBufferRecycler();
+        final byte[] chunk = recycler.allocByteBuffer(BufferRecycler.BYTE_READ_IO_BUFFER);
+        try {
+            final Utf8Scanner scanner = new Utf8Scanner(constraints, wrappedStream, chunk);
+            if (scanner.isScannable()) {
+                scanner.scan();
+            } else {
+                SizeLimiter.check(constraints, scanner.remainingInput());
+            }
+        } catch (Exception e) {
+            wrappedStream.close();
+            throw e;
+        } finally {
+            recycler.releaseByteBuffer(BufferRecycler.BYTE_READ_IO_BUFFER, chunk);
+        }
+    }
+}
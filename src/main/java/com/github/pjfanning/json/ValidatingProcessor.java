@@ -0,0 +1,232 @@
+package com.github.pjfanning.json;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link Flow.Processor} that validates a JSON body while it streams through to the subscriber.
+ * <p>
+ * Every chunk is validated with a {@link NonBlockingValidator} and then forwarded as is (the same
+ * <code>ByteBuffer</code> instance, with its position unchanged). On the first violation the upstream
+ * subscription is cancelled and the subscriber receives <code>onError</code>; the offending chunk is not
+ * forwarded. When upstream completes, the end of input is validated before <code>onComplete</code> is
+ * signalled. Demand is passed through one-to-one, so backpressure is preserved.
+ * </p>
+ * <p>
+ * Signals to the subscriber are serialized: a terminal signal that is decided on another thread (e.g. an
+ * invalid <code>request(n)</code> from the subscriber) while a chunk is being forwarded is delivered by the
+ * forwarding thread once <code>onNext</code> returns, and no chunk is forwarded after it.
+ * </p>
+ * <p>
+ * Create instances with {@link SizeLimiter#createValidatingProcessor()}. Each instance validates one body
+ * and supports a single subscriber.
+ * </p>
+ */
+public class ValidatingProcessor implements Flow.Processor<ByteBuffer, ByteBuffer> {
+
+    private final NonBlockingValidator validator;
+    private final AtomicReference<Flow.Subscriber<? super ByteBuffer>> downstream = new AtomicReference<>();
+    /** Demand requested before the upstream subscription arrived. */
+    private final AtomicLong pendingDemand = new AtomicLong();
+    private volatile Flow.Subscription upstream;
+    private volatile boolean cancelled;
+    /** Set when a terminal signal has been decided; only touched by upstream signals. */
+    private boolean done;
+
+    private boolean subscribed;
+    private boolean terminated;
+    private Throwable terminalError;
+    /**
+     * Guards the signals to the subscriber: 1 while a chunk is forwarded, and incremented for good by the
+     * terminal signal, which is delivered by whoever moves it off 0.
+     */
+    private final AtomicInteger emitting = new AtomicInteger();
+
+    ValidatingProcessor(final NonBlockingValidator validator) {
+        this.validator = validator;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super ByteBuffer> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("null subscriber");
+        }
+        if (!downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("ValidatingProcessor only supports one subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new DownstreamSubscription());
+        final boolean deliver;
+        synchronized (this) {
+            subscribed = true;
+            deliver = terminated;
+        }
+        if (deliver && emitting.getAndIncrement() == 0) {
+            signalTerminal(subscriber);
+        }
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        if (cancelled) {
+            subscription.cancel();
+            return;
+        }
+        requestUpstream();
+    }
+
+    @Override
+    public void onNext(final ByteBuffer item) {
+        if (done || cancelled) {
+            return;
+        }
+        final Flow.Subscriber<? super ByteBuffer> subscriber = downstream.get();
+        if (subscriber == null) {
+            // nothing can have been requested yet
+            fail(new IllegalStateException("onNext received before any demand was requested"));
+            return;
+        }
+        try {
+            validator.feed(item);
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+            return;
+        }
+        if (emitting.compareAndSet(0, 1)) {
+            subscriber.onNext(item);
+            if (emitting.decrementAndGet() != 0) {
+                // terminated while the chunk was forwarded
+                signalTerminal(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Ends the body with an error found while handling an upstream signal.
+     */
+    private void fail(final Throwable error) {
+        done = true;
+        cancelUpstream();
+        closeValidator();
+        terminate(error);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        if (done) {
+            return;
+        }
+        done = true;
+        closeValidator();
+        terminate(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+        try {
+            validator.endOfInput();
+        } catch (IOException | RuntimeException e) {
+            terminate(e);
+            return;
+        } finally {
+            closeValidator();
+        }
+        terminate(null);
+    }
+
+    /**
+     * Only called from upstream signals, which are serialized with {@link #onNext(ByteBuffer)}.
+     */
+    private void closeValidator() {
+        try {
+            validator.close();
+        } catch (IOException e) {
+            // the non-blocking parser holds no external resources
+        }
+    }
+
+    private void requestUpstream() {
+        final Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+            final long n = pendingDemand.getAndSet(0L);
+            if (n > 0L) {
+                subscription.request(n);
+            }
+        }
+    }
+
+    private void cancelUpstream() {
+        cancelled = true;
+        final Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    private void terminate(final Throwable error) {
+        final Flow.Subscriber<? super ByteBuffer> subscriber;
+        synchronized (this) {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            terminalError = error;
+            subscriber = subscribed ? downstream.get() : null;
+        }
+        if (subscriber != null && emitting.getAndIncrement() == 0) {
+            signalTerminal(subscriber);
+        }
+    }
+
+    private void signalTerminal(final Flow.Subscriber<? super ByteBuffer> subscriber) {
+        if (terminalError == null) {
+            subscriber.onComplete();
+        } else {
+            subscriber.onError(terminalError);
+        }
+    }
+
+    private final class DownstreamSubscription implements Flow.Subscription {
+        @Override
+        public void request(final long n) {
+            if (n <= 0L) {
+                // may run while onNext forwards a chunk: terminate() leaves the signal to it then
+                cancelUpstream();
+                terminate(new IllegalArgumentException("non-positive subscription request: " + n));
+                return;
+            }
+            pendingDemand.accumulateAndGet(n, (current, add) -> {
+                final long sum = current + add;
+                return sum < 0L ? Long.MAX_VALUE : sum;
+            });
+            requestUpstream();
+        }
+
+        @Override
+        public void cancel() {
+            cancelUpstream();
+        }
+    }
+}
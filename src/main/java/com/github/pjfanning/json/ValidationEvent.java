@@ -0,0 +1,45 @@
+package com.github.pjfanning.json;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for one check, recorded while a recording is running (e.g. one started with
+ * <code>-XX:StartFlightRecording</code>). When no recording is running, the event costs next to nothing.
+ */
+@Name(ValidationEvent.NAME)
+@Label("JSON Validation")
+@Category("JSON Size Limiter")
+@Description("Validation of one JSON input against StreamReadConstraints")
+@StackTrace(false)
+final class ValidationEvent extends Event {
+
+    static final String NAME = "com.github.pjfanning.json.Validation";
+
+    @Label("Input Type")
+    String inputType;
+
+    @Label("Length")
+    @Description("Chars or bytes read")
+    long length;
+
+    @Label("Token Count")
+    @Description("JSON tokens seen, -1 if not counted")
+    long tokenCount;
+
+    @Label("Outcome")
+    @Description("valid, rejected (a constraint failed) or failed (invalid JSON or I/O error)")
+    String outcome;
+
+    @Label("Constraint")
+    @Description("The constraint that rejected the input")
+    String constraint;
+
+    @Label("Pointer")
+    @Description("JSON pointer of the value that failed, if known")
+    String pointer;
+}
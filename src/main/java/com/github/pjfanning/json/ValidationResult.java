@@ -0,0 +1,136 @@
+package com.github.pjfanning.json;
+
+import java.io.IOException;
+
+/**
+ * Outcome of a check that does not throw, see e.g. {@link SizeLimiter#validate(byte[])}.
+ * <p>
+ * A constraint violation is reported without creating an exception: the message and stack trace of the
+ * exception that the throwing <code>check</code> methods would throw are only built by
+ * {@link #throwIfInvalid()}. Parse and I/O errors are reported with the exception that the parser or
+ * the input threw.
+ * </p>
+ */
+public final class ValidationResult {
+
+    private static final ValidationResult VALID = new ValidationResult(null, -1L, -1L, -1L, null, null);
+
+    private final Constraint constraint;
+    private final long observed;
+    private final long allowed;
+    private final long offset;
+    private final String pointer;
+    private final Exception failure;
+
+    private ValidationResult(final Constraint constraint, final long observed, final long allowed,
+                             final long offset, final String pointer, final Exception failure) {
+        this.constraint = constraint;
+        this.observed = observed;
+        this.allowed = allowed;
+        this.offset = offset;
+        this.pointer = pointer;
+        this.failure = failure;
+    }
+
+    /**
+     * @return the result of a check that passed
+     */
+    public static ValidationResult valid() {
+        return VALID;
+    }
+
+    static ValidationResult violation(final Constraint constraint, final long observed, final long allowed,
+                                      final long offset, final String pointer) {
+        return new ValidationResult(constraint, observed, allowed, offset, pointer, null);
+    }
+
+    /**
+     * @param failure thrown while checking (the constraint, if any, is found with {@link Constraint#of(Throwable)})
+     */
+    static ValidationResult failure(final Exception failure, final long offset, final String pointer) {
+        return new ValidationResult(Constraint.of(failure), -1L, -1L, offset, pointer, failure);
+    }
+
+    static ValidationResult failure(final Exception failure, final long observed, final long allowed,
+                                    final long offset, final String pointer) {
+        return new ValidationResult(Constraint.of(failure), observed, allowed, offset, pointer, failure);
+    }
+
+    /**
+     * @return <code>true</code> if the input passed
+     */
+    public boolean isValid() {
+        return this == VALID;
+    }
+
+    /**
+     * @return the violated constraint, or <code>null</code> if the input passed or is not valid JSON
+     */
+    public Constraint getConstraint() {
+        return constraint;
+    }
+
+    /**
+     * @return the length, count or depth that violated the constraint, or -1 if it is not known
+     */
+    public long getObservedLength() {
+        return observed;
+    }
+
+    /**
+     * @return the maximum that the constraint allows, or -1 if it is not known
+     */
+    public long getAllowedLength() {
+        return allowed;
+    }
+
+    /**
+     * @return offset of the start of the token that failed, in bytes for binary input and in chars for
+     * text (for the total length, the offset where the limit was crossed; for parse errors, where the
+     * parser stopped), or -1 if it is not known
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return JSON pointer of the value (or field name) that failed, e.g. <code>/items/3/name</code>
+     * (<code>""</code> for the root value), or <code>null</code> if it is not known
+     */
+    public String getPointer() {
+        return pointer;
+    }
+
+    /**
+     * @return the exception that was thrown by the parser or the input (for parse and I/O errors, and for
+     * total lengths that are found to be too big while reading a stream), or <code>null</code>
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    /**
+     * Throws the exception that the throwing <code>check</code> methods throw for the same input.
+     * @throws IllegalStateException if constraints fail
+     * @throws NumberFormatException if number constraints fail
+     * @throws IOException if I/O or JSON parse issues occur (or total size is too big)
+     */
+    public void throwIfInvalid() throws IOException {
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure != null) {
+            throw (RuntimeException) failure;
+        } else if (constraint != null) {
+            throw constraint.exception(observed, allowed);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (isValid()) {
+            return "ValidationResult{valid}";
+        }
+        return "ValidationResult{constraint=" + constraint + ", observed=" + observed + ", allowed=" + allowed
+                + ", offset=" + offset + ", pointer=" + pointer + ", failure=" + failure + "}";
+    }
+}
@@ -0,0 +1,309 @@
+package com.github.pjfanning.json;
+
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of verdicts for inputs that are checked again and again (e.g. webhook retries or
+ * polling clients), for use with {@link SizeLimiter#create(StreamReadConstraints, LimiterListener, VerdictCache)}.
+ * <p>
+ * Verdicts are keyed by a 64-bit hash of the input, the input length, the {@link StreamReadConstraints}
+ * (compared with <code>equals</code>) and the format of the limiter's factory, so a cache can be shared by
+ * limiters with different constraints or formats.
+ * The hash is seeded with a random value per cache, so that collisions cannot be planned in advance; it is
+ * not a cryptographic hash, and an input that collides with a cached one gets that input's verdict.
+ * Valid inputs and constraint violations are cached; parse and I/O errors are not.
+ * </p>
+ * <p>
+ * The entries are split over 16 stripes that each evict their least recently used entry when full, so
+ * the cache holds about <code>maxEntries</code> verdicts. Instances are thread-safe.
+ * </p>
+ * <p>
+ * Hashing is about 20 times faster than parsing, so a hit pays off for payloads of any size, while a miss
+ * adds 5-15% to the check (see <code>VerdictCacheBenchmark</code>): the cache is worth it when more than about
+ * one check in ten is a repeat. Inputs shorter than <code>minLength</code> are not cached, so that tiny
+ * payloads do not push out larger ones. Streams are read into memory, and hashed while they are read, up to
+ * <code>maxBufferedLength</code> bytes: longer streams are validated without the cache.
+ * </p>
+ */
+public final class VerdictCache {
+
+    /**
+     * Default setting for the minimum length (in chars or bytes) of a cached input.
+     */
+    public static final int DEFAULT_MIN_LENGTH = 64;
+
+    /**
+     * Default setting for the maximum number of bytes of a stream that are buffered to hash it.
+     */
+    public static final int DEFAULT_MAX_BUFFERED_LENGTH = 1024 * 1024;
+
+    private static final int STRIPES = 16;
+
+    public static final class Builder {
+        private int maxEntries = 10_000;
+        private int minLength = DEFAULT_MIN_LENGTH;
+        private int maxBufferedLength = DEFAULT_MAX_BUFFERED_LENGTH;
+
+        Builder() {
+        }
+
+        /**
+         * Sets the (approximate) maximum number of cached verdicts. The default is 10,000.
+         * @param maxEntries the maximum number of cached verdicts
+         * @return this builder
+         * @throws IllegalArgumentException if the maxEntries is set to a value less than 1
+         */
+        public Builder maxEntries(final int maxEntries) {
+            if (maxEntries < 1) {
+                throw new IllegalArgumentException("Cannot set maxEntries to a value less than 1");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets the minimum length (in chars or bytes) of the inputs whose verdicts are cached.
+         * The default is {@value #DEFAULT_MIN_LENGTH}.
+         * @param minLength the minimum length of a cached input
+         * @return this builder
+         * @throws IllegalArgumentException if the minLength is set to a negative value
+         */
+        public Builder minLength(final int minLength) {
+            if (minLength < 0) {
+                throw new IllegalArgumentException("Cannot set minLength to a negative value");
+            }
+            this.minLength = minLength;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of bytes of a stream that are buffered (and hashed) before it is validated.
+         * The default is {@value #DEFAULT_MAX_BUFFERED_LENGTH}.
+         * @param maxBufferedLength the maximum length of a cached stream
+         * @return this builder
+         * @throws IllegalArgumentException if the maxBufferedLength is set to a negative value
+         */
+        public Builder maxBufferedLength(final int maxBufferedLength) {
+            if (maxBufferedLength < 0) {
+                throw new IllegalArgumentException("Cannot set maxBufferedLength to a negative value");
+            }
+            this.maxBufferedLength = maxBufferedLength;
+            return this;
+        }
+
+        public VerdictCache build() {
+            return new VerdictCache(maxEntries, minLength, maxBufferedLength, new SecureRandom().nextLong());
+        }
+    }
+
+    private static final class Key {
+        private final long hash;
+        private final long length;
+        private final StreamReadConstraints constraints;
+        private final String format;
+
+        Key(final long hash, final long length, final StreamReadConstraints constraints, final String format) {
+            this.hash = hash;
+            this.length = length;
+            this.constraints = constraints;
+            this.format = format;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return hash == other.hash && length == other.length && constraints.equals(other.constraints)
+                    && format.equals(other.format);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<Key, ValidationResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private final transient LongAdder evictions;
+
+        Stripe(final int capacity, final LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, ValidationResult> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final Stripe[] stripes;
+    private final int minLength;
+    private final int maxBufferedLength;
+    private final long byteSeed;
+    private final long charSeed;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param maxEntries the (approximate) maximum number of cached verdicts
+     * @return a cache with the default minimum length and maximum buffered length
+     * @throws IllegalArgumentException if maxEntries is less than 1
+     */
+    public static VerdictCache create(final int maxEntries) {
+        return builder().maxEntries(maxEntries).build();
+    }
+
+    VerdictCache(final int maxEntries, final int minLength, final int maxBufferedLength, final long seed) {
+        this.stripes = new Stripe[STRIPES];
+        final int capacity = Math.max(1, (maxEntries + STRIPES - 1) / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(capacity, evictions);
+        }
+        this.minLength = minLength;
+        this.maxBufferedLength = maxBufferedLength;
+        this.byteSeed = seed;
+        // chars are hashed as UTF-16 code units: a different seed keeps them apart from the same bytes
+        this.charSeed = Long.rotateLeft(seed, 32) ^ 0x5851F42D4C957F2DL;
+    }
+
+    /**
+     * @return the minimum length (in chars or bytes) of a cached input
+     */
+    public int getMinLength() {
+        return minLength;
+    }
+
+    /**
+     * @return the maximum number of bytes of a stream that are buffered to hash it
+     */
+    public int getMaxBufferedLength() {
+        return maxBufferedLength;
+    }
+
+    /**
+     * @return number of lookups that found a verdict
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups that did not find a verdict
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return hits divided by lookups, or 0 if there has been no lookup
+     */
+    public double getHitRate() {
+        final long hitCount = getHitCount();
+        final long lookups = hitCount + getMissCount();
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * @return number of verdicts that were evicted to make room for new ones
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return number of cached verdicts
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes all cached verdicts (the counters are not reset).
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VerdictCache{size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + "}";
+    }
+
+    boolean isCached(final long length) {
+        return length >= minLength;
+    }
+
+    long hash(final byte[] input, final int offset, final int length) {
+        return ContentHash.hash(byteSeed, input, offset, length);
+    }
+
+    long hash(final CharSequence input) {
+        return ContentHash.hash(charSeed, input);
+    }
+
+    /**
+     * @return a hash to feed the bytes of a stream to while they are read
+     */
+    ContentHash newHash() {
+        return new ContentHash(byteSeed);
+    }
+
+    ValidationResult get(final long hash, final long length, final StreamReadConstraints constraints,
+                         final String format) {
+        final Stripe stripe = stripes[(int) hash & (STRIPES - 1)];
+        final ValidationResult result;
+        synchronized (stripe) {
+            result = stripe.get(new Key(hash, length, constraints, format));
+        }
+        if (result == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return result;
+    }
+
+    void put(final long hash, final long length, final StreamReadConstraints constraints, final String format,
+             final ValidationResult result) {
+        if (result.getFailure() != null) {
+            return;
+        }
+        final Stripe stripe = stripes[(int) hash & (STRIPES - 1)];
+        synchronized (stripe) {
+            stripe.put(new Key(hash, length, constraints, format), result);
+        }
+    }
+}
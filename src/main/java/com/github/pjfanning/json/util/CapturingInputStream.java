@@ -0,0 +1,179 @@
+package com.github.pjfanning.json.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * InputStream that keeps a copy of every byte that is read through it, so that input can be
+ * consumed (e.g. by a parser) and captured in the same pass, and then read again from the copy
+ * (see {@link #getCapturedInputStream()}).
+ *
+ * The copy is kept in segments that grow with it, so capturing never copies the captured bytes again.
+ * Skipped bytes are captured too. Mark and reset are not supported.
+ */
+public class CapturingInputStream extends FilterInputStream {
+
+    private static final int MIN_SEGMENT = 8192;
+    private static final int MAX_SEGMENT = 1024 * 1024;
+
+    /** Full segments of the bytes read so far. */
+    private final List<byte[]> segments = new ArrayList<>();
+    /** The segment that is being filled, up to <code>position</code>. */
+    private byte[] segment;
+    private int position;
+    private int count;
+
+    /**
+     * Construct a new CapturingInputStream.
+     *
+     * @param in
+     *            stream to capture.
+     */
+    public CapturingInputStream(final InputStream in) {
+        this(in, 8192);
+    }
+
+    /**
+     * Construct a new CapturingInputStream.
+     *
+     * @param in
+     *            stream to capture.
+     * @param initialCapacity
+     *            size of the first segment of the copy, which is allocated up front.
+     * @throws IllegalArgumentException if initialCapacity is negative
+     */
+    public CapturingInputStream(final InputStream in, final int initialCapacity) {
+        super(in);
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Cannot set initialCapacity to a negative value");
+        }
+        this.segment = new byte[initialCapacity];
+    }
+
+    /**
+     * Return a copy of the bytes read so far.
+     * @return captured bytes
+     */
+    public byte[] getCaptured() {
+        final byte[] captured = new byte[count];
+        int offset = 0;
+        for (final byte[] full : segments) {
+            System.arraycopy(full, 0, captured, offset, full.length);
+            offset += full.length;
+        }
+        System.arraycopy(segment, 0, captured, offset, position);
+        return captured;
+    }
+
+    /**
+     * Return the number of bytes read so far.
+     * @return number of captured bytes
+     */
+    public int getCapturedLength() {
+        return count;
+    }
+
+    /**
+     * Return a stream over the bytes read so far, which shares the captured bytes instead of copying them.
+     * Bytes that are read through this stream afterwards are not part of the returned stream.
+     * @return stream of the captured bytes
+     */
+    public InputStream getCapturedInputStream() {
+        if (segments.isEmpty()) {
+            return new ByteArrayInputStream(segment, 0, position);
+        }
+        final List<InputStream> streams = new ArrayList<>(segments.size() + 1);
+        for (final byte[] full : segments) {
+            streams.add(new ByteArrayInputStream(full));
+        }
+        streams.add(new ByteArrayInputStream(segment, 0, position));
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+
+    /**
+     * Read one byte.
+     */
+    @Override
+    public int read() throws IOException {
+        final int b = in.read();
+        if (b != -1) {
+            capture(new byte[]{(byte) b}, 0, 1);
+        }
+        return b;
+    }
+
+    /**
+     * Read into an array of bytes.
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        final int total = in.read(b, off, len);
+        if (total > 0) {
+            capture(b, off, total);
+        }
+        return total;
+    }
+
+    /**
+     * Skip bytes, which are still captured.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0L) {
+            return 0L;
+        }
+        final byte[] buffer = new byte[(int) Math.min(n, 4096)];
+        long remaining = n;
+        while (remaining > 0) {
+            final int total = read(buffer, 0, (int) Math.min(remaining, buffer.length));
+            if (total == -1) {
+                break;
+            }
+            remaining -= total;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        // not supported
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("reset() not supported");
+    }
+
+    private void capture(final byte[] b, int off, int len) throws IOException {
+        if (len > Integer.MAX_VALUE - count) {
+            throw new IOException("Cannot capture more than " + Integer.MAX_VALUE + " bytes");
+        }
+        count += len;
+        while (len > 0) {
+            if (position == segment.length) {
+                if (position > 0) {
+                    segments.add(segment);
+                }
+                // segments double the captured length, up to a maximum
+                segment = new byte[Math.max(MIN_SEGMENT, Math.min(count - len, MAX_SEGMENT))];
+                position = 0;
+            }
+            final int n = Math.min(len, segment.length - position);
+            System.arraycopy(b, off, segment, position, n);
+            position += n;
+            off += n;
+            len -= n;
+        }
+    }
+}
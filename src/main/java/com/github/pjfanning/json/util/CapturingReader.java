@@ -0,0 +1,115 @@
+package com.github.pjfanning.json.util;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reader that keeps a copy of every char that is read through it, so that input can be
+ * consumed (e.g. by a parser) and captured in the same pass.
+ *
+ * Skipped chars are captured too. Mark and reset are not supported.
+ */
+public class CapturingReader extends FilterReader {
+
+    /** Chars read so far. */
+    private final StringBuilder captured = new StringBuilder();
+
+    /**
+     * Construct a new CapturingReader.
+     *
+     * @param reader
+     *            reader to capture.
+     */
+    public CapturingReader(final Reader reader) {
+        super(reader);
+    }
+
+    /**
+     * Return the chars read so far.
+     * @return captured chars
+     */
+    public String getCaptured() {
+        return captured.toString();
+    }
+
+    /**
+     * Return the number of chars read so far.
+     * @return number of captured chars
+     */
+    public int getCapturedLength() {
+        return captured.length();
+    }
+
+    /**
+     * Read (and capture) the rest of the input.
+     *
+     * @throws IOException
+     *             if reading fails.
+     */
+    public void drain() throws IOException {
+        final char[] buffer = new char[4096];
+        while (read(buffer, 0, buffer.length) != -1) {
+            // read() captures the chars
+        }
+    }
+
+    /**
+     * Read one char.
+     */
+    @Override
+    public int read() throws IOException {
+        final int c = in.read();
+        if (c != -1) {
+            captured.append((char) c);
+        }
+        return c;
+    }
+
+    /**
+     * Read into an array of chars.
+     */
+    @Override
+    public int read(char[] c, int off, int len) throws IOException {
+        final int total = in.read(c, off, len);
+        if (total > 0) {
+            captured.append(c, off, total);
+        }
+        return total;
+    }
+
+    /**
+     * Skip chars, which are still captured.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        if (n < 0L) {
+            throw new IllegalArgumentException("skip value is negative");
+        }
+        final char[] buffer = new char[(int) Math.min(n, 4096)];
+        long remaining = n;
+        while (remaining > 0) {
+            final int total = read(buffer, 0, (int) Math.min(remaining, buffer.length));
+            if (total == -1) {
+                break;
+            }
+            remaining -= total;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readAheadLimit) throws IOException {
+        throw new IOException("mark() not supported");
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("reset() not supported");
+    }
+}
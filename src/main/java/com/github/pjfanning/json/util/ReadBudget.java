@@ -0,0 +1,98 @@
+package com.github.pjfanning.json.util;
+
+/**
+ * Limits how long reading an input may take, and how slowly it may arrive, for inputs that are sent
+ * slowly on purpose (e.g. a "slow loris" client that trickles a valid body to tie up a thread).
+ * <p>
+ * The clock starts when the budget is created. The size limiting streams pass every read on to
+ * {@link #count(long)}, which only looks at the clock every 16 reads or every 64KB, so that reading fast
+ * input costs a counter update per read. Once reads are seen to be slow (a sample comes more than 10ms
+ * after the one before), the clock is sampled on every read, since it then costs nothing next to the read.
+ * The minimum read rate is the average since the start, and is only checked once a second has passed,
+ * so that connection setup and small inputs are not rejected for it.
+ * </p>
+ * A read that blocks is only checked when it returns: use a socket read timeout for connections that
+ * stop sending altogether. A budget is used by one stream, and is not thread-safe.
+ */
+public final class ReadBudget {
+
+    static final int SAMPLE_READS = 16;
+    static final long SAMPLE_UNITS = 64 * 1024;
+    static final long SLOW_SAMPLE_NANOS = 10_000_000L;
+    static final long RATE_GRACE_NANOS = 1_000_000_000L;
+
+    private final long maxTimeMillis;
+    private final long minRate;
+    private final String unit;
+    private final long start;
+    private long lastSample;
+    /** Reads left until the clock is sampled. */
+    private int countdown = 1;
+    private long total;
+    private long unsampled;
+
+    /**
+     * Creates a budget, and starts its clock.
+     *
+     * @param maxTimeMillis
+     *            maximum time to read the input, in milliseconds (0 for no limit).
+     * @param minRate
+     *            minimum average read rate, in bytes or chars per second (0 for no limit).
+     * @param unit
+     *            name of the unit that is read (e.g. <code>bytes</code>), for the messages.
+     * @throws IllegalArgumentException if maxTimeMillis or minRate is negative
+     * @throws NullPointerException if unit is <code>null</code>
+     */
+    public ReadBudget(final long maxTimeMillis, final long minRate, final String unit) {
+        if (maxTimeMillis < 0) {
+            throw new IllegalArgumentException("Cannot set maxTimeMillis to a negative value");
+        }
+        if (minRate < 0) {
+            throw new IllegalArgumentException("Cannot set minRate to a negative value");
+        }
+        if (unit == null) {
+            throw new NullPointerException("null unit");
+        }
+        this.maxTimeMillis = maxTimeMillis;
+        this.minRate = minRate;
+        this.unit = unit;
+        this.start = System.nanoTime();
+        this.lastSample = start;
+    }
+
+    /**
+     * Counts a read, and checks the budget when the clock is sampled.
+     *
+     * @param n
+     *            number of bytes or chars that the read returned (0 at the end of the input).
+     * @throws SlowReadException
+     *             if the time budget is exceeded, or the input arrives more slowly than the minimum rate.
+     */
+    public void count(final long n) throws SlowReadException {
+        if (n > 0) {
+            total += n;
+            unsampled += n;
+        }
+        if (--countdown > 0 && unsampled < SAMPLE_UNITS) {
+            return;
+        }
+        final long now = System.nanoTime();
+        countdown = now - lastSample > SLOW_SAMPLE_NANOS ? 1 : SAMPLE_READS;
+        lastSample = now;
+        unsampled = 0L;
+        check(now - start);
+    }
+
+    private void check(final long elapsedNanos) throws SlowReadException {
+        final long elapsedMillis = elapsedNanos / 1_000_000L;
+        if (maxTimeMillis > 0 && elapsedMillis > maxTimeMillis) {
+            throw new SlowReadException("Read time (" + elapsedMillis + " ms) exceeds the maximum time ("
+                    + maxTimeMillis + " ms)", elapsedMillis, maxTimeMillis, false);
+        }
+        if (minRate > 0 && elapsedNanos > RATE_GRACE_NANOS && total * 1e9 < minRate * (double) elapsedNanos) {
+            final long rate = (long) (total * 1e9 / elapsedNanos);
+            throw new SlowReadException("Read rate (" + rate + " " + unit + " per second) is below the minimum rate ("
+                    + minRate + " " + unit + " per second)", rate, minRate, true);
+        }
+    }
+}
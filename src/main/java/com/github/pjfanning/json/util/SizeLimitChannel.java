@@ -0,0 +1,170 @@
+package com.github.pjfanning.json.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+
+/**
+ * Channel that only allows a certain number of bytes to be read, for NIO callers that do not want to
+ * convert the channel to a stream (see {@link SizeLimitInputStream}).
+ *
+ * Reads ask the wrapped channel for at most one byte more than the limit allows, by lowering the limit of
+ * the buffer for the duration of the read. Scattering reads are passed on to the wrapped channel when it
+ * is a {@link ScatteringByteChannel} and the buffers cannot take more than the limit allows.
+ * A {@link ReadBudget} can also limit how long the reads take.
+ */
+public class SizeLimitChannel implements ScatteringByteChannel {
+
+    private final ReadableByteChannel channel;
+    /** Maximum number of bytes to read. */
+    private final long limit;
+    /** Number of bytes already read. */
+    private long read = 0L;
+    /** Limits the time the reads take, or <code>null</code>. */
+    private final ReadBudget budget;
+
+    /**
+     * Construct a new SizeLimitChannel.
+     *
+     * @param channel
+     *            channel to limit.
+     * @param limit
+     *            maximum number of bytes allowed to read (0 or less for no limit).
+     */
+    public SizeLimitChannel(final ReadableByteChannel channel, final long limit) {
+        this(channel, limit, null);
+    }
+
+    /**
+     * Construct a new SizeLimitChannel, that also limits the time the reads take.
+     *
+     * @param channel
+     *            channel to limit.
+     * @param limit
+     *            maximum number of bytes allowed to read (0 or less for no limit).
+     * @param budget
+     *            limits the time the reads take (<code>null</code> for no limit).
+     */
+    public SizeLimitChannel(final ReadableByteChannel channel, final long limit, final ReadBudget budget) {
+        if (channel == null) {
+            throw new NullPointerException("null channel");
+        }
+        this.channel = channel;
+        this.limit = limit;
+        this.budget = budget;
+    }
+
+    /**
+     * Return number of bytes read.
+     * @return bytes read
+     */
+    public long getRead() {
+        return this.read;
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        final long allowed = allowed();
+        final int total;
+        if (allowed < dst.remaining()) {
+            final int oldLimit = dst.limit();
+            dst.limit(dst.position() + (int) allowed);
+            try {
+                total = channel.read(dst);
+            } finally {
+                dst.limit(oldLimit);
+            }
+        } else {
+            total = channel.read(dst);
+        }
+        count(total);
+        return total;
+    }
+
+    @Override
+    public long read(final ByteBuffer[] dsts, final int offset, final int length) throws IOException {
+        if (offset < 0 || length < 0 || offset > dsts.length - length) {
+            throw new IndexOutOfBoundsException();
+        }
+        long remaining = 0L;
+        for (int i = offset; i < offset + length; i++) {
+            remaining += dsts[i].remaining();
+        }
+        if (channel instanceof ScatteringByteChannel && remaining <= allowed()) {
+            final long total = ((ScatteringByteChannel) channel).read(dsts, offset, length);
+            count(total);
+            return total;
+        }
+        long total = 0L;
+        for (int i = offset; i < offset + length; i++) {
+            final ByteBuffer dst = dsts[i];
+            if (!dst.hasRemaining()) {
+                continue;
+            }
+            final int n = read(dst);
+            if (n == -1) {
+                return total == 0L ? -1L : total;
+            }
+            total += n;
+            if (dst.hasRemaining()) {
+                // the wrapped channel has no more bytes for now
+                break;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public long read(final ByteBuffer[] dsts) throws IOException {
+        return read(dsts, 0, dsts.length);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @return one byte more than the limit allows (enough to tell that it is exceeded)
+     */
+    private long allowed() throws IOException {
+        if (limit <= 0) {
+            return Long.MAX_VALUE;
+        }
+        checkLimit();
+        final long allowed = limit - read;
+        return allowed == Long.MAX_VALUE ? allowed : allowed + 1;
+    }
+
+    /**
+     * Count the bytes of a read (-1 at the end of the channel), and check the limit and the budget.
+     */
+    private void count(final long n) throws IOException {
+        if (n > 0) {
+            read += n;
+            checkLimit();
+        }
+        if (budget != null) {
+            budget.count(n);
+        }
+    }
+
+    /**
+     * Check how many bytes have been read.
+     *
+     * @throws SizeLimitExceededException
+     *             if more bytes than the limit allows have been read.
+     */
+    private void checkLimit() throws IOException {
+        if (limit > 0 && read > limit) {
+            throw new SizeLimitExceededException("Read more than size limit (" + limit
+                    + ") bytes", read, limit);
+        }
+    }
+}
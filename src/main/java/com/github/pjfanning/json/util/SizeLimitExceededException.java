@@ -0,0 +1,38 @@
+package com.github.pjfanning.json.util;
+
+import java.io.IOException;
+
+/**
+ * Thrown by the size limiting streams when more bytes or chars are read than their limit allows.
+ */
+public class SizeLimitExceededException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final long observed;
+    private final long allowed;
+
+    /**
+     * @param message the detail message
+     * @param observed the number of bytes or chars that were read
+     * @param allowed the limit
+     */
+    public SizeLimitExceededException(final String message, final long observed, final long allowed) {
+        super(message);
+        this.observed = observed;
+        this.allowed = allowed;
+    }
+
+    /**
+     * @return the number of bytes or chars that were read, when the limit was found to be exceeded
+     */
+    public long getObserved() {
+        return observed;
+    }
+
+    /**
+     * @return the limit
+     */
+    public long getAllowed() {
+        return allowed;
+    }
+}
@@ -3,21 +3,32 @@ package com.github.pjfanning.json.util;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * Stream that only allows a certain number of bytes to be read.
  *
- * Current implementation only tracks read bytes, and ignores any mark or reset
- * calls.
+ * Every read path (including <code>skip</code>, <code>readNBytes</code>, <code>readAllBytes</code> and
+ * <code>transferTo</code>) counts the bytes it consumes, and asks the wrapped stream for at most one byte
+ * more than the limit allows, so that the bulk methods of the wrapped stream are still used.
+ * The count is the position in the stream: <code>reset</code> moves it back to the <code>mark</code>,
+ * so bytes that are read again are not counted twice.
  *
  * Based on public domain code at https://github.com/usgs/pdl
  */
 public class SizeLimitInputStream extends FilterInputStream {
 
+    private static final int TRANSFER_BUFFER_SIZE = 8192;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
     /** Maximum number of bytes to read. */
     private long limit;
     /** Number of bytes already read. */
     private long read = 0L;
+    /** Number of bytes read when the stream was marked. */
+    private long marked = 0L;
+    /** Limits the time the reads take, or <code>null</code>. */
+    private final ReadBudget budget;
 
     /**
      * Construct a new SizeLimitInputStream.
@@ -28,8 +39,23 @@ public class SizeLimitInputStream extends FilterInputStream {
      *            maximum number of bytes allowed to read.
      */
     public SizeLimitInputStream(final InputStream in, final long limit) {
+        this(in, limit, null);
+    }
+
+    /**
+     * Construct a new SizeLimitInputStream, that also limits the time the reads take.
+     *
+     * @param in
+     *            stream to limit.
+     * @param limit
+     *            maximum number of bytes allowed to read (0 or less for no limit).
+     * @param budget
+     *            limits the time the reads take (<code>null</code> for no limit).
+     */
+    public SizeLimitInputStream(final InputStream in, final long limit, final ReadBudget budget) {
         super(in);
         this.limit = limit;
+        this.budget = budget;
     }
 
     /**
@@ -46,10 +72,7 @@ public class SizeLimitInputStream extends FilterInputStream {
     @Override
     public int read() throws IOException {
         int b = in.read();
-        if (b != -1) {
-            read++;
-            checkLimit();
-        }
+        count(b == -1 ? 0 : 1);
         return b;
     }
 
@@ -66,24 +89,140 @@ public class SizeLimitInputStream extends FilterInputStream {
      */
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
-        final int total = in.read(b, off, len);
-        if (total != -1) {
-            read += total;
+        final int total = in.read(b, off, cap(len));
+        count(total == -1 ? 0 : total);
+        return total;
+    }
+
+    /**
+     * Read up to <code>len</code> bytes, with the bulk method of the wrapped stream.
+     */
+    @Override
+    public int readNBytes(byte[] b, int off, int len) throws IOException {
+        if (budget != null) {
+            return super.readNBytes(b, off, len);
+        }
+        final int total = in.readNBytes(b, off, cap(len));
+        read += total;
+        checkLimit();
+        return total;
+    }
+
+    /**
+     * Read up to <code>len</code> bytes, with the bulk method of the wrapped stream.
+     */
+    @Override
+    public byte[] readNBytes(int len) throws IOException {
+        if (len < 0) {
+            throw new IllegalArgumentException("len < 0");
+        }
+        if (budget != null) {
+            return super.readNBytes(len);
+        }
+        final byte[] bytes = in.readNBytes(cap(len));
+        read += bytes.length;
+        checkLimit();
+        return bytes;
+    }
+
+    /**
+     * Read the rest of the stream, with the bulk method of the wrapped stream.
+     */
+    @Override
+    public byte[] readAllBytes() throws IOException {
+        if (budget == null && (limit <= 0 || limit - read >= MAX_ARRAY_SIZE)) {
+            final byte[] bytes = in.readAllBytes();
+            read += bytes.length;
             checkLimit();
+            return bytes;
+        }
+        // reads to the end of the stream, unless the limit is exceeded
+        return readNBytes(MAX_ARRAY_SIZE);
+    }
+
+    /**
+     * Skip bytes, which count as read.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        checkLimit();
+        final long allowed = limit > 0 ? limit - read : Long.MAX_VALUE;
+        final long skipped = in.skip(n <= allowed ? n : allowed + 1);
+        count(skipped);
+        return skipped;
+    }
+
+    /**
+     * Transfer the rest of the stream, with the bulk method of the wrapped stream when there is no limit.
+     */
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        if (limit <= 0 && budget == null) {
+            final long total = in.transferTo(out);
+            read += total;
+            return total;
+        }
+        final byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+        long total = 0L;
+        int n;
+        while ((n = read(buffer, 0, buffer.length)) != -1) {
+            out.write(buffer, 0, n);
+            total += n;
         }
         return total;
     }
 
+    /**
+     * Mark the wrapped stream, and remember the number of bytes read.
+     */
+    @Override
+    public synchronized void mark(int readlimit) {
+        in.mark(readlimit);
+        marked = read;
+    }
+
+    /**
+     * Reset the wrapped stream, and the number of bytes read to what it was at the mark.
+     */
+    @Override
+    public synchronized void reset() throws IOException {
+        in.reset();
+        read = marked;
+    }
+
+    /**
+     * Limit a request to one byte more than the limit allows: enough to tell that it is exceeded.
+     */
+    private int cap(final int len) throws IOException {
+        if (limit <= 0) {
+            return len;
+        }
+        checkLimit();
+        final long allowed = limit - read;
+        return len <= allowed ? len : (int) allowed + 1;
+    }
+
+    /**
+     * Count the bytes of a read, and check the limit and the budget.
+     */
+    private void count(final long n) throws IOException {
+        read += n;
+        checkLimit();
+        if (budget != null) {
+            budget.count(n);
+        }
+    }
+
     /**
      * Check how many bytes have been read.
      *
-     * @throws IOException
+     * @throws SizeLimitExceededException
      *             if more bytes than the limit allows have been read.
      */
     private void checkLimit() throws IOException {
         if (limit > 0 && read > limit) {
-            throw new IOException("Read more than size limit (" + limit
-                    + ") bytes");
+            throw new SizeLimitExceededException("Read more than size limit (" + limit
+                    + ") bytes", read, limit);
         }
     }
 
@@ -3,19 +3,31 @@ package com.github.pjfanning.json.util;
 import java.io.FilterReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
 
 /**
  * Reader that only allows a certain number of chars to be read.
  *
- * Current implementation only tracks read chars, and ignores any mark or reset
- * calls.
+ * Every read path (including <code>skip</code>, <code>read(CharBuffer)</code> and <code>transferTo</code>)
+ * counts the chars it consumes, and asks the wrapped reader for at most one char more than the limit
+ * allows. The count is the position in the reader: <code>reset</code> moves it back to the
+ * <code>mark</code>, so chars that are read again are not counted twice.
+ *
+ * A {@link ReadBudget} can also limit how long the reads take.
  */
 public class SizeLimitReader extends FilterReader {
 
+    private static final int TRANSFER_BUFFER_SIZE = 8192;
+
     /** Maximum number of chars to read. */
     private long limit;
     /** Number of chars already read. */
     private long read = 0L;
+    /** Number of chars read when the reader was marked. */
+    private long marked = 0L;
+    /** Limits the time the reads take, or <code>null</code>. */
+    private final ReadBudget budget;
 
     /**
      * Construct a new SizeLimitReader.
@@ -26,8 +38,23 @@ public class SizeLimitReader extends FilterReader {
      *            maximum number of chars allowed to read.
      */
     public SizeLimitReader(final Reader reader, final long limit) {
+        this(reader, limit, null);
+    }
+
+    /**
+     * Construct a new SizeLimitReader, that also limits the time the reads take.
+     *
+     * @param reader
+     *            reader to limit.
+     * @param limit
+     *            maximum number of chars allowed to read (0 or less for no limit).
+     * @param budget
+     *            limits the time the reads take (<code>null</code> for no limit).
+     */
+    public SizeLimitReader(final Reader reader, final long limit, final ReadBudget budget) {
         super(reader);
         this.limit = limit;
+        this.budget = budget;
     }
 
     /**
@@ -44,10 +71,7 @@ public class SizeLimitReader extends FilterReader {
     @Override
     public int read() throws IOException {
         int b = in.read();
-        if (b != -1) {
-            read++;
-            checkLimit();
-        }
+        count(b == -1 ? 0 : 1);
         return b;
     }
 
@@ -64,24 +88,116 @@ public class SizeLimitReader extends FilterReader {
      */
     @Override
     public int read(char[] c, int off, int len) throws IOException {
-        final int total = in.read(c, off, len);
-        if (total != -1) {
+        final int total = in.read(c, off, cap(len));
+        count(total == -1 ? 0 : total);
+        return total;
+    }
+
+    /**
+     * Read into a buffer, with the method of the wrapped reader (which may read into the buffer directly).
+     */
+    @Override
+    public int read(CharBuffer target) throws IOException {
+        final int allowed = cap(target.remaining());
+        final int total;
+        if (allowed < target.remaining()) {
+            final int oldLimit = target.limit();
+            target.limit(target.position() + allowed);
+            try {
+                total = in.read(target);
+            } finally {
+                target.limit(oldLimit);
+            }
+        } else {
+            total = in.read(target);
+        }
+        count(total == -1 ? 0 : total);
+        return total;
+    }
+
+    /**
+     * Skip chars, which count as read.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        checkLimit();
+        final long allowed = limit > 0 ? limit - read : Long.MAX_VALUE;
+        final long skipped = in.skip(n <= allowed ? n : allowed + 1);
+        count(skipped);
+        return skipped;
+    }
+
+    /**
+     * Transfer the rest of the reader, with the method of the wrapped reader when there is no limit.
+     */
+    @Override
+    public long transferTo(Writer out) throws IOException {
+        if (limit <= 0 && budget == null) {
+            final long total = in.transferTo(out);
             read += total;
-            checkLimit();
+            return total;
+        }
+        final char[] buffer = new char[TRANSFER_BUFFER_SIZE];
+        long total = 0L;
+        int n;
+        while ((n = read(buffer, 0, buffer.length)) != -1) {
+            out.write(buffer, 0, n);
+            total += n;
         }
         return total;
     }
 
+    /**
+     * Mark the wrapped reader, and remember the number of chars read.
+     */
+    @Override
+    public void mark(int readAheadLimit) throws IOException {
+        in.mark(readAheadLimit);
+        marked = read;
+    }
+
+    /**
+     * Reset the wrapped reader, and the number of chars read to what it was at the mark.
+     */
+    @Override
+    public void reset() throws IOException {
+        in.reset();
+        read = marked;
+    }
+
+    /**
+     * Limit a request to one char more than the limit allows: enough to tell that it is exceeded.
+     */
+    private int cap(final int len) throws IOException {
+        if (limit <= 0) {
+            return len;
+        }
+        checkLimit();
+        final long allowed = limit - read;
+        return len <= allowed ? len : (int) allowed + 1;
+    }
+
+    /**
+     * Count the chars of a read, and check the limit and the budget.
+     */
+    private void count(final long n) throws IOException {
+        read += n;
+        checkLimit();
+        if (budget != null) {
+            budget.count(n);
+        }
+    }
+
     /**
      * Check how many chars have been read.
      *
-     * @throws IOException
+     * @throws SizeLimitExceededException
      *             if more chars than the limit allows have been read.
      */
     private void checkLimit() throws IOException {
         if (limit > 0 && read > limit) {
-            throw new IOException("Read more than size limit (" + limit
-                    + ") chars");
+            throw new SizeLimitExceededException("Read more than size limit (" + limit
+                    + ") chars", read, limit);
         }
     }
 
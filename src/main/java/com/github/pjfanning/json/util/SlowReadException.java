@@ -0,0 +1,52 @@
+package com.github.pjfanning.json.util;
+
+import java.io.IOException;
+
+/**
+ * Thrown by the size limiting streams when input is read too slowly: when reading it takes longer than
+ * the time budget, or when it arrives more slowly than the minimum read rate (see {@link ReadBudget}).
+ */
+public class SlowReadException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final long observed;
+    private final long allowed;
+    private final boolean rateTooLow;
+
+    /**
+     * @param message the detail message
+     * @param observed the read time (in milliseconds) or rate (per second) that was found
+     * @param allowed the maximum time or the minimum rate that the budget allows
+     * @param rateTooLow <code>true</code> if the input arrived more slowly than the minimum rate,
+     *                   <code>false</code> if reading it took longer than the maximum time
+     */
+    public SlowReadException(final String message, final long observed, final long allowed,
+                             final boolean rateTooLow) {
+        super(message);
+        this.observed = observed;
+        this.allowed = allowed;
+        this.rateTooLow = rateTooLow;
+    }
+
+    /**
+     * @return the read time (in milliseconds) or rate (per second) that was found
+     */
+    public long getObserved() {
+        return observed;
+    }
+
+    /**
+     * @return the maximum time (in milliseconds) or the minimum rate (per second) that the budget allows
+     */
+    public long getAllowed() {
+        return allowed;
+    }
+
+    /**
+     * @return <code>true</code> if the input arrived more slowly than the minimum rate,
+     * <code>false</code> if reading it took longer than the maximum time
+     */
+    public boolean isRateTooLow() {
+        return rateTooLow;
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.pjfanning.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchValidatorTest {
+
+    @Test
+    void testFailuresInInputOrder() throws InterruptedException {
+        final SizeLimiter limiter = SizeLimiter.create(StreamReadConstraints.builder()
+                .maxStringLength(3).maxNumberLength(3).build());
+        final List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            inputs.add(i % 10 == 3 ? "{\"a\":\"abcd\"}" : i % 10 == 7 ? "[1234]" : "{\"a\":[1,2,\"abc\"]}");
+        }
+        final BatchResult result = BatchValidator.create().validate(inputs, limiter::check);
+        assertEquals(1000, result.getDocumentCount());
+        assertEquals(200, result.getInvalidCount());
+        assertEquals(800, result.getValidCount());
+        assertFalse(result.isAllValid());
+        long previous = -1;
+        for (BatchResult.Failure failure : result.getFailures()) {
+            assertTrue(failure.getIndex() > previous);
+            previous = failure.getIndex();
+            if (failure.getIndex() % 10 == 3) {
+                assertInstanceOf(IllegalStateException.class, failure.getException());
+            } else {
+                assertEquals(7, failure.getIndex() % 10);
+                assertInstanceOf(NumberFormatException.class, failure.getException());
+            }
+        }
+        assertTrue(result.isValid(0));
+        assertFalse(result.isValid(3));
+        assertFalse(result.isValid(997));
+        assertThrows(IndexOutOfBoundsException.class, () -> result.isValid(1000));
+    }
+
+    @Test
+    void testRunsFromInsideTheCommonPool() throws Exception {
+        // callers that occupy every worker of the pool wait for checks that need a worker of the same pool
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        final SizeLimiter limiter = SizeLimiter.create(StreamReadConstraints.builder().maxStringLength(3).build());
+        final List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            inputs.add(i % 10 == 3 ? "[\"abcd\"]" : "[\"abc\"]");
+        }
+        final byte[] ndjson = String.join("\n", inputs).getBytes(StandardCharsets.UTF_8);
+        final List<Future<?>> callers = new ArrayList<>();
+        for (int i = 0; i < 2 * pool.getParallelism() + 1; i++) {
+            callers.add(pool.submit(() -> {
+                final BatchResult one = BatchValidator.create(pool, 1).validate(inputs, limiter::check);
+                assertEquals(5, one.getInvalidCount());
+                final BatchResult many = BatchValidator.create().validate(inputs, limiter::check);
+                assertEquals(5, many.getInvalidCount());
+                final NdjsonResult lines = NdjsonValidator.create(limiter.getConstraints()).validate(ndjson);
+                assertEquals(5, lines.getFailures().size());
+                return null;
+            }));
+        }
+        for (Future<?> caller : callers) {
+            caller.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testInFlightIsBounded() throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final AtomicInteger pulled = new AtomicInteger();
+            final AtomicInteger finished = new AtomicInteger();
+            final AtomicInteger maxAhead = new AtomicInteger();
+            final Iterator<byte[]> inputs = new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return pulled.get() < 500;
+                }
+
+                @Override
+                public byte[] next() {
+                    final int ahead = pulled.incrementAndGet() - finished.get();
+                    maxAhead.accumulateAndGet(ahead, Math::max);
+                    return "[\"abc\", 1, 2, 3]".getBytes(StandardCharsets.UTF_8);
+                }
+            };
+            final BatchResult result = BatchValidator.create(executor, 3).validate(inputs, input -> {
+                try {
+                    Utf8ScanningLimiter.check(StreamReadConstraints.defaults(), input);
+                } finally {
+                    finished.incrementAndGet();
+                }
+            });
+            assertEquals(500, result.getDocumentCount());
+            assertTrue(result.isAllValid());
+            assertTrue(maxAhead.get() <= 3, "max in flight " + maxAhead.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testVirtualThreadsOrFallback() throws InterruptedException {
+        final List<String> inputs = List.of("{}", "[1,2]", "{\"a\":", "\"abc\"");
+        final BatchResult result = BatchValidator.createWithVirtualThreads(2)
+                .validate(inputs, input -> SizeLimiter.check(StreamReadConstraints.defaults(), input));
+        assertEquals(4, result.getDocumentCount());
+        assertEquals(1, result.getInvalidCount());
+        assertEquals(2, result.getFailures().get(0).getIndex());
+        assertInstanceOf(IOException.class, result.getFailures().get(0).getException());
+    }
+
+    @Test
+    void testIteratorFailureWaitsForStartedChecks() {
+        final AtomicInteger finished = new AtomicInteger();
+        final Iterator<String> inputs = List.of("{}", "{}", "{}").iterator();
+        final Iterator<String> failing = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public String next() {
+                if (inputs.hasNext()) {
+                    return inputs.next();
+                }
+                throw new IllegalStateException("source failed");
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> BatchValidator.create().validate(failing, input -> {
+            SizeLimiter.check(StreamReadConstraints.defaults(), input);
+            finished.incrementAndGet();
+        }));
+        assertEquals(3, finished.get());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> BatchValidator.create(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> BatchValidator.create(Runnable::run, 0));
+        assertThrows(NullPointerException.class, () ->
+                BatchValidator.create().validate((Iterable<String>) null, input -> {}));
+    }
+}
@@ -0,0 +1,241 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryFormatTest {
+
+    private static final JsonFactory[] FACTORIES = {new JsonFactory(), new SmileFactory(), new CBORFactory()};
+
+    @Test
+    void testSameVerdictInEveryFormat() throws IOException {
+        final StreamReadConstraints[] constraints = {
+                StreamReadConstraints.builder().build(),
+                StreamReadConstraints.builder().maxStringLength(9).build(),
+                StreamReadConstraints.builder().maxNameLength(4).build(),
+                StreamReadConstraints.builder().maxNumberLength(5).build(),
+                StreamReadConstraints.builder().maxNumberLength(25).build(),
+                StreamReadConstraints.builder().maxNestingDepth(2).build(),
+                StreamReadConstraints.builder().maxObjectEntries(3).build(),
+                StreamReadConstraints.builder().maxArrayElements(4).build(),
+                StreamReadConstraints.builder().maxTokenCount(20).build(),
+        };
+        for (final StreamReadConstraints constraint : constraints) {
+            Constraint expected = null;
+            for (final JsonFactory factory : FACTORIES) {
+                final byte[] document = document(factory);
+                final ValidationResult result = SizeLimiter.create(constraint, factory).validate(document);
+                final ValidationResult streamed = SizeLimiter.create(constraint, factory)
+                        .validate(new ByteArrayInputStream(document));
+                assertNull(result.getFailure() == null ? null : result.getConstraint() == null
+                        ? result.getFailure() : null, factory.getFormatName());
+                if (factory instanceof CBORFactory && result.isValid()) {
+                    assertTrue(new CborScanner(constraint, document, 0, document.length).scan());
+                }
+                if (factory.getFormatName().equals(JsonFactory.FORMAT_NAME_JSON)) {
+                    expected = result.getConstraint();
+                }
+                assertEquals(expected, result.getConstraint(), factory.getFormatName());
+                assertEquals(expected, streamed.getConstraint(), factory.getFormatName());
+                assertEquals(result.getObservedLength(), streamed.getObservedLength(),
+                        () -> factory.getFormatName() + " " + result + " " + streamed);
+            }
+        }
+    }
+
+    @Test
+    void testBigNumbers() throws IOException {
+        final BigInteger bigInteger = BigInteger.TEN.pow(30).negate();
+        final BigDecimal bigDecimal = new BigDecimal("12345678901.123456789");
+        final SizeLimiter limiter = SizeLimiter.create(StreamReadConstraints.builder().maxNumberLength(20).build(),
+                new SmileFactory());
+        final ValidationResult integer = limiter.validate(write(new SmileFactory(), g -> g.writeNumber(bigInteger)));
+        assertEquals(Constraint.NUMBER_LENGTH, integer.getConstraint());
+        assertEquals(bigInteger.toString().length(), integer.getObservedLength());
+        final ValidationResult decimal = limiter.validate(write(new SmileFactory(), g -> g.writeNumber(bigDecimal)));
+        assertEquals(bigDecimal.toString().length(), decimal.getObservedLength());
+        assertTrue(limiter.validate(write(new SmileFactory(), g -> g.writeNumber(Long.MIN_VALUE))).isValid());
+        assertTrue(limiter.validate(write(new SmileFactory(), g -> g.writeNumber(-1.5e300))).isValid());
+
+        // CBOR big integers are tagged, so they are left to Jackson
+        final byte[] tagged = write(new CBORFactory(), g -> g.writeNumber(bigInteger));
+        assertFalse(new CborScanner(StreamReadConstraints.builder().build(), tagged, 0, tagged.length).scan());
+        assertEquals(Constraint.NUMBER_LENGTH,
+                SizeLimiter.create(limiter.getConstraints(), new CBORFactory()).validate(tagged).getConstraint());
+    }
+
+    @Test
+    void testScannerAgreesWithJackson() throws IOException {
+        final StreamReadConstraints constraints = StreamReadConstraints.builder()
+                .maxStringLength(12).maxNameLength(6).maxNestingDepth(4).maxArrayElements(5).build();
+        final SizeLimiter parsing = SizeLimiter.create(constraints, new CBORFactory());
+        final Random random = new Random(42);
+        int scanned = 0;
+        for (int i = 0; i < 20_000; i++) {
+            final byte[] document = i % 2 == 0 ? randomDocument(random) : randomText(random);
+            if (i % 4 < 2) {
+                for (int j = random.nextInt(3); j > 0 && document.length > 0; j--) {
+                    document[random.nextInt(document.length)] = (byte) random.nextInt(256);
+                }
+            }
+            // streams are parsed by Jackson
+            final ValidationResult expected = parsing.validate(new ByteArrayInputStream(document));
+            if (new CborScanner(constraints, document, 0, document.length).scan()) {
+                assertTrue(expected.isValid(), () -> expected + " " + hex(document));
+                scanned++;
+            }
+            assertEquals(expected.isValid(), parsing.validate(document).isValid());
+        }
+        assertTrue(scanned > 5_000, String.valueOf(scanned));
+    }
+
+    @Test
+    void testTextInputNeedsATextFormat() {
+        final SizeLimiter limiter = SizeLimiter.create(StreamReadConstraints.builder().build(), new SmileFactory());
+        assertThrows(UnsupportedOperationException.class, () -> limiter.check("[1]"));
+        assertThrows(NullPointerException.class,
+                () -> SizeLimiter.create(StreamReadConstraints.builder().build(), (JsonFactory) null));
+    }
+
+    @Test
+    void testCacheKeepsFormatsApart() throws IOException {
+        final StreamReadConstraints constraints = StreamReadConstraints.builder().maxStringLength(100).build();
+        final VerdictCache cache = VerdictCache.builder().minLength(0).build();
+        final byte[] cbor = write(new CBORFactory(), g -> g.writeString("x".repeat(101)));
+        assertEquals(Constraint.STRING_LENGTH, SizeLimiter.create(constraints, new CBORFactory(),
+                LimiterListener.NONE, cache).validate(cbor).getConstraint());
+        // the same bytes are not valid JSON
+        assertNull(SizeLimiter.create(constraints, new JsonFactory(), LimiterListener.NONE, cache)
+                .validate(cbor).getConstraint());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    private static byte[] document(final JsonFactory factory) throws IOException {
+        return write(factory, g -> {
+            g.writeStartObject();
+            g.writeStringField("id", "abc-123");
+            g.writeNumberField("count", 123456);
+            g.writeNumberField("ratio", 0.25);
+            g.writeStringField("text", "0123456789\u00e9\ud83d\ude00");
+            g.writeArrayFieldStart("list");
+            for (int i = 0; i < 5; i++) {
+                g.writeNumber(i);
+            }
+            g.writeEndArray();
+            g.writeObjectFieldStart("nested");
+            g.writeArrayFieldStart("deep");
+            g.writeBoolean(true);
+            g.writeNull();
+            g.writeEndArray();
+            g.writeEndObject();
+            g.writeEndObject();
+        });
+    }
+
+    private static byte[] randomDocument(final Random random) throws IOException {
+        return write(new CBORFactory(), g -> randomValue(g, random, 0));
+    }
+
+    private static void randomValue(final JsonGenerator g, final Random random, final int depth) throws IOException {
+        switch (random.nextInt(depth < 5 ? 9 : 6)) {
+            case 0:
+                g.writeNumber(random.nextInt(1000) - 500);
+                break;
+            case 1:
+                g.writeNumber(random.nextLong());
+                break;
+            case 2:
+                g.writeNumber(random.nextDouble());
+                break;
+            case 3:
+                g.writeString(randomString(random, random.nextInt(16)));
+                break;
+            case 4:
+                g.writeBinary(new byte[random.nextInt(4)]);
+                break;
+            case 5:
+                g.writeBoolean(random.nextBoolean());
+                break;
+            case 6:
+            case 7: {
+                final int size = random.nextInt(7);
+                if (random.nextBoolean()) {
+                    g.writeStartArray(null, size);
+                } else {
+                    g.writeStartArray();
+                }
+                for (int i = 0; i < size; i++) {
+                    randomValue(g, random, depth + 1);
+                }
+                g.writeEndArray();
+                break;
+            }
+            default: {
+                g.writeStartObject();
+                for (int i = random.nextInt(4); i > 0; i--) {
+                    g.writeFieldName(randomString(random, random.nextInt(8)));
+                    randomValue(g, random, depth + 1);
+                }
+                g.writeEndObject();
+            }
+        }
+    }
+
+    private static String randomString(final Random random, final int length) {
+        final StringBuilder s = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            final int kind = random.nextInt(10);
+            s.append(kind < 7 ? (char) ('a' + random.nextInt(26)) : kind < 9 ? (char) (0xA0 + random.nextInt(3000))
+                    : "\ud83d\ude00");
+        }
+        return s.toString();
+    }
+
+    /**
+     * A text string of random bytes, most of them invalid UTF-8.
+     */
+    private static byte[] randomText(final Random random) {
+        final byte[] text = new byte[1 + random.nextInt(12)];
+        text[0] = (byte) (0x60 + text.length - 1);
+        for (int i = 1; i < text.length; i++) {
+            text[i] = (byte) (random.nextBoolean() ? 0x80 + random.nextInt(128) : random.nextInt(256));
+        }
+        return text;
+    }
+
+    private interface Writer {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private static byte[] write(final JsonFactory factory, final Writer writer) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator generator = factory.createGenerator(bytes)) {
+            writer.write(generator);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String hex(final byte[] bytes) {
+        final StringBuilder s = new StringBuilder();
+        for (final byte b : bytes) {
+            s.append(String.format("%02x", b & 0xFF));
+        }
+        return s.toString();
+    }
+}
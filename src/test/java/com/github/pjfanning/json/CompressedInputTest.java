@@ -0,0 +1,164 @@
+package com.github.pjfanning.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedInputTest {
+
+    private static final StreamReadConstraints CONSTRAINTS = StreamReadConstraints.builder()
+            .maxTotalLength(1_000_000).maxStringLength(1000).build();
+
+    @Test
+    void testDecompressesLikeTheJdk() throws IOException {
+        final Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            final byte[] data = new byte[random.nextInt(50_000)];
+            for (int j = 0; j < data.length; j++) {
+                data[j] = (byte) ('a' + random.nextInt(random.nextBoolean() ? 2 : 26));
+            }
+            assertArrayEquals(data, inflate(gzip(data), Compression.GZIP));
+            assertArrayEquals(data, inflate(deflate(data, false), Compression.DEFLATE));
+            assertArrayEquals(data, inflate(deflate(data, true), Compression.DEFLATE));
+        }
+        // concatenated gzip members are read as one stream
+        final ByteArrayOutputStream members = new ByteArrayOutputStream();
+        members.write(gzip(utf8("[1,")));
+        members.write(gzip(utf8("2]")));
+        assertArrayEquals(utf8("[1,2]"), inflate(members.toByteArray(), Compression.GZIP));
+    }
+
+    @Test
+    void testCheck() throws IOException {
+        final byte[] json = utf8("{\"items\":[" + "{\"name\":\"item\",\"qty\":1},".repeat(1000) + "null]}");
+        final SizeLimiter limiter = SizeLimiter.create(CONSTRAINTS);
+        limiter.check(new ByteArrayInputStream(gzip(json)), Compression.GZIP);
+        limiter.check(new ByteArrayInputStream(deflate(json, false)), Compression.DEFLATE);
+        SizeLimiter.check(CONSTRAINTS, new ByteArrayInputStream(deflate(json, true)), Compression.DEFLATE);
+
+        final byte[] longString = utf8("[\"" + "x".repeat(1001) + "\"]");
+        final ValidationResult result = limiter.validate(new ByteArrayInputStream(gzip(longString)),
+                Compression.GZIP);
+        assertEquals(Constraint.STRING_LENGTH, result.getConstraint());
+        assertThrows(IllegalStateException.class,
+                () -> limiter.check(new ByteArrayInputStream(gzip(longString)), Compression.GZIP));
+    }
+
+    @Test
+    void testBombIsStoppedEarly() throws IOException {
+        // 100MB of white space compresses about 1000 times
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write('[');
+            final byte[] spaces = new byte[1024 * 1024];
+            Arrays.fill(spaces, (byte) ' ');
+            for (int i = 0; i < 100; i++) {
+                out.write(spaces);
+            }
+            out.write(']');
+        }
+        final byte[] bomb = bytes.toByteArray();
+        final SizeLimiter limiter = SizeLimiter.create(CONSTRAINTS.rebuild().maxTotalLength(200_000_000).build());
+        final ValidationResult ratio = limiter.validate(new ByteArrayInputStream(bomb), Compression.GZIP);
+        assertEquals(Constraint.COMPRESSION_RATIO, ratio.getConstraint());
+        assertTrue(ratio.getFailure().getMessage().endsWith("exceeds the maximum ratio (100)"),
+                ratio.getFailure().getMessage());
+        assertThrows(IOException.class,
+                () -> limiter.check(new ByteArrayInputStream(bomb), Compression.GZIP));
+
+        final SizeLimiter lenient = SizeLimiter.create(CONSTRAINTS.rebuild().maxCompressionRatio(2000).build());
+        final ValidationResult total = lenient.validate(new ByteArrayInputStream(bomb), Compression.GZIP);
+        assertEquals(Constraint.TOTAL_LENGTH, total.getConstraint());
+        assertEquals(1_000_000, total.getAllowedLength());
+        assertEquals(1_000_001, total.getObservedLength());
+    }
+
+    @Test
+    void testSmallInputsIgnoreTheRatio() throws IOException {
+        final byte[] json = utf8("[" + " ".repeat(60_000) + "]");
+        SizeLimiter.check(StreamReadConstraints.builder().maxCompressionRatio(1).build(),
+                new ByteArrayInputStream(gzip(json)), Compression.GZIP);
+    }
+
+    @Test
+    void testCorruptInput() throws IOException {
+        final SizeLimiter limiter = SizeLimiter.create(CONSTRAINTS);
+        final byte[] gzip = gzip(utf8("[1,2,3]"));
+        gzip[gzip.length - 8] ^= 1;
+        assertThrows(ZipException.class, () -> inflate(gzip, Compression.GZIP));
+        final byte[] zlib = deflate(utf8("[1,2,3]"), false);
+        zlib[zlib.length - 1] ^= 1;
+        assertThrows(ZipException.class, () -> inflate(zlib, Compression.DEFLATE));
+        final byte[] corrupt = gzip(utf8("[1,2,3]"));
+        corrupt[12] ^= 0x7F;
+        final ValidationResult result = limiter.validate(new ByteArrayInputStream(corrupt), Compression.GZIP);
+        assertTrue(result.getFailure() instanceof IOException, String.valueOf(result.getFailure()));
+        assertNull(result.getConstraint());
+
+        final byte[] truncated = Arrays.copyOf(gzip(utf8("[1,2,3]")), 15);
+        assertThrows(IOException.class,
+                () -> limiter.check(new ByteArrayInputStream(truncated), Compression.GZIP));
+        assertThrows(ZipException.class,
+                () -> limiter.check(new ByteArrayInputStream(utf8("[1,2,3]")), Compression.GZIP));
+        assertThrows(IOException.class,
+                () -> limiter.check(new ByteArrayInputStream(new byte[0]), Compression.DEFLATE));
+    }
+
+    @Test
+    void testContentEncoding() {
+        assertEquals(Compression.GZIP, Compression.forContentEncoding(" X-GZIP"));
+        assertEquals(Compression.DEFLATE, Compression.forContentEncoding("deflate"));
+        assertNull(Compression.forContentEncoding("identity"));
+        assertNull(Compression.forContentEncoding(null));
+    }
+
+    private static byte[] inflate(final byte[] compressed, final Compression compression) throws IOException {
+        try (InputStream in = new InflatingInputStream(new ByteArrayInputStream(compressed), compression,
+                Long.MAX_VALUE, Integer.MAX_VALUE)) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[777];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] gzip(final byte[] data) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] deflate(final byte[] data, final boolean raw) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(bytes, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] utf8(final String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistinctNamesTest {
+
+    @Test
+    void testNameSet() {
+        final NameSet names = new NameSet();
+        assertEquals(1, names.add(names.hash("a")));
+        assertEquals(1, names.add(names.hash("a")));
+        assertEquals(2, names.add(names.hash("")));
+        for (int i = 0; i < 10_000; i++) {
+            names.add(names.hash("name" + i));
+        }
+        assertEquals(10_002, names.size());
+
+        final String emoji = "x" + new String(Character.toChars(0x1F600)) + "\u00e9\u20ac";
+        final byte[] utf8 = emoji.getBytes(StandardCharsets.UTF_8);
+        assertEquals(names.hash(emoji), names.hashUtf8(utf8, 0, utf8.length));
+    }
+
+    @Test
+    void testCountsNamesAcrossTheDocument() throws IOException {
+        final String json = "{\"a\":{\"b\":1},\"c\":[{\"a\":1,\"d\":2}],\"b\":null}";
+        assertVerdict(json, StreamReadConstraints.builder().maxDistinctNames(4).build(), null);
+        assertVerdict(json, StreamReadConstraints.builder().maxDistinctNames(3).build(), Constraint.DISTINCT_NAMES);
+
+        final ValidationResult result = SizeLimiter.create(StreamReadConstraints.builder().maxDistinctNames(3).build())
+                .validate(json);
+        assertEquals(4, result.getObservedLength());
+        assertEquals(3, result.getAllowedLength());
+        assertEquals("/c/0/d", result.getPointer());
+        assertThrows(IllegalArgumentException.class, () -> StreamReadConstraints.builder().maxDistinctNames(-1));
+    }
+
+    @Test
+    void testNamesAreCountedAsDecoded() throws IOException {
+        final String supplementary = new String(Character.toChars(0x1F600));
+        final StreamReadConstraints constraints = StreamReadConstraints.builder().maxDistinctNames(3).build();
+        // each name is written escaped and as UTF-8
+        assertVerdict("{\"a\":1,\"\\u0061\":2,\"\u00e9\":3,\"\\u00E9\":4,\"" + supplementary
+                + "\":5,\"\\ud83d\\ude00\":6}", constraints, null);
+        assertVerdict("{\"a\":1,\"\\u0062\":2,\"\u00e9\":3,\"\\u00E8\":4}", constraints, Constraint.DISTINCT_NAMES);
+        assertVerdict("{\"\\n\":1,\"\\u000a\":2,\"\\/\":3,\"/\":4}", StreamReadConstraints.builder()
+                .maxDistinctNames(2).build(), null);
+    }
+
+    @Test
+    void testCborKeys() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator generator = new CBORFactory().createGenerator(bytes)) {
+            generator.writeStartArray();
+            for (int i = 0; i < 10; i++) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", i);
+                generator.writeStringField("name" + (i % 5) + "\u00e9", "value");
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        final byte[] cbor = bytes.toByteArray();
+        final StreamReadConstraints six = StreamReadConstraints.builder().maxDistinctNames(6).build();
+        final StreamReadConstraints five = StreamReadConstraints.builder().maxDistinctNames(5).build();
+        assertTrue(new CborScanner(six, cbor, 0, cbor.length).scan());
+        assertFalse(new CborScanner(five, cbor, 0, cbor.length).scan());
+        assertTrue(SizeLimiter.create(six, new CBORFactory()).validate(cbor).isValid());
+        assertEquals(Constraint.DISTINCT_NAMES,
+                SizeLimiter.create(five, new CBORFactory()).validate(cbor).getConstraint());
+    }
+
+    @Test
+    void testRejectsManyNames() {
+        final StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < 200_000; i++) {
+            sb.append(i == 0 ? "\"" : ",\"").append(Integer.toHexString(i * 31)).append("\":0");
+        }
+        final String json = sb.append('}').toString();
+        final StreamReadConstraints constraints = StreamReadConstraints.builder().maxDistinctNames(1000).build();
+        final ValidationResult result = SizeLimiter.create(constraints).validate(json.getBytes(StandardCharsets.UTF_8));
+        assertEquals(Constraint.DISTINCT_NAMES, result.getConstraint());
+        assertEquals(1001, result.getObservedLength());
+        assertTrue(SizeLimiter.create(StreamReadConstraints.defaults()).validate(json).isValid());
+    }
+
+    /**
+     * Checks that the Jackson based checks and the byte scanner reach the same verdict.
+     */
+    private static void assertVerdict(final String json, final StreamReadConstraints constraints,
+                                      final Constraint expected) throws IOException {
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        final SizeLimiter limiter = SizeLimiter.create(constraints);
+        assertEquals(expected, limiter.validate(json).getConstraint(), json);
+        assertEquals(expected, limiter.validate(bytes).getConstraint(), json);
+        assertEquals(expected, limiter.validate(new ByteArrayInputStream(bytes)).getConstraint(), json);
+        if (expected == null) {
+            Utf8ScanningLimiter.check(constraints, bytes);
+        } else {
+            assertEquals(expected, Constraint.of(assertThrows(IllegalStateException.class,
+                    () -> Utf8ScanningLimiter.check(constraints, bytes))));
+        }
+    }
+}
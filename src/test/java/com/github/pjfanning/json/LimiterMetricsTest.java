@@ -0,0 +1,105 @@
+package com.github.pjfanning.json;
+
+import com.github.pjfanning.json.util.SizeLimitExceededException;
+import com.github.pjfanning.json.util.SlowReadException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimiterMetricsTest {
+
+    private static final StreamReadConstraints CONSTRAINTS = StreamReadConstraints.builder()
+            .maxTotalLength(100).maxStringLength(10).maxNumberLength(5).build();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCounters() throws IOException {
+        final LimiterMetrics metrics = new LimiterMetrics();
+        final SizeLimiter limiter = SizeLimiter.create(CONSTRAINTS, metrics);
+        limiter.check("{\"a\":[1,2]}");
+        limiter.check(new ByteArrayInputStream("[true]".getBytes(StandardCharsets.UTF_8)));
+        limiter.check(Files.write(tempDir.resolve("ok.json"), "[1]".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IllegalStateException.class, () -> limiter.check("[\"" + "x".repeat(11) + "\"]"));
+        assertThrows(NumberFormatException.class, () -> limiter.check(new StringReader("[123456]")));
+        assertThrows(IOException.class, () -> limiter.check(new ByteArrayInputStream(new byte[101])));
+        assertThrows(IllegalStateException.class, () -> limiter.check("[" + " ".repeat(100) + "]"));
+        assertThrows(IOException.class, () -> limiter.check("[1,"));
+
+        final StringBuildingLimiter stringBuildingLimiter = StringBuildingLimiter.create(CONSTRAINTS, metrics);
+        assertEquals("[null]", stringBuildingLimiter.check(new StringReader("[null]")));
+
+        assertEquals(9, metrics.getCheckCount());
+        assertEquals(1, metrics.getRejectionCount(Constraint.STRING_LENGTH));
+        assertEquals(1, metrics.getRejectionCount(Constraint.NUMBER_LENGTH));
+        assertEquals(2, metrics.getRejectionCount(Constraint.TOTAL_LENGTH));
+        assertEquals(4, metrics.getRejectionCount());
+        assertEquals(1, metrics.getParseFailureCount());
+        // {"a":[1,2]} has 7 tokens, [true] and [null] have 3 each; file checks do not count tokens
+        assertTrue(metrics.getTokenCount() >= 13);
+        assertTrue(metrics.getLength() >= 11 + 6 + 3 + 6);
+        assertTrue(metrics.getElapsedNanos() > 0);
+
+        metrics.reset();
+        assertEquals(0, metrics.getCheckCount());
+        assertEquals(0, metrics.getRejectionCount());
+    }
+
+    @Test
+    void testConstraintOf() {
+        assertNull(Constraint.of(null));
+        assertNull(Constraint.of(new IOException("Unexpected end-of-input")));
+        assertNull(Constraint.of(new IllegalArgumentException("String length (3)")));
+        // the constraint is carried by the type of the exception, not found from its message
+        assertNull(Constraint.of(new IllegalStateException("String length (3) exceeds the maximum length (2)")));
+        assertNull(Constraint.of(new IOException("Read more than size limit (100) bytes")));
+        assertEquals(Constraint.TOTAL_LENGTH,
+                Constraint.of(new SizeLimitExceededException("Read more than size limit (100) bytes", 101, 100)));
+        assertEquals(Constraint.READ_RATE, Constraint.of(new SlowReadException("slow", 1, 10, true)));
+        assertEquals(Constraint.READ_TIME, Constraint.of(new SlowReadException("slow", 10, 1, false)));
+        final IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> CONSTRAINTS.validateTotalLength(101));
+        assertEquals(Constraint.TOTAL_LENGTH, Constraint.of(e));
+        assertEquals(101, ((ConstraintViolationException) e).getObserved());
+        assertEquals(Constraint.NUMBER_LENGTH, Constraint.of(Constraint.NUMBER_LENGTH.exception(5, 4)));
+    }
+
+    @Test
+    void testFlightRecorderEvents() throws IOException {
+        final Path dump = tempDir.resolve("validation.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ValidationEvent.NAME);
+            recording.start();
+            SizeLimiter.check(CONSTRAINTS, "[1]");
+            assertThrows(IllegalStateException.class,
+                    () -> SizeLimiter.check(CONSTRAINTS, "[\"" + "x".repeat(11) + "\"]"));
+            recording.stop();
+            recording.dump(dump);
+        }
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        assertEquals(2, events.size());
+        assertEquals("String", events.get(0).getString("inputType"));
+        assertEquals(3, events.get(0).getLong("length"));
+        assertEquals(3, events.get(0).getLong("tokenCount"));
+        assertEquals("valid", events.get(0).getString("outcome"));
+        assertNull(events.get(0).getString("constraint"));
+        assertEquals("rejected", events.get(1).getString("outcome"));
+        assertEquals("STRING_LENGTH", events.get(1).getString("constraint"));
+    }
+}
@@ -0,0 +1,163 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NdjsonValidatorTest {
+
+    private static final StreamReadConstraints RECORD_CONSTRAINTS = StreamReadConstraints.builder()
+            .maxTotalLength(200).maxStringLength(20).maxNumberLength(5).build();
+
+    @Test
+    void testFailuresHaveLineAndOffset() throws IOException {
+        final String ndjson = "{\"a\":1}\n"
+                + "{\"a\":\"" + "x".repeat(21) + "\"}\n"
+                + "\n"
+                + "[123456]\r\n"
+                + "{\"a\":\n"
+                + "{\"ok\":true}";
+        for (NdjsonResult result : validateAllWays(NdjsonValidator.create(RECORD_CONSTRAINTS), ndjson)) {
+            assertEquals(6, result.getLineCount());
+            assertEquals(ndjson.length(), result.getByteCount());
+            final List<NdjsonResult.Failure> failures = result.getFailures();
+            assertEquals(3, failures.size());
+            assertEquals(2, failures.get(0).getLine());
+            assertEquals(8, failures.get(0).getByteOffset());
+            assertInstanceOf(IllegalStateException.class, failures.get(0).getException());
+            assertEquals(4, failures.get(1).getLine());
+            assertEquals(ndjson.indexOf("[123456]"), failures.get(1).getByteOffset());
+            assertInstanceOf(NumberFormatException.class, failures.get(1).getException());
+            assertEquals(5, failures.get(2).getLine());
+            assertInstanceOf(IOException.class, failures.get(2).getException());
+        }
+    }
+
+    @Test
+    void testManyBlocksKeepInputOrder() throws IOException {
+        final Random random = new Random(42);
+        final StringBuilder sb = new StringBuilder();
+        final StringBuilder expected = new StringBuilder();
+        for (int line = 1; line <= 20_000; line++) {
+            final int kind = random.nextInt(50);
+            if (kind == 0) {
+                sb.append("{\"s\":\"").append("y".repeat(25)).append("\"}\n");
+                expected.append(line).append(',');
+            } else if (kind == 1) {
+                // longer than the record limit, and longer than a block in the stream case
+                sb.append("[\"").append("z".repeat(10)).append("\"").append(" ".repeat(70_000)).append("]\n");
+                expected.append(line).append(',');
+            } else {
+                sb.append("{\"id\":").append(line).append(",\"tags\":[\"a\",\"b\"]}\n");
+            }
+        }
+        final BatchValidator parallel = BatchValidator.create(ForkJoinPool.commonPool(), 4);
+        for (BatchValidator batchValidator : new BatchValidator[]{parallel, BatchValidator.create(Runnable::run, 1)}) {
+            final NdjsonValidator validator = NdjsonValidator.builder(RECORD_CONSTRAINTS)
+                    .batchValidator(batchValidator).build();
+            for (NdjsonResult result : validateAllWays(validator, sb.toString())) {
+                assertEquals(20_000, result.getLineCount());
+                final StringBuilder actual = new StringBuilder();
+                for (NdjsonResult.Failure failure : result.getFailures()) {
+                    actual.append(failure.getLine()).append(',');
+                }
+                assertEquals(expected.toString(), actual.toString());
+            }
+        }
+    }
+
+    @Test
+    void testTotalLimit() throws IOException {
+        final String ndjson = "{\"a\":1}\n".repeat(1000);
+        final NdjsonValidator validator = NdjsonValidator.builder(RECORD_CONSTRAINTS).maxTotalLength(7999).build();
+        final byte[] bytes = ndjson.getBytes(StandardCharsets.UTF_8);
+        assertEquals(Constraint.TOTAL_LENGTH,
+                Constraint.of(assertThrows(IllegalStateException.class, () -> validator.validate(bytes))));
+        assertEquals(Constraint.TOTAL_LENGTH, Constraint.of(assertThrows(IOException.class,
+                () -> validator.validate(new ByteArrayInputStream(bytes)))));
+        final NdjsonValidator exact = NdjsonValidator.builder(RECORD_CONSTRAINTS).maxTotalLength(8000).build();
+        assertTrue(exact.validate(bytes).isAllValid());
+        assertTrue(exact.validate(new ByteArrayInputStream(bytes)).isAllValid());
+    }
+
+    @Test
+    void testOneValuePerLine() throws IOException {
+        // a second value or garbage after the first value must not get past the checks
+        final String ndjson = "{} {\"s\":\"" + "x".repeat(21) + "\"}\n"
+                + "{}garbage]]]\n"
+                + "[1] [2]\n"
+                + "1 2\n"
+                + "  {\"a\":1} \t\r\n"
+                + "\"s\"";
+        final StreamReadConstraints withPaths = StreamReadConstraints.builder()
+                .maxTotalLength(200).maxStringLength(20).maxStringLength("/a", 30).build();
+        for (StreamReadConstraints constraints : new StreamReadConstraints[]{RECORD_CONSTRAINTS, withPaths}) {
+            for (NdjsonResult result : validateAllWays(NdjsonValidator.create(constraints), ndjson)) {
+                assertEquals(6, result.getLineCount());
+                final List<NdjsonResult.Failure> failures = result.getFailures();
+                assertEquals(4, failures.size());
+                for (int i = 0; i < 4; i++) {
+                    assertEquals(i + 1, failures.get(i).getLine());
+                    assertInstanceOf(JsonParseException.class, failures.get(i).getException());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testLongLines() throws IOException {
+        // the second line is longer than a block, so a stream skips it without buffering it
+        final String ndjson = "[" + " ".repeat(150) + "]\n[" + " ".repeat(100_000) + "]\n{}";
+        for (NdjsonResult result : validateAllWays(NdjsonValidator.create(RECORD_CONSTRAINTS), ndjson)) {
+            assertEquals(3, result.getLineCount());
+            assertEquals(1, result.getFailures().size());
+            assertEquals(2, result.getFailures().get(0).getLine());
+            final Exception failure = result.getFailures().get(0).getException();
+            assertEquals(Constraint.TOTAL_LENGTH, Constraint.of(failure));
+            assertEquals("Total length (100002) exceeds the maximum length (200)", failure.getMessage());
+        }
+    }
+
+    @Test
+    void testEmptyInput() throws IOException {
+        for (NdjsonResult result : validateAllWays(NdjsonValidator.create(RECORD_CONSTRAINTS), "")) {
+            assertEquals(0, result.getLineCount());
+            assertTrue(result.isAllValid());
+        }
+    }
+
+    private static NdjsonResult[] validateAllWays(final NdjsonValidator validator, final String ndjson)
+            throws IOException {
+        final byte[] bytes = ndjson.getBytes(StandardCharsets.UTF_8);
+        return new NdjsonResult[]{
+                validator.validate(bytes),
+                validator.validate(new ByteArrayInputStream(bytes)),
+                validator.validate(trickle(new ByteArrayInputStream(bytes)))
+        };
+    }
+
+    /**
+     * Returns at most 1000 bytes per read, like a network stream.
+     */
+    private static InputStream trickle(final InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.pjfanning.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NonBlockingValidatorTest {
+
+    @Test
+    void testCorporaInChunks() throws IOException {
+        final SizeLimiter limiter = SizeLimiter.create(StreamReadConstraints.defaults());
+        for (String name : new String[]{"deep-nesting.json", "small-numbers.json", "huge-strings.json", "wide-object.json"}) {
+            final byte[] json = TestUtils.readResource("/corpus/" + name).getBytes(StandardCharsets.UTF_8);
+            for (int chunkSize : new int[]{1, 7, 1000, json.length}) {
+                try (NonBlockingValidator validator = limiter.createNonBlockingValidator()) {
+                    feed(validator, json, chunkSize);
+                    validator.endOfInput();
+                    assertTrue(validator.isComplete());
+                    assertEquals(json.length, validator.getBytesFed());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testViolations() throws IOException {
+        final byte[] json = TestUtils.readResource("/simple.json").getBytes(StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () ->
+                feedAll(StreamReadConstraints.builder().maxTotalLength(5).build(), json, 3));
+        assertThrows(NumberFormatException.class, () ->
+                feedAll(StreamReadConstraints.builder().maxNumberLength(1).build(), json, 3));
+        assertThrows(IllegalStateException.class, () ->
+                feedAll(StreamReadConstraints.builder().maxStringLength(1).build(), json, 3));
+        assertThrows(IOException.class, () ->
+                feedAll(StreamReadConstraints.defaults(), "{\"a\":[1,".getBytes(StandardCharsets.UTF_8), 3));
+    }
+
+    @Test
+    void testViolationReportedOnChunkThatContainsIt() throws IOException {
+        final StreamReadConstraints constraints = StreamReadConstraints.builder().maxStringLength(3).build();
+        try (NonBlockingValidator validator = SizeLimiter.create(constraints).createNonBlockingValidator()) {
+            validator.feed(ByteBuffer.wrap("{\"a\":\"ab".getBytes(StandardCharsets.UTF_8)));
+            assertThrows(IllegalStateException.class, () ->
+                    validator.feed(ByteBuffer.wrap("cd\", \"b\":".getBytes(StandardCharsets.UTF_8))));
+        }
+    }
+
+    @Test
+    void testContentAfterRootValueIsIgnored() throws IOException {
+        try (NonBlockingValidator validator = SizeLimiter.create(StreamReadConstraints.defaults())
+                .createNonBlockingValidator()) {
+            validator.feed(ByteBuffer.wrap("{\"a\":1}".getBytes(StandardCharsets.UTF_8)));
+            assertTrue(validator.isComplete());
+            validator.feed(ByteBuffer.wrap(" trailing".getBytes(StandardCharsets.UTF_8)));
+            validator.endOfInput();
+        }
+    }
+
+    @Test
+    void testIncompleteUntilEndOfInput() throws IOException {
+        try (NonBlockingValidator validator = SizeLimiter.create(StreamReadConstraints.defaults())
+                .createNonBlockingValidator()) {
+            validator.feed(ByteBuffer.wrap("[1, 2".getBytes(StandardCharsets.UTF_8)));
+            assertFalse(validator.isComplete());
+            validator.feed(ByteBuffer.wrap("]".getBytes(StandardCharsets.UTF_8)));
+            assertTrue(validator.isComplete());
+        }
+    }
+
+    @Test
+    void testDirectBuffers() throws IOException {
+        final byte[] json = TestUtils.readResource("/simple.json").getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(json.length);
+        direct.put(json).flip();
+        try (NonBlockingValidator validator = SizeLimiter.create(StreamReadConstraints.defaults())
+                .createNonBlockingValidator()) {
+            validator.feed(direct);
+            validator.endOfInput();
+            assertTrue(validator.isComplete());
+        }
+    }
+
+    private static void feedAll(final StreamReadConstraints constraints, final byte[] json, final int chunkSize)
+            throws IOException {
+        try (NonBlockingValidator validator = SizeLimiter.create(constraints).createNonBlockingValidator()) {
+            feed(validator, json, chunkSize);
+            validator.endOfInput();
+        }
+    }
+
+    private static void feed(final NonBlockingValidator validator, final byte[] json, final int chunkSize)
+            throws IOException {
+        for (int offset = 0; offset < json.length; offset += chunkSize) {
+            validator.feed(ByteBuffer.wrap(json, offset, Math.min(chunkSize, json.length - offset)));
+        }
+    }
+}
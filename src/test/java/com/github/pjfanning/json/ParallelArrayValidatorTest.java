@@ -0,0 +1,104 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelArrayValidatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSameVerdictAsSequentialScan() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final BatchValidator batchValidator = BatchValidator.create(executor, 8);
+            final Random random = new Random(2024);
+            for (int i = 0; i < 3000; i++) {
+                final StringBuilder sb = new StringBuilder(random.nextBoolean() ? "[" : " \n[ ");
+                final int count = random.nextInt(30);
+                for (int e = 0; e < count; e++) {
+                    if (e > 0) {
+                        sb.append(random.nextBoolean() ? "," : " ,\n");
+                    }
+                    Utf8ScanningLimiterTest.appendValue(random, sb, 1);
+                }
+                sb.append(random.nextBoolean() ? "]" : " ] ");
+                final byte[] json = sb.toString().getBytes(StandardCharsets.UTF_8);
+                final StreamReadConstraints constraints = StreamReadConstraints.builder()
+                        .maxStringLength(random.nextInt(40))
+                        .maxNumberLength(random.nextInt(12))
+                        .build();
+                final ParallelArrayValidator validator =
+                        new ParallelArrayValidator(constraints, batchValidator, 1 + random.nextInt(32));
+                assertSameResult(constraints, validator, json, i % 50 == 0);
+                for (int m = 0; m < 5; m++) {
+                    assertSameResult(constraints, validator, Utf8ScanningLimiterTest.mutate(random, json), false);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testLargeArray() throws IOException {
+        final String record = TestUtils.readResource("/corpus/small-numbers.json");
+        final StringBuilder sb = new StringBuilder("[");
+        while (sb.length() < 3 * ParallelArrayValidator.CHUNK_SIZE) {
+            sb.append(record).append(",\n");
+        }
+        sb.append("\"").append("x".repeat(2000)).append("\"]");
+        final byte[] json = sb.toString().getBytes(StandardCharsets.UTF_8);
+        final Path file = Files.write(tempDir.resolve("large.json"), json);
+        final ParallelArrayValidator validator = ParallelArrayValidator.create(StreamReadConstraints.defaults());
+        validator.check(json);
+        validator.check(file);
+        final ParallelArrayValidator strict = ParallelArrayValidator.create(
+                StreamReadConstraints.builder().maxStringLength(1999).build());
+        assertThrows(IllegalStateException.class, () -> strict.check(json));
+        assertThrows(IllegalStateException.class, () -> strict.check(file));
+    }
+
+    private void assertSameResult(final StreamReadConstraints constraints, final ParallelArrayValidator validator,
+                                  final byte[] json, final boolean viaFile) throws IOException {
+        final Exception expected = failure(() -> Utf8ScanningLimiter.check(constraints, json));
+        assertSameFailure(expected, failure(() -> validator.check(json)), json);
+        if (viaFile) {
+            final Path file = Files.write(Files.createTempFile(tempDir, "test", ".json"), json);
+            assertSameFailure(expected, failure(() -> validator.check(file)), json);
+        }
+    }
+
+    private static void assertSameFailure(final Exception expected, final Exception actual, final byte[] json) {
+        if (expected == null || actual == null) {
+            assertEquals(expected, actual, () -> new String(json, StandardCharsets.UTF_8));
+            return;
+        }
+        assertEquals(expected.getClass(), actual.getClass(), () -> new String(json, StandardCharsets.UTF_8));
+        assertEquals(expected.getMessage(), actual.getMessage(), () -> new String(json, StandardCharsets.UTF_8));
+    }
+
+    private static Exception failure(final org.junit.jupiter.api.function.Executable executable) {
+        try {
+            executable.execute();
+            return null;
+        } catch (Exception e) {
+            return e;
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+}
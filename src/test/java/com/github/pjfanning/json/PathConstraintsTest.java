@@ -0,0 +1,173 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathConstraintsTest {
+
+    private static final StreamReadConstraints ATTACHMENTS = StreamReadConstraints.builder()
+            .maxStringLength(4096)
+            .maxStringLength("/attachments/*/data", 5 * 1024 * 1024)
+            .build();
+
+    @Test
+    void testWildcardOverride() throws IOException {
+        final String data = "x".repeat(100_000);
+        final String valid = "{\"name\":\"a\",\"attachments\":[{\"data\":\"" + data + "\"},{\"data\":\"" + data + "\"}]}";
+        SizeLimiter.check(ATTACHMENTS, valid);
+        Utf8ScanningLimiter.check(ATTACHMENTS, valid.getBytes(StandardCharsets.UTF_8));
+
+        final String misplaced = "{\"attachments\":[{\"name\":\"" + data + "\"}]}";
+        final ValidationResult result = SizeLimiter.create(ATTACHMENTS).validate(misplaced);
+        assertEquals(Constraint.STRING_LENGTH, result.getConstraint());
+        assertEquals(4096, result.getAllowedLength());
+        assertThrows(IllegalStateException.class, () -> Utf8ScanningLimiter.check(ATTACHMENTS,
+                misplaced.getBytes(StandardCharsets.UTF_8)));
+
+        // only the value at the path, not the values nested in it
+        final String nested = "{\"attachments\":[{\"data\":[\"" + data + "\"]}]}";
+        assertEquals(Constraint.STRING_LENGTH, SizeLimiter.create(ATTACHMENTS).validate(nested).getConstraint());
+    }
+
+    @Test
+    void testMostSpecificPathWins() throws IOException {
+        final StreamReadConstraints constraints = StreamReadConstraints.builder()
+                .maxStringLength(5)
+                .maxStringLength("/*/*", 10)
+                .maxStringLength("/*/b", 20)
+                .maxStringLength("/a/*", 30)
+                .maxNumberLength("/*/b", 3)
+                .build();
+        assertEquals(30, constraints.getMaxStringLength("/a/b"));
+        assertEquals(30, constraints.getMaxStringLength("/a/c"));
+        assertEquals(20, constraints.getMaxStringLength("/c/b"));
+        assertEquals(10, constraints.getMaxStringLength("/c/c"));
+        assertEquals(5, constraints.getMaxStringLength("/c"));
+        assertEquals(5, constraints.getMaxStringLength(""));
+        // "/a/*" sets no number length, so the next path applies
+        assertEquals(3, constraints.getMaxNumberLength("/a/b"));
+        assertEquals(StreamReadConstraints.DEFAULT_MAX_NUM_LEN, constraints.getMaxNumberLength("/a/c"));
+
+        final SizeLimiter limiter = SizeLimiter.create(constraints);
+        assertTrue(limiter.validate("{\"a\":{\"b\":\"" + "x".repeat(30) + "\"}}").isValid());
+        final ValidationResult result = limiter.validate("{\"c\":{\"b\":\"" + "x".repeat(21) + "\"}}");
+        assertEquals(21, result.getObservedLength());
+        assertEquals(20, result.getAllowedLength());
+        assertEquals(Constraint.NUMBER_LENGTH, limiter.validate("{\"a\":{\"b\":1234}}").getConstraint());
+    }
+
+    @Test
+    void testArrayIndexes() throws IOException {
+        final StreamReadConstraints constraints = StreamReadConstraints.builder()
+                .maxStringLength(2)
+                .maxStringLength("/1", 4)
+                .maxStringLength("/10/x", 6)
+                .build();
+        final SizeLimiter limiter = SizeLimiter.create(constraints);
+        assertTrue(limiter.validate("[\"ab\",\"abcd\",\"ab\"]").isValid());
+        assertEquals(Constraint.STRING_LENGTH, limiter.validate("[\"abcd\"]").getConstraint());
+        final StringBuilder array = new StringBuilder("[");
+        for (int i = 0; i < 10; i++) {
+            array.append("{},");
+        }
+        assertTrue(limiter.validate(array + "{\"x\":\"abcdef\"}]").isValid());
+        assertEquals(Constraint.STRING_LENGTH, limiter.validate(array + "{},{\"x\":\"abcdef\"}]").getConstraint());
+        // an index segment also matches a field with that name
+        assertTrue(limiter.validate("{\"1\":\"abcd\"}").isValid());
+        assertEquals(4, constraints.getMaxStringLength("/1"));
+    }
+
+    @Test
+    void testContainerLimits() throws IOException {
+        final StreamReadConstraints constraints = StreamReadConstraints.builder()
+                .maxArrayElements(3)
+                .maxObjectEntries(2)
+                .maxArrayElements("/rows", 1000)
+                .maxObjectEntries("/rows/*", 5)
+                .build();
+        final SizeLimiter limiter = SizeLimiter.create(constraints);
+        final StringBuilder rows = new StringBuilder("{\"rows\":[");
+        for (int i = 0; i < 100; i++) {
+            rows.append(i == 0 ? "" : ",").append("{\"a\":1,\"b\":2,\"c\":3,\"d\":4,\"e\":5}");
+        }
+        assertTrue(limiter.validate(rows.append("]}").toString()).isValid());
+
+        final ValidationResult elements = limiter.validate("{\"rows\":[{\"a\":[1,2,3,4]}]}");
+        assertEquals(Constraint.ARRAY_ELEMENTS, elements.getConstraint());
+        assertEquals(3, elements.getAllowedLength());
+        final ValidationResult entries = limiter.validate("{\"rows\":[],\"other\":{},\"more\":1}");
+        assertEquals(Constraint.OBJECT_ENTRIES, entries.getConstraint());
+        assertEquals(2, entries.getAllowedLength());
+    }
+
+    @Test
+    void testOtherInputs() throws IOException {
+        final String data = "y".repeat(5000);
+        final byte[] json = ("{\"attachments\":[{\"data\":\"" + data + "\"}]}").getBytes(StandardCharsets.UTF_8);
+        assertTrue(NdjsonValidator.create(ATTACHMENTS).validate(new ByteArrayInputStream(json)).isAllValid());
+        try (NonBlockingValidator validator = SizeLimiter.create(ATTACHMENTS).createNonBlockingValidator()) {
+            validator.feed(ByteBuffer.wrap(json));
+            validator.endOfInput();
+            assertTrue(validator.isComplete());
+        }
+        final SizeLimiter cbor = SizeLimiter.create(ATTACHMENTS, new CBORFactory());
+        assertTrue(cbor.validate(cbor(data, "data")).isValid());
+        assertEquals(Constraint.STRING_LENGTH, cbor.validate(cbor(data, "name")).getConstraint());
+    }
+
+    @Test
+    void testBuilder() throws IOException, ClassNotFoundException {
+        assertThrows(IllegalArgumentException.class,
+                () -> StreamReadConstraints.builder().maxStringLength("/a", -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> StreamReadConstraints.builder().maxObjectEntries("a", 1));
+        assertThrows(NullPointerException.class,
+                () -> StreamReadConstraints.builder().maxArrayElements(null, 1));
+        assertNull(StreamReadConstraints.builder().build().pathRoot());
+
+        final StreamReadConstraints copy = ATTACHMENTS.rebuild().build();
+        assertEquals(ATTACHMENTS, copy);
+        assertEquals(ATTACHMENTS.hashCode(), copy.hashCode());
+        assertNotEquals(ATTACHMENTS, copy.rebuild().maxStringLength("/attachments/*/data", 1).build());
+        assertNotEquals(ATTACHMENTS, StreamReadConstraints.builder().maxStringLength(4096).build());
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(ATTACHMENTS);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            final StreamReadConstraints read = (StreamReadConstraints) in.readObject();
+            assertEquals(ATTACHMENTS, read);
+            assertEquals(5 * 1024 * 1024, read.getMaxStringLength("/attachments/0/data"));
+        }
+    }
+
+    private static byte[] cbor(final String data, final String field) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator generator = new CBORFactory().createGenerator(bytes)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("attachments");
+            generator.writeStartObject();
+            generator.writeStringField(field, data);
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -2,9 +2,21 @@ package com.github.pjfanning.json;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class SimpleTest {
 
@@ -41,4 +53,111 @@ class SimpleTest {
         );
     }
 
+    @Test
+    void testStructuralLimits() throws IOException {
+        final String text = "{\"name\":[[1,2,3],{\"a\":true,\"bb\":null}]}";
+        SizeLimiter.check(StreamReadConstraints.builder().maxNestingDepth(3).maxTokenCount(16)
+                .maxObjectEntries(2).maxArrayElements(3).maxNameLength(4).build(), text);
+        assertStructuralFailure("Nesting depth (3) exceeds the maximum depth (2)",
+                StreamReadConstraints.builder().maxNestingDepth(2).build(), text);
+        assertStructuralFailure("Token count (16) exceeds the maximum count (15)",
+                StreamReadConstraints.builder().maxTokenCount(15).build(), text);
+        assertStructuralFailure("Object entry count (2) exceeds the maximum count (1)",
+                StreamReadConstraints.builder().maxObjectEntries(1).build(), text);
+        assertStructuralFailure("Array element count (3) exceeds the maximum count (2)",
+                StreamReadConstraints.builder().maxArrayElements(2).build(), text);
+        assertStructuralFailure("Name length (4) exceeds the maximum length (3)",
+                StreamReadConstraints.builder().maxNameLength(3).build(), text);
+    }
+
+    @Test
+    void testDefaultsDoNotLimitDepthOrNameLength() throws IOException {
+        final StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            deep.append('[');
+        }
+        for (int i = 0; i < 2000; i++) {
+            deep.append(']');
+        }
+        final StringBuilder name = new StringBuilder("{\"");
+        for (int i = 0; i < 60_000; i++) {
+            name.append('n');
+        }
+        name.append("\":1}");
+        for (final String text : new String[] {deep.toString(), name.toString()}) {
+            SizeLimiter.check(StreamReadConstraints.defaults(), text);
+            Utf8ScanningLimiter.check(StreamReadConstraints.defaults(), text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void assertStructuralFailure(final String message, final StreamReadConstraints constraints,
+                                                final String text) {
+        assertEquals(message, assertThrows(IllegalStateException.class, () ->
+                SizeLimiter.check(constraints, text)).getMessage());
+        assertEquals(message, assertThrows(IllegalStateException.class, () ->
+                Utf8ScanningLimiter.check(constraints, text.getBytes(StandardCharsets.UTF_8))).getMessage());
+    }
+
+    @Test
+    void testReusableLimiter() throws Exception {
+        String text = TestUtils.readResource("/simple.json");
+        SizeLimiter limiter = SizeLimiter.create(StreamReadConstraints.builder().maxStringLength(1).build());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(executor.submit(() -> assertThrows(IllegalStateException.class, () -> limiter.check(text))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testStringLimitUsesDecodedLength() {
+        final String text = "{\"s\":\"\\u0041\\u0042\"}";
+        final StreamReadConstraints constraints = StreamReadConstraints.builder().maxStringLength(2).build();
+        assertDoesNotThrow(() -> SizeLimiter.check(constraints, text));
+        assertThrows(IllegalStateException.class, () ->
+                SizeLimiter.check(constraints.rebuild().maxStringLength(1).build(), text));
+    }
+
+    @Test
+    void testValidationDoesNotAllocatePerToken() throws IOException {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+        final int count = 10_000;
+        final StringBuilder sb = new StringBuilder("{\"values\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("\"value-").append(i).append("\",").append(i).append(",1.5");
+        }
+        sb.append("]}");
+        final byte[] json = sb.toString().getBytes(StandardCharsets.UTF_8);
+        final SizeLimiter limiter = SizeLimiter.create(StreamReadConstraints.defaults());
+        for (int i = 0; i < 20; i++) {
+            limiter.check(new ByteArrayInputStream(json));
+        }
+        final long threadId = Thread.currentThread().getId();
+        final long before = threadBean.getThreadAllocatedBytes(threadId);
+        limiter.check(new ByteArrayInputStream(json));
+        final long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        assertTrue(allocated < count, "allocated " + allocated + " bytes for " + (count * 3) + " values");
+    }
+
+    @Test
+    void testBenchmarkCorpora() throws IOException {
+        final SizeLimiter limiter = SizeLimiter.create(StreamReadConstraints.defaults());
+        for (String name : new String[]{"deep-nesting.json", "small-numbers.json", "huge-strings.json", "wide-object.json"}) {
+            limiter.check(TestUtils.readResource("/corpus/" + name));
+        }
+    }
+
 }
@@ -0,0 +1,171 @@
+package com.github.pjfanning.json;
+
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SizeLimitFilterTest {
+
+    private static final StreamReadConstraints CONSTRAINTS = StreamReadConstraints.builder()
+            .maxTotalLength(1000).maxStringLength(100).build();
+
+    private HttpServer server;
+    private final AtomicInteger handled = new AtomicInteger();
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        final HttpContext context = server.createContext("/", exchange -> {
+            handled.incrementAndGet();
+            // echo the body as the handler sees it
+            final byte[] body = exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, body.length == 0 ? -1L : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        context.getFilters().add(SizeLimiter.create(CONSTRAINTS).createHttpFilter());
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    void testValidBodiesReachTheHandler() throws IOException, InterruptedException {
+        final String json = "{\"name\":\"value\",\"list\":[1,2,3]}  \n";
+        final HttpResponse<byte[]> fixed = client.send(post(HttpRequest.BodyPublishers.ofString(json)),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, fixed.statusCode());
+        assertEquals(json, new String(fixed.body(), StandardCharsets.UTF_8));
+
+        // a body of unknown length is sent chunked
+        final HttpResponse<byte[]> chunked = client.send(post(HttpRequest.BodyPublishers.ofInputStream(
+                () -> new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, chunked.statusCode());
+        assertEquals(json, new String(chunked.body(), StandardCharsets.UTF_8));
+
+        final HttpResponse<byte[]> noBody = client.send(HttpRequest.newBuilder(uri()).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, noBody.statusCode());
+        assertEquals(3, handled.get());
+    }
+
+    @Test
+    void testCompressedBody() throws IOException, InterruptedException {
+        final byte[] gzip = gzip(("[" + "\"abc\",".repeat(100) + "1]").getBytes(StandardCharsets.UTF_8));
+        final HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri())
+                        .header("Content-Encoding", "gzip")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(gzip)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, response.statusCode());
+        // the handler gets the body as it was sent
+        assertArrayEquals(gzip, response.body());
+
+        final byte[] tooLong = gzip(("[" + "\"abc\",".repeat(200) + "1]").getBytes(StandardCharsets.UTF_8));
+        assertEquals(413, client.send(HttpRequest.newBuilder(uri())
+                        .header("Content-Encoding", "gzip")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(tooLong)).build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode());
+        assertEquals(415, client.send(HttpRequest.newBuilder(uri())
+                        .header("Content-Encoding", "br")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(gzip)).build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode());
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void testRejectsContentAfterTheValue() throws IOException, InterruptedException {
+        // the second value would reach the handler unchecked
+        final String twoValues = "{} {\"s\":\"" + "x".repeat(101) + "\"}";
+        assertEquals(400, client.send(post(HttpRequest.BodyPublishers.ofString(twoValues)),
+                HttpResponse.BodyHandlers.discarding()).statusCode());
+        assertEquals(400, rawPost("Transfer-Encoding: chunked", chunk(twoValues)));
+        assertEquals(400, client.send(post(HttpRequest.BodyPublishers.ofString("{}garbage]]]")),
+                HttpResponse.BodyHandlers.discarding()).statusCode());
+        assertEquals(400, client.send(HttpRequest.newBuilder(uri())
+                        .header("Content-Encoding", "gzip")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(gzip(twoValues.getBytes(StandardCharsets.UTF_8))))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode());
+        assertEquals(0, handled.get());
+    }
+
+    @Test
+    void testRejectsOnContentLength() throws IOException {
+        // only the start of the declared body is sent: the filter must not wait for the rest
+        assertEquals(413, rawPost("Content-Length: 100000000", "[1,2,3,".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(400, rawPost("Content-Length: x", new byte[0]));
+        assertEquals(0, handled.get());
+    }
+
+    @Test
+    void testRejectsChunkedBodies() throws IOException {
+        final String tooLong = "[\"" + "x".repeat(1200) + "\"]";
+        assertEquals(413, rawPost("Transfer-Encoding: chunked", chunk(tooLong)));
+        assertEquals(413, rawPost("Transfer-Encoding: chunked", chunk("[\"" + "x".repeat(101) + "\"]")));
+        assertEquals(400, rawPost("Transfer-Encoding: chunked", chunk("[1,}")));
+        assertEquals(0, handled.get());
+    }
+
+    private URI uri() {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + "/");
+    }
+
+    private HttpRequest post(final HttpRequest.BodyPublisher body) {
+        return HttpRequest.newBuilder(uri()).header("Content-Type", "application/json").POST(body).build();
+    }
+
+    private int rawPost(final String header, final byte[] body) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getAddress().getPort())) {
+            final OutputStream out = socket.getOutputStream();
+            out.write(("POST / HTTP/1.1\r\nHost: localhost\r\n" + header + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.write(body);
+            out.flush();
+            final InputStream in = socket.getInputStream();
+            final String status = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII)).readLine();
+            return Integer.parseInt(status.split(" ")[1]);
+        }
+    }
+
+    private static byte[] chunk(final String data) {
+        final byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        return (Integer.toHexString(bytes.length) + "\r\n" + data + "\r\n0\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(final byte[] data) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+}
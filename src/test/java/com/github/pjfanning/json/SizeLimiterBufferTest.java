@@ -0,0 +1,82 @@
+package com.github.pjfanning.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SizeLimiterBufferTest {
+
+    private static final StreamReadConstraints CONSTRAINTS = StreamReadConstraints.builder()
+            .maxTotalLength(100).maxStringLength(10).maxNumberLength(5).build();
+
+    @Test
+    void testByteArrayRange() throws IOException {
+        final byte[] bytes = "xx[1,\"abc\"]yy".getBytes(StandardCharsets.UTF_8);
+        SizeLimiter.check(CONSTRAINTS, bytes, 2, 9);
+        SizeLimiter.create(CONSTRAINTS).check(bytes, 2, 9);
+        assertThrows(IOException.class, () -> SizeLimiter.check(CONSTRAINTS, bytes, 2, 8));
+        assertThrows(IndexOutOfBoundsException.class, () -> SizeLimiter.check(CONSTRAINTS, bytes, 10, 9));
+        assertThrows(NumberFormatException.class, () ->
+                SizeLimiter.check(CONSTRAINTS, "[123456]".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IllegalStateException.class, () -> SizeLimiter.check(CONSTRAINTS, new byte[101]));
+    }
+
+    @Test
+    void testByteBuffers() throws IOException {
+        final byte[] json = "{\"a\":[true,\"\u00e9\"]}".getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(json.length + 2);
+        direct.put((byte) '#').put(json).put((byte) '#').flip();
+        direct.position(1).limit(json.length + 1);
+        final ByteBuffer heap = ByteBuffer.wrap(("#" + new String(json, StandardCharsets.UTF_8) + "#")
+                .getBytes(StandardCharsets.UTF_8), 1, json.length).slice();
+        for (ByteBuffer buffer : new ByteBuffer[]{direct, heap}) {
+            SizeLimiter.check(CONSTRAINTS, buffer);
+            assertEquals(buffer == direct ? 1 : 0, buffer.position());
+            assertEquals(json.length, buffer.remaining());
+            buffer.limit(buffer.limit() - 1);
+            assertThrows(IOException.class, () -> SizeLimiter.check(CONSTRAINTS, buffer));
+            buffer.limit(buffer.limit() + 1);
+        }
+        final ByteBuffer longString = ByteBuffer.allocateDirect(20);
+        longString.put("[\"12345678901\"]".getBytes(StandardCharsets.UTF_8)).flip();
+        assertThrows(IllegalStateException.class, () -> SizeLimiter.check(CONSTRAINTS, longString));
+        final ByteBuffer utf16 = ByteBuffer.allocateDirect(40);
+        utf16.put("[\"12345678901\"]".getBytes(StandardCharsets.UTF_16BE)).flip();
+        assertThrows(IllegalStateException.class, () -> SizeLimiter.check(CONSTRAINTS, utf16));
+    }
+
+    @Test
+    void testCharSequences() throws IOException {
+        final String json = "{\"a\":[false,\"\u00e9\"]}";
+        final CharBuffer wrapped = CharBuffer.wrap(("#" + json).toCharArray(), 1, json.length());
+        for (CharSequence input : new CharSequence[]{
+                json, new StringBuilder(json), wrapped, CharBuffer.wrap(new StringBuilder(json))}) {
+            SizeLimiter.check(CONSTRAINTS, input);
+            assertThrows(IOException.class, () ->
+                    SizeLimiter.check(CONSTRAINTS, input.subSequence(0, input.length() - 1)));
+        }
+        assertEquals(1, wrapped.position());
+        assertThrows(IllegalStateException.class, () ->
+                SizeLimiter.check(CONSTRAINTS, new StringBuilder("[\"12345678901\"]")));
+    }
+
+    @Test
+    void testTotalLengthUnits() throws IOException {
+        // 4 chars, but 6 bytes in UTF-8
+        final String json = "\"\u00e9\u00e9\"";
+        final StreamReadConstraints constraints = StreamReadConstraints.builder().maxTotalLength(5).build();
+        SizeLimiter.check(constraints, json);
+        SizeLimiter.check(constraints, new StringBuilder(json));
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        assertThrows(IllegalStateException.class, () -> SizeLimiter.check(constraints, bytes));
+        assertThrows(IllegalStateException.class, () -> SizeLimiter.check(constraints, ByteBuffer.wrap(bytes)));
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        assertThrows(IllegalStateException.class, () -> SizeLimiter.check(constraints, direct));
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.pjfanning.json;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SizeLimiterFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSameVerdictAsStream() throws IOException {
+        final String[] inputs = {
+                "", "  ", "{}", "[1,2,3]", "\"abc\" trailing", "123", "123 456", "123x", "-", "01", "1.", "true",
+                "truex", "[true1]", "{\"a\":1}{", "[1,]", "{a:1}", "\ufeff{\"a\":1}", "\ufeff", "[\"\\x\"]",
+                "/* c */ {}", "{\"a\":\"b\"", "[", "]", "NaN", "[\"\u00e9\u20ac\ud83d\ude00\"]", "\u0000{}"
+        };
+        final StreamReadConstraints constraints = StreamReadConstraints.builder()
+                .maxNumberLength(1).maxStringLength(1).build();
+        for (String input : inputs) {
+            assertSameVerdict(StreamReadConstraints.defaults(), input.getBytes(StandardCharsets.UTF_8));
+            assertSameVerdict(constraints, input.getBytes(StandardCharsets.UTF_8));
+        }
+        assertSameVerdict(constraints, "{\"a\":\"bc\"}".getBytes(StandardCharsets.UTF_16));
+        assertSameVerdict(StreamReadConstraints.defaults(), "{\"a\":\"bc\"}".getBytes(StandardCharsets.UTF_16LE));
+    }
+
+    @Test
+    void testMappedFile() throws IOException {
+        final StringBuilder sb = new StringBuilder("[");
+        while (sb.length() < SizeLimiter.MAPPING_THRESHOLD * 2) {
+            sb.append("{\"name\":\"value\",\"n\":12345},");
+        }
+        sb.append("\"").append("x".repeat(2000)).append("\"]");
+        final byte[] json = sb.toString().getBytes(StandardCharsets.UTF_8);
+        assertSameVerdict(StreamReadConstraints.defaults(), json);
+        assertSameVerdict(StreamReadConstraints.builder().maxStringLength(1999).build(), json);
+        assertSameVerdict(StreamReadConstraints.builder().maxNumberLength(4).build(), json);
+    }
+
+    @Test
+    void testSizeCheckedBeforeReading() throws IOException {
+        final Path file = tempDir.resolve("big.json");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // sparse file: nothing in it is valid JSON, but only its size should be looked at
+            channel.truncate(0L);
+            channel.position(200_000_000L);
+            channel.write(java.nio.ByteBuffer.wrap(new byte[]{'x'}));
+        }
+        final IllegalStateException e = assertThrows(IllegalStateException.class, () ->
+                SizeLimiter.check(StreamReadConstraints.defaults(), file));
+        assertEquals("Total length (200000001) exceeds the maximum length (100000000)", e.getMessage());
+    }
+
+    @Test
+    void testChannelPositionIsRespectedAndKept() throws IOException {
+        final Path file = write("xxxx{\"a\":\"bcd\"}".getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(4L);
+            SizeLimiter.check(StreamReadConstraints.defaults(), channel);
+            assertThrows(IllegalStateException.class, () ->
+                    SizeLimiter.check(StreamReadConstraints.builder().maxStringLength(2).build(), channel));
+            assertThrows(IllegalStateException.class, () ->
+                    SizeLimiter.check(StreamReadConstraints.builder().maxTotalLength(10).build(), channel));
+            assertEquals(4L, channel.position());
+        }
+    }
+
+    private void assertSameVerdict(final StreamReadConstraints constraints, final byte[] json) throws IOException {
+        final Path file = write(json);
+        final Class<?> expected = verdict(() -> SizeLimiter.check(constraints, new ByteArrayInputStream(json)));
+        assertEquals(expected, verdict(() -> SizeLimiter.check(constraints, file)),
+                () -> "verdict for " + new String(json, StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertEquals(expected, verdict(() -> SizeLimiter.create(constraints).check(channel)));
+        }
+    }
+
+    private Path write(final byte[] json) throws IOException {
+        final Path file = Files.createTempFile(tempDir, "test", ".json");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(json);
+        }
+        return file;
+    }
+
+    private static Class<?> verdict(final Executable executable) {
+        try {
+            executable.execute();
+            return null;
+        } catch (IOException e) {
+            return IOException.class;
+        } catch (Throwable t) {
+            return t.getClass();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SizeLimitingJsonFactoryTest {
+
+    @Test
+    void testCorpora() throws IOException {
+        final JsonFactory factory = new SizeLimitingJsonFactory(StreamReadConstraints.defaults());
+        for (String name : new String[]{"deep-nesting.json", "small-numbers.json", "huge-strings.json", "wide-object.json"}) {
+            final String json = TestUtils.readResource("/corpus/" + name);
+            final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            readAll(factory.createParser(json));
+            readAll(factory.createParser(bytes));
+            readAll(factory.createParser(new ByteArrayInputStream(bytes)));
+            readAll(factory.createParser(new StringReader(json)));
+        }
+    }
+
+    @Test
+    void testViolations() throws IOException {
+        final String json = TestUtils.readResource("/simple.json");
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        final JsonFactory totalLimited = new SizeLimitingJsonFactory(
+                StreamReadConstraints.builder().maxTotalLength(5).build());
+        assertThrows(IllegalStateException.class, () -> totalLimited.createParser(json));
+        assertThrows(IllegalStateException.class, () -> totalLimited.createParser(bytes));
+        assertThrows(IOException.class, () -> readAll(totalLimited.createParser(new ByteArrayInputStream(bytes))));
+        assertThrows(IOException.class, () -> readAll(totalLimited.createParser(new StringReader(json))));
+        final JsonFactory numberLimited = new SizeLimitingJsonFactory(
+                StreamReadConstraints.builder().maxNumberLength(1).build());
+        assertThrows(NumberFormatException.class, () -> readAll(numberLimited.createParser(json)));
+        final JsonFactory stringLimited = new SizeLimitingJsonFactory(
+                StreamReadConstraints.builder().maxStringLength(1).build());
+        assertThrows(IllegalStateException.class, () -> readAll(stringLimited.createParser(bytes)));
+    }
+
+    @Test
+    void testConvenienceMethodsAreValidated() throws IOException {
+        final JsonFactory factory = new SizeLimitingJsonFactory(
+                StreamReadConstraints.builder().maxStringLength(3).build());
+        try (JsonParser parser = factory.createParser("{\"a\":{\"b\":[\"long value\"]},\"c\":1}")) {
+            assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+            assertEquals("a", parser.nextFieldName());
+            assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+            assertThrows(IllegalStateException.class, parser::skipChildren);
+        }
+        try (JsonParser parser = factory.createParser("[\"abc\",\"abcd\"]")) {
+            assertEquals(JsonToken.START_ARRAY, parser.nextToken());
+            assertEquals("abc", parser.nextTextValue());
+            assertThrows(IllegalStateException.class, parser::nextTextValue);
+        }
+        try (JsonParser parser = factory.createParser("{\"a\":\"abcd\"}")) {
+            assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+            assertThrows(IllegalStateException.class, parser::nextValue);
+        }
+    }
+
+    @Test
+    void testMultipleRootValues() throws IOException {
+        final JsonFactory factory = new SizeLimitingJsonFactory(
+                StreamReadConstraints.builder().maxNumberLength(2).build());
+        try (JsonParser parser = factory.createParser("{\"a\":12} [34] 56 789")) {
+            assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+            parser.skipChildren();
+            assertEquals(JsonToken.START_ARRAY, parser.nextToken());
+            parser.skipChildren();
+            assertEquals(JsonToken.VALUE_NUMBER_INT, parser.nextToken());
+            assertThrows(NumberFormatException.class, parser::nextToken);
+        }
+    }
+
+    @Test
+    void testCopy() {
+        final StreamReadConstraints constraints = StreamReadConstraints.builder().maxStringLength(3).build();
+        final JsonFactory copy = new SizeLimitingJsonFactory(constraints).copy();
+        assertInstanceOf(SizeLimitingJsonFactory.class, copy);
+        assertSame(constraints, ((SizeLimitingJsonFactory) copy).getConstraints());
+    }
+
+    private static void readAll(final JsonParser parser) throws IOException {
+        try (JsonParser p = parser) {
+            while (p.nextToken() != null) {
+                // read every token
+            }
+            assertNull(p.currentToken());
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.github.pjfanning.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SizeProfileTest {
+
+    private static final String DOCUMENT = "{\"id\":\"abcd\",\"list\":[1,2,3],\"nested\":{\"value\":12345}}";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testHistogram() {
+        for (int i = 0; i < 480; i++) {
+            final long highest = SizeHistogram.highestValue(i);
+            assertEquals(i, SizeHistogram.bucket(highest));
+            assertEquals(i + 1, SizeHistogram.bucket(highest + 1));
+        }
+        assertEquals(487, SizeHistogram.bucket(Long.MAX_VALUE));
+
+        final SizeHistogram histogram = new SizeHistogram();
+        assertEquals(0L, histogram.getValueAtPercentile(99.0));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        final long median = histogram.getValueAtPercentile(50.0);
+        assertTrue(median >= 500 && median <= 500 * 1.125, String.valueOf(median));
+        final long p99 = histogram.getValueAtPercentile(99.0);
+        assertTrue(p99 >= 990 && p99 <= 1000, String.valueOf(p99));
+        assertEquals(1000L, histogram.getValueAtPercentile(100.0));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(0.0));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(Double.NaN));
+
+        final SizeHistogram other = new SizeHistogram();
+        other.record(1_000_000);
+        histogram.add(other);
+        assertEquals(1001L, histogram.getCount());
+        assertEquals(1_000_000L, histogram.getMax());
+        assertEquals(1_000_000L, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    void testRecordsLargestValues() throws IOException {
+        final SizeProfile profile = new SizeProfile();
+        final SizeLimiter limiter = SizeLimiter.createProfiling(StreamReadConstraints.defaults(), profile);
+        limiter.check(DOCUMENT);
+        assertEquals(1L, profile.getCount());
+        assertEquals(DOCUMENT.length(), profile.getHistogram(Constraint.TOTAL_LENGTH).getMax());
+        assertEquals(4L, profile.getHistogram(Constraint.STRING_LENGTH).getMax());
+        assertEquals(5L, profile.getHistogram(Constraint.NUMBER_LENGTH).getMax());
+        assertEquals(6L, profile.getHistogram(Constraint.NAME_LENGTH).getMax());
+        assertEquals(2L, profile.getHistogram(Constraint.NESTING_DEPTH).getMax());
+        assertEquals(3L, profile.getHistogram(Constraint.OBJECT_ENTRIES).getMax());
+        assertEquals(3L, profile.getHistogram(Constraint.ARRAY_ELEMENTS).getMax());
+        assertEquals(15L, profile.getHistogram(Constraint.TOKEN_COUNT).getMax());
+        assertEquals(0L, profile.getHistogram(Constraint.COMPRESSION_RATIO).getCount());
+
+        // every kind of input is recorded
+        final byte[] bytes = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+        limiter.check(new StringBuilder(DOCUMENT));
+        limiter.check(bytes);
+        limiter.check(new ByteArrayInputStream(bytes));
+        limiter.check(ByteBuffer.allocateDirect(bytes.length).put(bytes).flip());
+        limiter.check(Files.write(tempDir.resolve("document.json"), bytes));
+        limiter.check(new ByteArrayInputStream(gzip(bytes)), Compression.GZIP);
+        assertEquals(7L, profile.getCount());
+        assertEquals(7L, profile.getHistogram(Constraint.STRING_LENGTH).getCount());
+        assertEquals(5L, profile.getHistogram(Constraint.NUMBER_LENGTH).getValueAtPercentile(100.0));
+        assertEquals(1L, profile.getHistogram(Constraint.COMPRESSION_RATIO).getCount());
+    }
+
+    @Test
+    void testRecordsViolations() {
+        final SizeProfile profile = new SizeProfile();
+        final SizeLimiter limiter = SizeLimiter.createProfiling(
+                StreamReadConstraints.builder().maxStringLength(10).build(), profile);
+        final ValidationResult result = limiter.validate("[\"" + "x".repeat(20) + "\",\"" + "y".repeat(30) + "\"]");
+        assertEquals(Constraint.STRING_LENGTH, result.getConstraint());
+        assertEquals(20L, profile.getHistogram(Constraint.STRING_LENGTH).getMax());
+        assertFalse(limiter.validate("[1,").isValid());
+        assertEquals(2L, profile.getCount());
+    }
+
+    @Test
+    void testBinaryNumbersAreMeasured() throws IOException {
+        final SizeProfile profile = new SizeProfile();
+        final SizeLimiter limiter = SizeLimiter.createProfiling(StreamReadConstraints.defaults(), new SmileFactory(),
+                profile);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator generator = new SmileFactory().createGenerator(bytes)) {
+            generator.writeStartArray();
+            generator.writeNumber(1.5);
+            generator.writeNumber(new BigDecimal("123.456"));
+            generator.writeEndArray();
+        }
+        assertTrue(limiter.validate(bytes.toByteArray()).isValid());
+        assertEquals(7L, profile.getHistogram(Constraint.NUMBER_LENGTH).getMax());
+    }
+
+    @Test
+    void testSuggest() throws IOException {
+        final SizeProfile profile = new SizeProfile();
+        final SizeLimiter limiter = SizeLimiter.createProfiling(StreamReadConstraints.defaults(), profile);
+        for (int i = 0; i < 999; i++) {
+            limiter.check("[\"" + "x".repeat(i % 100) + "\"]");
+        }
+        limiter.check("[\"" + "x".repeat(100_000) + "\"]");
+
+        final SizeProfile merged = new SizeProfile();
+        merged.add(profile);
+        assertEquals(1000L, merged.getCount());
+
+        final StreamReadConstraints suggested = merged.suggest(99.0, 2.0).build();
+        assertTrue(suggested.getMaxStringLength() >= 2 * 95 && suggested.getMaxStringLength() <= 2 * 99 * 1.125,
+                String.valueOf(suggested.getMaxStringLength()));
+        assertEquals(2, suggested.getMaxNestingDepth());
+        assertEquals(2, suggested.getMaxArrayElements());
+        assertEquals(StreamReadConstraints.DEFAULT_MAX_COMPRESSION_RATIO, suggested.getMaxCompressionRatio());
+        assertEquals(100_000, merged.suggest(100.0, 1.0).build().getMaxStringLength());
+        assertThrows(IllegalArgumentException.class, () -> merged.suggest(99.0, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> merged.suggest(101.0, 1.0));
+        assertThrows(NullPointerException.class, () -> SizeLimiter.createProfiling(
+                StreamReadConstraints.defaults(), null));
+    }
+
+    @Test
+    void testSuggestFromSmallValues() throws IOException {
+        final SizeProfile profile = new SizeProfile();
+        final SizeLimiter limiter = SizeLimiter.createProfiling(StreamReadConstraints.defaults(), profile);
+        // a small body grows when it is compressed
+        final byte[] small = gzip("{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+        limiter.check(new ByteArrayInputStream(small), Compression.GZIP);
+        assertEquals(1L, profile.getHistogram(Constraint.COMPRESSION_RATIO).getMax());
+        final StreamReadConstraints compressed = profile.suggest(99.0, 2.0).build();
+        assertEquals(2, compressed.getMaxCompressionRatio());
+        SizeLimiter.create(compressed).check(new ByteArrayInputStream(small), Compression.GZIP);
+
+        // scalars only: no strings, numbers, containers or names
+        final SizeProfile scalars = new SizeProfile();
+        SizeLimiter.createProfiling(StreamReadConstraints.defaults(), scalars).check("true");
+        final StreamReadConstraints suggested = scalars.suggest(99.0, 2.0).build();
+        assertEquals(StreamReadConstraints.DEFAULT_MAX_DEPTH, suggested.getMaxNestingDepth());
+        assertEquals(StreamReadConstraints.DEFAULT_MAX_STRING_LEN, suggested.getMaxStringLength());
+        assertEquals(StreamReadConstraints.DEFAULT_MAX_NAME_LEN, suggested.getMaxNameLength());
+        assertEquals(8, suggested.getMaxTotalLength());
+        SizeLimiter.check(suggested, "\"x\"");
+    }
+
+    private static byte[] gzip(final byte[] data) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.pjfanning.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StringBuildingLimiterTest {
+
+    @Test
+    void testReturnsWholeInput() throws IOException {
+        final String text = TestUtils.readResource("/simple.json") + "\n";
+        assertEquals(text, StringBuildingLimiter.check(StreamReadConstraints.defaults(), new StringReader(text)));
+        assertEquals(text, StringBuildingLimiter.check(StreamReadConstraints.defaults(),
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testNullCharsetUsesPlatformDefault() throws IOException {
+        final String text = TestUtils.readResource("/simple.json");
+        assertEquals(text, StringBuildingLimiter.check(StreamReadConstraints.defaults(),
+                new ByteArrayInputStream(text.getBytes(Charset.defaultCharset())), null));
+    }
+
+    @Test
+    void testLargeInputIsCapturedInFull() throws IOException {
+        final String text = TestUtils.readResource("/corpus/huge-strings.json");
+        assertEquals(text, StringBuildingLimiter.check(StreamReadConstraints.defaults(), new StringReader(text)));
+    }
+
+    @Test
+    void testViolations() throws IOException {
+        final String text = TestUtils.readResource("/simple.json");
+        assertThrows(IOException.class, () ->
+                StringBuildingLimiter.check(StreamReadConstraints.builder().maxTotalLength(5).build(),
+                        new StringReader(text)));
+        assertThrows(NumberFormatException.class, () ->
+                StringBuildingLimiter.check(StreamReadConstraints.builder().maxNumberLength(1).build(),
+                        new StringReader(text)));
+        assertThrows(IllegalStateException.class, () ->
+                StringBuildingLimiter.check(StreamReadConstraints.builder().maxStringLength(1).build(),
+                        new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testFailsBeforeReadingEverything() {
+        final CountingReader reader = new CountingReader("{\"a\":\"" + repeat('x', 10_000) + "\",\"b\":", 50_000_000);
+        assertThrows(IllegalStateException.class, () ->
+                StringBuildingLimiter.check(StreamReadConstraints.builder().maxStringLength(100).build(), reader));
+        assertTrue(reader.count < 100_000, "read " + reader.count + " chars");
+    }
+
+    private static String repeat(final char c, final int count) {
+        final StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reader that returns a prefix followed by whitespace, up to a total length.
+     */
+    private static class CountingReader extends Reader {
+        private final String prefix;
+        private final long length;
+        private long count;
+
+        CountingReader(final String prefix, final long length) {
+            this.prefix = prefix;
+            this.length = length;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (count >= length) {
+                return -1;
+            }
+            final int n = (int) Math.min(len, length - count);
+            for (int i = 0; i < n; i++) {
+                cbuf[off + i] = count < prefix.length() ? prefix.charAt((int) count) : ' ';
+                count++;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.github.pjfanning.json;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Differential tests: the byte scanner must reach the same verdict as the Jackson based {@link SizeLimiter}.
+ */
+class Utf8ScanningLimiterTest {
+
+    private static final String[] CORPORA = {
+            "deep-nesting.json", "small-numbers.json", "huge-strings.json", "wide-object.json"
+    };
+
+    private static final byte[] MUTATIONS = {
+            '{', '}', '[', ']', ',', ':', '"', '\\', ' ', '\n', '\t', '0', '1', '9', '-', '+', '.', 'e', 'E',
+            't', 'r', 'u', 'f', 'n', 'x', '/', '#', '$', ';', 0x00, 0x01, 0x1F, 0x7F,
+            (byte) 0x80, (byte) 0xBF, (byte) 0xC3, (byte) 0xA9, (byte) 0xE2, (byte) 0xF0, (byte) 0xF8, (byte) 0xFF
+    };
+
+    private static final String[] STRING_PARTS = {
+            "a", "bc", "Hello", " ", "\\n", "\\\"", "\\\\", "\\/", "\\u00e9", "\\ud83d\\ude00", "\u00e9", "\u20ac",
+            "\ud83d\ude00", "0123456789abcdef"
+    };
+
+    @Test
+    void testCorpora() throws IOException {
+        for (String name : CORPORA) {
+            final byte[] json = TestUtils.readResource("/corpus/" + name).getBytes(StandardCharsets.UTF_8);
+            Utf8ScanningLimiter.check(StreamReadConstraints.defaults(), json);
+            Utf8ScanningLimiter.check(StreamReadConstraints.defaults(), new ByteArrayInputStream(json));
+            assertSameVerdict(StreamReadConstraints.builder().maxStringLength(1000).build(), json);
+            assertSameVerdict(StreamReadConstraints.builder().maxNumberLength(5).build(), json);
+        }
+    }
+
+    @Test
+    void testSimpleViolations() throws IOException {
+        final byte[] json = TestUtils.readResource("/simple.json").getBytes(StandardCharsets.UTF_8);
+        assertThrows(IllegalStateException.class, () ->
+                Utf8ScanningLimiter.check(StreamReadConstraints.builder().maxTotalLength(5).build(), json));
+        assertThrows(IOException.class, () ->
+                Utf8ScanningLimiter.check(StreamReadConstraints.builder().maxTotalLength(5).build(),
+                        new ByteArrayInputStream(json)));
+        assertThrows(NumberFormatException.class, () ->
+                Utf8ScanningLimiter.check(StreamReadConstraints.builder().maxNumberLength(1).build(), json));
+        assertThrows(IllegalStateException.class, () ->
+                Utf8ScanningLimiter.check(StreamReadConstraints.builder().maxStringLength(1).build(), json));
+    }
+
+    @Test
+    void testStringLengthsInChars() {
+        // 2, 3 and 4 byte UTF-8 sequences decode to 1, 1 and 2 chars; escapes decode to 1 char each
+        final byte[] json = "[\"\u00e9\u20ac\ud83d\ude00\\n\\u0041\"]".getBytes(StandardCharsets.UTF_8);
+        assertDoesNotThrow(() ->
+                Utf8ScanningLimiter.check(StreamReadConstraints.builder().maxStringLength(6).build(), json));
+        assertThrows(IllegalStateException.class, () ->
+                Utf8ScanningLimiter.check(StreamReadConstraints.builder().maxStringLength(5).build(), json));
+        assertSameVerdict(StreamReadConstraints.builder().maxStringLength(5).build(), json);
+    }
+
+    @Test
+    void testEdgeCases() {
+        final String[] inputs = {
+                "", "  ", "{}", "[]", "[1,2,3]", "[{}, {\"a\": [1]}, 3]", "\"abc\"", "\"abc\" trailing", "123",
+                "123 456", "123x", "-", "-0", "-01", "01", "0.5", "1.", "1.e5", "1e", "1e+", "1E-7", "+1", ".5",
+                "true", "truex", "true]", "true:", "tru", "nul", "[true1]", "[true,false,null]", "true\u00e9",
+                "{\"a\":1}{", "{\"a\":1,}", "[1,]", "[,1]", "{,}", "{\"a\" 1}", "{a:1}", "{'a':1}", "[1 2]",
+                "\ufeff{\"a\":1}", "\ufeff", "[\"\\x\"]", "[\"\\u12G4\"]", "[\"a\tb\"]", "/* c */ {}", "# c\n{}",
+                "{\"a\":\"b\"", "[", "{", "{\"a\"", "{\"a\":", "]", "}", ",", "NaN", "[-Infinity]", "\u0000{}"
+        };
+        for (String input : inputs) {
+            final byte[] json = input.getBytes(StandardCharsets.UTF_8);
+            assertSameVerdict(StreamReadConstraints.defaults(), json);
+            assertSameVerdict(StreamReadConstraints.builder().maxNumberLength(1).maxStringLength(1).build(), json);
+        }
+    }
+
+    @Test
+    void testRandomDocuments() {
+        final Random random = new Random(1234);
+        for (int i = 0; i < 3000; i++) {
+            final StringBuilder sb = new StringBuilder();
+            appendValue(random, sb, 0);
+            final byte[] json = sb.toString().getBytes(StandardCharsets.UTF_8);
+            final StreamReadConstraints constraints = StreamReadConstraints.builder()
+                    .maxStringLength(random.nextInt(40))
+                    .maxNumberLength(random.nextInt(12))
+                    .build();
+            assertSameVerdict(StreamReadConstraints.defaults(), json);
+            assertSameVerdict(constraints, json);
+            for (int m = 0; m < 5; m++) {
+                assertSameVerdict(constraints, mutate(random, json));
+            }
+        }
+    }
+
+    @Test
+    void testStructuralLimits() {
+        final Random random = new Random(4321);
+        for (int i = 0; i < 3000; i++) {
+            final StringBuilder sb = new StringBuilder();
+            appendValue(random, sb, 0);
+            final byte[] json = sb.toString().getBytes(StandardCharsets.UTF_8);
+            final StreamReadConstraints constraints = StreamReadConstraints.builder()
+                    .maxStringLength(random.nextInt(40))
+                    .maxNumberLength(random.nextInt(12))
+                    .maxNestingDepth(random.nextInt(6))
+                    .maxTokenCount(random.nextInt(60))
+                    .maxObjectEntries(random.nextInt(5))
+                    .maxArrayElements(random.nextInt(5))
+                    .maxNameLength(random.nextInt(40))
+                    .build();
+            assertSameFailure(constraints, json);
+            for (int m = 0; m < 5; m++) {
+                assertSameFailure(constraints, mutate(random, json));
+            }
+        }
+    }
+
+    @Test
+    void testStreamsAcrossChunks() {
+        final Random random = new Random(5678);
+        for (int i = 0; i < 200; i++) {
+            final StringBuilder sb = new StringBuilder("[");
+            while (sb.length() < 30_000) {
+                if (sb.length() > 1) {
+                    sb.append(',');
+                }
+                appendValue(random, sb, 0);
+            }
+            sb.append(']');
+            final byte[] json = mutate(random, sb.toString().getBytes(StandardCharsets.UTF_8));
+            final StreamReadConstraints constraints = StreamReadConstraints.builder()
+                    .maxTotalLength(10_000 + random.nextInt(30_000))
+                    .maxStringLength(20 + random.nextInt(40))
+                    .build();
+            assertEquals(
+                    verdict(() -> SizeLimiter.check(constraints, new ByteArrayInputStream(json))),
+                    verdict(() -> Utf8ScanningLimiter.check(constraints, new ByteArrayInputStream(json))),
+                    () -> new String(json, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void assertSameVerdict(final StreamReadConstraints constraints, final byte[] json) {
+        final Class<?> expected = verdict(() -> SizeLimiter.check(constraints, new ByteArrayInputStream(json)));
+        assertEquals(expected, verdict(() -> Utf8ScanningLimiter.check(constraints, json)),
+                () -> "byte[] verdict for " + Arrays.toString(json));
+        assertEquals(expected, verdict(() -> Utf8ScanningLimiter.check(constraints, new ByteArrayInputStream(json))),
+                () -> "stream verdict for " + Arrays.toString(json));
+    }
+
+    /**
+     * Like {@link #assertSameVerdict(StreamReadConstraints, byte[])}, but constraint violations must have the
+     * same message too, so that the limits are checked in the same order. Each check uses a new factory:
+     * Jackson does not decode names that are in its symbol table, and pads short names with 0xFF bytes, so
+     * an invalid name like <code>"\xFF\u20AC"</code> passes once <code>"\u20AC"</code> has been seen.
+     */
+    private static void assertSameFailure(final StreamReadConstraints constraints, final byte[] json) {
+        final String expected = failure(() -> SizeLimiter.create(constraints).check(new ByteArrayInputStream(json)));
+        assertEquals(expected, failure(() -> Utf8ScanningLimiter.check(constraints, json)),
+                () -> "byte[] failure for " + new String(json, StandardCharsets.UTF_8));
+    }
+
+    private static String failure(final Executable executable) {
+        final Class<?> verdict = verdict(executable);
+        if (verdict == null || verdict == IOException.class) {
+            return String.valueOf(verdict);
+        }
+        return assertThrows(RuntimeException.class, executable).getMessage();
+    }
+
+    private static Class<?> verdict(final Executable executable) {
+        try {
+            executable.execute();
+            return null;
+        } catch (IOException e) {
+            return IOException.class;
+        } catch (Throwable t) {
+            return t.getClass();
+        }
+    }
+
+    static byte[] mutate(final Random random, final byte[] json) {
+        byte[] result = json;
+        final int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count && result.length > 0; i++) {
+            final int index = random.nextInt(result.length);
+            final byte b = MUTATIONS[random.nextInt(MUTATIONS.length)];
+            switch (random.nextInt(4)) {
+                case 0:
+                    result = result.clone();
+                    result[index] = b;
+                    break;
+                case 1: {
+                    final byte[] inserted = new byte[result.length + 1];
+                    System.arraycopy(result, 0, inserted, 0, index);
+                    inserted[index] = b;
+                    System.arraycopy(result, index, inserted, index + 1, result.length - index);
+                    result = inserted;
+                    break;
+                }
+                case 2: {
+                    final byte[] deleted = new byte[result.length - 1];
+                    System.arraycopy(result, 0, deleted, 0, index);
+                    System.arraycopy(result, index + 1, deleted, index, result.length - index - 1);
+                    result = deleted;
+                    break;
+                }
+                default:
+                    result = Arrays.copyOf(result, index);
+                    break;
+            }
+        }
+        return result;
+    }
+
+    static void appendValue(final Random random, final StringBuilder sb, final int depth) {
+        switch (random.nextInt(depth > 3 ? 3 : 5)) {
+            case 0:
+                appendString(random, sb);
+                break;
+            case 1:
+                appendNumber(random, sb);
+                break;
+            case 2:
+                sb.append(random.nextBoolean() ? "true" : random.nextBoolean() ? "false" : "null");
+                break;
+            case 3: {
+                sb.append('{');
+                final int count = random.nextInt(5);
+                for (int i = 0; i < count; i++) {
+                    if (i > 0) {
+                        sb.append(random.nextBoolean() ? "," : " ,\n ");
+                    }
+                    appendString(random, sb);
+                    sb.append(random.nextBoolean() ? ":" : " : ");
+                    appendValue(random, sb, depth + 1);
+                }
+                sb.append('}');
+                break;
+            }
+            default: {
+                sb.append('[');
+                final int count = random.nextInt(5);
+                for (int i = 0; i < count; i++) {
+                    if (i > 0) {
+                        sb.append(random.nextBoolean() ? "," : ",\t");
+                    }
+                    appendValue(random, sb, depth + 1);
+                }
+                sb.append(']');
+                break;
+            }
+        }
+    }
+
+    private static void appendString(final Random random, final StringBuilder sb) {
+        sb.append('"');
+        final int parts = random.nextInt(8);
+        for (int i = 0; i < parts; i++) {
+            sb.append(STRING_PARTS[random.nextInt(STRING_PARTS.length)]);
+        }
+        sb.append('"');
+    }
+
+    private static void appendNumber(final Random random, final StringBuilder sb) {
+        if (random.nextBoolean()) {
+            sb.append('-');
+        }
+        sb.append(random.nextInt(4) == 0 ? 0 : random.nextInt(Integer.MAX_VALUE) >> random.nextInt(31));
+        if (random.nextBoolean()) {
+            sb.append('.').append(random.nextInt(100_000));
+        }
+        if (random.nextInt(4) == 0) {
+            sb.append(random.nextBoolean() ? 'e' : 'E');
+            if (random.nextBoolean()) {
+                sb.append(random.nextBoolean() ? '+' : '-');
+            }
+            sb.append(random.nextInt(300));
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.pjfanning.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidatingProcessorTest {
+
+    @Test
+    void testForwardsChunksAndDemand() throws IOException {
+        final ValidatingProcessor processor = SizeLimiter.create(StreamReadConstraints.defaults())
+                .createValidatingProcessor();
+        final RecordingSubscription upstream = new RecordingSubscription();
+        final RecordingSubscriber downstream = new RecordingSubscriber();
+        processor.subscribe(downstream);
+        downstream.subscription.request(2);
+        processor.onSubscribe(upstream);
+        assertEquals(2, upstream.requested);
+
+        final ByteBuffer first = chunk("{\"a\":[1,");
+        final ByteBuffer second = chunk("2]}");
+        processor.onNext(first);
+        processor.onNext(second);
+        processor.onComplete();
+
+        assertEquals(2, downstream.items.size());
+        assertSame(first, downstream.items.get(0));
+        assertEquals(0, first.position());
+        assertTrue(downstream.completed);
+        assertNull(downstream.error);
+    }
+
+    @Test
+    void testViolationCancelsUpstream() throws IOException {
+        final ValidatingProcessor processor = SizeLimiter.create(
+                StreamReadConstraints.builder().maxStringLength(2).build()).createValidatingProcessor();
+        final RecordingSubscription upstream = new RecordingSubscription();
+        final RecordingSubscriber downstream = new RecordingSubscriber();
+        processor.onSubscribe(upstream);
+        processor.subscribe(downstream);
+        downstream.subscription.request(Long.MAX_VALUE);
+
+        processor.onNext(chunk("{\"a\":\"ab"));
+        processor.onNext(chunk("c\"}"));
+        processor.onComplete();
+
+        assertEquals(1, downstream.items.size());
+        assertTrue(upstream.cancelled);
+        assertInstanceOf(IllegalStateException.class, downstream.error);
+        assertFalse(downstream.completed);
+    }
+
+    @Test
+    void testTruncatedBodyFailsOnComplete() throws IOException {
+        final ValidatingProcessor processor = SizeLimiter.create(StreamReadConstraints.defaults())
+                .createValidatingProcessor();
+        final RecordingSubscriber downstream = new RecordingSubscriber();
+        processor.onSubscribe(new RecordingSubscription());
+        processor.subscribe(downstream);
+        downstream.subscription.request(1);
+        processor.onNext(chunk("[1, 2"));
+        processor.onComplete();
+        assertInstanceOf(IOException.class, downstream.error);
+    }
+
+    @Test
+    void testSignalsAreSerialized() throws IOException {
+        final ValidatingProcessor processor = SizeLimiter.create(StreamReadConstraints.defaults())
+                .createValidatingProcessor();
+        final RecordingSubscription upstream = new RecordingSubscription();
+        final List<String> signals = new ArrayList<>();
+        final RecordingSubscriber downstream = new RecordingSubscriber() {
+            @Override
+            public void onNext(final ByteBuffer item) {
+                signals.add("onNext start");
+                // an invalid request while the chunk is forwarded
+                subscription.request(0);
+                signals.add("onNext end");
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                signals.add("onError");
+                super.onError(throwable);
+            }
+        };
+        processor.subscribe(downstream);
+        processor.onSubscribe(upstream);
+        downstream.subscription.request(2);
+        processor.onNext(chunk("[1,"));
+        processor.onNext(chunk("2]"));
+        processor.onComplete();
+
+        assertEquals(List.of("onNext start", "onNext end", "onError"), signals);
+        assertInstanceOf(IllegalArgumentException.class, downstream.error);
+        assertTrue(upstream.cancelled);
+        assertFalse(downstream.completed);
+    }
+
+    @Test
+    void testItemBeforeSubscriber() throws IOException {
+        final ValidatingProcessor processor = SizeLimiter.create(StreamReadConstraints.defaults())
+                .createValidatingProcessor();
+        final RecordingSubscription upstream = new RecordingSubscription();
+        processor.onSubscribe(upstream);
+        // nothing was requested, so the upstream is broken
+        processor.onNext(chunk("[1]"));
+        assertTrue(upstream.cancelled);
+
+        final RecordingSubscriber downstream = new RecordingSubscriber();
+        processor.subscribe(downstream);
+        assertTrue(downstream.items.isEmpty());
+        assertInstanceOf(IllegalStateException.class, downstream.error);
+    }
+
+    @Test
+    void testWithSubmissionPublisher() throws Exception {
+        final byte[] json = TestUtils.readResource("/corpus/wide-object.json").getBytes(StandardCharsets.UTF_8);
+        final ValidatingProcessor processor = SizeLimiter.create(StreamReadConstraints.defaults())
+                .createValidatingProcessor();
+        final RecordingSubscriber downstream = new RecordingSubscriber();
+        processor.subscribe(downstream);
+        try (SubmissionPublisher<ByteBuffer> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(processor);
+            downstream.subscription.request(Long.MAX_VALUE);
+            for (int offset = 0; offset < json.length; offset += 1000) {
+                publisher.submit(ByteBuffer.wrap(json, offset, Math.min(1000, json.length - offset)));
+            }
+        }
+        assertTrue(downstream.done.await(10, TimeUnit.SECONDS));
+        assertTrue(downstream.completed);
+        assertEquals((json.length + 999) / 1000, downstream.items.size());
+    }
+
+    private static ByteBuffer chunk(final String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class RecordingSubscription implements Flow.Subscription {
+        long requested;
+        boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requested += n;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<ByteBuffer> {
+        final List<ByteBuffer> items = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Flow.Subscription subscription;
+        volatile boolean completed;
+        volatile Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.pjfanning.json;
+
+import com.github.pjfanning.json.util.SlowReadException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidationResultTest {
+
+    private static final StreamReadConstraints CONSTRAINTS = StreamReadConstraints.builder()
+            .maxTotalLength(100).maxStringLength(10).maxNumberLength(5).maxNestingDepth(3).build();
+
+    private final SizeLimiter limiter = SizeLimiter.create(CONSTRAINTS);
+
+    @Test
+    void testViolation() throws IOException {
+        final String json = "{\"items\":[{},{},{},{\"name\":\"" + "x".repeat(11) + "\"}]}";
+        final ValidationResult[] results = {
+                limiter.validate(json),
+                limiter.validate(json.getBytes(StandardCharsets.UTF_8)),
+                limiter.validate(new StringReader(json)),
+                limiter.validate(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))
+        };
+        final IllegalStateException expected = assertThrows(IllegalStateException.class, () -> limiter.check(json));
+        for (ValidationResult result : results) {
+            assertFalse(result.isValid());
+            assertEquals(Constraint.STRING_LENGTH, result.getConstraint());
+            assertEquals(11, result.getObservedLength());
+            assertEquals(10, result.getAllowedLength());
+            assertEquals(json.indexOf("\"xx"), result.getOffset());
+            assertEquals("/items/3/name", result.getPointer());
+            assertNull(result.getFailure());
+            final IllegalStateException thrown = assertThrows(IllegalStateException.class, result::throwIfInvalid);
+            assertEquals(expected.getMessage(), thrown.getMessage());
+        }
+    }
+
+    @Test
+    void testNumberAndDepthViolations() throws IOException {
+        final ValidationResult number = limiter.validate("[1,[123456]]");
+        assertEquals(Constraint.NUMBER_LENGTH, number.getConstraint());
+        assertEquals(4, number.getOffset());
+        assertEquals("/1/0", number.getPointer());
+        assertThrows(NumberFormatException.class, number::throwIfInvalid);
+
+        // the pointer of a structure that is nested too deeply is the one of the value that starts it
+        final ValidationResult depth = limiter.validate("{\"a\":[{\"b\":[]}]}");
+        assertEquals(Constraint.NESTING_DEPTH, depth.getConstraint());
+        assertEquals(4, depth.getObservedLength());
+        assertEquals(3, depth.getAllowedLength());
+        assertEquals("/a/0/b", depth.getPointer());
+    }
+
+    @Test
+    void testTotalLength() throws IOException {
+        final String json = "[" + " ".repeat(100) + "]";
+        final ValidationResult result = limiter.validate(json);
+        assertEquals(Constraint.TOTAL_LENGTH, result.getConstraint());
+        assertEquals(102, result.getObservedLength());
+        assertEquals(100, result.getAllowedLength());
+        assertEquals("", result.getPointer());
+        final IllegalStateException expected = assertThrows(IllegalStateException.class, () -> limiter.check(json));
+        assertEquals(expected.getMessage(),
+                assertThrows(IllegalStateException.class, result::throwIfInvalid).getMessage());
+
+        // streams are only found to be too long while they are read
+        final ValidationResult stream = limiter.validate(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(Constraint.TOTAL_LENGTH, stream.getConstraint());
+        assertEquals(100, stream.getAllowedLength());
+        assertInstanceOf(IOException.class, stream.getFailure());
+        assertSame(stream.getFailure(), assertThrows(IOException.class, stream::throwIfInvalid));
+    }
+
+    @Test
+    void testSlowRead() {
+        final byte[] json = ("[" + "1,".repeat(1000) + "1]").getBytes(StandardCharsets.UTF_8);
+        final ValidationResult time = SizeLimiter.create(StreamReadConstraints.builder().maxReadTimeMillis(100).build())
+                .validate(slow(json));
+        assertEquals(Constraint.READ_TIME, time.getConstraint());
+        assertInstanceOf(SlowReadException.class, time.getFailure());
+        assertEquals(100, time.getAllowedLength());
+        assertTrue(time.getObservedLength() > 100);
+
+        final ValidationResult rate = SizeLimiter.create(StreamReadConstraints.builder().minReadRate(1000).build())
+                .validate(slow(json));
+        assertEquals(Constraint.READ_RATE, rate.getConstraint());
+        assertEquals(1000, rate.getAllowedLength());
+
+        // input that arrives fast passes
+        assertTrue(SizeLimiter.create(StreamReadConstraints.builder().maxReadTimeMillis(60_000).build())
+                .validate(new ByteArrayInputStream(json)).isValid());
+        assertThrows(IllegalArgumentException.class, () -> StreamReadConstraints.builder().minReadRate(-1));
+    }
+
+    @Test
+    void testParseFailure() {
+        final ValidationResult result = limiter.validate("{\"a\":[1,}");
+        assertFalse(result.isValid());
+        assertNull(result.getConstraint());
+        assertInstanceOf(IOException.class, result.getFailure());
+        // the parser reports where it stopped, after the unexpected char
+        assertEquals(9, result.getOffset());
+        assertEquals("/a/1", result.getPointer());
+    }
+
+    @Test
+    void testValid() throws IOException {
+        final ValidationResult result = limiter.validate("{\"items\":[1,\"two\",null]}");
+        assertTrue(result.isValid());
+        assertSame(ValidationResult.valid(), result);
+        assertNull(result.getConstraint());
+        result.throwIfInvalid();
+    }
+
+    /**
+     * @return a stream that returns one byte per read, every 20ms
+     */
+    private static InputStream slow(final byte[] data) {
+        return new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position == data.length) {
+                    return -1;
+                }
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+                return data[position++];
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                final int c = read();
+                if (c == -1) {
+                    return -1;
+                }
+                b[off] = (byte) c;
+                return 1;
+            }
+        };
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.pjfanning.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VerdictCacheTest {
+
+    private static final StreamReadConstraints CONSTRAINTS = StreamReadConstraints.builder()
+            .maxTotalLength(100_000).maxStringLength(10).build();
+
+    @Test
+    void testHashDoesNotDependOnChunks() {
+        final Random random = new Random(42);
+        for (int length = 0; length < 100; length++) {
+            final byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            final long expected = ContentHash.hash(7L, bytes, 0, length);
+            final ContentHash chunked = new ContentHash(7L);
+            int offset = 0;
+            while (offset < length) {
+                final int chunk = Math.min(length - offset, random.nextInt(12));
+                chunked.update(bytes, offset, chunk);
+                offset += chunk;
+            }
+            assertEquals(expected, chunked.finish());
+            assertNotEquals(expected, ContentHash.hash(8L, bytes, 0, length));
+        }
+        assertNotEquals(ContentHash.hash(7L, new byte[1], 0, 1), ContentHash.hash(7L, new byte[2], 0, 2));
+    }
+
+    @Test
+    void testRepeatedInputsHitTheCache() throws IOException {
+        final VerdictCache cache = VerdictCache.builder().minLength(0).build();
+        final SizeLimiter limiter = SizeLimiter.create(CONSTRAINTS, LimiterListener.NONE, cache);
+        final String valid = "{\"id\":1,\"tags\":[\"a\",\"b\"]}";
+        limiter.check(valid);
+        limiter.check(valid);
+        limiter.check(new StringBuilder(valid));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+
+        // byte[] and InputStream inputs share their verdicts, which differ from the String's
+        final byte[] bytes = valid.getBytes(StandardCharsets.UTF_8);
+        limiter.check(bytes);
+        limiter.check(new ByteArrayInputStream(bytes));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(3, cache.getHitCount());
+        assertEquals(0.6, cache.getHitRate(), 1e-9);
+
+        final String invalid = "[\"" + "x".repeat(11) + "\"]";
+        final ValidationResult first = limiter.validate(invalid);
+        assertSame(first, limiter.validate(invalid));
+        assertEquals(Constraint.STRING_LENGTH, first.getConstraint());
+        assertThrows(IllegalStateException.class, () -> limiter.check(invalid));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void testConstraintsAreSeparated() throws IOException {
+        final VerdictCache cache = VerdictCache.builder().minLength(0).build();
+        final SizeLimiter lenient = SizeLimiter.create(CONSTRAINTS.rebuild().maxStringLength(20).build(),
+                LimiterListener.NONE, cache);
+        final SizeLimiter strict = SizeLimiter.create(CONSTRAINTS, LimiterListener.NONE, cache);
+        final SizeLimiter sameAsStrict = SizeLimiter.create(StreamReadConstraints.builder()
+                .maxTotalLength(100_000).maxStringLength(10).build(), LimiterListener.NONE, cache);
+        final String json = "[\"" + "x".repeat(15) + "\"]";
+        lenient.check(json);
+        assertThrows(IllegalStateException.class, () -> strict.check(json));
+        assertThrows(IllegalStateException.class, () -> sameAsStrict.check(json));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testParseErrorsAreNotCached() {
+        final VerdictCache cache = VerdictCache.builder().minLength(0).build();
+        final SizeLimiter limiter = SizeLimiter.create(CONSTRAINTS, LimiterListener.NONE, cache);
+        assertThrows(IOException.class, () -> limiter.check("{\"a\":[1,}"));
+        assertThrows(IOException.class, () -> limiter.check("{\"a\":[1,}"));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testShortInputsAreNotCached() throws IOException {
+        final VerdictCache cache = VerdictCache.builder().minLength(10).build();
+        final SizeLimiter limiter = SizeLimiter.create(CONSTRAINTS, LimiterListener.NONE, cache);
+        limiter.check("[1,2]");
+        limiter.check("[1,2,3,4,5]");
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testEviction() throws IOException {
+        final VerdictCache cache = VerdictCache.builder().maxEntries(32).minLength(0).build();
+        final SizeLimiter limiter = SizeLimiter.create(CONSTRAINTS, LimiterListener.NONE, cache);
+        for (int i = 0; i < 1000; i++) {
+            limiter.check("[" + i + "]");
+        }
+        assertTrue(cache.size() <= 32);
+        assertEquals(1000 - cache.size(), cache.getEvictionCount());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testLongStreamsBypassTheCache() throws IOException {
+        final VerdictCache cache = VerdictCache.builder().minLength(0).maxBufferedLength(1000).build();
+        final SizeLimiter limiter = SizeLimiter.create(CONSTRAINTS, LimiterListener.NONE, cache);
+        final String longJson = "[" + "1,".repeat(1000) + "\"" + "x".repeat(11) + "\"]";
+        final byte[] bytes = longJson.getBytes(StandardCharsets.UTF_8);
+        final IllegalStateException expected = assertThrows(IllegalStateException.class,
+                () -> SizeLimiter.check(CONSTRAINTS, bytes));
+        final IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> limiter.check(new ByteArrayInputStream(bytes)));
+        assertEquals(expected.getMessage(), thrown.getMessage());
+        assertEquals(0, cache.getMissCount());
+
+        final byte[] exact = ("[" + " ".repeat(998) + "]").getBytes(StandardCharsets.UTF_8);
+        limiter.check(new ByteArrayInputStream(exact));
+        assertEquals(1, cache.getMissCount());
+
+        final SizeLimiter tight = SizeLimiter.create(CONSTRAINTS.rebuild().maxTotalLength(500).build(),
+                LimiterListener.NONE, cache);
+        assertThrows(IOException.class, () -> tight.check(new ByteArrayInputStream(exact)));
+    }
+
+    @Test
+    void testConstraintsEquality() {
+        final StreamReadConstraints copy = CONSTRAINTS.rebuild().build();
+        assertEquals(CONSTRAINTS, copy);
+        assertEquals(CONSTRAINTS.hashCode(), copy.hashCode());
+        assertEquals(StreamReadConstraints.defaults(), StreamReadConstraints.builder().build());
+        assertFalse(CONSTRAINTS.equals(CONSTRAINTS.rebuild().maxNameLength(10).build()));
+        assertFalse(CONSTRAINTS.equals(CONSTRAINTS.rebuild().maxTokenCount(10).build()));
+    }
+}
@@ -0,0 +1,214 @@
+package com.github.pjfanning.json.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SizeLimitInputTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testStreamBulkPaths() throws IOException {
+        final byte[] data = new byte[100];
+        assertArrayEquals(data, new SizeLimitInputStream(new ByteArrayInputStream(data), 100).readAllBytes());
+        assertEquals(100, new SizeLimitInputStream(new ByteArrayInputStream(data), 0)
+                .transferTo(new ByteArrayOutputStream()));
+        assertEquals(100, limited(data, Long.MAX_VALUE).read(new byte[200]));
+        assertEquals(100, limited(data, Long.MAX_VALUE).skip(200));
+
+        assertThrows(IOException.class, () -> limited(data, 50).readAllBytes());
+        assertThrows(IOException.class, () -> limited(data, 50).readNBytes(60));
+        assertThrows(IOException.class, () -> limited(data, 50).readNBytes(new byte[60], 0, 60));
+        assertThrows(IOException.class, () -> limited(data, 50).skip(100));
+        assertThrows(IOException.class, () -> limited(data, 50).transferTo(new ByteArrayOutputStream()));
+
+        final SizeLimitInputStream exact = limited(data, 50);
+        assertEquals(20, exact.skip(20));
+        assertEquals(30, exact.readNBytes(30).length);
+        assertEquals(50, exact.getRead());
+        assertThrows(IOException.class, exact::read);
+        // once the limit is exceeded, every read fails
+        assertThrows(IOException.class, () -> exact.read(new byte[10], 0, 10));
+    }
+
+    @Test
+    void testStreamReadsLittlePastTheLimit() throws IOException {
+        final ByteArrayInputStream in = new ByteArrayInputStream(new byte[1024 * 1024]);
+        final SizeLimitInputStream limited = new SizeLimitInputStream(in, 10);
+        assertThrows(IOException.class, limited::readAllBytes);
+        assertEquals(1024 * 1024 - 11, in.available());
+        assertEquals(11, limited.getRead());
+    }
+
+    @Test
+    void testStreamMarkAndReset() throws IOException {
+        final SizeLimitInputStream limited = limited(new byte[10], 10);
+        limited.mark(100);
+        assertEquals(8, limited.readNBytes(8).length);
+        limited.reset();
+        assertEquals(0, limited.getRead());
+        assertEquals(10, limited.readAllBytes().length);
+        assertEquals(10, limited.getRead());
+    }
+
+    @Test
+    void testReaderPaths() throws IOException {
+        final String text = "x".repeat(100);
+        assertThrows(IOException.class, () -> new SizeLimitReader(new StringReader(text), 50).skip(100));
+        assertThrows(IOException.class, () -> new SizeLimitReader(new StringReader(text), 50)
+                .transferTo(new StringWriter()));
+        assertThrows(IOException.class, () -> new SizeLimitReader(new StringReader(text), 50)
+                .read(CharBuffer.allocate(200)));
+
+        final CharBuffer buffer = CharBuffer.allocate(200);
+        final SizeLimitReader exact = new SizeLimitReader(new StringReader(text), 100);
+        exact.mark(200);
+        assertEquals(60, exact.skip(60));
+        exact.reset();
+        assertEquals(100, exact.read(buffer));
+        assertEquals(200, buffer.limit());
+        assertEquals(100, exact.getRead());
+
+        final StringWriter out = new StringWriter();
+        assertEquals(100, new SizeLimitReader(new StringReader(text), 0).transferTo(out));
+        assertEquals(text, out.toString());
+    }
+
+    @Test
+    void testChannel() throws IOException {
+        final SizeLimitChannel channel = new SizeLimitChannel(
+                Channels.newChannel(new ByteArrayInputStream(new byte[20])), 10);
+        final ByteBuffer buffer = ByteBuffer.allocate(100);
+        assertThrows(IOException.class, () -> channel.read(buffer));
+        assertEquals(11, buffer.position());
+        assertEquals(100, buffer.limit());
+
+        final SizeLimitChannel exact = new SizeLimitChannel(
+                Channels.newChannel(new ByteArrayInputStream(new byte[20])), 20);
+        assertEquals(20, exact.read(ByteBuffer.allocate(100)));
+        assertEquals(-1, exact.read(ByteBuffer.allocate(100)));
+        assertEquals(20, exact.getRead());
+    }
+
+    @Test
+    void testScatteringChannel() throws IOException {
+        final Path file = Files.write(tempDir.resolve("data"), new byte[30]);
+        try (SizeLimitChannel channel = new SizeLimitChannel(FileChannel.open(file, StandardOpenOption.READ), 30)) {
+            final ByteBuffer[] buffers = {ByteBuffer.allocate(10), ByteBuffer.allocate(10), ByteBuffer.allocate(10)};
+            assertEquals(30, channel.read(buffers));
+            assertEquals(-1, channel.read(new ByteBuffer[]{ByteBuffer.allocate(10)}));
+        }
+        try (SizeLimitChannel channel = new SizeLimitChannel(FileChannel.open(file, StandardOpenOption.READ), 25)) {
+            final ByteBuffer[] buffers = {ByteBuffer.allocate(20), ByteBuffer.allocate(20)};
+            assertThrows(IOException.class, () -> channel.read(buffers));
+            assertEquals(26, channel.getRead());
+        }
+    }
+
+    @Test
+    void testCapturingInputStream() throws IOException {
+        final byte[] data = new byte[100_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        final CapturingInputStream capturing = new CapturingInputStream(new ByteArrayInputStream(data), 10);
+        assertEquals(0, capturing.read());
+        assertEquals(1000, capturing.skip(1000));
+        assertEquals(50_000, capturing.readNBytes(50_000).length);
+        assertEquals(51_001, capturing.getCapturedLength());
+        assertArrayEquals(Arrays.copyOf(data, 51_001), capturing.getCaptured());
+        assertArrayEquals(Arrays.copyOf(data, 51_001), capturing.getCapturedInputStream().readAllBytes());
+        capturing.readAllBytes();
+        assertArrayEquals(data, capturing.getCapturedInputStream().readAllBytes());
+    }
+
+    @Test
+    void testReadBudget() throws IOException {
+        final byte[] data = new byte[100_000];
+        // fast input is only timed every few reads
+        assertArrayEquals(data, new SizeLimitInputStream(new ByteArrayInputStream(data), 0,
+                new ReadBudget(60_000, 1, "bytes")).readAllBytes());
+
+        final SlowReadException time = assertThrows(SlowReadException.class, () ->
+                new SizeLimitInputStream(new SlowInputStream(data), 0, new ReadBudget(100, 0, "bytes"))
+                        .readAllBytes());
+        assertTrue(time.getMessage().startsWith("Read time ("), time.getMessage());
+        assertEquals(100, time.getAllowed());
+        assertTrue(time.getObserved() > 100);
+
+        final SlowReadException rate = assertThrows(SlowReadException.class, () ->
+                new SizeLimitReader(new InputStreamReader(new SlowInputStream(data), StandardCharsets.US_ASCII), 0,
+                        new ReadBudget(0, 1000, "chars")).transferTo(new StringWriter()));
+        assertTrue(rate.getMessage().startsWith("Read rate ("), rate.getMessage());
+        assertTrue(rate.getObserved() < 1000);
+
+        assertThrows(IllegalArgumentException.class, () -> new ReadBudget(-1, 0, "bytes"));
+    }
+
+    private static SizeLimitInputStream limited(final byte[] data, final long limit) {
+        return new SizeLimitInputStream(new ByteArrayInputStream(data), limit);
+    }
+
+    /**
+     * Returns one byte per read, every 20ms.
+     */
+    static final class SlowInputStream extends InputStream {
+        private final byte[] data;
+        private int position;
+
+        SlowInputStream(final byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == data.length) {
+                return -1;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            return data[position++] & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            final int c = read();
+            if (c == -1) {
+                return -1;
+            }
+            b[off] = (byte) c;
+            return 1;
+        }
+    }
+}